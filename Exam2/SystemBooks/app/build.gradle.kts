@@ -1,5 +1,7 @@
 plugins {
     alias(libs.plugins.android.application)
+    // Genera el Baseline Profile con :macrobenchmark y lo incluye en la variante release
+    alias(libs.plugins.androidx.baselineprofile)
     // Apply the Google services Gradle plugin
     id("com.google.gms.google-services")
 }
@@ -45,6 +47,9 @@ dependencies {
     implementation(libs.constraintlayout)
     implementation(libs.swiperefreshlayout)
     implementation("androidx.core:core-ktx:1.12.0")
+    // Instala el Baseline Profile al instalar la app fuera de Play Store
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":macrobenchmark"))
     
     // Glide para carga de imágenes
     implementation("com.github.bumptech.glide:glide:4.16.0")
@@ -18,7 +18,6 @@ import com.example.systembooks.firebase.FirebaseAuthRepository;
 import com.example.systembooks.firebase.FirebaseLoginFragment;
 import com.example.systembooks.firebase.FirebaseManager;
 import com.example.systembooks.firebase.FirebaseRegisterFragment;
-import com.example.systembooks.firebase.NotificationHelper;
 import com.example.systembooks.fragment.AccessDeniedFragment;
 import com.example.systembooks.fragment.LoginFragment;
 import com.example.systembooks.fragment.ProfileFragment;
@@ -35,8 +34,8 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
     private SessionManager sessionManager;
     private ApiRepository apiRepository;
     private RoleManager roleManager;
+    // Se crea al cerrar una sesión de Firebase: construirlo inicializa Auth y Firestore
     private FirebaseAuthRepository firebaseAuthRepository;
-    private NotificationHelper notificationHelper;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,8 +46,6 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         sessionManager = new SessionManager(this);
         apiRepository = new ApiRepository(this);
         roleManager = new RoleManager(this);
-        firebaseAuthRepository = new FirebaseAuthRepository(this);
-        notificationHelper = new NotificationHelper(this);
         
         // Set up toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -201,6 +198,9 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         // Verificar el tipo de autenticación
         if (sessionManager.isFirebaseAuth()) {
             // Logout de Firebase
+            if (firebaseAuthRepository == null) {
+                firebaseAuthRepository = new FirebaseAuthRepository(this);
+            }
             firebaseAuthRepository.signOut();
         } else {
             // Logout de API
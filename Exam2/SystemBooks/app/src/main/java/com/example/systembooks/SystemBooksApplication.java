@@ -1,17 +1,77 @@
 package com.example.systembooks;
 
 import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.Build;
+import android.os.StrictMode;
+import android.util.Log;
 
 import com.example.systembooks.firebase.FirebaseManager;
+import com.example.systembooks.utils.AppExecutors;
+import com.example.systembooks.utils.HomeWarmupScheduler;
+import com.example.systembooks.utils.StartupTrace;
 
-public class SystemBooksApplication extends Application {    @Override
+public class SystemBooksApplication extends Application {
+    private static final String TAG = "SystemBooksApplication";
+
+    @Override
     public void onCreate() {
         super.onCreate();
+        StartupTrace.markProcessStart();
+        StartupTrace.beginSection("SystemBooksApplication.onCreate");
+        try {
+            if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+                enableStrictMode();
+            }
+            
+            // Only registers FirebaseApp; Auth, Firestore, Storage and Messaging are created on first use
+            StartupTrace.beginSection("FirebaseManager.init");
+            try {
+                FirebaseManager.init(this);
+            } finally {
+                StartupTrace.endSection();
+            }
+            
+            // FCM token registration and delivery tweaks run in the background after the first frame
+            FirebaseManager.getInstance().scheduleDeferredStartup();
+            
+            // Prefetch Home content in parallel with the first activity being created
+            HomeWarmupScheduler.getInstance(this).start();
+        } finally {
+            StartupTrace.endSection();
+        }
+        StartupTrace.mark("application:created");
+    }
+    
+    /**
+     * Debug builds only: SQLite access on the main thread crashes immediately so it is caught in
+     * development. Other disk I/O (SharedPreferences, SDK initialisation) is only logged.
+     */
+    private void enableStrictMode() {
+        StrictMode.ThreadPolicy.Builder builder = new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .penaltyLog();
         
-        // Initialize Firebase with improved FCM handling
-        FirebaseManager.init(this);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            builder.penaltyListener(AppExecutors.mainThread(), violation -> {
+                if (isSQLiteViolation(violation)) {
+                    throw new IllegalStateException(
+                            "SQLite access on the main thread, use the repository *Async API", violation);
+                }
+            });
+        }
         
-        // Optimize notifications for immediate delivery
-        FirebaseManager.getInstance().optimizeNotificationDelivery();
+        StrictMode.setThreadPolicy(builder.build());
+        Log.d(TAG, "StrictMode enabled for main-thread disk I/O");
+    }
+    
+    private static boolean isSQLiteViolation(Throwable violation) {
+        for (StackTraceElement element : violation.getStackTrace()) {
+            if (element.getClassName().startsWith("android.database.sqlite.")) {
+                return true;
+            }
+        }
+        return false;
     }
 }
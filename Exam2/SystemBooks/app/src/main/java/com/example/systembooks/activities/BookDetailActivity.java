@@ -17,6 +17,7 @@ import com.example.systembooks.R;
 import com.example.systembooks.models.Book;
 import com.example.systembooks.repositories.BookRepository;
 import com.example.systembooks.repositories.FavoritesRepository;
+import com.example.systembooks.repositories.RepositoryCallback;
 import com.example.systembooks.util.SessionManager;
 import com.example.systembooks.utils.NetworkUtils;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
@@ -180,13 +181,10 @@ public class BookDetailActivity extends AppCompatActivity {
         Long userId = sessionManager.getUserId();
         if (userId == -1) return;
         
-        new Thread(() -> {
-            boolean isBookFavorite = favoritesRepository.isFavorite(userId, bookId);
-            runOnUiThread(() -> {
-                isFavorite = isBookFavorite;
-                updateFavoriteIcon();
-            });
-        }).start();
+        favoritesRepository.isFavoriteAsync(userId, bookId, isBookFavorite -> {
+            isFavorite = isBookFavorite;
+            updateFavoriteIcon();
+        });
     }
     
     private void toggleFavorite() {
@@ -198,31 +196,28 @@ public class BookDetailActivity extends AppCompatActivity {
             return;
         }
         
-        new Thread(() -> {
-            final boolean success;
-            if (isFavorite) {
-                success = favoritesRepository.removeFromFavorites(userId, currentBook.getId());
+        RepositoryCallback<Boolean> onToggled = success -> {
+            if (success) {
+                isFavorite = !isFavorite;
+                updateFavoriteIcon();
+                
+                // Show appropriate message
+                String message = isFavorite 
+                        ? getString(R.string.added_to_favorites) 
+                        : getString(R.string.removed_from_favorites);
+                Toast.makeText(BookDetailActivity.this, message, Toast.LENGTH_SHORT).show();
             } else {
-                success = favoritesRepository.addToFavorites(userId, currentBook);
+                Toast.makeText(BookDetailActivity.this, 
+                        getString(R.string.error_updating_favorites), 
+                        Toast.LENGTH_SHORT).show();
             }
-            
-            runOnUiThread(() -> {
-                if (success) {
-                    isFavorite = !isFavorite;
-                    updateFavoriteIcon();
-                    
-                    // Show appropriate message
-                    String message = isFavorite 
-                            ? getString(R.string.added_to_favorites) 
-                            : getString(R.string.removed_from_favorites);
-                    Toast.makeText(BookDetailActivity.this, message, Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(BookDetailActivity.this, 
-                            getString(R.string.error_updating_favorites), 
-                            Toast.LENGTH_SHORT).show();
-                }
-            });
-        }).start();
+        };
+        
+        if (isFavorite) {
+            favoritesRepository.removeFromFavoritesAsync(userId, currentBook.getId(), onToggled);
+        } else {
+            favoritesRepository.addToFavoritesAsync(userId, currentBook, onToggled);
+        }
     }
     
     private void updateFavoriteIcon() {
@@ -15,8 +15,11 @@ import com.example.systembooks.R;
 import com.example.systembooks.adapters.BookAdapter;
 import com.example.systembooks.models.Book;
 import com.example.systembooks.repositories.BookRepository;
+import com.example.systembooks.repositories.CategoryRepository;
+import com.example.systembooks.repositories.FavoritesRepository;
 import com.example.systembooks.repositories.SearchHistoryRepository;
 import com.example.systembooks.util.SessionManager;
+import com.example.systembooks.utils.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -33,6 +36,7 @@ public class SearchResultsActivity extends AppCompatActivity {
     private BookAdapter adapter;
     private BookRepository bookRepository;
     private SearchHistoryRepository historyRepository;
+    private FavoritesRepository favoritesRepository;
     private SessionManager sessionManager;
     
     private String searchQuery;
@@ -44,11 +48,17 @@ public class SearchResultsActivity extends AppCompatActivity {
         
         // Get search query from intent
         searchQuery = getIntent().getStringExtra(EXTRA_QUERY);
+        // Opened from Categories: shows the first page of that subject instead of a search
+        String categorySlug = getIntent().getStringExtra(Constants.EXTRA_CATEGORY_SLUG);
         
         // Set up action bar
         if (getSupportActionBar() != null) {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
-            getSupportActionBar().setTitle(getString(R.string.search_results_for, searchQuery));
+            if (categorySlug != null) {
+                getSupportActionBar().setTitle(getIntent().getStringExtra(Constants.EXTRA_CATEGORY_NAME));
+            } else {
+                getSupportActionBar().setTitle(getString(R.string.search_results_for, searchQuery));
+            }
         }
         
         // Initialize views
@@ -59,6 +69,7 @@ public class SearchResultsActivity extends AppCompatActivity {
         // Initialize repositories and session manager
         bookRepository = new BookRepository(this);
         historyRepository = new SearchHistoryRepository(this);
+        favoritesRepository = new FavoritesRepository(this);
         sessionManager = new SessionManager(this);
         
         // Set up RecyclerView
@@ -67,7 +78,9 @@ public class SearchResultsActivity extends AppCompatActivity {
         recyclerViewResults.setAdapter(adapter);
         
         // Perform search
-        if (searchQuery != null && !searchQuery.isEmpty()) {
+        if (categorySlug != null) {
+            loadCategory(categorySlug);
+        } else if (searchQuery != null && !searchQuery.isEmpty()) {
             performSearch(searchQuery);
             
             // Save to search history if user is logged in
@@ -94,6 +107,7 @@ public class SearchResultsActivity extends AppCompatActivity {
                         showEmptyResults("No results found for \"" + query + "\"");
                     } else {
                         adapter.updateBooks(books);
+                        refreshFavoriteBadges(books);
                         recyclerViewResults.setVisibility(View.VISIBLE);
                     }
                 });
@@ -109,6 +123,43 @@ public class SearchResultsActivity extends AppCompatActivity {
         });
     }
     
+    private void loadCategory(String slug) {
+        progressBar.setVisibility(View.VISIBLE);
+        emptyResultsView.setVisibility(View.GONE);
+        
+        // Served from the pre-warmed page when there is one, so it usually shows without a spinner
+        new CategoryRepository(this).getCategoryBooks(slug, new BookRepository.BookCallback<List<Book>>() {
+            @Override
+            public void onSuccess(List<Book> books) {
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    if (books.isEmpty()) {
+                        showEmptyResults(getString(R.string.category_empty));
+                    } else {
+                        adapter.updateBooks(books);
+                        refreshFavoriteBadges(books);
+                        recyclerViewResults.setVisibility(View.VISIBLE);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                runOnUiThread(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    showEmptyResults("Error: " + errorMessage);
+                });
+            }
+        });
+    }
+    
+    private void refreshFavoriteBadges(List<Book> books) {
+        if (!sessionManager.isLoggedIn()) {
+            return;
+        }
+        favoritesRepository.getFavoriteStatusForBooksAsync(sessionManager.getUserId(), books, adapter::setFavoriteIds);
+    }
+    
     private void showEmptyResults(String message) {
         recyclerViewResults.setVisibility(View.GONE);
         emptyResultsView.setVisibility(View.VISIBLE);
@@ -116,8 +167,7 @@ public class SearchResultsActivity extends AppCompatActivity {
     }
     
     private void saveSearchToHistory(Long userId, String query) {
-        // Updated to use the correct method name from SearchHistoryRepository
-        new Thread(() -> historyRepository.saveSearchQuery(userId, query)).start();
+        historyRepository.saveSearchQueryAsync(userId, query);
     }
 
     @Override
@@ -9,22 +9,40 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.systembooks.R;
 import com.example.systembooks.firebase.FirebaseUser;
 
-import java.util.List;
+import java.util.Objects;
 
 import de.hdodenhof.circleimageview.CircleImageView;
 
 /**
- * Adapter for displaying Firebase users in RecyclerView
+ * Adapter for displaying Firebase users in RecyclerView.
+ * Lists are published with submitList; DiffUtil works out the changed rows off the main thread
  */
-public class FirebaseUserAdapter extends RecyclerView.Adapter<FirebaseUserAdapter.FirebaseUserViewHolder> {
+public class FirebaseUserAdapter extends ListAdapter<FirebaseUser, FirebaseUserAdapter.FirebaseUserViewHolder> {
+
+    private static final DiffUtil.ItemCallback<FirebaseUser> DIFF_CALLBACK = new DiffUtil.ItemCallback<FirebaseUser>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FirebaseUser oldItem, @NonNull FirebaseUser newItem) {
+            return Objects.equals(oldItem.getUid(), newItem.getUid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FirebaseUser oldItem, @NonNull FirebaseUser newItem) {
+            return Objects.equals(oldItem.getUsername(), newItem.getUsername())
+                    && Objects.equals(oldItem.getEmail(), newItem.getEmail())
+                    && Objects.equals(oldItem.getRole(), newItem.getRole())
+                    && Objects.equals(oldItem.getPhotoUrl(), newItem.getPhotoUrl())
+                    && Objects.equals(oldItem.getCreatedAt(), newItem.getCreatedAt());
+        }
+    };
 
-    private List<FirebaseUser> userList;
     private final Context context;
     private final OnFirebaseUserClickListener listener;
 
@@ -34,17 +52,12 @@ public class FirebaseUserAdapter extends RecyclerView.Adapter<FirebaseUserAdapte
         void onRoleClick(FirebaseUser user);
     }
 
-    public FirebaseUserAdapter(Context context, List<FirebaseUser> userList, OnFirebaseUserClickListener listener) {
+    public FirebaseUserAdapter(Context context, OnFirebaseUserClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.userList = userList;
         this.listener = listener;
     }
 
-    public void updateUsers(List<FirebaseUser> users) {
-        this.userList = users;
-        notifyDataSetChanged();
-    }
-
     @NonNull
     @Override
     public FirebaseUserViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -55,7 +68,7 @@ public class FirebaseUserAdapter extends RecyclerView.Adapter<FirebaseUserAdapte
 
     @Override
     public void onBindViewHolder(@NonNull FirebaseUserViewHolder holder, int position) {
-        FirebaseUser user = userList.get(position);
+        FirebaseUser user = getItem(position);
         
         // Set user information
         holder.textViewName.setText(user.getUsername() != null ? user.getUsername() : "N/A");
@@ -111,11 +124,6 @@ public class FirebaseUserAdapter extends RecyclerView.Adapter<FirebaseUserAdapte
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return userList != null ? userList.size() : 0;
-    }
-
     static class FirebaseUserViewHolder extends RecyclerView.ViewHolder {
         CircleImageView imageViewPhoto;
         TextView textViewName;
@@ -9,19 +9,38 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.systembooks.R;
 import com.example.systembooks.model.User;
 import com.example.systembooks.util.ImageUtils;
 
-import java.util.List;
+import java.util.Objects;
 
 import de.hdodenhof.circleimageview.CircleImageView;
 
-public class UserAdapter extends RecyclerView.Adapter<UserAdapter.UserViewHolder> {
+/**
+ * Lista de usuarios de la API. Las actualizaciones se envian con submitList y DiffUtil
+ * calcula en segundo plano que filas cambian, sin redibujar la lista entera
+ */
+public class UserAdapter extends ListAdapter<User, UserAdapter.UserViewHolder> {
+
+    private static final DiffUtil.ItemCallback<User> DIFF_CALLBACK = new DiffUtil.ItemCallback<User>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getNombre(), newItem.getNombre())
+                    && Objects.equals(oldItem.getEmail(), newItem.getEmail())
+                    && Objects.equals(oldItem.getImagen(), newItem.getImagen());
+        }
+    };
 
-    private List<User> userList;
     private final Context context;
     private final OnUserClickListener listener;
 
@@ -30,17 +49,12 @@ public class UserAdapter extends RecyclerView.Adapter<UserAdapter.UserViewHolder
         void onDeleteClick(User user);
     }
 
-    public UserAdapter(Context context, List<User> userList, OnUserClickListener listener) {
+    public UserAdapter(Context context, OnUserClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.userList = userList;
         this.listener = listener;
     }
 
-    public void updateUsers(List<User> users) {
-        this.userList = users;
-        notifyDataSetChanged();
-    }
-
     @NonNull
     @Override
     public UserViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -51,7 +65,7 @@ public class UserAdapter extends RecyclerView.Adapter<UserAdapter.UserViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
-        User user = userList.get(position);
+        User user = getItem(position);
         
         holder.textViewName.setText(user.getNombre());
         holder.textViewEmail.setText(user.getEmail());
@@ -69,11 +83,6 @@ public class UserAdapter extends RecyclerView.Adapter<UserAdapter.UserViewHolder
         holder.buttonDelete.setOnClickListener(v -> listener.onDeleteClick(user));
     }
 
-    @Override
-    public int getItemCount() {
-        return userList != null ? userList.size() : 0;
-    }
-
     static class UserViewHolder extends RecyclerView.ViewHolder {
         CircleImageView imageViewPhoto;
         TextView textViewName;
@@ -18,13 +18,23 @@ import com.example.systembooks.R;
 import com.example.systembooks.activities.BookDetailActivity;
 import com.example.systembooks.models.Book;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder> {
 
+    private static final Object PAYLOAD_FAVORITE = new Object();
+    private static final RequestOptions COVER_OPTIONS = new RequestOptions()
+            .placeholder(R.drawable.book_placeholder)
+            .error(R.drawable.book_placeholder)
+            .diskCacheStrategy(DiskCacheStrategy.ALL);
+
     private Context context;
     private List<Book> books;
     private OnBookClickListener listener;
+    // Resolved off the main thread by the owning screen; binding only does set lookups
+    private Set<String> favoriteIds = Collections.emptySet();
     
     // Interface for handling book clicks
     public interface OnBookClickListener {
@@ -50,20 +60,27 @@ public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder
         return new BookViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull BookViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.size() == 1 && payloads.get(0) == PAYLOAD_FAVORITE) {
+            bindFavoriteBadge(holder, books.get(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
         Book book = books.get(position);
         holder.title.setText(book.getTitle());
         holder.author.setText(book.getAuthor());
+        bindFavoriteBadge(holder, book);
         
         // Cargar la imagen usando Glide
         if (book.getCoverUrl() != null && !book.getCoverUrl().isEmpty()) {
             Glide.with(context)
                 .load(book.getCoverUrl())
-                .apply(new RequestOptions()
-                    .placeholder(R.drawable.book_placeholder)
-                    .error(R.drawable.book_placeholder)
-                    .diskCacheStrategy(DiskCacheStrategy.ALL))
+                .apply(COVER_OPTIONS)
                 .into(holder.cover);
         } else {
             holder.cover.setImageResource(R.drawable.book_placeholder);
@@ -91,15 +108,31 @@ public class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder
         this.books = newBooks;
         notifyDataSetChanged();
     }
+    
+    /**
+     * Sets the ids shown with a favorite badge; only rebinds the badges
+     */
+    public void setFavoriteIds(Set<String> ids) {
+        this.favoriteIds = ids != null ? ids : Collections.emptySet();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_FAVORITE);
+    }
+    
+    private void bindFavoriteBadge(BookViewHolder holder, Book book) {
+        if (holder.favoriteBadge != null) {
+            holder.favoriteBadge.setVisibility(favoriteIds.contains(book.getId()) ? View.VISIBLE : View.GONE);
+        }
+    }
 
     static class BookViewHolder extends RecyclerView.ViewHolder {
         ImageView cover;
         TextView title;
         TextView author;
+        ImageView favoriteBadge;
 
         public BookViewHolder(@NonNull View itemView) {
             super(itemView);
             cover = itemView.findViewById(R.id.book_cover);
+            favoriteBadge = itemView.findViewById(R.id.book_favorite_badge);
             title = itemView.findViewById(R.id.book_title);
             author = itemView.findViewById(R.id.book_author);
         }
@@ -12,16 +12,28 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.systembooks.R;
 import com.example.systembooks.models.Category;
 
+import java.text.NumberFormat;
 import java.util.List;
 
 public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
 
     private Context context;
     private List<Category> categories;
+    private OnCategoryClickListener listener;
+    private final NumberFormat countFormat = NumberFormat.getIntegerInstance();
+
+    public interface OnCategoryClickListener {
+        void onCategoryClick(Category category);
+    }
 
     public CategoryAdapter(Context context, List<Category> categories) {
+        this(context, categories, null);
+    }
+
+    public CategoryAdapter(Context context, List<Category> categories, OnCategoryClickListener listener) {
         this.context = context;
         this.categories = categories;
+        this.listener = listener;
     }
 
     @NonNull
@@ -35,9 +47,20 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
         Category category = categories.get(position);
         holder.categoryName.setText(category.getName());
-        
+
+        // El recuento solo se muestra cuando ya se descargó el catálogo
+        if (category.getWorkCount() >= 0) {
+            holder.categoryCount.setText(context.getString(R.string.category_work_count,
+                    countFormat.format(category.getWorkCount())));
+            holder.categoryCount.setVisibility(View.VISIBLE);
+        } else {
+            holder.categoryCount.setVisibility(View.GONE);
+        }
+
         holder.itemView.setOnClickListener(v -> {
-            // Handle category selection - will be implemented in functionality 2
+            if (listener != null) {
+                listener.onCategoryClick(category);
+            }
         });
     }
 
@@ -53,10 +76,12 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     static class CategoryViewHolder extends RecyclerView.ViewHolder {
         TextView categoryName;
+        TextView categoryCount;
 
         public CategoryViewHolder(@NonNull View itemView) {
             super(itemView);
             categoryName = itemView.findViewById(R.id.category_name);
+            categoryCount = itemView.findViewById(R.id.category_count);
         }
     }
 }
@@ -19,6 +19,7 @@ import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Part;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 public interface ApiService {
     // Autenticación
@@ -32,6 +33,10 @@ public interface ApiService {
     @GET("api/users")
     Call<ApiResponse<List<User>>> getAllUsers();
     
+    // Paginacion por cursor: el servidor devuelve X-Next-After-Id mientras queden usuarios
+    @GET("api/users")
+    Call<ApiResponse<List<User>>> getUsersAfter(@Query("afterId") Long afterId, @Query("size") int size);
+    
     @GET("api/users/{id}")
     Call<ApiResponse<User>> getUserById(@Path("id") Long id);
     
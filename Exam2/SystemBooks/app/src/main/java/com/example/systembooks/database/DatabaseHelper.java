@@ -3,14 +3,20 @@ package com.example.systembooks.database;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
+    private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "systembooks.db";
-    private static final int DATABASE_VERSION = 1;
+    // v2: cached_books and the full-text indexes over favorites/cached_books
+    private static final int DATABASE_VERSION = 2;
 
     // Table names
     public static final String TABLE_SEARCH_HISTORY = "search_history";
     public static final String TABLE_FAVORITES = "favorites";
+    public static final String TABLE_CACHED_BOOKS = "cached_books";
+    public static final String TABLE_FAVORITES_FTS = "favorites_fts";
+    public static final String TABLE_CACHED_BOOKS_FTS = "cached_books_fts";
 
     // Common column names
     public static final String COLUMN_ID = "id";
@@ -27,6 +33,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_COVER_URL = "cover_url";
     public static final String COLUMN_DATE_ADDED = "date_added";
 
+    // Cached books columns
+    public static final String COLUMN_LAST_SEEN = "last_seen";
+
+    // FTS tables expose the content row id as docid
+    public static final String COLUMN_DOCID = "docid";
+
     // Create table statements
     private static final String CREATE_TABLE_SEARCH_HISTORY =
             "CREATE TABLE " + TABLE_SEARCH_HISTORY + " (" +
@@ -46,6 +58,23 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     COLUMN_DATE_ADDED + " INTEGER NOT NULL, " +
                     "UNIQUE(" + COLUMN_USER_ID + ", " + COLUMN_BOOK_ID + "));";
 
+    private static final String CREATE_TABLE_CACHED_BOOKS =
+            "CREATE TABLE " + TABLE_CACHED_BOOKS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_BOOK_ID + " TEXT NOT NULL UNIQUE, " +
+                    COLUMN_TITLE + " TEXT NOT NULL, " +
+                    COLUMN_AUTHOR + " TEXT, " +
+                    COLUMN_COVER_URL + " TEXT, " +
+                    COLUMN_LAST_SEEN + " INTEGER NOT NULL);";
+
+    private static final String CREATE_INDEX_CACHED_BOOKS_LAST_SEEN =
+            "CREATE INDEX idx_cached_books_last_seen ON " + TABLE_CACHED_BOOKS + "(" + COLUMN_LAST_SEEN + ");";
+
+    // External-content FTS4 indexes over title and author. unicode61 folds case and
+    // accents so "fantasia" also finds "Fantasía"
+    private static final String CREATE_TABLE_FAVORITES_FTS = createFtsTable(TABLE_FAVORITES_FTS, TABLE_FAVORITES);
+    private static final String CREATE_TABLE_CACHED_BOOKS_FTS = createFtsTable(TABLE_CACHED_BOOKS_FTS, TABLE_CACHED_BOOKS);
+
     private static DatabaseHelper instance;
 
     public static synchronized DatabaseHelper getInstance(Context context) {
@@ -63,13 +92,56 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(CREATE_TABLE_SEARCH_HISTORY);
         db.execSQL(CREATE_TABLE_FAVORITES);
+        createLibrarySearch(db);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Drop older tables if they exist and create fresh ones
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SEARCH_HISTORY);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_FAVORITES);
-        onCreate(db);
+        // Incremental upgrades so the user's favorites and history survive
+        if (oldVersion < 2) {
+            createLibrarySearch(db);
+            // Index the favorites saved before the triggers existed
+            db.execSQL("INSERT INTO " + TABLE_FAVORITES_FTS + "(" + TABLE_FAVORITES_FTS + ") VALUES('rebuild');");
+            Log.i(TAG, "Upgraded database to v2 (library full-text search)");
+        }
+    }
+
+    private void createLibrarySearch(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_CACHED_BOOKS);
+        db.execSQL(CREATE_INDEX_CACHED_BOOKS_LAST_SEEN);
+        db.execSQL(CREATE_TABLE_FAVORITES_FTS);
+        db.execSQL(CREATE_TABLE_CACHED_BOOKS_FTS);
+        createFtsTriggers(db, TABLE_FAVORITES_FTS, TABLE_FAVORITES);
+        createFtsTriggers(db, TABLE_CACHED_BOOKS_FTS, TABLE_CACHED_BOOKS);
+    }
+
+    private static String createFtsTable(String ftsTable, String contentTable) {
+        return "CREATE VIRTUAL TABLE " + ftsTable + " USING fts4(" +
+                "content=\"" + contentTable + "\", " +
+                COLUMN_TITLE + ", " +
+                COLUMN_AUTHOR + ", " +
+                "tokenize=unicode61 \"remove_diacritics=1\");";
+    }
+
+    /**
+     * Standard external-content sync: the index row (docid = content id) is removed before
+     * a delete/update of the content row and re-added after an insert/update.
+     * Updates that only touch other columns (e.g. last_seen) do not re-index
+     */
+    private static void createFtsTriggers(SQLiteDatabase db, String ftsTable, String contentTable) {
+        String insertIndex = "INSERT INTO " + ftsTable + "(" + COLUMN_DOCID + ", " + COLUMN_TITLE + ", " + COLUMN_AUTHOR + ") " +
+                "VALUES (new." + COLUMN_ID + ", new." + COLUMN_TITLE + ", new." + COLUMN_AUTHOR + ");";
+        String deleteIndex = "DELETE FROM " + ftsTable + " WHERE " + COLUMN_DOCID + " = old." + COLUMN_ID + ";";
+
+        db.execSQL("CREATE TRIGGER " + contentTable + "_fts_bd BEFORE DELETE ON " + contentTable +
+                " BEGIN " + deleteIndex + " END;");
+        db.execSQL("CREATE TRIGGER " + contentTable + "_fts_bu BEFORE UPDATE OF " + COLUMN_TITLE + ", " +
+                COLUMN_AUTHOR + " ON " + contentTable +
+                " BEGIN " + deleteIndex + " END;");
+        db.execSQL("CREATE TRIGGER " + contentTable + "_fts_ai AFTER INSERT ON " + contentTable +
+                " BEGIN " + insertIndex + " END;");
+        db.execSQL("CREATE TRIGGER " + contentTable + "_fts_au AFTER UPDATE OF " + COLUMN_TITLE + ", " +
+                COLUMN_AUTHOR + " ON " + contentTable +
+                " BEGIN " + insertIndex + " END;");
     }
 }
\ No newline at end of file
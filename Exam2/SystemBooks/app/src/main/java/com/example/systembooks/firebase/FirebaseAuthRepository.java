@@ -5,6 +5,8 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.example.systembooks.utils.DeferredInit;
+
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthResult;
@@ -134,17 +136,21 @@ public class FirebaseAuthRepository {
      * @param userId User ID
      */
     private void processFcmTokenAfterLogin(String userId) {
-        try {
-            // Process any pending token saved before login
-            new NotificationHelper(context).processPendingToken(userId);
-            
-            // Also request a fresh token to ensure it's up to date
-            FirebaseManager.getInstance().refreshToken(false);
-            
-            Log.d(TAG, "FCM token processing triggered after login");
-        } catch (Exception e) {
-            Log.e(TAG, "Error processing FCM token after login", e);
-        }
+        // Runs in the background: it reads SharedPreferences and may create Firestore and Messaging,
+        // none of which the login callback on the main thread has to wait for
+        DeferredInit.runInBackground("Firebase.pendingToken", () -> {
+            try {
+                // Process any pending token saved before login
+                new NotificationHelper(context).processPendingToken(userId);
+                
+                // Also request a fresh token to ensure it's up to date
+                FirebaseManager.getInstance().refreshToken(false);
+                
+                Log.d(TAG, "FCM token processing triggered after login");
+            } catch (Exception e) {
+                Log.e(TAG, "Error processing FCM token after login", e);
+            }
+        });
     }
 
     /**
@@ -5,6 +5,8 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.example.systembooks.util.SessionStore;
+import com.example.systembooks.utils.DeferredInit;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -12,43 +14,58 @@ import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.storage.FirebaseStorage;
 
 /**
- * Manager class to handle Firebase initialization and services
+ * Manager class to handle Firebase initialization and services.
+ * Each SDK is created the first time it is requested (see {@link DeferredInit.Lazy}), so users of the
+ * API-auth provider never pay for Auth, Firestore or Storage. FCM registration runs in the background
+ * after the first frame.
  */
 public class FirebaseManager {
 
-    private static final String TAG = "FirebaseManager";    private static FirebaseManager instance;
+    private static final String TAG = "FirebaseManager";
+    private static FirebaseManager instance;
 
-    private FirebaseAuth auth;
-    private FirebaseFirestore firestore;
-    private FirebaseStorage storage;
-    private FirebaseMessaging messaging;
+    private final DeferredInit.Lazy<FirebaseAuth> auth =
+            new DeferredInit.Lazy<>("Firebase.auth", FirebaseAuth::getInstance);
+    private final DeferredInit.Lazy<FirebaseFirestore> firestore =
+            new DeferredInit.Lazy<>("Firebase.firestore", FirebaseFirestore::getInstance);
+    private final DeferredInit.Lazy<FirebaseStorage> storage =
+            new DeferredInit.Lazy<>("Firebase.storage", FirebaseStorage::getInstance);
+    private final DeferredInit.Lazy<FirebaseMessaging> messaging =
+            new DeferredInit.Lazy<>("Firebase.messaging", FirebaseMessaging::getInstance);
     private Context context;
 
     private FirebaseManager() {
         // Private constructor to enforce singleton pattern
-        auth = FirebaseAuth.getInstance();
-        firestore = FirebaseFirestore.getInstance();
-        storage = FirebaseStorage.getInstance();
-        messaging = FirebaseMessaging.getInstance();
-    }/**
-     * Initializes Firebase in the application
+    }
+
+    /**
+     * Initializes Firebase in the application. Only registers the default FirebaseApp;
+     * the SDKs are created on first use
      * @param context Application context
-     */    public static void init(Context context) {
+     */
+    public static void init(Context context) {
         try {
             FirebaseApp.initializeApp(context);
             
             // Store application context
             getInstance().setContext(context);
             
-            // Configure FCM for improved delivery reliability
-            setupFCM();
-            
             Log.d(TAG, "Firebase initialized successfully");
         } catch (Exception e) {
             Log.e(TAG, "Error initializing Firebase: " + e.getMessage());
         }
     }
     
+    /**
+     * Queues FCM setup and token registration to run in the background after the first frame
+     */
+    public void scheduleDeferredStartup() {
+        DeferredInit.afterFirstFrame("Firebase.fcmRegistration", () -> {
+            setupFCM();
+            optimizeNotificationDelivery();
+        });
+    }
+    
     /**
      * Get context
      * @return The application context
@@ -63,16 +80,18 @@ public class FirebaseManager {
      */
     public void setContext(Context context) {
         this.context = context.getApplicationContext();
-    }    /**
+    }
+
+    /**
      * Configure Firebase Cloud Messaging for optimal performance
      */
-    private static void setupFCM() {
+    private void setupFCM() {
         try {
             // Configure FCM for high priority delivery
-            FirebaseMessaging.getInstance().setAutoInitEnabled(true);
+            getMessaging().setAutoInitEnabled(true);
             
             // Request token early for better reliability
-            FirebaseMessaging.getInstance().getToken()
+            getMessaging().getToken()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
                         String token = task.getResult();
@@ -86,7 +105,9 @@ public class FirebaseManager {
         } catch (Exception e) {
             Log.e(TAG, "Error setting up FCM: " + e.getMessage());
         }
-    }/**
+    }
+
+    /**
      * Gets the singleton instance of FirebaseManager
      * @return FirebaseManager instance
      */
@@ -102,7 +123,7 @@ public class FirebaseManager {
      * @return FirebaseAuth instance
      */
     public FirebaseAuth getAuth() {
-        return auth;
+        return auth.get();
     }
 
     /**
@@ -110,7 +131,7 @@ public class FirebaseManager {
      * @return FirebaseFirestore instance
      */
     public FirebaseFirestore getFirestore() {
-        return firestore;
+        return firestore.get();
     }
 
     /**
@@ -118,7 +139,7 @@ public class FirebaseManager {
      * @return FirebaseStorage instance
      */
     public FirebaseStorage getStorage() {
-        return storage;
+        return storage.get();
     }
 
     /**
@@ -126,13 +147,15 @@ public class FirebaseManager {
      * @return FirebaseMessaging instance
      */
     public FirebaseMessaging getMessaging() {
-        return messaging;
-    }    /**
+        return messaging.get();
+    }
+
+    /**
      * Subscribes to a topic for FCM notifications
      * @param topic Topic name
      */
     public void subscribeToTopic(String topic) {
-        messaging.subscribeToTopic(topic)
+        getMessaging().subscribeToTopic(topic)
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         Log.d(TAG, "Subscribed to topic: " + topic);
@@ -148,16 +171,22 @@ public class FirebaseManager {
      */
     public void refreshToken(final boolean force) {
         try {
-            FirebaseMessaging.getInstance().getToken()
+            getMessaging().getToken()
                     .addOnCompleteListener(task -> {
                         if (task.isSuccessful() && task.getResult() != null) {
                             // Token refreshed
                             String token = task.getResult();
                             Log.d(TAG, "FCM token refreshed");
                             
-                            // Update server if force=true or user logged in
-                            if (force && auth.getCurrentUser() != null && context != null) {
-                                new NotificationHelper(context).storeTokenForUser(auth.getCurrentUser().getUid(), token);
+                            // Update server if force=true and a Firebase user is logged in.
+                            // API-auth sessions never create FirebaseAuth; Firebase ones do it off the main thread
+                            if (force && isFirebaseSession()) {
+                                DeferredInit.runInBackground("Firebase.storeToken", () -> {
+                                    com.google.firebase.auth.FirebaseUser user = getAuth().getCurrentUser();
+                                    if (user != null) {
+                                        new NotificationHelper(context).storeTokenForUser(user.getUid(), token);
+                                    }
+                                });
                             }
                         } else {
                             Log.e(TAG, "Failed to refresh FCM token", task.getException());
@@ -194,19 +223,19 @@ public class FirebaseManager {
     
     /**
      * Check if FirebaseManager is properly initialized
-     * @return true if all Firebase services are available
+     * @return true if the default FirebaseApp exists, so every service can be created on demand
      */
     public static boolean isInitialized() {
         try {
             FirebaseManager manager = getInstance();
-            return manager != null && 
-                   manager.getAuth() != null && 
-                   manager.getFirestore() != null && 
-                   manager.getStorage() != null && 
-                   manager.getMessaging() != null;
+            return manager.context != null && !FirebaseApp.getApps(manager.context).isEmpty();
         } catch (Exception e) {
             Log.e(TAG, "Error checking Firebase initialization", e);
             return false;
         }
     }
+
+    private boolean isFirebaseSession() {
+        return context != null && SessionStore.getInstance(context).current().isFirebaseProvider();
+    }
 }
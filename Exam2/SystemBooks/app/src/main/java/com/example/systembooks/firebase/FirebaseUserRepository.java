@@ -5,6 +5,7 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.example.systembooks.model.Page;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
@@ -62,6 +63,44 @@ public class FirebaseUserRepository {
                 });
     }
 
+    /**
+     * Get one page of users ordered by username, continuing after the given document.
+     * Firestore leaves documents without a username field out of an orderBy("username") query.
+     * Every user document this app writes has the field (FirebaseUser.toMap writes it, null included,
+     * and null sorts first), so only documents created outside the app can be missing from the pages;
+     * give those a username to list them
+     * @param after Last document of the previous page, or null for the first page
+     * @param size Page size
+     * @param callback Receives the page; its cursor is null once the collection is exhausted
+     */
+    public void getUsersPage(DocumentSnapshot after, int size,
+                             FirebaseCallback<Page<FirebaseUser, DocumentSnapshot>> callback) {
+        Query query = db.collection(USERS_COLLECTION)
+                .orderBy("username", Query.Direction.ASCENDING)
+                .limit(size);
+        if (after != null) {
+            query = query.startAfter(after);
+        }
+        query.get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult() != null) {
+                List<DocumentSnapshot> documents = task.getResult().getDocuments();
+                List<FirebaseUser> users = new ArrayList<>(documents.size());
+                for (DocumentSnapshot document : documents) {
+                    FirebaseUser user = document.toObject(FirebaseUser.class);
+                    if (user != null) {
+                        users.add(user);
+                    }
+                }
+                DocumentSnapshot next = documents.size() == size ? documents.get(documents.size() - 1) : null;
+                callback.onSuccess(new Page<>(users, next, Page.UNKNOWN_TOTAL));
+            } else {
+                Log.e(TAG, "Error getting users page from Firebase", task.getException());
+                callback.onError("Error loading users: " +
+                        (task.getException() != null ? task.getException().getMessage() : "Unknown error"));
+            }
+        });
+    }
+
     /**
      * Get a specific user by UID
      * @param uid User ID
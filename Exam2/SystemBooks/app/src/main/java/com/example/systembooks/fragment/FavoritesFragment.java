@@ -79,23 +79,19 @@ public class FavoritesFragment extends Fragment implements BookAdapter.OnBookCli
             return;
         }
         
-        // Load favorite books in a background thread
-        new Thread(() -> {
-            List<FavoriteBook> favorites = repository.getFavorites(userId);
+        // Load favorite books on the disk I/O thread
+        repository.getFavoritesAsync(userId, favorites -> {
+            if (!isAdded()) {
+                return;
+            }
             List<Book> books = convertToBooks(favorites);
-            
-            // Update UI on the main thread
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    if (books.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        showFavoriteBooks(books);
-                    }
-                });
+            progressBar.setVisibility(View.GONE);
+            if (books.isEmpty()) {
+                showEmptyState();
+            } else {
+                showFavoriteBooks(books);
             }
-        }).start();
+        });
     }
     
     private List<Book> convertToBooks(List<FavoriteBook> favorites) {
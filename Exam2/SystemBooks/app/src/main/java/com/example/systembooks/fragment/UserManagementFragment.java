@@ -23,19 +23,33 @@ import com.example.systembooks.adapter.FirebaseUserAdapter;
 import com.example.systembooks.adapter.UserAdapter;
 import com.example.systembooks.firebase.FirebaseUser;
 import com.example.systembooks.firebase.FirebaseUserRepository;
+import com.example.systembooks.model.Page;
 import com.example.systembooks.model.User;
 import com.example.systembooks.repository.ApiRepository;
 import com.example.systembooks.util.RoleManager;
 import com.example.systembooks.util.ActivityTracker;
+import com.example.systembooks.utils.SortedSearchIndex;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
+import com.google.firebase.firestore.DocumentSnapshot;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Comparator;
 
+/**
+ * Admin list of API or Firebase users.
+ * Users are loaded page by page (cursor continuation) as the list scrolls and kept in a
+ * {@link SortedSearchIndex}; searching filters that index locally and the adapters diff the result,
+ * so edits and deletions update single rows instead of reloading every account.
+ */
 public class UserManagementFragment extends Fragment implements UserAdapter.OnUserClickListener, FirebaseUserAdapter.OnFirebaseUserClickListener {
 
     private static final String TAG = "UserManagementFragment";
+    private static final int PAGE_SIZE = 100;
+    // Request the next page when fewer rows than this are left below the last visible one
+    private static final int PREFETCH_DISTANCE = 20;
+    // While a search is active, pages fetched only to fill the screen stop after this many per query,
+    // so a query that matches nothing does not download the whole collection
+    private static final int MAX_FILTERED_FILL_PAGES = 3;
     
     // UI Components
     private RecyclerView recyclerViewUsers;
@@ -53,12 +67,22 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
     private RoleManager roleManager;
     private ActivityTracker activityTracker;
     
-    // Data
-    private List<User> apiUserList;
-    private List<FirebaseUser> firebaseUserList;
+    // Data: every page loaded so far, sorted in the order the source pages in
+    private SortedSearchIndex<User> apiUsers;
+    private SortedSearchIndex<FirebaseUser> firebaseUsers;
+    private Long apiNextAfterId;
+    private DocumentSnapshot firebaseNextCursor;
     
     // State
-    private boolean isShowingFirebaseUsers = false;    @Override
+    private boolean isShowingFirebaseUsers = false;
+    private String currentQuery = "";
+    private boolean isLoadingPage = false;
+    private boolean isEndReached = false;
+    private int filteredFillPages = 0;
+    // Bumped on every reload so responses for the previous source are dropped
+    private int loadGeneration = 0;
+
+    @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_user_management, container, false);
 
@@ -79,7 +103,7 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
         setupListeners();
 
         // Load initial data (API users by default)
-        loadApiUsers();
+        reloadUsers();
 
         return view;
     }
@@ -96,8 +120,18 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
         firebaseUserRepository = new FirebaseUserRepository(requireContext());
         roleManager = new RoleManager(requireContext());
         activityTracker = ActivityTracker.getInstance(requireContext());
-        apiUserList = new ArrayList<>();
-        firebaseUserList = new ArrayList<>();
+        // API pages come ordered by id, Firestore pages by username
+        apiUsers = new SortedSearchIndex<>(User::getId,
+                user -> searchText(user.getNombre(), user.getEmail()),
+                Comparator.comparing(User::getId, Comparator.nullsLast(Comparator.<Long>naturalOrder())));
+        firebaseUsers = new SortedSearchIndex<>(FirebaseUser::getUid,
+                user -> searchText(user.getUsername(), user.getEmail()),
+                Comparator.comparing(FirebaseUser::getUsername, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                        .thenComparing(FirebaseUser::getUid, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+    }
+    
+    private static String searchText(String name, String email) {
+        return (name != null ? name : "") + "\n" + (email != null ? email : "");
     }
     
     private void redirectToAccessDenied() {
@@ -115,7 +149,7 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
         // FAB listener
         fabAddUser.setOnClickListener(v -> navigateToRegisterFragment());
         
-        // Search listener
+        // Search listener: filters the loaded pages locally, no request per keystroke
         editTextSearch.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
@@ -125,12 +159,9 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
 
             @Override
             public void afterTextChanged(Editable s) {
-                String query = s.toString().trim();
-                if (isShowingFirebaseUsers) {
-                    searchFirebaseUsers(query);
-                } else {
-                    searchApiUsers(query);
-                }
+                currentQuery = s.toString().trim();
+                filteredFillPages = 0;
+                showFilteredUsers();
             }
         });
     }
@@ -140,151 +171,165 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
         
         if (isShowingFirebaseUsers) {
             buttonToggleSource.setText("Firebase Users");
-            setupFirebaseAdapter();
-            loadFirebaseUsers();
+            recyclerViewUsers.setAdapter(firebaseUserAdapter);
         } else {
             buttonToggleSource.setText("API Users");
-            setupApiAdapter();
-            loadApiUsers();
+            recyclerViewUsers.setAdapter(userAdapter);
         }
         
         // Clear search when switching
+        currentQuery = "";
         editTextSearch.setText("");
-    }    private void setupRecyclerView() {
-        recyclerViewUsers.setLayoutManager(new LinearLayoutManager(getContext()));
-        setupApiAdapter(); // Start with API adapter by default
+        reloadUsers();
     }
-    
-    private void setupApiAdapter() {
-        userAdapter = new UserAdapter(getContext(), apiUserList, this);
-        recyclerViewUsers.setAdapter(userAdapter);
-    }
-    
-    private void setupFirebaseAdapter() {
-        firebaseUserAdapter = new FirebaseUserAdapter(getContext(), firebaseUserList, this);
-        recyclerViewUsers.setAdapter(firebaseUserAdapter);
-    }    private void loadApiUsers() {
-        progressBar.setVisibility(View.VISIBLE);
 
-        apiRepository.getAllUsers(new ApiRepository.ApiCallback<List<User>>() {
+    private void setupRecyclerView() {
+        recyclerViewUsers.setLayoutManager(new LinearLayoutManager(getContext()));
+        recyclerViewUsers.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
-            public void onSuccess(List<User> result) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        apiUserList = result;
-                        if (userAdapter != null) {
-                            userAdapter.updateUsers(apiUserList);
-                        }
-
-                        if (apiUserList.isEmpty()) {
-                            Toast.makeText(getContext(), "No API users found", Toast.LENGTH_SHORT).show();
-                        }
-                    });
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    loadMoreIfNeeded(true);
                 }
             }
+        });
+        userAdapter = new UserAdapter(getContext(), this);
+        firebaseUserAdapter = new FirebaseUserAdapter(getContext(), this);
+        recyclerViewUsers.setAdapter(userAdapter); // Start with API adapter by default
+    }
 
-            @Override
-            public void onError(String errorMessage) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        Toast.makeText(getContext(), "Error loading API users: " + errorMessage, Toast.LENGTH_SHORT).show();
-                        Log.e(TAG, "Error loading API users: " + errorMessage);
-                    });
+    /**
+     * Drops the loaded pages of both sources and starts again from the first page
+     */
+    private void reloadUsers() {
+        loadGeneration++;
+        isLoadingPage = false;
+        isEndReached = false;
+        filteredFillPages = 0;
+        apiNextAfterId = null;
+        firebaseNextCursor = null;
+        apiUsers.clear();
+        firebaseUsers.clear();
+        showFilteredUsers();
+    }
+
+    /**
+     * Publishes the users matching the current query; the adapter diffs it against the list on screen
+     */
+    private void showFilteredUsers() {
+        Runnable afterCommit = () -> recyclerViewUsers.post(() -> loadMoreIfNeeded(false));
+        if (isShowingFirebaseUsers) {
+            firebaseUserAdapter.submitList(firebaseUsers.filter(currentQuery), afterCommit);
+        } else {
+            userAdapter.submitList(apiUsers.filter(currentQuery), afterCommit);
+        }
+    }
+
+    // Keeps paging while the last visible row is near the end of the list. This also fills the
+    // screen when a search matches only a few of the users loaded so far, up to
+    // MAX_FILTERED_FILL_PAGES per query; after that only scrolling loads more
+    private void loadMoreIfNeeded(boolean fromScroll) {
+        if (!isAdded() || isLoadingPage || isEndReached) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerViewUsers.getLayoutManager();
+        RecyclerView.Adapter<?> adapter = recyclerViewUsers.getAdapter();
+        if (layoutManager == null || adapter == null) {
+            return;
+        }
+        if (layoutManager.findLastVisibleItemPosition() + PREFETCH_DISTANCE < adapter.getItemCount()) {
+            return;
+        }
+        if (!fromScroll && !currentQuery.isEmpty()) {
+            if (filteredFillPages >= MAX_FILTERED_FILL_PAGES) {
+                if (filteredFillPages == MAX_FILTERED_FILL_PAGES) {
+                    filteredFillPages++;
+                    Toast.makeText(getContext(), "Search covers the users loaded so far", Toast.LENGTH_SHORT).show();
                 }
+                return;
             }
-        });
+            filteredFillPages++;
+        }
+        loadNextPage();
     }
-    
-    private void loadFirebaseUsers() {
-        progressBar.setVisibility(View.VISIBLE);
 
-        firebaseUserRepository.getAllUsers(new FirebaseUserRepository.FirebaseCallback<List<FirebaseUser>>() {
-            @Override
-            public void onSuccess(List<FirebaseUser> result) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        firebaseUserList = result;
-                        if (firebaseUserAdapter != null) {
-                            firebaseUserAdapter.updateUsers(firebaseUserList);
-                        }
-
-                        if (firebaseUserList.isEmpty()) {
-                            Toast.makeText(getContext(), "No Firebase users found", Toast.LENGTH_SHORT).show();
-                        }
+    private void loadNextPage() {
+        isLoadingPage = true;
+        final int generation = loadGeneration;
+
+        if (isShowingFirebaseUsers) {
+            if (firebaseNextCursor == null) {
+                progressBar.setVisibility(View.VISIBLE);
+            }
+            firebaseUserRepository.getUsersPage(firebaseNextCursor, PAGE_SIZE,
+                    new FirebaseUserRepository.FirebaseCallback<Page<FirebaseUser, DocumentSnapshot>>() {
+                @Override
+                public void onSuccess(Page<FirebaseUser, DocumentSnapshot> page) {
+                    runIfCurrent(generation, () -> {
+                        firebaseUsers.addAll(page.getItems());
+                        firebaseNextCursor = page.getNextCursor();
+                        onPageLoaded(page.hasMore(), firebaseUsers.size(), "No Firebase users found");
                     });
                 }
-            }
 
-            @Override
-            public void onError(String errorMessage) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        Toast.makeText(getContext(), "Error loading Firebase users: " + errorMessage, Toast.LENGTH_SHORT).show();
-                        Log.e(TAG, "Error loading Firebase users: " + errorMessage);
-                    });
+                @Override
+                public void onError(String errorMessage) {
+                    runIfCurrent(generation, () -> onPageError("Error loading Firebase users: " + errorMessage));
                 }
+            });
+        } else {
+            if (apiNextAfterId == null) {
+                progressBar.setVisibility(View.VISIBLE);
             }
-        });
-    }
-    
-    private void searchApiUsers(String query) {
-        if (query.isEmpty()) {
-            if (userAdapter != null) {
-                userAdapter.updateUsers(apiUserList);
-            }
-            return;
-        }
+            apiRepository.getUsersPage(apiNextAfterId, PAGE_SIZE, new ApiRepository.ApiCallback<Page<User, Long>>() {
+                @Override
+                public void onSuccess(Page<User, Long> page) {
+                    runIfCurrent(generation, () -> {
+                        apiUsers.addAll(page.getItems());
+                        apiNextAfterId = page.getNextCursor();
+                        onPageLoaded(page.hasMore(), apiUsers.size(), "No API users found");
+                    });
+                }
 
-        List<User> filteredUsers = new ArrayList<>();
-        for (User user : apiUserList) {
-            if ((user.getName() != null && user.getName().toLowerCase().contains(query.toLowerCase())) ||
-                (user.getEmail() != null && user.getEmail().toLowerCase().contains(query.toLowerCase()))) {
-                filteredUsers.add(user);
-            }
+                @Override
+                public void onError(String errorMessage) {
+                    runIfCurrent(generation, () -> onPageError("Error loading API users: " + errorMessage));
+                }
+            });
         }
+    }
 
-        if (userAdapter != null) {
-            userAdapter.updateUsers(filteredUsers);
+    private void onPageLoaded(boolean hasMore, int loadedCount, String emptyMessage) {
+        isLoadingPage = false;
+        isEndReached = !hasMore;
+        progressBar.setVisibility(View.GONE);
+        if (isEndReached && loadedCount == 0) {
+            Toast.makeText(getContext(), emptyMessage, Toast.LENGTH_SHORT).show();
         }
+        showFilteredUsers();
     }
-    
-    private void searchFirebaseUsers(String query) {
-        if (query.isEmpty()) {
-            if (firebaseUserAdapter != null) {
-                firebaseUserAdapter.updateUsers(firebaseUserList);
-            }
-            return;
-        }
 
-        progressBar.setVisibility(View.VISIBLE);
-        firebaseUserRepository.searchUsers(query, new FirebaseUserRepository.FirebaseCallback<List<FirebaseUser>>() {
-            @Override
-            public void onSuccess(List<FirebaseUser> result) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        if (firebaseUserAdapter != null) {
-                            firebaseUserAdapter.updateUsers(result);
-                        }
-                    });
-                }
-            }
+    private void onPageError(String message) {
+        isLoadingPage = false;
+        // Stop paging so a failing request is not retried on every scroll; switching source reloads
+        isEndReached = true;
+        progressBar.setVisibility(View.GONE);
+        Toast.makeText(getContext(), message, Toast.LENGTH_SHORT).show();
+        Log.e(TAG, message);
+    }
 
-            @Override
-            public void onError(String errorMessage) {
-                if (getActivity() != null && isAdded()) {
-                    getActivity().runOnUiThread(() -> {
-                        progressBar.setVisibility(View.GONE);
-                        Toast.makeText(getContext(), "Search error: " + errorMessage, Toast.LENGTH_SHORT).show();
-                    });
+    // Runs on the UI thread if the fragment is still attached and no reload happened since the request
+    private void runIfCurrent(int generation, Runnable action) {
+        if (getActivity() != null && isAdded()) {
+            getActivity().runOnUiThread(() -> {
+                if (isAdded() && generation == loadGeneration) {
+                    action.run();
                 }
-            }
-        });
-    }    // API User Adapter Callbacks
+            });
+        }
+    }
+
+    // API User Adapter Callbacks
     @Override
     public void onEditClick(User user) {
         navigateToEditUserFragment(user);
@@ -404,8 +449,9 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
                         // Track user deletion activity
                         activityTracker.trackUserDeletion(String.valueOf(user.getId()), user.getUsername());
                         
-                        // Reload API users
-                        loadApiUsers();
+                        // Remove only that row
+                        apiUsers.remove(user.getId());
+                        showFilteredUsers();
                     });
                 }
             }
@@ -436,8 +482,9 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
                         // Track user deletion activity
                         activityTracker.trackUserDeletion(user.getUid(), user.getUsername());
                         
-                        // Reload Firebase users
-                        loadFirebaseUsers();
+                        // Remove only that row
+                        firebaseUsers.remove(user.getUid());
+                        showFilteredUsers();
                     });
                 }
             }
@@ -469,8 +516,9 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
                         String oldRole = user.getRole();
                         activityTracker.trackRoleChange(user.getUid(), user.getUsername(), oldRole, newRole);
                         
-                        // Reload Firebase users to reflect changes
-                        loadFirebaseUsers();
+                        // Replace the row with an updated copy so DiffUtil sees the change
+                        firebaseUsers.put(copyWithRole(user, newRole));
+                        showFilteredUsers();
                     });
                 }
             }
@@ -487,4 +535,11 @@ public class UserManagementFragment extends Fragment implements UserAdapter.OnUs
             }
         });
     }
+
+    private static FirebaseUser copyWithRole(FirebaseUser user, String role) {
+        FirebaseUser copy = new FirebaseUser(user.getUid(), user.getUsername(), user.getEmail(), role);
+        copy.setPhotoUrl(user.getPhotoUrl());
+        copy.setCreatedAt(user.getCreatedAt());
+        return copy;
+    }
 }
@@ -65,9 +65,11 @@ public class AdminFavoritesFragment extends Fragment {
         progressBar.setVisibility(View.VISIBLE);
         emptyView.setVisibility(View.GONE);
         
-        // Execute in background thread
-        new Thread(() -> {
-            Map<Long, List<FavoriteBook>> allUserFavorites = favoritesRepository.getAllUsersFavorites();
+        // Local database read runs on the disk I/O thread
+        favoritesRepository.getAllUsersFavoritesAsync(allUserFavorites -> {
+            if (!isAdded()) {
+                return;
+            }
             List<User> users = userRepository.getAllUsers();
             
             // Map of user IDs to their info
@@ -76,33 +78,31 @@ public class AdminFavoritesFragment extends Fragment {
                 userMap.put(user.getId(), user);
             }
             
-            requireActivity().runOnUiThread(() -> {
-                progressBar.setVisibility(View.GONE);
-                
-                // Create user data list for adapter
-                List<AdminUserDataAdapter.UserData<FavoriteBook>> userDataList = new ArrayList<>();
-                
-                for (Map.Entry<Long, List<FavoriteBook>> entry : allUserFavorites.entrySet()) {
-                    long userId = entry.getKey();
-                    List<FavoriteBook> favorites = entry.getValue();
-                    
-                    if (favorites != null && !favorites.isEmpty() && userMap.containsKey(userId)) {
-                        User user = userMap.get(userId);
-                        userDataList.add(new AdminUserDataAdapter.UserData<>(
-                                user.getId(),
-                                user.getUsername(),
-                                user.getEmail(),
-                                favorites
-                        ));
-                    }
-                }
+            progressBar.setVisibility(View.GONE);
+            
+            // Create user data list for adapter
+            List<AdminUserDataAdapter.UserData<FavoriteBook>> userDataList = new ArrayList<>();
+            
+            for (Map.Entry<Long, List<FavoriteBook>> entry : allUserFavorites.entrySet()) {
+                long userId = entry.getKey();
+                List<FavoriteBook> favorites = entry.getValue();
                 
-                if (userDataList.isEmpty()) {
-                    emptyView.setVisibility(View.VISIBLE);
-                } else {
-                    adapter.submitList(userDataList);
+                if (favorites != null && !favorites.isEmpty() && userMap.containsKey(userId)) {
+                    User user = userMap.get(userId);
+                    userDataList.add(new AdminUserDataAdapter.UserData<>(
+                            user.getId(),
+                            user.getUsername(),
+                            user.getEmail(),
+                            favorites
+                    ));
                 }
-            });
-        }).start();
+            }
+            
+            if (userDataList.isEmpty()) {
+                emptyView.setVisibility(View.VISIBLE);
+            } else {
+                adapter.submitList(userDataList);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -67,9 +67,11 @@ public class AdminSearchHistoryFragment extends Fragment {
         progressBar.setVisibility(View.VISIBLE);
         emptyView.setVisibility(View.GONE);
         
-        // Execute in background thread
-        new Thread(() -> {
-            Map<Long, List<SearchHistoryItem>> allUserSearchHistories = searchHistoryRepository.getAllUsersSearchHistory();
+        // Local database read runs on the disk I/O thread
+        searchHistoryRepository.getAllUsersSearchHistoryAsync(allUserSearchHistories -> {
+            if (!isAdded()) {
+                return;
+            }
             List<User> users = userRepository.getAllUsers();
             
             // Map of user IDs to their info
@@ -78,33 +80,31 @@ public class AdminSearchHistoryFragment extends Fragment {
                 userMap.put(user.getId(), user);
             }
             
-            requireActivity().runOnUiThread(() -> {
-                progressBar.setVisibility(View.GONE);
-                
-                // Create user data list for adapter
-                List<AdminUserDataAdapter.UserData<SearchHistoryItem>> userDataList = new ArrayList<>();
-                
-                for (Map.Entry<Long, List<SearchHistoryItem>> entry : allUserSearchHistories.entrySet()) {
-                    long userId = entry.getKey();
-                    List<SearchHistoryItem> histories = entry.getValue();
-                    
-                    if (histories != null && !histories.isEmpty() && userMap.containsKey(userId)) {
-                        User user = userMap.get(userId);
-                        userDataList.add(new AdminUserDataAdapter.UserData<>(
-                                user.getId(),
-                                user.getUsername(),
-                                user.getEmail(),
-                                histories
-                        ));
-                    }
-                }
+            progressBar.setVisibility(View.GONE);
+            
+            // Create user data list for adapter
+            List<AdminUserDataAdapter.UserData<SearchHistoryItem>> userDataList = new ArrayList<>();
+            
+            for (Map.Entry<Long, List<SearchHistoryItem>> entry : allUserSearchHistories.entrySet()) {
+                long userId = entry.getKey();
+                List<SearchHistoryItem> histories = entry.getValue();
                 
-                if (userDataList.isEmpty()) {
-                    emptyView.setVisibility(View.VISIBLE);
-                } else {
-                    adapter.submitList(userDataList);
+                if (histories != null && !histories.isEmpty() && userMap.containsKey(userId)) {
+                    User user = userMap.get(userId);
+                    userDataList.add(new AdminUserDataAdapter.UserData<>(
+                            user.getId(),
+                            user.getUsername(),
+                            user.getEmail(),
+                            histories
+                    ));
                 }
-            });
-        }).start();
+            }
+            
+            if (userDataList.isEmpty()) {
+                emptyView.setVisibility(View.VISIBLE);
+            } else {
+                adapter.submitList(userDataList);
+            }
+        });
     }
 }
\ No newline at end of file
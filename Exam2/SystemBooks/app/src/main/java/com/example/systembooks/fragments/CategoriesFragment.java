@@ -1,9 +1,11 @@
 package com.example.systembooks.fragments;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -12,8 +14,11 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.systembooks.R;
+import com.example.systembooks.activities.SearchResultsActivity;
 import com.example.systembooks.adapters.CategoryAdapter;
 import com.example.systembooks.models.Category;
+import com.example.systembooks.repositories.CategoryRepository;
+import com.example.systembooks.utils.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +27,7 @@ public class CategoriesFragment extends Fragment {
 
     private RecyclerView recyclerView;
     private CategoryAdapter categoryAdapter;
+    private CategoryRepository categoryRepository;
 
     @Nullable
     @Override
@@ -29,6 +35,7 @@ public class CategoriesFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_categories, container, false);
         
         recyclerView = view.findViewById(R.id.recyclerview_categories);
+        categoryRepository = new CategoryRepository(requireContext());
         
         setupRecyclerView();
         loadCategories();
@@ -37,25 +44,34 @@ public class CategoriesFragment extends Fragment {
     }
     
     private void setupRecyclerView() {
-        categoryAdapter = new CategoryAdapter(requireContext(), new ArrayList<>());
+        categoryAdapter = new CategoryAdapter(requireContext(), new ArrayList<>(), this::openCategory);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerView.setAdapter(categoryAdapter);
     }
     
     private void loadCategories() {
-        // This will be replaced with actual API calls in functionality 2
-        // For now, populate with static categories
-        List<Category> categories = new ArrayList<>();
-        categories.add(new Category("Fiction", "fiction"));
-        categories.add(new Category("Science Fiction", "science_fiction"));
-        categories.add(new Category("Fantasy", "fantasy"));
-        categories.add(new Category("Mystery", "mystery"));
-        categories.add(new Category("Romance", "romance"));
-        categories.add(new Category("Thriller", "thriller"));
-        categories.add(new Category("Biography", "biography"));
-        categories.add(new Category("History", "history"));
-        categories.add(new Category("Children", "children"));
-        
-        categoryAdapter.updateCategories(categories);
+        // Catálogo guardado con sus recuentos; el repositorio lo refresca en segundo plano si caducó
+        categoryRepository.getCategories(new CategoryRepository.CategoryCallback() {
+            @Override
+            public void onSuccess(List<Category> categories) {
+                if (isAdded()) {
+                    categoryAdapter.updateCategories(categories);
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                if (isAdded()) {
+                    Toast.makeText(requireContext(), message, Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+    }
+
+    private void openCategory(Category category) {
+        Intent intent = new Intent(requireContext(), SearchResultsActivity.class);
+        intent.putExtra(Constants.EXTRA_CATEGORY_SLUG, category.getSlug());
+        intent.putExtra(Constants.EXTRA_CATEGORY_NAME, category.getName());
+        startActivity(intent);
     }
 }
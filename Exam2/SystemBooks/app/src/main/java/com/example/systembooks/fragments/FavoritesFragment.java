@@ -6,6 +6,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ProgressBar;
+import android.widget.SearchView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -20,6 +21,7 @@ import com.example.systembooks.adapters.BookAdapter;
 import com.example.systembooks.models.Book;
 import com.example.systembooks.models.FavoriteBook;
 import com.example.systembooks.repositories.FavoritesRepository;
+import com.example.systembooks.repositories.LibrarySearchRepository;
 import com.example.systembooks.util.SessionManager;
 
 import java.util.ArrayList;
@@ -30,10 +32,13 @@ public class FavoritesFragment extends Fragment {
     private RecyclerView recyclerView;
     private TextView emptyView;
     private ProgressBar progressBar;
+    private SearchView searchView;
 
     private BookAdapter adapter;
     private FavoritesRepository favoritesRepository;
+    private LibrarySearchRepository libraryRepository;
     private SessionManager sessionManager;
+    private String currentQuery = "";
 
     @Nullable
     @Override
@@ -44,6 +49,7 @@ public class FavoritesFragment extends Fragment {
         recyclerView = view.findViewById(R.id.recyclerViewFavorites);
         emptyView = view.findViewById(R.id.emptyView);
         progressBar = view.findViewById(R.id.progressBar);
+        searchView = view.findViewById(R.id.searchViewLibrary);
         
         // Setup RecyclerView
         recyclerView.setLayoutManager(new GridLayoutManager(getContext(), 2));
@@ -52,15 +58,69 @@ public class FavoritesFragment extends Fragment {
         
         // Initialize repositories and session manager
         favoritesRepository = new FavoritesRepository(getContext());
+        libraryRepository = new LibrarySearchRepository(getContext());
         sessionManager = new SessionManager(getContext());
         
+        setupSearchView();
+        
         return view;
     }
+    
+    private void setupSearchView() {
+        // Local FTS search is cheap enough to run on every keystroke
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                searchLibrary(query);
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                searchLibrary(newText);
+                return true;
+            }
+        });
+    }
 
     @Override
     public void onResume() {
         super.onResume();
-        loadFavoriteBooks();
+        if (currentQuery.isEmpty()) {
+            loadFavoriteBooks();
+        } else {
+            searchLibrary(currentQuery);
+        }
+    }
+    
+    /**
+     * Searches favorites and cached books offline; an empty query goes back to the favorites list
+     */
+    private void searchLibrary(String query) {
+        currentQuery = query != null ? query.trim() : "";
+        if (currentQuery.isEmpty()) {
+            loadFavoriteBooks();
+            return;
+        }
+        
+        final String searchedQuery = currentQuery;
+        long userId = sessionManager.isLoggedIn() ? sessionManager.getUserId() : -1;
+        libraryRepository.searchAsync(userId, searchedQuery, books -> {
+            // Drop results for a query the user has already typed past
+            if (!isAdded() || !searchedQuery.equals(currentQuery)) {
+                return;
+            }
+            if (books.isEmpty()) {
+                emptyView.setText(R.string.no_library_results);
+                showEmptyView();
+            } else {
+                adapter.updateBooks(books);
+                if (userId != -1) {
+                    favoritesRepository.getFavoriteStatusForBooksAsync(userId, books, adapter::setFavoriteIds);
+                }
+                showContent();
+            }
+        });
     }
 
     private void loadFavoriteBooks() {
@@ -71,8 +131,10 @@ public class FavoritesFragment extends Fragment {
         
         showLoading();
         
-        new Thread(() -> {
-            final List<FavoriteBook> favorites = favoritesRepository.getFavorites(sessionManager.getUserId());
+        favoritesRepository.getFavoritesAsync(sessionManager.getUserId(), favorites -> {
+            if (!isAdded() || !currentQuery.isEmpty()) {
+                return;
+            }
             
             // Convert FavoriteBook objects to Book objects
             final List<Book> favoriteBooks = new ArrayList<>();
@@ -82,17 +144,14 @@ public class FavoritesFragment extends Fragment {
                 favoriteBooks.add(book);
             }
             
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
-                    if (favoriteBooks != null && !favoriteBooks.isEmpty()) {
-                        adapter.updateBooks(favoriteBooks);
-                        showContent();
-                    } else {
-                        showEmptyView();
-                    }
-                });
+            if (!favoriteBooks.isEmpty()) {
+                adapter.updateBooks(favoriteBooks);
+                showContent();
+            } else {
+                emptyView.setText(R.string.no_favorites);
+                showEmptyView();
             }
-        }).start();
+        });
     }
     
     private void showLoading() {
@@ -21,8 +21,10 @@ import com.example.systembooks.activities.BookDetailActivity;
 import com.example.systembooks.adapters.BookAdapter;
 import com.example.systembooks.models.Book;
 import com.example.systembooks.repositories.BookRepository;
+import com.example.systembooks.repositories.FavoritesRepository;
 import com.example.systembooks.util.SessionManager;
-import com.example.systembooks.utils.RecommendationEngine;
+import com.example.systembooks.utils.HomeWarmupScheduler;
+import com.example.systembooks.utils.StartupTrace;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,7 +39,8 @@ public class HomeFragment extends Fragment {
     private View loadingView;
     private View errorView;
     
-    private RecommendationEngine recommendationEngine;
+    private HomeWarmupScheduler warmupScheduler;
+    private FavoritesRepository favoritesRepository;
     private SessionManager sessionManager;
 
     @Nullable
@@ -53,15 +56,16 @@ public class HomeFragment extends Fragment {
         errorView = view.findViewById(R.id.error_view); // Make sure this ID exists in your layout
         
         // Initialize repositories and utilities
-        recommendationEngine = new RecommendationEngine(requireContext());
+        warmupScheduler = HomeWarmupScheduler.getInstance(requireContext());
+        favoritesRepository = new FavoritesRepository(requireContext());
         sessionManager = new SessionManager(requireContext());
         
         setupRecyclerView();
         setupSwipeRefresh();
         updateTitle();
         
-        // Load personalized recommendations
-        loadRecommendedBooks();
+        // Render the last-known snapshot right away, then refresh from the network
+        restoreSnapshotAndRefresh();
         
         return view;
     }
@@ -81,7 +85,7 @@ public class HomeFragment extends Fragment {
     }
     
     private void setupSwipeRefresh() {
-        swipeRefreshLayout.setOnRefreshListener(this::loadRecommendedBooks);
+        swipeRefreshLayout.setOnRefreshListener(() -> loadRecommendedBooks(true));
         swipeRefreshLayout.setColorSchemeResources(
             R.color.colorPrimary, 
             R.color.colorAccent, 
@@ -99,18 +103,50 @@ public class HomeFragment extends Fragment {
         }
     }
     
-    private void loadRecommendedBooks() {
-        showLoading();
+    private void restoreSnapshotAndRefresh() {
+        String snapshotKey = HomeWarmupScheduler.snapshotKey(sessionManager);
+        warmupScheduler.loadSnapshot(snapshotKey, books -> {
+            if (!isAdded()) {
+                return;
+            }
+            if (books != null && !books.isEmpty() && bookAdapter.getItemCount() == 0) {
+                bookAdapter.updateBooks(books);
+                refreshFavoriteBadges(books);
+                showContent();
+                reportFirstContent(true);
+            }
+            loadRecommendedBooks(false);
+        });
+    }
+    
+    // End of startup: TTFC in the log and timeToFullDisplay for Macrobenchmark (later calls are ignored)
+    private void reportFirstContent(boolean fromSnapshot) {
+        StartupTrace.reportFirstContent(fromSnapshot);
+        if (getActivity() != null) {
+            getActivity().reportFullyDrawn();
+        }
+    }
+    
+    private void loadRecommendedBooks(boolean forceRefresh) {
+        if (bookAdapter.getItemCount() == 0) {
+            showLoading();
+        } else if (swipeRefreshLayout != null) {
+            // Keep the snapshot on screen while the fresh list loads
+            swipeRefreshLayout.setRefreshing(true);
+        }
         
-        recommendationEngine.getRecommendations(new BookRepository.BookCallback<List<Book>>() {
+        String snapshotKey = HomeWarmupScheduler.snapshotKey(sessionManager);
+        warmupScheduler.getRecommendations(snapshotKey, forceRefresh, new BookRepository.BookCallback<List<Book>>() {
             @Override
             public void onSuccess(List<Book> books) {
                 if (isAdded() && getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
                         if (books != null && !books.isEmpty()) {
                             bookAdapter.updateBooks(books);
+                            refreshFavoriteBadges(books);
                             showContent();
-                        } else {
+                            reportFirstContent(false);
+                        } else if (bookAdapter.getItemCount() == 0) {
                             showError("No se encontraron libros para recomendar");
                         }
                         swipeRefreshLayout.setRefreshing(false);
@@ -123,7 +159,9 @@ public class HomeFragment extends Fragment {
                 if (isAdded() && getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
                         Log.e(TAG, "Error loading recommendations: " + errorMessage);
-                        showError(getString(R.string.error_loading_recommendations));
+                        if (bookAdapter.getItemCount() == 0) {
+                            showError(getString(R.string.error_loading_recommendations));
+                        }
                         Toast.makeText(getContext(), errorMessage, Toast.LENGTH_SHORT).show();
                         swipeRefreshLayout.setRefreshing(false);
                     });
@@ -132,6 +170,14 @@ public class HomeFragment extends Fragment {
         });
     }
     
+    
+    private void refreshFavoriteBadges(List<Book> books) {
+        if (!sessionManager.isLoggedIn()) {
+            return;
+        }
+        favoritesRepository.getFavoriteStatusForBooksAsync(sessionManager.getUserId(), books, bookAdapter::setFavoriteIds);
+    }
+    
     private void showLoading() {
         if (swipeRefreshLayout != null && !swipeRefreshLayout.isRefreshing()) {
             swipeRefreshLayout.setRefreshing(true);
@@ -19,6 +19,7 @@ import com.example.systembooks.R;
 import com.example.systembooks.adapters.BookAdapter;
 import com.example.systembooks.models.Book;
 import com.example.systembooks.repositories.BookRepository;
+import com.example.systembooks.repositories.FavoritesRepository;
 import com.example.systembooks.repositories.SearchHistoryRepository;
 import com.example.systembooks.util.SessionManager;
 import com.example.systembooks.utils.NetworkUtils;
@@ -42,6 +43,7 @@ public class SearchFragment extends Fragment {
     
     // Añadir repositorio de historial y gestor de sesión
     private SearchHistoryRepository searchHistoryRepository;
+    private FavoritesRepository favoritesRepository;
     private SessionManager sessionManager;
 
     @Nullable
@@ -64,6 +66,7 @@ public class SearchFragment extends Fragment {
         
         // Inicializar repositorio de historial y gestor de sesión
         searchHistoryRepository = new SearchHistoryRepository(requireContext());
+        favoritesRepository = new FavoritesRepository(requireContext());
         sessionManager = new SessionManager(requireContext());
         
         setupRecyclerView();
@@ -122,6 +125,13 @@ public class SearchFragment extends Fragment {
         });
     }
 
+    private void refreshFavoriteBadges(List<Book> books) {
+        if (!sessionManager.isLoggedIn()) {
+            return;
+        }
+        favoritesRepository.getFavoriteStatusForBooksAsync(sessionManager.getUserId(), books, bookAdapter::setFavoriteIds);
+    }
+    
     private void performSearch(String query) {
         // Verificar conectividad a internet
         if (!NetworkUtils.isNetworkAvailable(requireContext())) {
@@ -138,17 +148,15 @@ public class SearchFragment extends Fragment {
                 
                 // Guardar la búsqueda en el historial si el usuario está logueado
                 if (sessionManager.isLoggedIn()) {
-                    // Ejecutar en un hilo separado para no bloquear la UI
-                    new Thread(() -> {
-                        long userId = sessionManager.getUserId();
-                        searchHistoryRepository.saveSearchQuery(userId, query);
-                    }).start();
+                    // Se ejecuta en el hilo de E/S de la base de datos para no bloquear la UI
+                    searchHistoryRepository.saveSearchQueryAsync(sessionManager.getUserId(), query);
                 }
                 
                 if (result.isEmpty()) {
                     showEmptyView();
                 } else {
                     bookAdapter.updateBooks(result);
+                    refreshFavoriteBadges(result);
                     showResultsView();
                 }
             }
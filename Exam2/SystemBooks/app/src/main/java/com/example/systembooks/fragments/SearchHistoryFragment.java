@@ -88,22 +88,18 @@ public class SearchHistoryFragment extends Fragment implements SearchHistoryAdap
             return;
         }
 
-        // Load search history in a background thread
-        new Thread(() -> {
-            List<SearchHistoryItem> items = repository.getSearchHistory(userId);
-
-            // Update UI on the main thread
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    if (items.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        showSearchHistory(items);
-                    }
-                });
+        // Load search history on the disk I/O thread
+        repository.getSearchHistoryAsync(userId, items -> {
+            if (!isAdded()) {
+                return;
             }
-        }).start();
+            progressBar.setVisibility(View.GONE);
+            if (items.isEmpty()) {
+                showEmptyState();
+            } else {
+                showSearchHistory(items);
+            }
+        });
     }
 
     private void showSearchHistory(List<SearchHistoryItem> items) {
@@ -133,20 +129,16 @@ public class SearchHistoryFragment extends Fragment implements SearchHistoryAdap
         // Get current user ID
         Long userId = sessionManager.getUserId();
 
-        // Clear search history in a background thread
-        new Thread(() -> {
-            repository.clearSearchHistory(userId);
-
-            // Update UI on the main thread
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    historyItems.clear();
-                    adapter.notifyDataSetChanged();
-                    showEmptyState();
-                });
+        // Clear search history on the disk I/O thread
+        repository.clearSearchHistoryAsync(userId, cleared -> {
+            if (!isAdded()) {
+                return;
             }
-        }).start();
+            progressBar.setVisibility(View.GONE);
+            historyItems.clear();
+            adapter.notifyDataSetChanged();
+            showEmptyState();
+        });
     }
 
     @Override
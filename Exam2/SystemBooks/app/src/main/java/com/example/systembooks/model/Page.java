@@ -0,0 +1,40 @@
+package com.example.systembooks.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Una página de resultados con el cursor para pedir la siguiente.
+ * nextCursor es null cuando ya no quedan más elementos
+ * @param <T> tipo de elemento
+ * @param <C> tipo de cursor (id numérico en la API, DocumentSnapshot en Firestore)
+ */
+public class Page<T, C> {
+    public static final int UNKNOWN_TOTAL = -1;
+
+    private final List<T> items;
+    private final C nextCursor;
+    private final int totalCount;
+
+    public Page(List<T> items, C nextCursor, int totalCount) {
+        this.items = items != null ? items : Collections.emptyList();
+        this.nextCursor = nextCursor;
+        this.totalCount = totalCount;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public C getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+}
@@ -3,12 +3,20 @@ package com.example.systembooks.models;
 public class Category {
     private String name;
     private String slug;
+    // Número de obras del tema en Open Library; -1 mientras no se conoce
+    private int workCount = -1;
 
     public Category(String name, String slug) {
         this.name = name;
         this.slug = slug;
     }
 
+    public Category(String name, String slug, int workCount) {
+        this.name = name;
+        this.slug = slug;
+        this.workCount = workCount;
+    }
+
     public String getName() {
         return name;
     }
@@ -24,4 +32,12 @@ public class Category {
     public void setSlug(String slug) {
         this.slug = slug;
     }
+
+    public int getWorkCount() {
+        return workCount;
+    }
+
+    public void setWorkCount(int workCount) {
+        this.workCount = workCount;
+    }
 }
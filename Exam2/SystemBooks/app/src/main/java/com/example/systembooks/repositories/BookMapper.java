@@ -0,0 +1,98 @@
+package com.example.systembooks.repositories;
+
+import com.example.systembooks.models.Book;
+import com.example.systembooks.network.models.BookResponse;
+import com.example.systembooks.network.models.CategoryResponse;
+import com.example.systembooks.network.models.SearchResponse;
+import com.example.systembooks.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversión de las respuestas de Open Library al modelo {@link Book}.
+ * Sin dependencias de Android, para poder medirla también en la JVM (módulo benchmark-jvm)
+ */
+public final class BookMapper {
+
+    private BookMapper() {}
+
+    // Convertir SearchResponse.BookDoc a Book
+    public static List<Book> fromSearchDocs(List<SearchResponse.BookDoc> docs) {
+        List<Book> books = new ArrayList<>();
+        if (docs != null) {
+            for (SearchResponse.BookDoc doc : docs) {
+                String id = doc.getKey().replace("/works/", "");
+                Book book = new Book(id, doc.getTitle(), doc.getPrimaryAuthor());
+                
+                // Establecer URL de portada si existe
+                if (doc.getCoverId() != null) {
+                    book.setCoverUrl(String.format(Constants.COVER_URL, doc.getCoverId()));
+                }
+                
+                if (doc.getFirstPublishYear() != null) {
+                    book.setPublishYear(doc.getFirstPublishYear().toString());
+                }
+                
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // Convertir BookResponse a Book
+    public static Book fromWork(BookResponse response) {
+        String id = response.getKey().replace("/works/", "");
+        String title = response.getTitle();
+        String author = "Desconocido";
+        
+        // Extraer el primer autor si existe
+        if (response.getAuthors() != null && !response.getAuthors().isEmpty()) {
+            author = response.getAuthors().get(0).getAuthorKey();
+        }
+        
+        Book book = new Book(id, title, author);
+        
+        // Establecer descripción
+        book.setDescription(response.getDescriptionText());
+        
+        // Establecer número de páginas
+        if (response.getNumberOfPages() != null) {
+            book.setPageCount(response.getNumberOfPages());
+        }
+        
+        // Establecer editorial
+        if (response.getPublishers() != null && !response.getPublishers().isEmpty()) {
+            book.setPublisher(response.getPublishers().get(0).getName());
+        }
+        
+        // Establecer año de publicación
+        book.setPublishYear(response.getPublishDate());
+        
+        // Establecer URL de portada si existe
+        if (response.getCovers() != null && !response.getCovers().isEmpty()) {
+            book.setCoverUrl(String.format(Constants.COVER_URL, response.getCovers().get(0)));
+        }
+        
+        return book;
+    }
+
+    // Convertir CategoryResponse.Work a Book
+    public static List<Book> fromSubjectWorks(List<CategoryResponse.Work> works) {
+        List<Book> books = new ArrayList<>();
+        if (works != null) {
+            for (CategoryResponse.Work work : works) {
+                String id = work.getKey().replace("/works/", "");
+                Book book = new Book(id, work.getTitle(), work.getAuthorName());
+                
+                // Establecer URL de portada si existe
+                if (work.getCoverId() != null) {
+                    book.setCoverUrl(String.format(Constants.COVER_URL, work.getCoverId()));
+                }
+                
+                books.add(book);
+            }
+        }
+        return books;
+    }
+}
@@ -8,10 +8,8 @@ import com.example.systembooks.network.api.OpenLibraryApi;
 import com.example.systembooks.network.models.BookResponse;
 import com.example.systembooks.network.models.CategoryResponse;
 import com.example.systembooks.network.models.SearchResponse;
-import com.example.systembooks.utils.Constants;
 import com.example.systembooks.utils.ErrorUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import retrofit2.Call;
@@ -23,11 +21,20 @@ public class BookRepository {
     private Context context;
     private OpenLibraryApi apiService;
     private SearchHistoryRepository searchHistoryRepository;
+    private LibrarySearchRepository libraryRepository;
 
     public BookRepository(Context context) {
+        this(context, ApiClient.getApiService(context));
+    }
+
+    /**
+     * Permite usar otro cliente de Open Library (p. ej. el servidor de respuestas grabadas de los benchmarks)
+     */
+    public BookRepository(Context context, OpenLibraryApi apiService) {
         this.context = context;
-        this.apiService = ApiClient.getApiService(context);
+        this.apiService = apiService;
         this.searchHistoryRepository = new SearchHistoryRepository(context);
+        this.libraryRepository = new LibrarySearchRepository(context);
     }
 
     // Interfaz para manejar respuestas asincrónicas
@@ -42,7 +49,8 @@ public class BookRepository {
             @Override
             public void onResponse(Call<SearchResponse> call, Response<SearchResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    List<Book> books = convertToBooks(response.body().getDocs());
+                    List<Book> books = BookMapper.fromSearchDocs(response.body().getDocs());
+                    libraryRepository.cacheBooksAsync(books);
                     callback.onSuccess(books);
                 } else {
                     callback.onError(ErrorUtils.getErrorMessage(response));
@@ -70,10 +78,11 @@ public class BookRepository {
                 if (response.isSuccessful() && response.body() != null) {
                     // Guardar la búsqueda en el historial si el usuario está logueado (userId > 0)
                     if (userId > 0) {
-                        searchHistoryRepository.saveSearchQuery(userId, query);
+                        searchHistoryRepository.saveSearchQueryAsync(userId, query);
                     }
                     
-                    List<Book> books = convertToBooks(response.body().getDocs());
+                    List<Book> books = BookMapper.fromSearchDocs(response.body().getDocs());
+                    libraryRepository.cacheBooksAsync(books);
                     callback.onSuccess(books);
                 } else {
                     callback.onError(ErrorUtils.getErrorMessage(response));
@@ -93,7 +102,7 @@ public class BookRepository {
             @Override
             public void onResponse(Call<BookResponse> call, Response<BookResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    Book book = convertToBook(response.body());
+                    Book book = BookMapper.fromWork(response.body());
                     callback.onSuccess(book);
                 } else {
                     callback.onError(ErrorUtils.getErrorMessage(response));
@@ -109,12 +118,28 @@ public class BookRepository {
 
     // Obtener libros por categoría
     public void getBooksByCategory(String category, int limit, int offset, BookCallback<List<Book>> callback) {
+        getCategoryPage(category, limit, offset, new BookCallback<CategoryPage>() {
+            @Override
+            public void onSuccess(CategoryPage page) {
+                callback.onSuccess(page.getBooks());
+            }
+
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    // Obtener una página de una categoría junto con el total de obras del tema
+    public void getCategoryPage(String category, int limit, int offset, BookCallback<CategoryPage> callback) {
         apiService.getBooksInCategory(category, limit, offset).enqueue(new Callback<CategoryResponse>() {
             @Override
             public void onResponse(Call<CategoryResponse> call, Response<CategoryResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    List<Book> books = convertCategoryToBooks(response.body().getWorks());
-                    callback.onSuccess(books);
+                    List<Book> books = BookMapper.fromSubjectWorks(response.body().getWorks());
+                    libraryRepository.cacheBooksAsync(books);
+                    callback.onSuccess(new CategoryPage(response.body().getName(), response.body().getWorkCount(), books));
                 } else {
                     callback.onError(ErrorUtils.getErrorMessage(response));
                 }
@@ -127,82 +152,30 @@ public class BookRepository {
         });
     }
 
-    // Convertir SearchResponse.BookDoc a Book
-    private List<Book> convertToBooks(List<SearchResponse.BookDoc> docs) {
-        List<Book> books = new ArrayList<>();
-        if (docs != null) {
-            for (SearchResponse.BookDoc doc : docs) {
-                String id = doc.getKey().replace("/works/", "");
-                Book book = new Book(id, doc.getTitle(), doc.getPrimaryAuthor());
-                
-                // Establecer URL de portada si existe
-                if (doc.getCoverId() != null) {
-                    book.setCoverUrl(String.format(Constants.COVER_URL, doc.getCoverId()));
-                }
-                
-                if (doc.getFirstPublishYear() != null) {
-                    book.setPublishYear(doc.getFirstPublishYear().toString());
-                }
-                
-                books.add(book);
-            }
+    /**
+     * Una página de libros de un tema y los metadatos que Open Library devuelve con ella
+     */
+    public static class CategoryPage {
+        private final String subjectName;
+        private final int workCount;
+        private final List<Book> books;
+
+        public CategoryPage(String subjectName, int workCount, List<Book> books) {
+            this.subjectName = subjectName;
+            this.workCount = workCount;
+            this.books = books;
         }
-        return books;
-    }
 
-    // Convertir BookResponse a Book
-    private Book convertToBook(BookResponse response) {
-        String id = response.getKey().replace("/works/", "");
-        String title = response.getTitle();
-        String author = "Desconocido";
-        
-        // Extraer el primer autor si existe
-        if (response.getAuthors() != null && !response.getAuthors().isEmpty()) {
-            author = response.getAuthors().get(0).getAuthorKey();
-        }
-        
-        Book book = new Book(id, title, author);
-        
-        // Establecer descripción
-        book.setDescription(response.getDescriptionText());
-        
-        // Establecer número de páginas
-        if (response.getNumberOfPages() != null) {
-            book.setPageCount(response.getNumberOfPages());
+        public String getSubjectName() {
+            return subjectName;
         }
-        
-        // Establecer editorial
-        if (response.getPublishers() != null && !response.getPublishers().isEmpty()) {
-            book.setPublisher(response.getPublishers().get(0).getName());
-        }
-        
-        // Establecer año de publicación
-        book.setPublishYear(response.getPublishDate());
-        
-        // Establecer URL de portada si existe
-        if (response.getCovers() != null && !response.getCovers().isEmpty()) {
-            book.setCoverUrl(String.format(Constants.COVER_URL, response.getCovers().get(0)));
+
+        public int getWorkCount() {
+            return workCount;
         }
-        
-        return book;
-    }
 
-    // Convertir CategoryResponse.Work a Book
-    private List<Book> convertCategoryToBooks(List<CategoryResponse.Work> works) {
-        List<Book> books = new ArrayList<>();
-        if (works != null) {
-            for (CategoryResponse.Work work : works) {
-                String id = work.getKey().replace("/works/", "");
-                Book book = new Book(id, work.getTitle(), work.getAuthorName());
-                
-                // Establecer URL de portada si existe
-                if (work.getCoverId() != null) {
-                    book.setCoverUrl(String.format(Constants.COVER_URL, work.getCoverId()));
-                }
-                
-                books.add(book);
-            }
+        public List<Book> getBooks() {
+            return books;
         }
-        return books;
     }
 }
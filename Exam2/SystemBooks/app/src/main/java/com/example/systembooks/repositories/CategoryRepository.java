@@ -1,43 +1,333 @@
 package com.example.systembooks.repositories;
 
 import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
 
+import com.example.systembooks.models.Book;
 import com.example.systembooks.models.Category;
+import com.example.systembooks.utils.AppExecutors;
+import com.example.systembooks.utils.Constants;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Catálogo de temas con el número de obras de cada uno, ordenado de más a menos obras.
+ * Se descarga una vez (una petición por tema, que trae también su primera página de libros),
+ * se guarda en SharedPreferences y se refresca en segundo plano cuando caduca.
+ * Las primeras páginas quedan en {@link HomeSnapshotStore}, así que abrir un tema no espera a la red.
+ */
 public class CategoryRepository {
+    private static final String TAG = "CategoryRepository";
+    private static final String PREF_NAME = "category_catalog";
+    private static final String KEY_CATEGORIES = "categories";
+    private static final String KEY_FETCHED_AT = "fetched_at";
+
+    private static final long CATALOG_TTL_MS = 24 * 60 * 60 * 1000L;
+    // Una primera página más antigua se muestra igualmente, pero se pide de nuevo en segundo plano
+    private static final long PAGE_TTL_MS = 60 * 60 * 1000L;
+    private static final int PAGE_SIZE = Constants.DEFAULT_PAGE_SIZE;
+
+    private static final Type CATEGORY_LIST_TYPE = new TypeToken<List<Category>>() {}.getType();
+
+    // Temas del catálogo con su nombre en español; el orden real lo deciden los recuentos
+    private static final String[][] SUBJECTS = {
+            {"Ficción", "fiction"},
+            {"Ciencia Ficción", "science_fiction"},
+            {"Fantasía", "fantasy"},
+            {"Misterio", "mystery"},
+            {"Romance", "romance"},
+            {"Thriller", "thriller"},
+            {"Biografía", "biography"},
+            {"Historia", "history"},
+            {"Infantil", "children"},
+            {"Poesía", "poetry"},
+            {"Drama", "drama"},
+            {"Comedia", "comedy"}
+    };
+
+    // Estado compartido por todas las instancias del proceso
+    private static final Object lock = new Object();
+    private static List<Category> catalog;
+    private static long catalogFetchedAt;
+    private static boolean refreshInFlight = false;
+
+    private final Context context;
+    private final SharedPreferences preferences;
+    private final HomeSnapshotStore snapshotStore;
+    private final Gson gson = new Gson();
+    private BookRepository bookRepository;
 
-    private Context context;
-    
     public CategoryRepository(Context context) {
-        this.context = context;
+        this.context = context.getApplicationContext();
+        this.preferences = this.context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.snapshotStore = HomeSnapshotStore.getInstance(this.context);
     }
-    
+
     // Interfaz para manejar respuestas asincrónicas
     public interface CategoryCallback {
         void onSuccess(List<Category> categories);
         void onError(String message);
     }
-    
-    // Obtener categorías disponibles
-    // Por ahora usamos datos estáticos, en el futuro podríamos obtenerlos de la API
+
+    /**
+     * Entrega el catálogo guardado (o la lista base si aún no hay recuentos) en el hilo principal
+     * y lo refresca en segundo plano si ha caducado
+     */
     public void getCategories(CategoryCallback callback) {
-        List<Category> categories = new ArrayList<>();
-        categories.add(new Category("Ficción", "fiction"));
-        categories.add(new Category("Ciencia Ficción", "science_fiction"));
-        categories.add(new Category("Fantasía", "fantasy"));
-        categories.add(new Category("Misterio", "mystery"));
-        categories.add(new Category("Romance", "romance"));
-        categories.add(new Category("Thriller", "thriller"));
-        categories.add(new Category("Biografía", "biography"));
-        categories.add(new Category("Historia", "history"));
-        categories.add(new Category("Infantil", "children"));
-        categories.add(new Category("Poesía", "poetry"));
-        categories.add(new Category("Drama", "drama"));
-        categories.add(new Category("Comedia", "comedy"));
-        
-        callback.onSuccess(categories);
+        List<Category> cached;
+        synchronized (lock) {
+            cached = catalog;
+        }
+        if (cached != null) {
+            AppExecutors.mainThread().execute(() -> callback.onSuccess(cached));
+            refreshIfStale();
+            return;
+        }
+        AppExecutors.runOnDiskIO(this::loadCatalog, categories -> {
+            callback.onSuccess(categories);
+            refreshIfStale();
+        });
+    }
+
+    /**
+     * Primera página de un tema: la guardada si existe (al instante), si no la de la red
+     */
+    public void getCategoryBooks(String slug, BookRepository.BookCallback<List<Book>> callback) {
+        String key = HomeSnapshotStore.categoryKey(slug);
+        AppExecutors.runOnDiskIO(() -> {
+            snapshotStore.load();
+            return snapshotStore.get(key);
+        }, cached -> {
+            if (cached != null) {
+                callback.onSuccess(cached);
+                if (System.currentTimeMillis() - snapshotStore.getSavedAt(key) > PAGE_TTL_MS) {
+                    fetchFirstPage(slug, null);
+                }
+            } else {
+                fetchFirstPage(slug, callback);
+            }
+        });
+    }
+
+    /**
+     * Prepara el catálogo y las primeras páginas de los temas con más obras.
+     * Pensado para el arranque: si el catálogo caducó lo refresca entero (eso ya trae todas las páginas)
+     * @param onDone se llama cuando terminan todas las peticiones, en cualquier hilo
+     */
+    public void prewarm(int topCount, Runnable onDone) {
+        List<Category> categories = loadCatalog();
+        if (refreshIfStale(onDone)) {
+            return;
+        }
+        snapshotStore.load();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < categories.size() && i < topCount; i++) {
+            String key = HomeSnapshotStore.categoryKey(categories.get(i).getSlug());
+            if (snapshotStore.get(key) == null
+                    || System.currentTimeMillis() - snapshotStore.getSavedAt(key) > PAGE_TTL_MS) {
+                missing.add(categories.get(i).getSlug());
+            }
+        }
+        if (missing.isEmpty()) {
+            onDone.run();
+            return;
+        }
+        final int[] remaining = {missing.size()};
+        for (String slug : missing) {
+            getBookRepository().getCategoryPage(slug, PAGE_SIZE, 0, new BookRepository.BookCallback<BookRepository.CategoryPage>() {
+                @Override
+                public void onSuccess(BookRepository.CategoryPage page) {
+                    snapshotStore.save(HomeSnapshotStore.categoryKey(slug), page.getBooks());
+                    onPageDone();
+                }
+
+                @Override
+                public void onError(String message) {
+                    Log.w(TAG, "Category prefetch failed for " + slug + ": " + message);
+                    onPageDone();
+                }
+
+                private void onPageDone() {
+                    synchronized (remaining) {
+                        if (--remaining[0] == 0) {
+                            onDone.run();
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    public void refreshIfStale() {
+        refreshIfStale(null);
+    }
+
+    /**
+     * Pide los recuentos de todos los temas si el catálogo caducó.
+     * Cada respuesta trae además la primera página del tema, que se guarda para abrirlo al instante
+     * @return true si se lanzó un refresco (onDone se llamará al terminar)
+     */
+    private boolean refreshIfStale(Runnable onDone) {
+        synchronized (lock) {
+            if (refreshInFlight || (catalog != null
+                    && System.currentTimeMillis() - catalogFetchedAt < CATALOG_TTL_MS)) {
+                return false;
+            }
+            refreshInFlight = true;
+        }
+
+        Map<String, Category> refreshed = new LinkedHashMap<>();
+        for (String[] subject : SUBJECTS) {
+            refreshed.put(subject[1], new Category(subject[0], subject[1]));
+        }
+        final int[] remaining = {SUBJECTS.length};
+        final boolean[] anySuccess = {false};
+        for (String[] subject : SUBJECTS) {
+            String slug = subject[1];
+            getBookRepository().getCategoryPage(slug, PAGE_SIZE, 0, new BookRepository.BookCallback<BookRepository.CategoryPage>() {
+                @Override
+                public void onSuccess(BookRepository.CategoryPage page) {
+                    snapshotStore.save(HomeSnapshotStore.categoryKey(slug), page.getBooks());
+                    synchronized (remaining) {
+                        refreshed.get(slug).setWorkCount(page.getWorkCount());
+                        anySuccess[0] = true;
+                    }
+                    onSubjectDone();
+                }
+
+                @Override
+                public void onError(String message) {
+                    Log.w(TAG, "Could not refresh subject " + slug + ": " + message);
+                    onSubjectDone();
+                }
+
+                private void onSubjectDone() {
+                    synchronized (remaining) {
+                        if (--remaining[0] > 0) {
+                            return;
+                        }
+                    }
+                    finishRefresh(new ArrayList<>(refreshed.values()), anySuccess[0]);
+                    if (onDone != null) {
+                        onDone.run();
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    private void finishRefresh(List<Category> refreshed, boolean anySuccess) {
+        if (!anySuccess) {
+            // Sin red: se conserva el catálogo anterior y se reintenta en la próxima consulta
+            synchronized (lock) {
+                refreshInFlight = false;
+            }
+            return;
+        }
+        // Los temas que fallaron conservan su último recuento conocido
+        List<Category> previous;
+        synchronized (lock) {
+            previous = catalog;
+        }
+        if (previous != null) {
+            for (Category category : refreshed) {
+                if (category.getWorkCount() < 0) {
+                    for (Category old : previous) {
+                        if (old.getSlug().equals(category.getSlug())) {
+                            category.setWorkCount(old.getWorkCount());
+                        }
+                    }
+                }
+            }
+        }
+        sortByWorkCount(refreshed);
+        List<Category> result = Collections.unmodifiableList(refreshed);
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            catalog = result;
+            catalogFetchedAt = now;
+            refreshInFlight = false;
+        }
+        preferences.edit()
+                .putString(KEY_CATEGORIES, gson.toJson(result, CATEGORY_LIST_TYPE))
+                .putLong(KEY_FETCHED_AT, now)
+                .apply();
+    }
+
+    private void fetchFirstPage(String slug, BookRepository.BookCallback<List<Book>> callback) {
+        getBookRepository().getCategoryPage(slug, PAGE_SIZE, 0, new BookRepository.BookCallback<BookRepository.CategoryPage>() {
+            @Override
+            public void onSuccess(BookRepository.CategoryPage page) {
+                snapshotStore.save(HomeSnapshotStore.categoryKey(slug), page.getBooks());
+                if (callback != null) {
+                    callback.onSuccess(page.getBooks());
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                if (callback != null) {
+                    callback.onError(message);
+                }
+            }
+        });
+    }
+
+    /**
+     * Catálogo en memoria; la primera vez lo lee de disco. Llamar fuera del hilo principal
+     */
+    private List<Category> loadCatalog() {
+        synchronized (lock) {
+            if (catalog != null) {
+                return catalog;
+            }
+        }
+        List<Category> loaded = null;
+        String json = preferences.getString(KEY_CATEGORIES, null);
+        if (json != null) {
+            try {
+                loaded = gson.fromJson(json, CATEGORY_LIST_TYPE);
+            } catch (JsonParseException e) {
+                Log.w(TAG, "Discarding corrupt category catalog", e);
+            }
+        }
+        long fetchedAt = loaded != null ? preferences.getLong(KEY_FETCHED_AT, 0) : 0;
+        if (loaded == null || loaded.isEmpty()) {
+            // Sin catálogo guardado: lista base sin recuentos, con fecha 0 para que se refresque
+            loaded = new ArrayList<>();
+            for (String[] subject : SUBJECTS) {
+                loaded.add(new Category(subject[0], subject[1]));
+            }
+        }
+        synchronized (lock) {
+            if (catalog == null) {
+                catalog = Collections.unmodifiableList(loaded);
+                catalogFetchedAt = fetchedAt;
+            }
+            return catalog;
+        }
+    }
+
+    private static void sortByWorkCount(List<Category> categories) {
+        Collections.sort(categories, (a, b) -> Integer.compare(b.getWorkCount(), a.getWorkCount()));
+    }
+
+    private BookRepository getBookRepository() {
+        synchronized (this) {
+            if (bookRepository == null) {
+                bookRepository = new BookRepository(context);
+            }
+            return bookRepository;
+        }
     }
 }
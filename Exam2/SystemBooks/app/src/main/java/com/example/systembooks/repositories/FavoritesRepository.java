@@ -7,24 +7,89 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.util.Log;
 
+import androidx.annotation.WorkerThread;
+
 import com.example.systembooks.database.DatabaseHelper;
 import com.example.systembooks.models.Book;
 import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.utils.AppExecutors;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Local favorites storage. The blocking methods are {@link WorkerThread}-only;
+ * UI code should use the *Async variants, which run on {@link AppExecutors#diskIO()}
+ * and deliver their result on the main thread.
+ */
 public class FavoritesRepository {
     private static final String TAG = "FavoritesRepository";
+    
+    // Per-user favorite book ids, shared by every repository instance and kept coherent on add/remove.
+    // A user is only present once their full id set has been loaded.
+    private static final Map<Long, Set<String>> favoriteIdsByUser = new ConcurrentHashMap<>();
+    
     private final DatabaseHelper dbHelper;
     
     public FavoritesRepository(Context context) {
         this.dbHelper = DatabaseHelper.getInstance(context);
     }
     
+    public void addToFavoritesAsync(long userId, Book book, RepositoryCallback<Boolean> callback) {
+        AppExecutors.runOnDiskIO(() -> addToFavorites(userId, book), callback);
+    }
+    
+    public void removeFromFavoritesAsync(long userId, String bookId, RepositoryCallback<Boolean> callback) {
+        AppExecutors.runOnDiskIO(() -> removeFromFavorites(userId, bookId), callback);
+    }
+    
+    public void isFavoriteAsync(long userId, String bookId, RepositoryCallback<Boolean> callback) {
+        AppExecutors.runOnDiskIO(() -> isFavorite(userId, bookId), callback);
+    }
+    
+    public void getFavoritesAsync(long userId, RepositoryCallback<List<FavoriteBook>> callback) {
+        AppExecutors.runOnDiskIO(() -> getFavorites(userId), callback);
+    }
+    
+    /**
+     * Resolves which of the given books are favorites of the user, in one lookup
+     */
+    public void getFavoriteStatusAsync(long userId, List<String> bookIds, RepositoryCallback<Set<String>> callback) {
+        AppExecutors.runOnDiskIO(() -> getFavoriteStatus(userId, bookIds), callback);
+    }
+    
+    /**
+     * Convenience for list screens: resolves the favorite ids among the books being displayed
+     */
+    public void getFavoriteStatusForBooksAsync(long userId, List<Book> books, RepositoryCallback<Set<String>> callback) {
+        List<String> bookIds = new ArrayList<>(books.size());
+        for (Book book : books) {
+            bookIds.add(book.getId());
+        }
+        getFavoriteStatusAsync(userId, bookIds, callback);
+    }
+    
+    /**
+     * Returns the cached favorite ids of a user without touching the database,
+     * or null if they have not been loaded yet
+     */
+    public static Set<String> getCachedFavoriteIds(long userId) {
+        Set<String> ids = favoriteIdsByUser.get(userId);
+        return ids != null ? Collections.unmodifiableSet(ids) : null;
+    }
+    
+    public void getAllUsersFavoritesAsync(RepositoryCallback<Map<Long, List<FavoriteBook>>> callback) {
+        AppExecutors.runOnDiskIO(this::getAllUsersFavorites, callback);
+    }
+    
+    @WorkerThread
     public boolean addToFavorites(long userId, Book book) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         try {
@@ -37,6 +102,12 @@ public class FavoritesRepository {
             values.put(DatabaseHelper.COLUMN_DATE_ADDED, new Date().getTime());
             
             long result = db.insert(DatabaseHelper.TABLE_FAVORITES, null, values);
+            if (result != -1) {
+                Set<String> cachedIds = favoriteIdsByUser.get(userId);
+                if (cachedIds != null) {
+                    cachedIds.add(book.getId());
+                }
+            }
             return result != -1;
         } catch (SQLiteException e) {
             Log.e(TAG, "Error adding book to favorites", e);
@@ -48,6 +119,7 @@ public class FavoritesRepository {
         }
     }
     
+    @WorkerThread
     public boolean removeFromFavorites(long userId, String bookId) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         try {
@@ -56,6 +128,10 @@ public class FavoritesRepository {
             String[] whereArgs = {String.valueOf(userId), bookId};
             
             int count = db.delete(DatabaseHelper.TABLE_FAVORITES, whereClause, whereArgs);
+            Set<String> cachedIds = favoriteIdsByUser.get(userId);
+            if (cachedIds != null) {
+                cachedIds.remove(bookId);
+            }
             return count > 0;
         } catch (SQLiteException e) {
             Log.e(TAG, "Error removing book from favorites", e);
@@ -67,7 +143,13 @@ public class FavoritesRepository {
         }
     }
     
+    @WorkerThread
     public boolean isFavorite(long userId, String bookId) {
+        Set<String> cachedIds = favoriteIdsByUser.get(userId);
+        if (cachedIds != null) {
+            return cachedIds.contains(bookId);
+        }
+        
         SQLiteDatabase db = dbHelper.getReadableDatabase();
         Cursor cursor = null;
         
@@ -100,6 +182,69 @@ public class FavoritesRepository {
         }
     }
     
+    /**
+     * Returns the subset of bookIds that are favorites of the user.
+     * Answered from memory once the user's ids are cached; on a cold lookup the user's full id set
+     * is read with a single query, cached for later screens and intersected in memory.
+     */
+    @WorkerThread
+    public Set<String> getFavoriteStatus(long userId, List<String> bookIds) {
+        Set<String> favorites = new HashSet<>();
+        if (bookIds == null || bookIds.isEmpty()) {
+            return favorites;
+        }
+        
+        Set<String> cachedIds = favoriteIdsByUser.get(userId);
+        if (cachedIds == null) {
+            SQLiteDatabase db = dbHelper.getReadableDatabase();
+            try {
+                cachedIds = queryAllFavoriteIds(db, userId);
+                favoriteIdsByUser.put(userId, cachedIds);
+            } catch (SQLiteException e) {
+                Log.e(TAG, "Error checking favorite status in bulk", e);
+                return favorites;
+            } finally {
+                if (db != null && db.isOpen()) {
+                    db.close();
+                }
+            }
+        }
+        
+        for (String bookId : bookIds) {
+            if (cachedIds.contains(bookId)) {
+                favorites.add(bookId);
+            }
+        }
+        return favorites;
+    }
+    
+    private Set<String> queryAllFavoriteIds(SQLiteDatabase db, long userId) {
+        Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        ids.addAll(readBookIds(db.query(
+                DatabaseHelper.TABLE_FAVORITES,
+                new String[]{DatabaseHelper.COLUMN_BOOK_ID},
+                DatabaseHelper.COLUMN_USER_ID + " = ?",
+                new String[]{String.valueOf(userId)},
+                null,
+                null,
+                null
+        )));
+        return ids;
+    }
+    
+    private static Set<String> readBookIds(Cursor cursor) {
+        Set<String> ids = new HashSet<>();
+        try {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return ids;
+    }
+    
+    @WorkerThread
     public List<FavoriteBook> getFavorites(long userId) {
         List<FavoriteBook> favorites = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
@@ -142,6 +287,13 @@ public class FavoritesRepository {
                 );
                 favorites.add(favoriteBook);
             }
+            
+            // The full list is at hand, refresh the cached id set with it
+            Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            for (FavoriteBook favorite : favorites) {
+                ids.add(favorite.getBookId());
+            }
+            favoriteIdsByUser.put(userId, ids);
         } catch (SQLiteException e) {
             Log.e(TAG, "Error getting favorites", e);
         } finally {
@@ -160,6 +312,7 @@ public class FavoritesRepository {
      * Get all favorites for all users (admin function)
      * @return Map of user IDs to lists of their favorite books
      */
+    @WorkerThread
     public Map<Long, List<FavoriteBook>> getAllUsersFavorites() {
         Map<Long, List<FavoriteBook>> allFavorites = new HashMap<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
@@ -0,0 +1,119 @@
+package com.example.systembooks.repositories;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.systembooks.models.Book;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists the last-known Home content (trending, recommendations, category pages)
+ * so the next launch can render it before any network round-trip.
+ * The snapshot is decoded once into memory; writes go through SharedPreferences.apply()
+ */
+public class HomeSnapshotStore {
+    private static final String TAG = "HomeSnapshotStore";
+    private static final String PREF_NAME = "home_snapshot";
+    private static final String KEY_SAVED_AT_SUFFIX = "_saved_at";
+
+    public static final String KEY_TRENDING = "trending";
+    public static final String KEY_RECOMMENDATIONS_PREFIX = "recommendations_";
+    public static final String KEY_CATEGORY_PREFIX = "category_";
+
+    private static final Type BOOK_LIST_TYPE = new TypeToken<List<Book>>() {}.getType();
+
+    private static HomeSnapshotStore instance;
+
+    private final SharedPreferences preferences;
+    private final Gson gson = new Gson();
+    private final Map<String, List<Book>> memory = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    public static synchronized HomeSnapshotStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new HomeSnapshotStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private HomeSnapshotStore(Context context) {
+        this.preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static String recommendationsKey(long userId) {
+        return KEY_RECOMMENDATIONS_PREFIX + userId;
+    }
+
+    public static String categoryKey(String slug) {
+        return KEY_CATEGORY_PREFIX + slug;
+    }
+
+    /**
+     * Decodes every persisted list into memory. Performs disk I/O, call it off the main thread
+     */
+    public synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+            String key = entry.getKey();
+            if (key.endsWith(KEY_SAVED_AT_SUFFIX) || !(entry.getValue() instanceof String)) {
+                continue;
+            }
+            try {
+                List<Book> books = gson.fromJson((String) entry.getValue(), BOOK_LIST_TYPE);
+                if (books != null && !books.isEmpty()) {
+                    memory.put(key, Collections.unmodifiableList(books));
+                }
+            } catch (JsonParseException e) {
+                Log.w(TAG, "Discarding corrupt snapshot for " + key, e);
+            }
+        }
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the in-memory snapshot for a key, or null if there is none (or it was not loaded yet)
+     */
+    public List<Book> get(String key) {
+        return memory.get(key);
+    }
+
+    public long getSavedAt(String key) {
+        return preferences.getLong(key + KEY_SAVED_AT_SUFFIX, 0);
+    }
+
+    /**
+     * Replaces the snapshot for a key; the disk write is asynchronous
+     */
+    public void save(String key, List<Book> books) {
+        if (books == null || books.isEmpty()) {
+            return;
+        }
+        List<Book> copy = Collections.unmodifiableList(new ArrayList<>(books));
+        memory.put(key, copy);
+        preferences.edit()
+                .putString(key, gson.toJson(copy, BOOK_LIST_TYPE))
+                .putLong(key + KEY_SAVED_AT_SUFFIX, System.currentTimeMillis())
+                .apply();
+    }
+
+    public void clear() {
+        memory.clear();
+        preferences.edit().clear().apply();
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.systembooks.repositories;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.systembooks.database.DatabaseHelper;
+import com.example.systembooks.models.Book;
+import com.example.systembooks.utils.AppExecutors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Offline, ranked prefix search over the user's favorites and the book metadata cached from
+ * Open Library responses. Backed by the FTS4 indexes in {@link DatabaseHelper}, which triggers
+ * keep in sync with the favorites and cached_books tables.
+ */
+public class LibrarySearchRepository {
+    private static final String TAG = "LibrarySearchRepository";
+    private static final int MAX_CACHED_BOOKS = 5000;
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int DEFAULT_LIMIT = 50;
+
+    // Column weights for ranking: title matches count double
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double AUTHOR_WEIGHT = 1.0;
+    private static final double FAVORITE_BONUS = 1.5;
+    private static final double TITLE_PREFIX_BONUS = 2.0;
+
+    // matchinfo 'pcnx': phrase count, column count, row count, then 3 ints per phrase/column
+    private static final String MATCHINFO_FORMAT = "pcnx";
+
+    // No LIMIT: FTS4 has no bm25() and matchinfo can only be decoded here, so a limit in SQL would cut
+    // candidates before they are ranked. The candidate set is already bounded by MAX_CACHED_BOOKS
+    // plus the user's favorites
+    private static final String SEARCH_SQL =
+            "SELECT f." + DatabaseHelper.COLUMN_BOOK_ID + ", f." + DatabaseHelper.COLUMN_TITLE + ", f." +
+                    DatabaseHelper.COLUMN_AUTHOR + ", f." + DatabaseHelper.COLUMN_COVER_URL + ", 1, " +
+                    "matchinfo(" + DatabaseHelper.TABLE_FAVORITES_FTS + ", '" + MATCHINFO_FORMAT + "') " +
+                    "FROM " + DatabaseHelper.TABLE_FAVORITES_FTS +
+                    " JOIN " + DatabaseHelper.TABLE_FAVORITES + " f ON f." + DatabaseHelper.COLUMN_ID + " = " +
+                    DatabaseHelper.TABLE_FAVORITES_FTS + "." + DatabaseHelper.COLUMN_DOCID +
+                    " WHERE " + DatabaseHelper.TABLE_FAVORITES_FTS + " MATCH ? AND f." + DatabaseHelper.COLUMN_USER_ID + " = ?" +
+                    " UNION ALL " +
+                    "SELECT c." + DatabaseHelper.COLUMN_BOOK_ID + ", c." + DatabaseHelper.COLUMN_TITLE + ", c." +
+                    DatabaseHelper.COLUMN_AUTHOR + ", c." + DatabaseHelper.COLUMN_COVER_URL + ", 0, " +
+                    "matchinfo(" + DatabaseHelper.TABLE_CACHED_BOOKS_FTS + ", '" + MATCHINFO_FORMAT + "') " +
+                    "FROM " + DatabaseHelper.TABLE_CACHED_BOOKS_FTS +
+                    " JOIN " + DatabaseHelper.TABLE_CACHED_BOOKS + " c ON c." + DatabaseHelper.COLUMN_ID + " = " +
+                    DatabaseHelper.TABLE_CACHED_BOOKS_FTS + "." + DatabaseHelper.COLUMN_DOCID +
+                    " WHERE " + DatabaseHelper.TABLE_CACHED_BOOKS_FTS + " MATCH ?";
+
+    private final DatabaseHelper dbHelper;
+
+    public LibrarySearchRepository(Context context) {
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    public void searchAsync(long userId, String query, RepositoryCallback<List<Book>> callback) {
+        AppExecutors.runOnDiskIO(() -> search(userId, query, DEFAULT_LIMIT), callback);
+    }
+
+    /**
+     * Remembers books returned by the API so they can be found offline later
+     */
+    public void cacheBooksAsync(List<Book> books) {
+        if (books == null || books.isEmpty()) {
+            return;
+        }
+        List<Book> snapshot = new ArrayList<>(books);
+        AppExecutors.diskIO().execute(() -> cacheBooks(snapshot));
+    }
+
+    /**
+     * Ranked prefix search: every word of the query must prefix-match a word of the title or author.
+     * Favorites of the user win over cached copies of the same book
+     */
+    @WorkerThread
+    public List<Book> search(long userId, String query, int limit) {
+        String matchExpression = toMatchExpression(query);
+        if (matchExpression == null) {
+            return new ArrayList<>();
+        }
+        String firstToken = matchExpression.substring(0, matchExpression.indexOf('*'));
+
+        Map<String, ScoredBook> bestByBookId = new HashMap<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(SEARCH_SQL, new String[]{matchExpression, String.valueOf(userId), matchExpression});
+            while (cursor.moveToNext()) {
+                String bookId = cursor.getString(0);
+                String title = cursor.getString(1);
+                boolean favorite = cursor.getInt(4) == 1;
+                double score = score(cursor.getBlob(5));
+                if (favorite) {
+                    score *= FAVORITE_BONUS;
+                }
+                if (title != null && title.toLowerCase(Locale.ROOT).startsWith(firstToken)) {
+                    score += TITLE_PREFIX_BONUS;
+                }
+
+                ScoredBook existing = bestByBookId.get(bookId);
+                if (existing == null || score > existing.score) {
+                    Book book = new Book(bookId, title, cursor.getString(2));
+                    book.setCoverUrl(cursor.getString(3));
+                    bestByBookId.put(bookId, new ScoredBook(book, score));
+                }
+            }
+        } catch (SQLiteException e) {
+            Log.e(TAG, "Error searching library for: " + query, e);
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+            if (db != null && db.isOpen()) {
+                db.close();
+            }
+        }
+
+        List<ScoredBook> ranked = new ArrayList<>(bestByBookId.values());
+        Collections.sort(ranked, (a, b) -> Double.compare(b.score, a.score));
+        List<Book> results = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            results.add(ranked.get(i).book);
+        }
+        return results;
+    }
+
+    @WorkerThread
+    public void cacheBooks(List<Book> books) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        try {
+            db.beginTransaction();
+            try {
+                ContentValues values = new ContentValues();
+                for (Book book : books) {
+                    if (book.getId() == null || book.getTitle() == null) {
+                        continue;
+                    }
+                    values.clear();
+                    values.put(DatabaseHelper.COLUMN_BOOK_ID, book.getId());
+                    values.put(DatabaseHelper.COLUMN_TITLE, book.getTitle());
+                    values.put(DatabaseHelper.COLUMN_AUTHOR, book.getAuthor());
+                    values.put(DatabaseHelper.COLUMN_COVER_URL, book.getCoverUrl());
+                    values.put(DatabaseHelper.COLUMN_LAST_SEEN, now);
+
+                    // Update in place (no REPLACE) so the FTS triggers see a plain UPDATE
+                    int updated = db.update(DatabaseHelper.TABLE_CACHED_BOOKS, values,
+                            DatabaseHelper.COLUMN_BOOK_ID + " = ?", new String[]{book.getId()});
+                    if (updated == 0) {
+                        db.insert(DatabaseHelper.TABLE_CACHED_BOOKS, null, values);
+                    }
+                }
+                trimCache(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLiteException e) {
+            Log.e(TAG, "Error caching book metadata", e);
+        } finally {
+            if (db != null && db.isOpen()) {
+                db.close();
+            }
+        }
+    }
+
+    private void trimCache(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + DatabaseHelper.TABLE_CACHED_BOOKS + " WHERE " + DatabaseHelper.COLUMN_ID +
+                " IN (SELECT " + DatabaseHelper.COLUMN_ID + " FROM " + DatabaseHelper.TABLE_CACHED_BOOKS +
+                " ORDER BY " + DatabaseHelper.COLUMN_LAST_SEEN + " DESC LIMIT -1 OFFSET " + MAX_CACHED_BOOKS + ")");
+    }
+
+    /**
+     * Turns free text into an FTS prefix query ("harry pot" -> "harry* pot*"), or null if nothing is searchable.
+     * Only letters and digits survive, so user input can never inject FTS operators
+     */
+    static String toMatchExpression(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder expression = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        int tokens = 0;
+        String normalized = query.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= normalized.length() && tokens < MAX_QUERY_TOKENS; i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                if (expression.length() > 0) {
+                    expression.append(' ');
+                }
+                expression.append(token).append('*');
+                token.setLength(0);
+                tokens++;
+            }
+        }
+        return expression.length() > 0 ? expression.toString() : null;
+    }
+
+    /**
+     * BM25-like score from matchinfo('pcnx'): term frequency in the row weighted by column
+     * and by how rare the term is across the index
+     */
+    private static double score(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 12) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+        int rowCount = buffer.getInt(8);
+
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int base = 12 + 12 * (phrase * columnCount + column);
+                int hitsInRow = buffer.getInt(base);
+                int rowsWithHits = buffer.getInt(base + 8);
+                if (hitsInRow == 0) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (rowCount - rowsWithHits + 0.5) / (rowsWithHits + 0.5));
+                double weight = column == 0 ? TITLE_WEIGHT : AUTHOR_WEIGHT;
+                score += weight * idf * hitsInRow / (hitsInRow + 1.2);
+            }
+        }
+        return score;
+    }
+
+    private static class ScoredBook {
+        final Book book;
+        final double score;
+
+        ScoredBook(Book book, double score) {
+            this.book = book;
+            this.score = score;
+        }
+    }
+}
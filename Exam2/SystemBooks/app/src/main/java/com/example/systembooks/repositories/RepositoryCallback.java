@@ -0,0 +1,9 @@
+package com.example.systembooks.repositories;
+
+/**
+ * Result callback for the asynchronous local repository API.
+ * Always invoked on the main thread.
+ */
+public interface RepositoryCallback<T> {
+    void onResult(T result);
+}
@@ -7,8 +7,11 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.util.Log;
 
+import androidx.annotation.WorkerThread;
+
 import com.example.systembooks.database.DatabaseHelper;
 import com.example.systembooks.models.SearchHistoryItem;
+import com.example.systembooks.utils.AppExecutors;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -16,6 +19,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Local search history storage. The blocking methods are {@link WorkerThread}-only;
+ * UI code should use the *Async variants, which run on {@link AppExecutors#diskIO()}
+ * and deliver their result on the main thread.
+ */
 public class SearchHistoryRepository {
     private static final String TAG = "SearchHistoryRepository";
     private final DatabaseHelper dbHelper;
@@ -24,6 +32,26 @@ public class SearchHistoryRepository {
         this.dbHelper = DatabaseHelper.getInstance(context);
     }
     
+    /**
+     * Fire-and-forget insert on the disk I/O thread
+     */
+    public void saveSearchQueryAsync(long userId, String query) {
+        AppExecutors.diskIO().execute(() -> saveSearchQuery(userId, query));
+    }
+    
+    public void getSearchHistoryAsync(long userId, RepositoryCallback<List<SearchHistoryItem>> callback) {
+        AppExecutors.runOnDiskIO(() -> getSearchHistory(userId), callback);
+    }
+    
+    public void clearSearchHistoryAsync(long userId, RepositoryCallback<Boolean> callback) {
+        AppExecutors.runOnDiskIO(() -> clearSearchHistory(userId), callback);
+    }
+    
+    public void getAllUsersSearchHistoryAsync(RepositoryCallback<Map<Long, List<SearchHistoryItem>>> callback) {
+        AppExecutors.runOnDiskIO(this::getAllUsersSearchHistory, callback);
+    }
+    
+    @WorkerThread
     public void saveSearchQuery(long userId, String query) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         try {
@@ -40,6 +68,7 @@ public class SearchHistoryRepository {
         }
     }
     
+    @WorkerThread
     public List<SearchHistoryItem> getSearchHistory(long userId) {
         List<SearchHistoryItem> historyItems = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
@@ -87,6 +116,7 @@ public class SearchHistoryRepository {
         return historyItems;
     }
     
+    @WorkerThread
     public boolean clearSearchHistory(long userId) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         try {
@@ -106,6 +136,7 @@ public class SearchHistoryRepository {
      * Get search history for all users (admin function)
      * @return Map of user IDs to lists of their search history items
      */
+    @WorkerThread
     public Map<Long, List<SearchHistoryItem>> getAllUsersSearchHistory() {
         Map<Long, List<SearchHistoryItem>> allHistory = new HashMap<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
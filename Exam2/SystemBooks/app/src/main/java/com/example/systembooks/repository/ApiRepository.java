@@ -10,6 +10,7 @@ import com.example.systembooks.api.ApiService;
 import com.example.systembooks.model.ApiResponse;
 import com.example.systembooks.model.LoginRequest;
 import com.example.systembooks.model.LoginResponse;
+import com.example.systembooks.model.Page;
 import com.example.systembooks.model.RegisterRequest;
 import com.example.systembooks.model.User;
 import com.example.systembooks.util.SessionManager;
@@ -259,7 +260,54 @@ public class ApiRepository {
             }
         });
     }
-    
+
+    /**
+     * Obtiene una página de usuarios ordenados por id
+     * @param afterId cursor devuelto por la página anterior, o null para la primera
+     * @param size tamaño de página (el servidor lo limita a 200)
+     */
+    public void getUsersPage(Long afterId, int size, ApiCallback<Page<User, Long>> apiCallback) {
+        authenticatedApiService.getUsersAfter(afterId, size).enqueue(new Callback<ApiResponse<List<User>>>() {
+            @Override
+            public void onResponse(@NonNull Call<ApiResponse<List<User>>> call, @NonNull Response<ApiResponse<List<User>>> response) {
+                if (!response.isSuccessful() || response.body() == null || response.body().getData() == null) {
+                    if (response.code() == 401 || response.code() == 403) {
+                        apiCallback.onError("Authentication failed. Please login again.");
+                    } else {
+                        apiCallback.onError("Server error: " + response.code() + " " + response.message());
+                    }
+                    return;
+                }
+
+                List<User> users = response.body().getData();
+                Long nextAfterId = parseLongHeader(response, "X-Next-After-Id");
+                Long total = parseLongHeader(response, "X-Total-Count");
+                Log.d(TAG, "Users page after " + afterId + ": " + users.size() + " users, next=" + nextAfterId);
+                apiCallback.onSuccess(new Page<>(users, nextAfterId,
+                        total != null ? total.intValue() : Page.UNKNOWN_TOTAL));
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<ApiResponse<List<User>>> call, @NonNull Throwable t) {
+                Log.e(TAG, "Network error when fetching users page: " + t.getMessage());
+                apiCallback.onError("Network error: " + t.getMessage());
+            }
+        });
+    }
+
+    private static Long parseLongHeader(Response<?> response, String name) {
+        String value = response.headers().get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Invalid " + name + " header: " + value);
+            return null;
+        }
+    }
+
     // Helper method to get UI thread handler
     private android.os.Handler getHandler() {
         try {
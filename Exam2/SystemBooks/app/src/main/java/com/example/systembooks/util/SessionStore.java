@@ -0,0 +1,191 @@
+package com.example.systembooks.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.systembooks.firebase.FirebaseUser;
+import com.example.systembooks.model.User;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide, memory-resident session holder behind {@link SessionManager}.
+ * SharedPreferences is read and decoded once; every read after that is a field load on an
+ * immutable {@link Session} snapshot. Writes swap the snapshot, persist with apply() and
+ * notify listeners on the main thread.
+ */
+public final class SessionStore {
+    private static final String TAG = "SessionStore";
+
+    // Same file and keys as before so existing sessions survive the upgrade
+    static final String PREF_NAME = "SystemBooksPrefs";
+    static final String KEY_AUTH_TOKEN = "auth_token";
+    static final String KEY_USER_ID = "user_id";
+    static final String KEY_USER_NAME = "user_name";
+    static final String KEY_USER_EMAIL = "user_email";
+    static final String KEY_USER_ROLE = "user_role";
+    static final String KEY_USER_DATA = "user_data";
+    static final String KEY_IS_LOGGED_IN = "is_logged_in";
+    static final String KEY_FIREBASE_USER_DATA = "firebase_user_data";
+    static final String KEY_AUTH_PROVIDER = "auth_provider";
+    static final String AUTH_PROVIDER_API = "api";
+    static final String AUTH_PROVIDER_FIREBASE = "firebase";
+
+    public interface OnSessionChangedListener {
+        void onSessionChanged(Session session);
+    }
+
+    /**
+     * Immutable view of the current session
+     */
+    public static final class Session {
+        static final Session EMPTY = new Session(false, AUTH_PROVIDER_API, null, -1, null, null, null, null, null);
+
+        public final boolean loggedIn;
+        public final String authProvider;
+        public final String authToken;
+        public final long userId;
+        public final String userName;
+        public final String userEmail;
+        public final String userRole;
+        public final User user;
+        public final FirebaseUser firebaseUser;
+
+        Session(boolean loggedIn, String authProvider, String authToken, long userId, String userName,
+                String userEmail, String userRole, User user, FirebaseUser firebaseUser) {
+            this.loggedIn = loggedIn;
+            this.authProvider = authProvider;
+            this.authToken = authToken;
+            this.userId = userId;
+            this.userName = userName;
+            this.userEmail = userEmail;
+            this.userRole = userRole;
+            this.user = user;
+            this.firebaseUser = firebaseUser;
+        }
+
+        public boolean isFirebaseProvider() {
+            return AUTH_PROVIDER_FIREBASE.equals(authProvider);
+        }
+    }
+
+    private static volatile SessionStore instance;
+
+    private final SharedPreferences preferences;
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<OnSessionChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Session session;
+
+    public static SessionStore getInstance(Context context) {
+        SessionStore store = instance;
+        if (store == null) {
+            synchronized (SessionStore.class) {
+                store = instance;
+                if (store == null) {
+                    store = new SessionStore(context.getApplicationContext());
+                    instance = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    private SessionStore(Context context) {
+        preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        session = load();
+    }
+
+    public Session current() {
+        return session;
+    }
+
+    public void addListener(OnSessionChangedListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(OnSessionChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    void saveApiSession(String token, User user, String role) {
+        Session updated = new Session(true, AUTH_PROVIDER_API, token, user.getId(), user.getNombre(),
+                user.getEmail(), role, user, null);
+        session = updated;
+        preferences.edit()
+                .putString(KEY_AUTH_TOKEN, token)
+                .putLong(KEY_USER_ID, user.getId())
+                .putString(KEY_USER_NAME, user.getNombre())
+                .putString(KEY_USER_EMAIL, user.getEmail())
+                .putString(KEY_USER_ROLE, role)
+                .putString(KEY_USER_DATA, gson.toJson(user))
+                .putBoolean(KEY_IS_LOGGED_IN, true)
+                .putString(KEY_AUTH_PROVIDER, AUTH_PROVIDER_API)
+                .apply();
+        notifyListeners(updated);
+    }
+
+    void saveFirebaseSession(FirebaseUser user) {
+        // Firebase sessions keep whatever API token/id was stored before, as the original code did
+        Session previous = session;
+        Session updated = new Session(true, AUTH_PROVIDER_FIREBASE, previous.authToken, previous.userId,
+                user.getUsername(), user.getEmail(), user.getRole(), previous.user, user);
+        session = updated;
+        preferences.edit()
+                .putString(KEY_USER_NAME, user.getUsername())
+                .putString(KEY_USER_EMAIL, user.getEmail())
+                .putString(KEY_USER_ROLE, user.getRole())
+                .putString(KEY_FIREBASE_USER_DATA, gson.toJson(user))
+                .putBoolean(KEY_IS_LOGGED_IN, true)
+                .putString(KEY_AUTH_PROVIDER, AUTH_PROVIDER_FIREBASE)
+                .apply();
+        notifyListeners(updated);
+    }
+
+    void clear() {
+        session = Session.EMPTY;
+        preferences.edit().clear().apply();
+        notifyListeners(Session.EMPTY);
+    }
+
+    private Session load() {
+        return new Session(
+                preferences.getBoolean(KEY_IS_LOGGED_IN, false),
+                preferences.getString(KEY_AUTH_PROVIDER, AUTH_PROVIDER_API),
+                preferences.getString(KEY_AUTH_TOKEN, null),
+                preferences.getLong(KEY_USER_ID, -1),
+                preferences.getString(KEY_USER_NAME, null),
+                preferences.getString(KEY_USER_EMAIL, null),
+                preferences.getString(KEY_USER_ROLE, null),
+                decode(preferences.getString(KEY_USER_DATA, null), User.class),
+                decode(preferences.getString(KEY_FIREBASE_USER_DATA, null), FirebaseUser.class));
+    }
+
+    private <T> T decode(String json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return gson.fromJson(json, type);
+        } catch (JsonParseException e) {
+            Log.w(TAG, "Discarding unreadable " + type.getSimpleName() + " in session", e);
+            return null;
+        }
+    }
+
+    private void notifyListeners(Session updated) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        mainHandler.post(() -> {
+            for (OnSessionChangedListener listener : listeners) {
+                listener.onSessionChanged(updated);
+            }
+        });
+    }
+}
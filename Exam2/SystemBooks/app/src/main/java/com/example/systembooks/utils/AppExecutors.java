@@ -0,0 +1,57 @@
+package com.example.systembooks.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.systembooks.repositories.RepositoryCallback;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide executors for local repository work.
+ * All SQLite access goes through the single disk I/O thread, which also serialises
+ * the open/close cycle the repositories perform on the shared DatabaseHelper.
+ */
+public final class AppExecutors {
+    public static final String DISK_IO_THREAD_NAME = "systembooks-db";
+
+    private static final ExecutorService DISK_IO = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, DISK_IO_THREAD_NAME);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+    private static final Executor MAIN_THREAD = command -> {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            command.run();
+        } else {
+            MAIN_HANDLER.post(command);
+        }
+    };
+
+    private AppExecutors() {}
+
+    public static Executor diskIO() {
+        return DISK_IO;
+    }
+
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+
+    /**
+     * Runs a blocking repository call on the disk I/O thread and delivers its result on the main thread
+     */
+    public static <T> void runOnDiskIO(Supplier<T> task, RepositoryCallback<T> callback) {
+        DISK_IO.execute(() -> {
+            T result = task.get();
+            if (callback != null) {
+                MAIN_HANDLER.post(() -> callback.onResult(result));
+            }
+        });
+    }
+}
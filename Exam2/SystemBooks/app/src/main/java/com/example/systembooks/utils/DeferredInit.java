@@ -0,0 +1,134 @@
+package com.example.systembooks.utils;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Deferred initialisation for SDKs that are not needed to draw the first screen.
+ * {@link Lazy} creates a component on first use; {@link #afterFirstFrame} queues a job that runs on
+ * a low-priority background thread once the main thread goes idle after the first frame.
+ * Every initialisation is traced as "Init.&lt;name&gt;" and logged through {@link StartupTrace}
+ * with its duration and thread, so the time moved off the startup path can be compared in Perfetto.
+ */
+public final class DeferredInit {
+    private static final String TAG = "DeferredInit";
+    public static final String THREAD_NAME = "deferred-init";
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, THREAD_NAME);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static final Object lock = new Object();
+    private static List<Runnable> pendingUntilFirstFrame = new ArrayList<>();
+    private static boolean idleHandlerInstalled = false;
+
+    private DeferredInit() {}
+
+    /**
+     * Thread-safe holder that builds its value the first time {@link #get()} is called
+     */
+    public static final class Lazy<T> {
+        private final String name;
+        private final Supplier<T> factory;
+        private volatile T value;
+
+        public Lazy(String name, Supplier<T> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        public T get() {
+            T result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        result = trace(name, factory);
+                        value = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        public boolean isInitialized() {
+            return value != null;
+        }
+    }
+
+    /**
+     * Runs the job in the background once the first frame has been drawn.
+     * Jobs queued after that point run straight away (still in the background)
+     */
+    public static void afterFirstFrame(String name, Runnable job) {
+        Runnable traced = () -> runTraced(name, job);
+        synchronized (lock) {
+            if (pendingUntilFirstFrame != null) {
+                pendingUntilFirstFrame.add(traced);
+                installIdleHandler();
+                return;
+            }
+        }
+        EXECUTOR.execute(traced);
+    }
+
+    /**
+     * Runs the job on the deferred-init thread without waiting for the first frame
+     */
+    public static void runInBackground(String name, Runnable job) {
+        EXECUTOR.execute(() -> runTraced(name, job));
+    }
+
+    // The main thread only goes idle after the first activity has been laid out and drawn
+    private static void installIdleHandler() {
+        if (idleHandlerInstalled) {
+            return;
+        }
+        idleHandlerInstalled = true;
+        AppExecutors.mainThread().execute(() -> Looper.myQueue().addIdleHandler(() -> {
+            List<Runnable> jobs;
+            synchronized (lock) {
+                jobs = pendingUntilFirstFrame;
+                pendingUntilFirstFrame = null;
+            }
+            StartupTrace.mark("deferred-init:first-idle");
+            for (Runnable job : jobs) {
+                EXECUTOR.execute(job);
+            }
+            return false;
+        }));
+    }
+
+    private static void runTraced(String name, Runnable job) {
+        trace(name, () -> {
+            try {
+                job.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Deferred job " + name + " failed", e);
+            }
+            return Boolean.TRUE;
+        });
+    }
+
+    private static <T> T trace(String name, Supplier<T> block) {
+        long start = SystemClock.elapsedRealtime();
+        StartupTrace.beginSection("Init." + name);
+        try {
+            return block.get();
+        } finally {
+            StartupTrace.endSection();
+            boolean mainThread = Looper.myLooper() == Looper.getMainLooper();
+            StartupTrace.mark("init:" + name + " took " + (SystemClock.elapsedRealtime() - start) + "ms on "
+                    + (mainThread ? "main thread" : Thread.currentThread().getName()));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.systembooks.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.systembooks.models.Book;
+import com.example.systembooks.repositories.BookRepository;
+import com.example.systembooks.repositories.CategoryRepository;
+import com.example.systembooks.repositories.HomeSnapshotStore;
+import com.example.systembooks.util.SessionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Startup warm-up stage for the Home screen.
+ * Started from {@link com.example.systembooks.SystemBooksApplication}, it restores the persisted
+ * snapshot and kicks off the Home prefetches in priority order (recommendation pool, trending,
+ * category catalogue and the first pages of the top categories). The network calls themselves
+ * run in parallel on the OkHttp dispatcher; the single warm-up thread only decides the order
+ * in which they are issued.
+ * HomeFragment attaches to the in-flight recommendation request instead of issuing a new one.
+ */
+public class HomeWarmupScheduler {
+    private static final String TAG = "HomeWarmupScheduler";
+    private static final int TRENDING_LIMIT = 10;
+    private static final int PREFETCH_CATEGORY_COUNT = 3;
+    // Results younger than this are handed out without a new network round-trip
+    private static final long FRESH_WINDOW_MS = 60 * 1000;
+
+    private static final int TRACE_RECOMMENDATIONS = 1;
+    private static final int TRACE_TRENDING = 2;
+    private static final int TRACE_CATEGORIES = 3;
+
+    public interface SnapshotCallback {
+        void onSnapshot(List<Book> books);
+    }
+
+    private static HomeWarmupScheduler instance;
+
+    private final Context context;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final HomeSnapshotStore snapshotStore;
+
+    private final Object lock = new Object();
+    private BookRepository bookRepository;
+    private RecommendationEngine recommendationEngine;
+    // Callbacks waiting on the in-flight request of each key; the session can change while one is running
+    private final Map<String, List<BookRepository.BookCallback<List<Book>>>> pendingRecommendationCallbacks = new HashMap<>();
+    private List<Book> freshRecommendations;
+    private String freshKey;
+    private long freshAt;
+    private boolean started = false;
+
+    public static synchronized HomeWarmupScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new HomeWarmupScheduler(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private HomeWarmupScheduler(Context context) {
+        this.context = context;
+        this.snapshotStore = HomeSnapshotStore.getInstance(context);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "home-warmup");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * Key of the snapshot Home renders for the current session
+     */
+    public static String snapshotKey(SessionManager sessionManager) {
+        if (sessionManager.isLoggedIn() && sessionManager.getUserId() != -1) {
+            return HomeSnapshotStore.recommendationsKey(sessionManager.getUserId());
+        }
+        return HomeSnapshotStore.KEY_TRENDING;
+    }
+
+    /**
+     * Starts the warm-up once per process. Tasks are queued in priority order
+     */
+    public void start() {
+        synchronized (lock) {
+            if (started) {
+                return;
+            }
+            started = true;
+        }
+        StartupTrace.mark("warmup:scheduled");
+
+        executor.execute(() -> {
+            StartupTrace.beginSection("HomeWarmup.loadSnapshot");
+            try {
+                snapshotStore.load();
+            } finally {
+                StartupTrace.endSection();
+            }
+            StartupTrace.mark("warmup:snapshot-loaded");
+        });
+
+        executor.execute(() -> {
+            SessionManager sessionManager = new SessionManager(context);
+            String key = snapshotKey(sessionManager);
+            fetchRecommendations(key, false, null);
+
+            // Logged-out users already get trending as their recommendation pool
+            if (!HomeSnapshotStore.KEY_TRENDING.equals(key)) {
+                prefetchTrending();
+            }
+        });
+
+        executor.execute(this::prefetchTopCategories);
+    }
+
+    /**
+     * Delivers the persisted snapshot for a key on the main thread (null if there is none)
+     */
+    public void loadSnapshot(String key, SnapshotCallback callback) {
+        List<Book> cached = snapshotStore.isLoaded() ? snapshotStore.get(key) : null;
+        if (cached != null || snapshotStore.isLoaded()) {
+            callback.onSnapshot(cached);
+            return;
+        }
+        executor.execute(() -> {
+            snapshotStore.load();
+            List<Book> books = snapshotStore.get(key);
+            mainHandler.post(() -> callback.onSnapshot(books));
+        });
+    }
+
+    /**
+     * Returns recommendations for the current session, joining the warm-up request if one is in flight
+     * @param forceRefresh skip the fresh-result window (pull to refresh)
+     */
+    public void getRecommendations(String key, boolean forceRefresh, BookRepository.BookCallback<List<Book>> callback) {
+        executor.execute(() -> fetchRecommendations(key, forceRefresh, callback));
+    }
+
+    private void fetchRecommendations(String key, boolean forceRefresh, BookRepository.BookCallback<List<Book>> callback) {
+        // Callbacks always run outside the lock so a slow caller cannot block the warm-up
+        List<Book> fresh = null;
+        synchronized (lock) {
+            if (!forceRefresh && freshRecommendations != null && key.equals(freshKey)
+                    && System.currentTimeMillis() - freshAt < FRESH_WINDOW_MS) {
+                fresh = freshRecommendations;
+            } else {
+                List<BookRepository.BookCallback<List<Book>>> pending = pendingRecommendationCallbacks.get(key);
+                boolean inFlight = pending != null;
+                if (!inFlight) {
+                    pending = new ArrayList<>();
+                    pendingRecommendationCallbacks.put(key, pending);
+                }
+                if (callback != null) {
+                    pending.add(callback);
+                }
+                if (inFlight) {
+                    return;
+                }
+            }
+        }
+        if (fresh != null) {
+            if (callback != null) {
+                callback.onSuccess(fresh);
+            }
+            return;
+        }
+
+        StartupTrace.beginAsyncSection("HomeWarmup.recommendations", TRACE_RECOMMENDATIONS);
+        getRecommendationEngine().getRecommendations(new BookRepository.BookCallback<List<Book>>() {
+            @Override
+            public void onSuccess(List<Book> books) {
+                StartupTrace.endAsyncSection("HomeWarmup.recommendations", TRACE_RECOMMENDATIONS);
+                snapshotStore.save(key, books);
+                List<BookRepository.BookCallback<List<Book>>> callbacks;
+                synchronized (lock) {
+                    freshRecommendations = books;
+                    freshKey = key;
+                    freshAt = System.currentTimeMillis();
+                    callbacks = pendingRecommendationCallbacks.remove(key);
+                }
+                if (callbacks == null) {
+                    return;
+                }
+                for (BookRepository.BookCallback<List<Book>> pending : callbacks) {
+                    pending.onSuccess(books);
+                }
+            }
+
+            @Override
+            public void onError(String message) {
+                StartupTrace.endAsyncSection("HomeWarmup.recommendations", TRACE_RECOMMENDATIONS);
+                Log.w(TAG, "Recommendation prefetch failed: " + message);
+                List<BookRepository.BookCallback<List<Book>>> callbacks;
+                synchronized (lock) {
+                    callbacks = pendingRecommendationCallbacks.remove(key);
+                }
+                if (callbacks == null) {
+                    return;
+                }
+                for (BookRepository.BookCallback<List<Book>> pending : callbacks) {
+                    pending.onError(message);
+                }
+            }
+        });
+    }
+
+    private void prefetchTrending() {
+        StartupTrace.beginAsyncSection("HomeWarmup.trending", TRACE_TRENDING);
+        getBookRepository().getFeaturedBooks(TRENDING_LIMIT, new BookRepository.BookCallback<List<Book>>() {
+            @Override
+            public void onSuccess(List<Book> books) {
+                StartupTrace.endAsyncSection("HomeWarmup.trending", TRACE_TRENDING);
+                snapshotStore.save(HomeSnapshotStore.KEY_TRENDING, books);
+            }
+
+            @Override
+            public void onError(String message) {
+                StartupTrace.endAsyncSection("HomeWarmup.trending", TRACE_TRENDING);
+                Log.w(TAG, "Trending prefetch failed: " + message);
+            }
+        });
+    }
+
+    // Catalogue counts and first pages of the biggest subjects, so Categories opens without waiting
+    private void prefetchTopCategories() {
+        StartupTrace.beginAsyncSection("HomeWarmup.categories", TRACE_CATEGORIES);
+        new CategoryRepository(context).prewarm(PREFETCH_CATEGORY_COUNT,
+                () -> StartupTrace.endAsyncSection("HomeWarmup.categories", TRACE_CATEGORIES));
+    }
+
+    private BookRepository getBookRepository() {
+        if (bookRepository == null) {
+            bookRepository = new BookRepository(context);
+        }
+        return bookRepository;
+    }
+
+    // Only touched from the warm-up thread
+    private RecommendationEngine getRecommendationEngine() {
+        if (recommendationEngine == null) {
+            recommendationEngine = new RecommendationEngine(context);
+        }
+        return recommendationEngine;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.systembooks.utils;
+
+import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.models.SearchHistoryItem;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword extraction used by {@link RecommendationEngine}.
+ * Pure Java so it can be benchmarked on the JVM as well (benchmark-jvm module)
+ */
+public final class KeywordExtractor {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^a-záéíóúüñ]");
+
+    // Common English and Spanish words that wouldn't help with book recommendations
+    private static final Set<String> COMMON_WORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "the", "and", "for", "this", "that", "with", "from", "have", "has", "had", "not", "are",
+            "was", "were", "been", "you", "your", "their", "they", "will", "would",
+            "los", "las", "del", "por", "para", "con", "que", "una", "uno", "esto", "esta", "estos",
+            "estas", "como", "pero", "más", "mas", "ese", "esa", "esos", "esas")));
+
+    private KeywordExtractor() {}
+
+    /**
+     * Extract keywords from favorites and search history for recommendation
+     * @param maxHistoryItems only the most recent searches are considered
+     */
+    public static Set<String> extract(List<FavoriteBook> favorites, List<SearchHistoryItem> searchHistory,
+                                      int maxHistoryItems) {
+        Set<String> keywords = new HashSet<>();
+
+        // Extract keywords from favorites (titles and authors)
+        if (favorites != null) {
+            for (FavoriteBook favorite : favorites) {
+                // Extract title keywords (skip common words)
+                String title = favorite.getTitle();
+                if (title != null && !title.isEmpty()) {
+                    for (String word : WHITESPACE.split(title)) {
+                        if (isRelevantKeyword(word)) {
+                            keywords.add(word);
+                        }
+                    }
+                }
+
+                // Add author directly as a keyword
+                String author = favorite.getAuthor();
+                if (author != null && !author.isEmpty() && !author.equalsIgnoreCase("Unknown") &&
+                    !author.equalsIgnoreCase("Desconocido")) {
+                    keywords.add(author);
+                }
+            }
+        }
+
+        // Extract keywords from search history
+        if (searchHistory != null) {
+            int count = 0;
+            for (SearchHistoryItem historyItem : searchHistory) {
+                if (count >= maxHistoryItems) break;
+
+                String query = historyItem.getQuery();
+                if (query != null && !query.isEmpty()) {
+                    String[] queryWords = WHITESPACE.split(query);
+                    // If query looks like it might be a specific title or author name,
+                    // add it as a whole phrase
+                    if (query.length() > 5 && queryWords.length >= 2) {
+                        keywords.add(query);
+                    } else {
+                        // Otherwise add individual keywords
+                        for (String word : queryWords) {
+                            if (isRelevantKeyword(word)) {
+                                keywords.add(word);
+                            }
+                        }
+                    }
+                }
+                count++;
+            }
+        }
+
+        return keywords;
+    }
+
+    /**
+     * Check if a word is relevant enough to use as a keyword
+     * Excludes common words, short words, etc.
+     */
+    static boolean isRelevantKeyword(String word) {
+        if (word == null || word.isEmpty()) {
+            return false;
+        }
+
+        // Normalize word
+        String normalized = NON_LETTERS.matcher(word.toLowerCase().trim()).replaceAll("");
+
+        // Skip if too short
+        if (normalized.length() < 3) {
+            return false;
+        }
+
+        return !COMMON_WORDS.contains(normalized);
+    }
+}
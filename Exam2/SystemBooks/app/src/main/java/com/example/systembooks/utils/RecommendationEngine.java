@@ -70,12 +70,20 @@ public class RecommendationEngine {
      * Generate personalized recommendations based on favorites and search history
      */
     private void generateRecommendations(long userId, BookRepository.BookCallback<List<Book>> callback) {
-        // Step 1: Get user's favorites
-        List<FavoriteBook> favorites = favoritesRepository.getFavorites(userId);
-        
-        // Step 2: Get user's recent search history
-        List<SearchHistoryItem> searchHistory = searchHistoryRepository.getSearchHistory(userId);
-        
+        // Local reads happen on the disk I/O thread, never on the caller's (usually main) thread
+        AppExecutors.diskIO().execute(() -> {
+            // Step 1: Get user's favorites
+            List<FavoriteBook> favorites = favoritesRepository.getFavorites(userId);
+            
+            // Step 2: Get user's recent search history
+            List<SearchHistoryItem> searchHistory = searchHistoryRepository.getSearchHistory(userId);
+            
+            generateRecommendations(favorites, searchHistory, callback);
+        });
+    }
+    
+    private void generateRecommendations(List<FavoriteBook> favorites, List<SearchHistoryItem> searchHistory,
+                                         BookRepository.BookCallback<List<Book>> callback) {
         // If user has no favorites or search history, return featured books
         if ((favorites == null || favorites.isEmpty()) && (searchHistory == null || searchHistory.isEmpty())) {
             Log.d(TAG, "User has no favorites or search history, returning featured books");
@@ -84,7 +92,7 @@ public class RecommendationEngine {
         }
         
         // Step 3: Extract relevant keywords for recommendation (from titles, authors, search queries)
-        Set<String> keywords = extractKeywords(favorites, searchHistory);
+        Set<String> keywords = KeywordExtractor.extract(favorites, searchHistory, MAX_HISTORY_ITEMS);
         
         if (keywords.isEmpty()) {
             Log.d(TAG, "No keywords extracted, returning featured books");
@@ -176,139 +184,4 @@ public class RecommendationEngine {
             }
         }).start();
     }
-    
-    /**
-     * Extract keywords from favorites and search history for recommendation
-     */
-    private Set<String> extractKeywords(List<FavoriteBook> favorites, List<SearchHistoryItem> searchHistory) {
-        Set<String> keywords = new HashSet<>();
-        
-        // Extract keywords from favorites (titles and authors)
-        if (favorites != null) {
-            for (FavoriteBook favorite : favorites) {
-                // Extract title keywords (skip common words)
-                String title = favorite.getTitle();
-                if (title != null && !title.isEmpty()) {
-                    String[] titleWords = title.split("\\s+");
-                    for (String word : titleWords) {
-                        if (isRelevantKeyword(word)) {
-                            keywords.add(word);
-                        }
-                    }
-                }
-                
-                // Add author directly as a keyword
-                String author = favorite.getAuthor();
-                if (author != null && !author.isEmpty() && !author.equalsIgnoreCase("Unknown") && 
-                    !author.equalsIgnoreCase("Desconocido")) {
-                    keywords.add(author);
-                }
-            }
-        }
-        
-        // Extract keywords from search history
-        if (searchHistory != null) {
-            int count = 0;
-            for (SearchHistoryItem historyItem : searchHistory) {
-                if (count >= MAX_HISTORY_ITEMS) break;
-                
-                String query = historyItem.getQuery();
-                if (query != null && !query.isEmpty()) {
-                    // If query looks like it might be a specific title or author name,
-                    // add it as a whole phrase
-                    if (query.length() > 5 && query.split("\\s+").length >= 2) {
-                        keywords.add(query);
-                    } else {
-                        // Otherwise, split and add individual keywords
-                        String[] queryWords = query.split("\\s+");
-                        for (String word : queryWords) {
-                            if (isRelevantKeyword(word)) {
-                                keywords.add(word);
-                            }
-                        }
-                    }
-                }
-                count++;
-            }
-        }
-        
-        return keywords;
-    }
-    
-    /**
-     * Check if a word is relevant enough to use as a keyword
-     * Excludes common words, short words, etc.
-     */
-    private boolean isRelevantKeyword(String word) {
-        if (word == null || word.isEmpty()) {
-            return false;
-        }
-        
-        // Normalize word
-        word = word.toLowerCase().trim().replaceAll("[^a-záéíóúüñ]", "");
-        
-        // Skip if too short
-        if (word.length() < 3) {
-            return false;
-        }
-        
-        // Skip common words in English and Spanish that wouldn't help with book recommendations
-        Set<String> commonWords = getCommonWords();
-        return !commonWords.contains(word);
-    }
-    
-    /**
-     * Get a set of common words to exclude from keywords
-     */
-    private Set<String> getCommonWords() {
-        Set<String> commonWords = new HashSet<>();
-        
-        // English common words
-        commonWords.add("the");
-        commonWords.add("and");
-        commonWords.add("for");
-        commonWords.add("this");
-        commonWords.add("that");
-        commonWords.add("with");
-        commonWords.add("from");
-        commonWords.add("have");
-        commonWords.add("has");
-        commonWords.add("had");
-        commonWords.add("not");
-        commonWords.add("are");
-        commonWords.add("was");
-        commonWords.add("were");
-        commonWords.add("been");
-        commonWords.add("you");
-        commonWords.add("your");
-        commonWords.add("their");
-        commonWords.add("they");
-        commonWords.add("will");
-        commonWords.add("would");
-        
-        // Spanish common words
-        commonWords.add("los");
-        commonWords.add("las");
-        commonWords.add("del");
-        commonWords.add("por");
-        commonWords.add("para");
-        commonWords.add("con");
-        commonWords.add("que");
-        commonWords.add("una");
-        commonWords.add("uno");
-        commonWords.add("esto");
-        commonWords.add("esta");
-        commonWords.add("estos");
-        commonWords.add("estas");
-        commonWords.add("como");
-        commonWords.add("pero");
-        commonWords.add("más");
-        commonWords.add("mas");
-        commonWords.add("ese");
-        commonWords.add("esa");
-        commonWords.add("esos");
-        commonWords.add("esas");
-        
-        return commonWords;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.example.systembooks.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory index of the items loaded page by page, kept sorted with the same order the source
+ * pages in, so appending a page is a plain append and out-of-order items use a binary search.
+ * The lower-cased search text is computed once per item, and a query that extends the previous one
+ * only re-scans the previous matches. Not thread-safe: use it from the main thread.
+ * Pure Java so it can be benchmarked on the JVM as well (benchmark-jvm module)
+ */
+public final class SortedSearchIndex<T> {
+
+    private static final class Entry<T> {
+        final T item;
+        final String searchText;
+
+        Entry(T item, String searchText) {
+            this.item = item;
+            this.searchText = searchText;
+        }
+    }
+
+    private final Function<T, Object> idOf;
+    private final Function<T, String> searchTextOf;
+    private final Comparator<Entry<T>> order;
+
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private final Map<Object, Entry<T>> byId = new HashMap<>();
+
+    // Result of the last filter, reused while the query only grows
+    private String lastQuery = "";
+    private List<Entry<T>> lastMatches;
+
+    /**
+     * @param idOf stable identity of an item (user id / uid)
+     * @param searchTextOf text the query is matched against, e.g. name and email
+     * @param order sort order; should match the order the pages arrive in
+     */
+    public SortedSearchIndex(Function<T, Object> idOf, Function<T, String> searchTextOf, Comparator<T> order) {
+        this.idOf = idOf;
+        this.searchTextOf = searchTextOf;
+        this.order = (a, b) -> order.compare(a.item, b.item);
+    }
+
+    /**
+     * Adds a page of items; items already present are replaced
+     */
+    public void addAll(Collection<T> items) {
+        for (T item : items) {
+            put(item);
+        }
+    }
+
+    /**
+     * Inserts or replaces a single item
+     */
+    public void put(T item) {
+        Object id = idOf.apply(item);
+        Entry<T> previous = byId.get(id);
+        if (previous != null) {
+            entries.remove(indexOf(previous));
+        }
+        Entry<T> entry = new Entry<>(item, normalize(searchTextOf.apply(item)));
+        int size = entries.size();
+        if (size == 0 || order.compare(entries.get(size - 1), entry) <= 0) {
+            entries.add(entry);
+        } else {
+            int position = Collections.binarySearch(entries, entry, order);
+            entries.add(position < 0 ? -position - 1 : position, entry);
+        }
+        byId.put(id, entry);
+        invalidate();
+    }
+
+    /**
+     * @return true if an item with that id was indexed
+     */
+    public boolean remove(Object id) {
+        Entry<T> entry = byId.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entries.remove(indexOf(entry));
+        invalidate();
+        return true;
+    }
+
+    public T get(Object id) {
+        Entry<T> entry = byId.get(id);
+        return entry != null ? entry.item : null;
+    }
+
+    public void clear() {
+        entries.clear();
+        byId.clear();
+        invalidate();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Items whose search text contains the query (case-insensitive), in index order.
+     * Returns a new list every time so it can be handed to a ListAdapter
+     */
+    public List<T> filter(String query) {
+        String needle = normalize(query);
+        List<Entry<T>> candidates = entries;
+        if (lastMatches != null && needle.startsWith(lastQuery)) {
+            candidates = lastMatches;
+        }
+
+        List<Entry<T>> matches;
+        if (needle.isEmpty()) {
+            matches = entries;
+        } else {
+            matches = new ArrayList<>();
+            for (Entry<T> entry : candidates) {
+                if (entry.searchText.contains(needle)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        lastQuery = needle;
+        lastMatches = needle.isEmpty() ? null : matches;
+
+        List<T> result = new ArrayList<>(matches.size());
+        for (Entry<T> entry : matches) {
+            result.add(entry.item);
+        }
+        return result;
+    }
+
+    // Binary search to the run of equal keys, then identity scan within it
+    private int indexOf(Entry<T> entry) {
+        int position = Collections.binarySearch(entries, entry, order);
+        if (position >= 0) {
+            for (int i = position; i >= 0 && order.compare(entries.get(i), entry) == 0; i--) {
+                if (entries.get(i) == entry) {
+                    return i;
+                }
+            }
+            for (int i = position + 1; i < entries.size() && order.compare(entries.get(i), entry) == 0; i++) {
+                if (entries.get(i) == entry) {
+                    return i;
+                }
+            }
+        }
+        return entries.indexOf(entry);
+    }
+
+    private void invalidate() {
+        lastQuery = "";
+        lastMatches = null;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
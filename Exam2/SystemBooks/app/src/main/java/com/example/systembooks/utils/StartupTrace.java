@@ -0,0 +1,80 @@
+package com.example.systembooks.utils;
+
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup trace markers used to measure time-to-first-content.
+ * Sections show up in Perfetto/systrace and every milestone is also logged
+ * with the elapsed time since {@link #markProcessStart()}.
+ */
+public final class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    private static volatile long processStartMs = -1;
+    private static final AtomicBoolean firstContentReported = new AtomicBoolean(false);
+
+    private StartupTrace() {}
+
+    /**
+     * Records the reference point for all startup milestones. Called from Application.onCreate
+     */
+    public static void markProcessStart() {
+        if (processStartMs < 0) {
+            processStartMs = SystemClock.elapsedRealtime();
+        }
+    }
+
+    /**
+     * Starts a synchronous trace section; must be closed with {@link #endSection()} on the same thread
+     */
+    public static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    public static void endSection() {
+        Trace.endSection();
+    }
+
+    /**
+     * Starts an async trace section that may end on a different thread (e.g. a network callback)
+     */
+    public static void beginAsyncSection(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+        mark(name + ":start");
+    }
+
+    public static void endAsyncSection(String name, int cookie) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(name, cookie);
+        }
+        mark(name + ":end");
+    }
+
+    /**
+     * Logs a milestone with the elapsed time since process start
+     */
+    public static void mark(String milestone) {
+        Log.i(TAG, milestone + " +" + elapsedMs() + "ms");
+    }
+
+    /**
+     * Reports time-to-first-content once per process
+     * @param fromSnapshot true when the content came from the persisted snapshot instead of the network
+     */
+    public static void reportFirstContent(boolean fromSnapshot) {
+        if (firstContentReported.compareAndSet(false, true)) {
+            Log.i(TAG, "TTFC " + elapsedMs() + "ms (" + (fromSnapshot ? "snapshot" : "network") + ")");
+        }
+    }
+
+    public static long elapsedMs() {
+        return processStartMs < 0 ? 0 : SystemClock.elapsedRealtime() - processStartMs;
+    }
+}
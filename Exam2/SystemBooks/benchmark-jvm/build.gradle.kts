@@ -0,0 +1,82 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+// Las clases puras de :app (sin Android) se compilan aqui directamente desde sus fuentes
+val appSources = rootProject.file("app/src/main/java")
+val jvmSources = rootProject.file("benchmark/jvm-sources.txt").readLines()
+    .map { it.trim() }
+    .filter { it.isNotEmpty() && !it.startsWith("#") }
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir(appSources)
+            include(jvmSources)
+            include("com/example/systembooks/benchmark/**")
+        }
+    }
+    named("jmh") {
+        // Las mismas respuestas grabadas que usan los benchmarks de Android
+        resources.srcDir(rootProject.file("benchmark/src/androidTest/assets"))
+    }
+}
+
+dependencies {
+    // Las mismas versiones que usa :app
+    implementation("com.squareup.retrofit2:retrofit:2.9.0")
+    implementation("com.squareup.retrofit2:converter-gson:2.9.0")
+    implementation("com.squareup.okhttp3:okhttp:4.11.0")
+    implementation("com.google.code.gson:gson:2.10.1")
+
+    jmh("org.openjdk.jmh:jmh-core:${libs.versions.jmh.get()}")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:${libs.versions.jmh.get()}")
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("ns")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(jmhResults)
+}
+
+/**
+ * Compara los resultados de JMH y de :benchmark (si se ejecuto connectedReleaseAndroidTest)
+ * con benchmark/baseline.json y escribe build/reports/benchmark/regression-report.md.
+ * -PupdateBaseline guarda los resultados actuales como nueva referencia;
+ * -PfailOnRegression hace fallar la tarea si algun benchmark empeora mas del umbral
+ */
+val benchmarkReport by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Writes the benchmark regression report against benchmark/baseline.json"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("com.example.systembooks.benchmark.report.BenchmarkReport")
+    args(
+        "--jmh", jmhResults.get().asFile,
+        "--android", rootProject.file("benchmark/build/outputs/connected_android_test_additional_output"),
+        "--baseline", rootProject.file("benchmark/baseline.json"),
+        "--out", layout.buildDirectory.file("reports/benchmark/regression-report.md").get().asFile
+    )
+    if (project.hasProperty("updateBaseline")) {
+        args("--update-baseline")
+    }
+    if (project.hasProperty("failOnRegression")) {
+        args("--fail-on-regression")
+    }
+}
+
+tasks.named("jmh") {
+    finalizedBy(benchmarkReport)
+}
@@ -0,0 +1,46 @@
+package com.example.systembooks.benchmark;
+
+import com.example.systembooks.models.Book;
+import com.example.systembooks.network.models.BookResponse;
+import com.example.systembooks.network.models.CategoryResponse;
+import com.example.systembooks.network.models.SearchResponse;
+import com.example.systembooks.repositories.BookMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Misma medida que BookMapperBenchmark de :benchmark, en la JVM
+ */
+@State(Scope.Benchmark)
+public class BookMapperBenchmark {
+    private SearchResponse search;
+    private CategoryResponse subject;
+    private BookResponse work;
+
+    @Setup
+    public void setUp() {
+        search = Payloads.parse(Payloads.SEARCH, SearchResponse.class);
+        subject = Payloads.parse(Payloads.SUBJECT, CategoryResponse.class);
+        work = Payloads.parse(Payloads.WORK, BookResponse.class);
+    }
+
+    @Benchmark
+    public List<Book> fromSearchDocs() {
+        return BookMapper.fromSearchDocs(search.getDocs());
+    }
+
+    @Benchmark
+    public List<Book> fromSubjectWorks() {
+        return BookMapper.fromSubjectWorks(subject.getWorks());
+    }
+
+    @Benchmark
+    public Book fromWork() {
+        return BookMapper.fromWork(work);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.systembooks.benchmark;
+
+import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.models.SearchHistoryItem;
+import com.example.systembooks.utils.KeywordExtractor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Misma medida que KeywordExtractionBenchmark de :benchmark, en la JVM
+ */
+@State(Scope.Benchmark)
+public class KeywordExtractionBenchmark {
+    // Mismo límite de historial que RecommendationEngine
+    private static final int MAX_HISTORY_ITEMS = 5;
+
+    @Param({"20", "200"})
+    public int favoriteCount;
+
+    private List<FavoriteBook> favorites;
+    private List<SearchHistoryItem> history;
+
+    @Setup
+    public void setUp() {
+        favorites = Payloads.favorites(1, favoriteCount);
+        history = Payloads.searchHistory(1);
+    }
+
+    @Benchmark
+    public Set<String> extract() {
+        return KeywordExtractor.extract(favorites, history, MAX_HISTORY_ITEMS);
+    }
+}
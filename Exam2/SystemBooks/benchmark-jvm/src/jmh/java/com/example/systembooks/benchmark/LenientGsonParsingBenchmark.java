@@ -0,0 +1,67 @@
+package com.example.systembooks.benchmark;
+
+import com.example.systembooks.api.LenientGsonConverterFactory;
+import com.example.systembooks.model.ApiResponse;
+import com.example.systembooks.model.LoginResponse;
+import com.example.systembooks.model.User;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Misma medida que LenientGsonParsingBenchmark de :benchmark, en la JVM
+ */
+@State(Scope.Benchmark)
+public class LenientGsonParsingBenchmark {
+    private static final MediaType JSON = MediaType.get("application/json; charset=UTF-8");
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+    private static final Type USER_LIST_TYPE = TypeToken.getParameterized(ApiResponse.class,
+            TypeToken.getParameterized(List.class, User.class).getType()).getType();
+
+    private byte[] users;
+    private byte[] login;
+    private Converter<ResponseBody, ?> lenientUsers;
+    private Converter<ResponseBody, ?> standardUsers;
+    private Converter<ResponseBody, ?> lenientLogin;
+
+    @Setup
+    public void setUp() {
+        // Misma configuración que api/ApiClient
+        Gson gson = new GsonBuilder().setLenient().create();
+        users = Payloads.bytes(Payloads.USERS);
+        login = Payloads.bytes(Payloads.LOGIN);
+        lenientUsers = LenientGsonConverterFactory.create(gson).responseBodyConverter(USER_LIST_TYPE, NO_ANNOTATIONS, null);
+        standardUsers = GsonConverterFactory.create(gson).responseBodyConverter(USER_LIST_TYPE, NO_ANNOTATIONS, null);
+        lenientLogin = LenientGsonConverterFactory.create(gson).responseBodyConverter(LoginResponse.class, NO_ANNOTATIONS, null);
+    }
+
+    @Benchmark
+    public Object userList() throws IOException {
+        return lenientUsers.convert(ResponseBody.create(users, JSON));
+    }
+
+    @Benchmark
+    public Object userListStandardGson() throws IOException {
+        return standardUsers.convert(ResponseBody.create(users, JSON));
+    }
+
+    @Benchmark
+    public Object login() throws IOException {
+        return lenientLogin.convert(ResponseBody.create(login, JSON));
+    }
+}
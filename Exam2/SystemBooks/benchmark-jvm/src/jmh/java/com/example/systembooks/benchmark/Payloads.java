@@ -0,0 +1,93 @@
+package com.example.systembooks.benchmark;
+
+import com.example.systembooks.model.ApiResponse;
+import com.example.systembooks.model.User;
+import com.example.systembooks.models.Book;
+import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.models.SearchHistoryItem;
+import com.example.systembooks.network.models.CategoryResponse;
+import com.example.systembooks.network.models.SearchResponse;
+import com.example.systembooks.repositories.BookMapper;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Respuestas grabadas de benchmark/src/androidTest/assets, leídas del classpath de JMH
+ */
+final class Payloads {
+    static final String SEARCH = "openlibrary/search_tolkien.json";
+    static final String SUBJECT = "openlibrary/subject_fiction.json";
+    static final String WORK = "openlibrary/work_OL27482W.json";
+    static final String USERS = "systembooks-api/users.json";
+    static final String LOGIN = "systembooks-api/login.json";
+
+    private static final Gson gson = new Gson();
+    private static final Type USER_LIST_TYPE = TypeToken.getParameterized(ApiResponse.class,
+            TypeToken.getParameterized(List.class, User.class).getType()).getType();
+
+    private Payloads() {}
+
+    static byte[] bytes(String resource) {
+        try (InputStream in = Payloads.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing recorded payload " + resource);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Missing recorded payload " + resource, e);
+        }
+    }
+
+    static <T> T parse(String resource, Class<T> type) {
+        return gson.fromJson(new String(bytes(resource), StandardCharsets.UTF_8), type);
+    }
+
+    static List<FavoriteBook> favorites(long userId, int count) {
+        List<Book> recorded = new ArrayList<>(BookMapper.fromSearchDocs(parse(SEARCH, SearchResponse.class).getDocs()));
+        recorded.addAll(BookMapper.fromSubjectWorks(parse(SUBJECT, CategoryResponse.class).getWorks()));
+        List<FavoriteBook> favorites = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = recorded.get(i % recorded.size());
+            favorites.add(new FavoriteBook(userId, book.getId() + "-" + i, book.getTitle(), book.getAuthor(),
+                    book.getCoverUrl()));
+        }
+        return favorites;
+    }
+
+    static List<SearchHistoryItem> searchHistory(long userId) {
+        String[] queries = {"tolkien", "el señor de los anillos", "fantasy", "García Márquez", "dragons",
+                "the hobbit", "orgullo y prejuicio", "dickens", "ciencia ficción", "moby dick"};
+        List<SearchHistoryItem> history = new ArrayList<>(queries.length);
+        for (String query : queries) {
+            history.add(new SearchHistoryItem(userId, query));
+        }
+        return history;
+    }
+
+    /**
+     * count usuarios con ids distintos, repitiendo los de la lista grabada con un sufijo
+     */
+    static List<User> users(int count) {
+        ApiResponse<List<User>> recorded = gson.fromJson(new String(bytes(USERS), StandardCharsets.UTF_8), USER_LIST_TYPE);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User source = recorded.getData().get(i % recorded.getData().size());
+            users.add(new User((long) i + 1, source.getName() + " " + i, i + "." + source.getEmail(), source.getRole()));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.systembooks.benchmark;
+
+import com.example.systembooks.model.User;
+import com.example.systembooks.utils.SortedSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Misma medida que UserSearchIndexBenchmark de :benchmark, en la JVM
+ */
+@State(Scope.Benchmark)
+public class UserSearchIndexBenchmark {
+    // Mismo tamaño de página que UserManagementFragment
+    private static final int PAGE_SIZE = 100;
+    private static final String QUERY = "lector 1";
+
+    @Param({"1000", "20000"})
+    public int userCount;
+
+    private List<User> users;
+    private SortedSearchIndex<User> index;
+
+    @Setup
+    public void setUp() {
+        users = Payloads.users(userCount);
+        index = newIndex();
+        index.addAll(users);
+    }
+
+    @Benchmark
+    public SortedSearchIndex<User> addPages() {
+        SortedSearchIndex<User> pages = newIndex();
+        for (int from = 0; from < users.size(); from += PAGE_SIZE) {
+            pages.addAll(users.subList(from, Math.min(from + PAGE_SIZE, users.size())));
+        }
+        return pages;
+    }
+
+    // Una llamada a filter por tecla, como afterTextChanged
+    @Benchmark
+    public List<User> typeQuery() {
+        List<User> result = index.filter("");
+        for (int i = 1; i <= QUERY.length(); i++) {
+            result = index.filter(QUERY.substring(0, i));
+        }
+        return result;
+    }
+
+    // Filtrado anterior: recorre todos los usuarios y pasa a minúsculas en cada tecla
+    @Benchmark
+    public List<User> typeQueryFullScan() {
+        List<User> result = users;
+        for (int i = 1; i <= QUERY.length(); i++) {
+            String query = QUERY.substring(0, i);
+            result = new ArrayList<>();
+            for (User user : users) {
+                if ((user.getName() != null && user.getName().toLowerCase().contains(query.toLowerCase())) ||
+                    (user.getEmail() != null && user.getEmail().toLowerCase().contains(query.toLowerCase()))) {
+                    result.add(user);
+                }
+            }
+        }
+        return result;
+    }
+
+    static SortedSearchIndex<User> newIndex() {
+        return new SortedSearchIndex<>(User::getId, user -> user.getName() + "\n" + user.getEmail(),
+                Comparator.comparing(User::getId));
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.systembooks.benchmark.report;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Informe de regresiones de los benchmarks.
+ * Lee los resultados de JMH (results.json) y de AndroidX Microbenchmark (*-benchmarkData.json),
+ * los compara con la referencia guardada y escribe una tabla en Markdown.
+ * Los tiempos se comparan en nanosegundos: media de JMH y mediana de Microbenchmark
+ */
+public final class BenchmarkReport {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+    private File jmhResults;
+    private File androidResults;
+    private File baselineFile;
+    private File output;
+    private boolean updateBaseline;
+    private boolean failOnRegression;
+
+    public static void main(String[] args) throws IOException {
+        BenchmarkReport report = new BenchmarkReport();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--jmh":
+                    report.jmhResults = new File(args[++i]);
+                    break;
+                case "--android":
+                    report.androidResults = new File(args[++i]);
+                    break;
+                case "--baseline":
+                    report.baselineFile = new File(args[++i]);
+                    break;
+                case "--out":
+                    report.output = new File(args[++i]);
+                    break;
+                case "--update-baseline":
+                    report.updateBaseline = true;
+                    break;
+                case "--fail-on-regression":
+                    report.failOnRegression = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        if (report.baselineFile == null || report.output == null) {
+            throw new IllegalArgumentException("--baseline and --out are required");
+        }
+
+        int regressions = report.run();
+        if (regressions > 0 && report.failOnRegression) {
+            System.err.println(regressions + " benchmark(s) regressed, see " + report.output);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return número de benchmarks que empeoraron más que el umbral
+     */
+    int run() throws IOException {
+        Map<String, Double> current = new TreeMap<>();
+        if (jmhResults != null && jmhResults.isFile()) {
+            readJmh(jmhResults, current);
+        }
+        if (androidResults != null && androidResults.isDirectory()) {
+            readAndroidDir(androidResults, current);
+        }
+
+        JsonObject baseline = baselineFile.isFile() ? readJson(baselineFile).getAsJsonObject() : new JsonObject();
+        double threshold = baseline.has("thresholdPercent")
+                ? baseline.get("thresholdPercent").getAsDouble() : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Double> reference = new TreeMap<>();
+        if (baseline.has("results")) {
+            for (Map.Entry<String, JsonElement> entry : baseline.getAsJsonObject("results").entrySet()) {
+                reference.put(entry.getKey(), entry.getValue().getAsDouble());
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        int regressions = 0;
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = reference.get(entry.getKey());
+            String status;
+            String change;
+            if (before == null || before <= 0) {
+                status = "new";
+                change = "-";
+            } else {
+                double percent = (entry.getValue() - before) * 100 / before;
+                change = String.format(Locale.ROOT, "%+.1f%%", percent);
+                if (percent > threshold) {
+                    status = "**REGRESSION**";
+                    regressions++;
+                } else if (percent < -threshold) {
+                    status = "improved";
+                } else {
+                    status = "ok";
+                }
+            }
+            rows.add(String.format(Locale.ROOT, "| %s | %s | %s | %s | %s |", entry.getKey(),
+                    before != null ? formatNs(before) : "-", formatNs(entry.getValue()), change, status));
+        }
+        for (String missing : reference.keySet()) {
+            if (!current.containsKey(missing)) {
+                rows.add(String.format(Locale.ROOT, "| %s | %s | - | - | not run |", missing,
+                        formatNs(reference.get(missing))));
+            }
+        }
+
+        writeReport(rows, regressions, threshold);
+
+        if (updateBaseline && !current.isEmpty()) {
+            reference.putAll(current);
+            JsonObject results = new JsonObject();
+            for (Map.Entry<String, Double> entry : reference.entrySet()) {
+                results.addProperty(entry.getKey(), Math.round(entry.getValue() * 10) / 10.0);
+            }
+            JsonObject updated = new JsonObject();
+            updated.addProperty("thresholdPercent", threshold);
+            updated.add("results", results);
+            try (Writer writer = Files.newBufferedWriter(baselineFile.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(updated, writer);
+            }
+        }
+        return regressions;
+    }
+
+    // JMH: [{"benchmark": "paquete.Clase.metodo", "params": {...}, "primaryMetric": {"score": ..., "scoreUnit": "ns/op"}}]
+    private void readJmh(File file, Map<String, Double> results) throws IOException {
+        for (JsonElement element : readJson(file).getAsJsonArray()) {
+            JsonObject benchmark = element.getAsJsonObject();
+            JsonObject metric = benchmark.getAsJsonObject("primaryMetric");
+            if (!"ns/op".equals(metric.get("scoreUnit").getAsString())) {
+                continue;
+            }
+            String name = "jvm:" + simpleName(benchmark.get("benchmark").getAsString());
+            // Cada combinación de @Param es un resultado distinto
+            if (benchmark.has("params")) {
+                StringBuilder params = new StringBuilder();
+                for (Map.Entry<String, JsonElement> param : benchmark.getAsJsonObject("params").entrySet()) {
+                    params.append(params.length() == 0 ? "[" : ",")
+                            .append(param.getKey()).append('=').append(param.getValue().getAsString());
+                }
+                name += params.append(']');
+            }
+            results.put(name, metric.get("score").getAsDouble());
+        }
+    }
+
+    // Microbenchmark deja un *-benchmarkData.json por dispositivo, en subdirectorios por variante
+    private void readAndroidDir(File dir, Map<String, Double> results) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                readAndroidDir(file, results);
+            } else if (file.getName().endsWith("benchmarkData.json")) {
+                readAndroid(file, results);
+            }
+        }
+    }
+
+    private void readAndroid(File file, Map<String, Double> results) throws IOException {
+        JsonArray benchmarks = readJson(file).getAsJsonObject().getAsJsonArray("benchmarks");
+        for (JsonElement element : benchmarks) {
+            JsonObject benchmark = element.getAsJsonObject();
+            JsonObject metrics = benchmark.getAsJsonObject("metrics");
+            if (metrics == null || !metrics.has("timeNs")) {
+                continue;
+            }
+            String className = benchmark.get("className").getAsString();
+            String name = className + "." + benchmark.get("name").getAsString();
+            results.put("android:" + simpleName(name),
+                    metrics.getAsJsonObject("timeNs").get("median").getAsDouble());
+        }
+    }
+
+    private void writeReport(List<String> rows, int regressions, double threshold) throws IOException {
+        File parent = output.getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        StringBuilder report = new StringBuilder();
+        report.append("# Benchmark regression report\n\n");
+        report.append(String.format(Locale.ROOT,
+                "Threshold: %.0f%% slower than `benchmark/baseline.json`. Regressions: %d.\n\n", threshold, regressions));
+        if (rows.isEmpty()) {
+            report.append("No benchmark results found. Run `./gradlew :benchmark-jvm:jmh` ")
+                    .append("or `./gradlew :benchmark:connectedReleaseAndroidTest`.\n");
+        } else {
+            report.append("| Benchmark | Baseline | Current | Change | Status |\n");
+            report.append("|---|---:|---:|---:|---|\n");
+            for (String row : rows) {
+                report.append(row).append('\n');
+            }
+        }
+        Files.write(output.toPath(), report.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Benchmark report: " + output);
+    }
+
+    private static JsonElement readJson(File file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader);
+        }
+    }
+
+    // "com.example.systembooks.benchmark.BookMapperBenchmark.fromWork" -> "BookMapperBenchmark.fromWork"
+    private static String simpleName(String qualified) {
+        int method = qualified.lastIndexOf('.');
+        int type = qualified.lastIndexOf('.', method - 1);
+        return qualified.substring(type + 1);
+    }
+
+    private static String formatNs(double ns) {
+        if (ns >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.2f ms", ns / 1_000_000);
+        } else if (ns >= 1_000) {
+            return String.format(Locale.ROOT, "%.2f µs", ns / 1_000);
+        }
+        return String.format(Locale.ROOT, "%.0f ns", ns);
+    }
+}
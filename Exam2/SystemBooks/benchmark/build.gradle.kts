@@ -0,0 +1,74 @@
+plugins {
+    alias(libs.plugins.android.library)
+    alias(libs.plugins.androidx.benchmark)
+}
+
+// Clases de la app que se miden. :app es un modulo de aplicacion y no puede usarse como
+// dependencia, asi que se copian sus fuentes (listadas en los .txt) a un directorio generado
+val appSources = rootProject.file("app/src/main/java")
+fun sourceList(name: String) = file(name).readLines()
+    .map { it.trim() }
+    .filter { it.isNotEmpty() && !it.startsWith("#") }
+
+val dataLayerDir = layout.buildDirectory.dir("generated/dataLayer/java")
+
+val syncDataLayerSources by tasks.registering(Sync::class) {
+    from(appSources) {
+        include(sourceList("jvm-sources.txt"))
+        include(sourceList("android-sources.txt"))
+    }
+    into(dataLayerDir)
+}
+
+tasks.named("preBuild") {
+    dependsOn(syncDataLayerSources)
+}
+
+android {
+    namespace = "com.example.systembooks.benchmark"
+    compileSdk = 35
+
+    defaultConfig {
+        minSdk = 24
+
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+    }
+
+    // Los benchmarks se ejecutan contra la variante release (sin depuracion)
+    testBuildType = "release"
+
+    buildTypes {
+        release {
+            isMinifyEnabled = false
+            proguardFiles(getDefaultProguardFile("proguard-android-optimize.txt"))
+        }
+    }
+
+    sourceSets {
+        getByName("main").java.srcDir(dataLayerDir)
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+}
+
+dependencies {
+    // Las mismas versiones que usa :app
+    implementation("com.squareup.retrofit2:retrofit:2.9.0")
+    implementation("com.squareup.retrofit2:converter-gson:2.9.0")
+    implementation("com.squareup.okhttp3:okhttp:4.11.0")
+    implementation("com.google.code.gson:gson:2.10.1")
+    implementation("androidx.annotation:annotation:1.7.1")
+
+    androidTestImplementation(libs.benchmark.junit4)
+    androidTestImplementation(libs.ext.junit)
+    androidTestImplementation(libs.junit)
+    androidTestImplementation(libs.mockwebserver)
+}
+
+// Cada ejecucion en dispositivo actualiza el informe de regresiones (lo escribe :benchmark-jvm)
+tasks.matching { it.name == "connectedReleaseAndroidTest" }.configureEach {
+    finalizedBy(":benchmark-jvm:benchmarkReport")
+}
@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Vuelve a grabar las respuestas de Open Library que reproducen los benchmarks.
+# Las del servidor SystemBooks (systembooks-api/) se graban con el servidor Spring en marcha:
+#   SYSTEMBOOKS_API=http://localhost:8080 ./record-payloads.sh
+set -euo pipefail
+
+ASSETS="$(dirname "$0")/src/androidTest/assets"
+OPEN_LIBRARY="https://openlibrary.org"
+
+curl -fsS "$OPEN_LIBRARY/search.json?q=tolkien&page=1&limit=20" -o "$ASSETS/openlibrary/search_tolkien.json"
+curl -fsS "$OPEN_LIBRARY/subjects/fiction.json?limit=20&offset=0" -o "$ASSETS/openlibrary/subject_fiction.json"
+curl -fsSL "$OPEN_LIBRARY/works/OL27482W.json" -o "$ASSETS/openlibrary/work_OL27482W.json"
+
+if [ -n "${SYSTEMBOOKS_API:-}" ]; then
+    curl -fsS -H "Content-Type: application/json" \
+        -d '{"email":"admin@systembooks.com","password":"admin123"}' \
+        "$SYSTEMBOOKS_API/api/auth/login" -o "$ASSETS/systembooks-api/login.json"
+    TOKEN="$(sed -E 's/.*"token":"([^"]+)".*/\1/' "$ASSETS/systembooks-api/login.json")"
+    curl -fsS -H "Authorization: Bearer $TOKEN" \
+        "$SYSTEMBOOKS_API/api/users" -o "$ASSETS/systembooks-api/users.json"
+fi
@@ -0,0 +1,51 @@
+package com.example.systembooks.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.systembooks.network.models.BookResponse;
+import com.example.systembooks.network.models.CategoryResponse;
+import com.example.systembooks.network.models.SearchResponse;
+import com.example.systembooks.repositories.BookMapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Conversión de respuestas ya deserializadas al modelo Book (lo que hace BookRepository en cada respuesta)
+ */
+@RunWith(AndroidJUnit4.class)
+public class BookMapperBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void fromSearchDocs() {
+        SearchResponse response = RecordedPayloads.parse(RecordedPayloads.SEARCH, SearchResponse.class);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            BookMapper.fromSearchDocs(response.getDocs());
+        }
+    }
+
+    @Test
+    public void fromSubjectWorks() {
+        CategoryResponse response = RecordedPayloads.parse(RecordedPayloads.SUBJECT, CategoryResponse.class);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            BookMapper.fromSubjectWorks(response.getWorks());
+        }
+    }
+
+    @Test
+    public void fromWork() {
+        BookResponse response = RecordedPayloads.parse(RecordedPayloads.WORK, BookResponse.class);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            BookMapper.fromWork(response);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.systembooks.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.models.SearchHistoryItem;
+import com.example.systembooks.utils.KeywordExtractor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Extracción de palabras clave de RecommendationEngine sobre favoritos e historial de búsqueda
+ */
+@RunWith(AndroidJUnit4.class)
+public class KeywordExtractionBenchmark {
+    // Mismo límite de historial que RecommendationEngine
+    private static final int MAX_HISTORY_ITEMS = 5;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void extractFrom20Favorites() {
+        measure(RecordedPayloads.favorites(1, 20));
+    }
+
+    @Test
+    public void extractFrom200Favorites() {
+        measure(RecordedPayloads.favorites(1, 200));
+    }
+
+    private void measure(List<FavoriteBook> favorites) {
+        List<SearchHistoryItem> history = RecordedPayloads.searchHistory(1);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            KeywordExtractor.extract(favorites, history, MAX_HISTORY_ITEMS);
+        }
+    }
+}
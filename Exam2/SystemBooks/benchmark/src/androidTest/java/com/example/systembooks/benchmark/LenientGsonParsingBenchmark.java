@@ -0,0 +1,73 @@
+package com.example.systembooks.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.systembooks.api.LenientGsonConverterFactory;
+import com.example.systembooks.model.ApiResponse;
+import com.example.systembooks.model.LoginResponse;
+import com.example.systembooks.model.User;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Deserialización de respuestas del servidor SystemBooks con el conversor permisivo de la app,
+ * y con el GsonConverterFactory estándar como referencia
+ */
+@RunWith(AndroidJUnit4.class)
+public class LenientGsonParsingBenchmark {
+    private static final MediaType JSON = MediaType.get("application/json; charset=UTF-8");
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+    private static final Type USER_LIST_TYPE = TypeToken.getParameterized(ApiResponse.class,
+            TypeToken.getParameterized(List.class, User.class).getType()).getType();
+
+    // Misma configuración que api/ApiClient
+    private final Gson gson = new GsonBuilder().setLenient().create();
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void userList() throws IOException {
+        measure(LenientGsonConverterFactory.create(gson).responseBodyConverter(USER_LIST_TYPE, NO_ANNOTATIONS, null),
+                RecordedPayloads.bytes(RecordedPayloads.USERS));
+    }
+
+    @Test
+    public void userListStandardGson() throws IOException {
+        measure(GsonConverterFactory.create(gson).responseBodyConverter(USER_LIST_TYPE, NO_ANNOTATIONS, null),
+                RecordedPayloads.bytes(RecordedPayloads.USERS));
+    }
+
+    @Test
+    public void login() throws IOException {
+        measure(LenientGsonConverterFactory.create(gson).responseBodyConverter(LoginResponse.class, NO_ANNOTATIONS, null),
+                RecordedPayloads.bytes(RecordedPayloads.LOGIN));
+    }
+
+    private void measure(Converter<ResponseBody, ?> converter, byte[] payload) throws IOException {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            // Crear el cuerpo es una copia del array; pausar el cronómetro costaría más que eso
+            if (converter.convert(ResponseBody.create(payload, JSON)) == null) {
+                throw new AssertionError("Recorded payload no longer parses");
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.systembooks.benchmark;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.systembooks.network.api.OpenLibraryApi;
+import com.example.systembooks.repositories.BookRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * BookRepository de extremo a extremo (HTTP, Gson, conversión y callback en el hilo principal)
+ * contra un MockWebServer local que sirve las respuestas grabadas de Open Library.
+ * Sin red real, así que los resultados son reproducibles
+ */
+@RunWith(AndroidJUnit4.class)
+public class OpenLibraryReplayBenchmark {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private MockWebServer server;
+    private BookRepository repository;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new ReplayDispatcher());
+        server.start();
+
+        // Como network/ApiClient, pero sin caché HTTP: cada iteración debe llegar al servidor
+        OkHttpClient client = new OkHttpClient.Builder().build();
+        OpenLibraryApi api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(OpenLibraryApi.class);
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        repository = new BookRepository(context, api);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void searchBooks() {
+        measure(callback -> repository.searchBooks("tolkien", 1, 20, callback));
+    }
+
+    @Test
+    public void getBookDetails() {
+        measure(callback -> repository.getBookDetails("OL27482W", callback));
+    }
+
+    @Test
+    public void getCategoryPage() {
+        measure(callback -> repository.getCategoryPage("fiction", 20, 0, callback));
+    }
+
+    private <T> void measure(Consumer<BookRepository.BookCallback<T>> call) {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            await(call);
+        }
+    }
+
+    private static <T> void await(Consumer<BookRepository.BookCallback<T>> call) {
+        CountDownLatch done = new CountDownLatch(1);
+        String[] error = new String[1];
+        call.accept(new BookRepository.BookCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+                done.countDown();
+            }
+        });
+        try {
+            if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new AssertionError("No response from replay server");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+        if (error[0] != null) {
+            throw new AssertionError("Replay failed: " + error[0]);
+        }
+    }
+
+    /**
+     * Elige la respuesta grabada por ruta; lo que no está grabado es un 404
+     */
+    private static final class ReplayDispatcher extends Dispatcher {
+        private final byte[] search = RecordedPayloads.bytes(RecordedPayloads.SEARCH);
+        private final byte[] subject = RecordedPayloads.bytes(RecordedPayloads.SUBJECT);
+        private final byte[] work = RecordedPayloads.bytes(RecordedPayloads.WORK);
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath() != null ? request.getPath() : "";
+            if (path.startsWith("/search.json")) {
+                return json(search);
+            } else if (path.startsWith("/subjects/")) {
+                return json(subject);
+            } else if (path.startsWith("/works/")) {
+                return json(work);
+            }
+            return new MockResponse().setResponseCode(404);
+        }
+
+        private static MockResponse json(byte[] body) {
+            return new MockResponse()
+                    .setHeader("Content-Type", "application/json; charset=utf-8")
+                    .setBody(new Buffer().write(body));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.systembooks.benchmark;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.systembooks.model.ApiResponse;
+import com.example.systembooks.model.User;
+import com.example.systembooks.models.Book;
+import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.models.SearchHistoryItem;
+import com.example.systembooks.network.models.CategoryResponse;
+import com.example.systembooks.network.models.SearchResponse;
+import com.example.systembooks.repositories.BookMapper;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Respuestas grabadas (assets del APK de pruebas) y datos de prueba derivados de ellas.
+ * openlibrary/ replica la API de Open Library; systembooks-api/ se grabo del servidor Spring del curso
+ */
+final class RecordedPayloads {
+    static final String SEARCH = "openlibrary/search_tolkien.json";
+    static final String SUBJECT = "openlibrary/subject_fiction.json";
+    static final String WORK = "openlibrary/work_OL27482W.json";
+    static final String USERS = "systembooks-api/users.json";
+    static final String LOGIN = "systembooks-api/login.json";
+
+    private static final Gson gson = new Gson();
+    private static final Type USER_LIST_TYPE = TypeToken.getParameterized(ApiResponse.class,
+            TypeToken.getParameterized(List.class, User.class).getType()).getType();
+
+    private RecordedPayloads() {}
+
+    static byte[] bytes(String asset) {
+        try (InputStream in = InstrumentationRegistry.getInstrumentation().getContext().getAssets().open(asset)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Missing recorded payload " + asset, e);
+        }
+    }
+
+    static <T> T parse(String asset, Class<T> type) {
+        return gson.fromJson(new String(bytes(asset), StandardCharsets.UTF_8), type);
+    }
+
+    /**
+     * Todos los libros de las respuestas de búsqueda y de tema grabadas
+     */
+    static List<Book> books() {
+        List<Book> books = new ArrayList<>(BookMapper.fromSearchDocs(parse(SEARCH, SearchResponse.class).getDocs()));
+        books.addAll(BookMapper.fromSubjectWorks(parse(SUBJECT, CategoryResponse.class).getWorks()));
+        return books;
+    }
+
+    /**
+     * count libros con ids distintos, repitiendo los grabados con un sufijo
+     */
+    static List<Book> books(int count) {
+        List<Book> recorded = books();
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book source = recorded.get(i % recorded.size());
+            Book book = new Book(source.getId() + "-" + i, source.getTitle(), source.getAuthor());
+            book.setCoverUrl(source.getCoverUrl());
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<FavoriteBook> favorites(long userId, int count) {
+        List<FavoriteBook> favorites = new ArrayList<>(count);
+        for (Book book : books(count)) {
+            favorites.add(new FavoriteBook(userId, book.getId(), book.getTitle(), book.getAuthor(), book.getCoverUrl()));
+        }
+        return favorites;
+    }
+
+    static List<SearchHistoryItem> searchHistory(long userId) {
+        String[] queries = {"tolkien", "el señor de los anillos", "fantasy", "García Márquez", "dragons",
+                "the hobbit", "orgullo y prejuicio", "dickens", "ciencia ficción", "moby dick"};
+        List<SearchHistoryItem> history = new ArrayList<>(queries.length);
+        for (String query : queries) {
+            history.add(new SearchHistoryItem(userId, query));
+        }
+        return history;
+    }
+
+    /**
+     * count usuarios con ids distintos, repitiendo los de la lista grabada con un sufijo
+     */
+    static List<User> users(int count) {
+        ApiResponse<List<User>> recorded = gson.fromJson(new String(bytes(USERS), StandardCharsets.UTF_8), USER_LIST_TYPE);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User source = recorded.getData().get(i % recorded.getData().size());
+            users.add(new User((long) i + 1, source.getName() + " " + i, i + "." + source.getEmail(), source.getRole()));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.systembooks.benchmark;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.systembooks.models.Book;
+import com.example.systembooks.models.FavoriteBook;
+import com.example.systembooks.repositories.FavoritesRepository;
+import com.example.systembooks.repositories.LibrarySearchRepository;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Llamadas síncronas de los repositorios SQLite (las que los *Async ejecutan en disco)
+ */
+@RunWith(AndroidJUnit4.class)
+public class SqliteRepositoryBenchmark {
+    private static final String DATABASE_NAME = "systembooks.db";
+    private static final long USER_ID = 1;
+    private static final int CACHED_BOOKS = 1000;
+    private static final int FAVORITES = 200;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private LibrarySearchRepository librarySearchRepository;
+    private FavoritesRepository favoritesRepository;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        librarySearchRepository = new LibrarySearchRepository(context);
+        favoritesRepository = new FavoritesRepository(context);
+    }
+
+    @Test
+    public void cacheSearchPage() {
+        // Una página de resultados que ya estaba en caché: actualizaciones, no inserciones
+        librarySearchRepository.cacheBooks(RecordedPayloads.books(CACHED_BOOKS));
+        List<Book> page = RecordedPayloads.books(40);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            librarySearchRepository.cacheBooks(page);
+        }
+    }
+
+    @Test
+    public void prefixSearch() {
+        librarySearchRepository.cacheBooks(RecordedPayloads.books(CACHED_BOOKS));
+        addFavorites();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            librarySearchRepository.search(USER_ID, "the ho", 50);
+        }
+    }
+
+    @Test
+    public void getFavorites() {
+        addFavorites();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            favoritesRepository.getFavorites(USER_ID);
+        }
+    }
+
+    // Tras la primera consulta responde desde la caché de ids en memoria: mide ese camino
+    @Test
+    public void favoriteStatusForSearchPage() {
+        addFavorites();
+        List<String> bookIds = new ArrayList<>();
+        for (Book book : RecordedPayloads.books(40)) {
+            bookIds.add(book.getId());
+        }
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            favoritesRepository.getFavoriteStatus(USER_ID, bookIds);
+        }
+    }
+
+    private void addFavorites() {
+        for (FavoriteBook favorite : RecordedPayloads.favorites(USER_ID, FAVORITES)) {
+            Book book = new Book(favorite.getBookId(), favorite.getTitle(), favorite.getAuthor());
+            book.setCoverUrl(favorite.getCoverUrl());
+            favoritesRepository.addToFavorites(USER_ID, book);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.systembooks.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.systembooks.model.User;
+import com.example.systembooks.utils.SortedSearchIndex;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice de usuarios de UserManagementFragment: carga por páginas y filtrado tecla a tecla
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserSearchIndexBenchmark {
+    // Mismo tamaño de página que UserManagementFragment
+    private static final int PAGE_SIZE = 100;
+    private static final int USER_COUNT = 20000;
+    private static final String QUERY = "lector 1";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void addPagesOf20000Users() {
+        List<User> users = RecordedPayloads.users(USER_COUNT);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            SortedSearchIndex<User> index = newIndex();
+            for (int from = 0; from < users.size(); from += PAGE_SIZE) {
+                index.addAll(users.subList(from, Math.min(from + PAGE_SIZE, users.size())));
+            }
+        }
+    }
+
+    @Test
+    public void typeQueryOver20000Users() {
+        SortedSearchIndex<User> index = newIndex();
+        index.addAll(RecordedPayloads.users(USER_COUNT));
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            index.filter("");
+            for (int i = 1; i <= QUERY.length(); i++) {
+                index.filter(QUERY.substring(0, i));
+            }
+        }
+    }
+
+    private static SortedSearchIndex<User> newIndex() {
+        return new SortedSearchIndex<>(User::getId, user -> user.getName() + "\n" + user.getEmail(),
+                Comparator.comparing(User::getId));
+    }
+}
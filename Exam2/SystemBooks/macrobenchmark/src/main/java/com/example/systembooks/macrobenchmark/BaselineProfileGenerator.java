@@ -0,0 +1,42 @@
+package com.example.systembooks.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Genera el Baseline Profile de :app con el arranque y los recorridos medidos en los benchmarks.
+ * Se ejecuta con ./gradlew :app:generateBaselineProfile (dispositivo API 28+ conectado);
+ * el perfil queda en app/src/release/generated/baselineProfiles y se incluye en el APK release
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    private static final int MAX_ITERATIONS = 15;
+    private static final int STABLE_ITERATIONS = 3;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        // includeInStartupProfile: también ordena los dex para que el arranque lea menos páginas
+        baselineProfileRule.collect(BooksJourney.PACKAGE, MAX_ITERATIONS, STABLE_ITERATIONS, null, true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+
+                    scope.startActivityAndWait(BooksJourney.booksIntent());
+                    BooksJourney.waitForHomeContent(scope.getDevice());
+                    BooksJourney.flingHome(scope.getDevice());
+                    BooksJourney.searchAndOpenDetail(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.systembooks.macrobenchmark;
+
+import android.content.Intent;
+
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.util.List;
+
+/**
+ * Pasos de UI compartidos por los benchmarks y el generador del Baseline Profile.
+ * Busca las vistas por su id de recurso, así que sobreviven a cambios de texto e idioma
+ */
+final class BooksJourney {
+    static final String PACKAGE = "com.example.systembooks";
+    private static final String BOOKS_ACTIVITY = PACKAGE + ".MainActivity_2";
+    static final String SEARCH_QUERY = "tolkien";
+
+    // Home y la búsqueda dependen de la red la primera vez
+    private static final long TIMEOUT_MS = 15_000;
+
+    private BooksJourney() {}
+
+    /**
+     * Pantalla de libros (Home, Buscar, Categorías...), la que se abre desde "Libros" en el menú lateral
+     */
+    static Intent booksIntent() {
+        Intent intent = new Intent(Intent.ACTION_MAIN);
+        intent.setClassName(PACKAGE, BOOKS_ACTIVITY);
+        return intent;
+    }
+
+    static void waitForHomeContent(UiDevice device) {
+        waitForList(device, "recyclerview_books");
+    }
+
+    /**
+     * Lanza una fling hacia abajo y otra hacia arriba sobre la lista de Home
+     */
+    static void flingHome(UiDevice device) {
+        UiObject2 list = require(device.findObject(By.res(PACKAGE, "recyclerview_books")), "Home book list");
+        // Margen para que el gesto no empiece sobre la barra de navegación del sistema
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    /**
+     * Home -> pestaña Buscar -> búsqueda -> detalle del primer resultado -> atrás
+     */
+    static void searchAndOpenDetail(UiDevice device) {
+        require(device.findObject(By.res(PACKAGE, "nav_search")), "Search tab").click();
+
+        // SearchView de la plataforma: el campo de texto es android:id/search_src_text
+        UiObject2 input = require(device.wait(Until.findObject(By.res("android", "search_src_text")), TIMEOUT_MS),
+                "Search input");
+        input.setText(SEARCH_QUERY);
+        device.pressEnter();
+
+        UiObject2 results = waitForList(device, "search_results");
+        List<UiObject2> items = results.getChildren();
+        require(items.isEmpty() ? null : items.get(0), "First search result").click();
+
+        // content_view solo se hace visible cuando el detalle terminó de cargar
+        require(device.wait(Until.findObject(By.res(PACKAGE, "content_view")), TIMEOUT_MS), "Book detail");
+        device.waitForIdle();
+        device.pressBack();
+        waitForList(device, "search_results");
+    }
+
+    private static UiObject2 waitForList(UiDevice device, String listId) {
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE, listId)
+                .hasDescendant(By.res(PACKAGE, "book_title"))), TIMEOUT_MS);
+        return require(list, listId + " with books");
+    }
+
+    private static UiObject2 require(UiObject2 object, String description) {
+        if (object == null) {
+            throw new AssertionError(description + " not found within " + TIMEOUT_MS + " ms");
+        }
+        return object;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.systembooks.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Tiempos de frame del recorrido Home -> Buscar -> Detalle y del fling de la lista de Home,
+ * con el Baseline Profile si la app lo incluye
+ */
+@RunWith(AndroidJUnit4.class)
+public class NavigationBenchmark {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void homeSearchDetail() {
+        benchmarkRule.measureRepeated(BooksJourney.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(), StartupMode.WARM, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait(BooksJourney.booksIntent());
+                    BooksJourney.waitForHomeContent(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    BooksJourney.searchAndOpenDetail(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void homeFling() {
+        benchmarkRule.measureRepeated(BooksJourney.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(), StartupMode.WARM, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait(BooksJourney.booksIntent());
+                    BooksJourney.waitForHomeContent(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    BooksJourney.flingHome(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.systembooks.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Arranque en frío y en caliente, sin compilar y con el Baseline Profile,
+ * para ver cuánto aporta el perfil en cada caso (BaselineProfileMode.Require: falla si el APK no lo trae).
+ * timeToFullDisplay viene de reportFullyDrawn() cuando Home muestra sus primeros libros
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0},{1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (StartupMode startupMode : new StartupMode[]{StartupMode.COLD, StartupMode.WARM}) {
+            parameters.add(new Object[]{startupMode, new CompilationMode.None()});
+            parameters.add(new Object[]{startupMode, new CompilationMode.Partial(BaselineProfileMode.Require)});
+        }
+        return parameters;
+    }
+
+    // Secciones de StartupTrace: cuánto cuesta Application.onCreate y qué parte es Firebase
+    private static List<Metric> metrics() {
+        return Arrays.asList(new StartupTimingMetric(),
+                new TraceSectionMetric("SystemBooksApplication.onCreate"),
+                new TraceSectionMetric("FirebaseManager.init"));
+    }
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final StartupMode startupMode;
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(StartupMode startupMode, CompilationMode compilationMode) {
+        this.startupMode = startupMode;
+        this.compilationMode = compilationMode;
+    }
+
+    // Actividad del icono del lanzador (menú lateral y sesión)
+    @Test
+    public void launcher() {
+        benchmarkRule.measureRepeated(BooksJourney.PACKAGE,
+                metrics(),
+                compilationMode, startupMode, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+
+    // Pantalla de libros hasta que Home muestra contenido (snapshot o red)
+    @Test
+    public void booksHome() {
+        benchmarkRule.measureRepeated(BooksJourney.PACKAGE,
+                metrics(),
+                compilationMode, startupMode, ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait(BooksJourney.booksIntent());
+                    BooksJourney.waitForHomeContent(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
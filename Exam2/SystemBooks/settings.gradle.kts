@@ -21,4 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "SystemBooks"
 include(":app")
+include(":benchmark")
+include(":benchmark-jvm")
+include(":macrobenchmark")
  
\ No newline at end of file
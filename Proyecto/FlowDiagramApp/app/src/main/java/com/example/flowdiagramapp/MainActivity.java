@@ -2,6 +2,9 @@ package com.example.flowdiagramapp;
 
 import android.app.AlertDialog;
 import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -16,12 +19,27 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
 import com.example.flowdiagramapp.model.Node;
+import com.example.flowdiagramapp.persistence.DiagramStore;
 import com.example.flowdiagramapp.view.FlowDiagramView;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
     private FlowDiagramView diagramView;
-    private Button btnStartNode, btnEndNode, btnVariableNode, btnConditionalNode, btnDeleteNode, btnClear, btnGenerateCode;
+    private DiagramStore diagramStore;
+    // Abre y cierra el diagrama guardado y espera a las exportaciones sin bloquear la interfaz
+    private final ExecutorService storeExecutor = Executors.newSingleThreadExecutor();
+    // Almacén abierto, aunque aún no se haya cargado en la vista; solo se usa desde storeExecutor
+    private DiagramStore openedStore;
+    private Button btnStartNode, btnEndNode, btnVariableNode, btnConditionalNode, btnDeleteNode, btnClear, btnUndo, btnRedo, btnAutoLayout, btnGenerateCode;
     private TextView tvGeneratedCode;
     
     private static final float NODE_DEFAULT_X = 300f;
@@ -45,6 +63,9 @@ public class MainActivity extends AppCompatActivity {
         // Configurar los listeners para los botones
         setupButtonListeners();
         
+        // Recuperar el último diagrama en segundo plano; a partir de ahí cada cambio se guarda solo
+        openDiagramStore();
+        
         // Configurar insets para el modo edge-to-edge
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
@@ -53,6 +74,128 @@ public class MainActivity extends AppCompatActivity {
         });
     }
     
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (diagramStore != null) {
+            diagramStore.flush();
+        }
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (diagramStore != null) {
+            diagramView.setDiagramChangeListener(null);
+            diagramStore = null;
+        }
+        // Cerrar espera a que el diario escriba lo pendiente; la tarea va detrás de una apertura aún
+        // en curso, así que también cierra el almacén que esta no llegó a cargar
+        storeExecutor.execute(this::closeDiagramStore);
+        storeExecutor.shutdown();
+    }
+    
+    private void closeDiagramStore() {
+        if (openedStore == null) {
+            return;
+        }
+        try {
+            openedStore.close();
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo guardar el diagrama", e);
+        }
+        openedStore = null;
+    }
+    
+    /**
+     * Abre el fichero (lo proyecta en memoria y aplica el diario) en segundo plano y lo carga en la
+     * vista desde el hilo de la interfaz. Hasta entonces los botones de edición están desactivados,
+     * para que la carga no borre lo que el usuario haya añadido
+     */
+    private void openDiagramStore() {
+        setEditingEnabled(false);
+        File directory = getFilesDir();
+        storeExecutor.execute(() -> {
+            try {
+                DiagramStore store = DiagramStore.open(directory);
+                openedStore = store;
+                runOnUiThread(() -> attachDiagramStore(store));
+            } catch (IOException e) {
+                Log.e(TAG, "No se pudo abrir el diagrama guardado", e);
+                runOnUiThread(() -> {
+                    if (!isDestroyed()) {
+                        setEditingEnabled(true);
+                        Toast.makeText(this, "No se pudo cargar el diagrama guardado", Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        });
+    }
+    
+    private void attachDiagramStore(DiagramStore store) {
+        if (isDestroyed()) {
+            // La actividad se cerró mientras se abría el fichero; onDestroy ya lo cierra
+            return;
+        }
+        diagramStore = store;
+        diagramStore.attach(diagramView);
+        setEditingEnabled(true);
+    }
+    
+    private void setEditingEnabled(boolean enabled) {
+        for (Button button : new Button[] {btnStartNode, btnEndNode, btnVariableNode, btnConditionalNode,
+                btnDeleteNode, btnClear, btnUndo, btnRedo, btnAutoLayout}) {
+            button.setEnabled(enabled);
+        }
+    }
+    
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_main, menu);
+        return true;
+    }
+    
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_export_json) {
+            exportDiagram();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+    
+    /**
+     * Exporta el diagrama a diagrama.json en la carpeta de la aplicación y avisa al terminar
+     */
+    private void exportDiagram() {
+        if (diagramStore == null) {
+            Toast.makeText(this, "El diagrama aún no se ha cargado", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        File directory = getExternalFilesDir(null);
+        File file = new File(directory != null ? directory : getFilesDir(), "diagrama.json");
+        Future<?> export = diagramStore.exportJson(file);
+        storeExecutor.execute(() -> {
+            String message;
+            try {
+                export.get();
+                message = "Diagrama exportado a " + file.getAbsolutePath();
+            } catch (ExecutionException e) {
+                Log.e(TAG, "No se pudo exportar el diagrama", e.getCause());
+                message = "No se pudo exportar el diagrama";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String result = message;
+            runOnUiThread(() -> {
+                if (!isDestroyed()) {
+                    Toast.makeText(this, result, Toast.LENGTH_LONG).show();
+                }
+            });
+        });
+    }
+    
     private void initializeViews() {
         diagramView = findViewById(R.id.diagramView);
         btnStartNode = findViewById(R.id.btnStartNode);
@@ -61,6 +204,9 @@ public class MainActivity extends AppCompatActivity {
         btnConditionalNode = findViewById(R.id.btnConditionalNode);
         btnDeleteNode = findViewById(R.id.btnDeleteNode);
         btnClear = findViewById(R.id.btnClear);
+        btnUndo = findViewById(R.id.btnUndo);
+        btnRedo = findViewById(R.id.btnRedo);
+        btnAutoLayout = findViewById(R.id.btnAutoLayout);
         btnGenerateCode = findViewById(R.id.btnGenerateCode);
         tvGeneratedCode = findViewById(R.id.tvGeneratedCode);
     }
@@ -109,6 +255,24 @@ public class MainActivity extends AppCompatActivity {
             showClearConfirmationDialog();
         });
         
+        // Botones para deshacer y rehacer el último cambio
+        btnUndo.setOnClickListener(v -> {
+            if (!diagramView.undo()) {
+                Toast.makeText(this, "No hay nada que deshacer", Toast.LENGTH_SHORT).show();
+            }
+        });
+        
+        btnRedo.setOnClickListener(v -> {
+            if (!diagramView.redo()) {
+                Toast.makeText(this, "No hay nada que rehacer", Toast.LENGTH_SHORT).show();
+            }
+        });
+        
+        // Botón para colocar el diagrama automáticamente por capas
+        btnAutoLayout.setOnClickListener(v -> {
+            diagramView.autoLayout();
+        });
+        
         // Botón para generar código
         btnGenerateCode.setOnClickListener(v -> {
             Toast.makeText(this, "Funcionalidad de generación de código aún no implementada", Toast.LENGTH_SHORT).show();
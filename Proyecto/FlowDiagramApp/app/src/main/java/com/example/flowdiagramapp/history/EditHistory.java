@@ -0,0 +1,129 @@
+package com.example.flowdiagramapp.history;
+
+import java.util.ArrayDeque;
+
+/**
+ * Historial para deshacer y rehacer cambios del diagrama.
+ * Cada entrada guarda solo lo que cambió (el nodo movido y sus dos posiciones, el nodo borrado y
+ * sus conexiones...) y apunta a los mismos objetos que el diagrama en vez de copiarlos, así que el
+ * historial ocupa memoria en proporción a los cambios, no al tamaño del diagrama.
+ * Mientras la última entrada siga abierta, las que llegan se intentan fundir con ella (ver
+ * Edit.merge): así todos los pasos de un arrastre quedan en un único cambio. Se cierra con seal().
+ * No es seguro entre hilos.
+ */
+public final class EditHistory {
+    /**
+     * Un cambio que se sabe deshacer y volver a hacer
+     */
+    public interface Edit {
+        void undo();
+
+        void redo();
+
+        /**
+         * Intenta incluir en este cambio el siguiente (p. ej. otro paso del mismo arrastre)
+         * @return true si next queda incluido y no hace falta guardarlo aparte
+         */
+        default boolean merge(Edit next) {
+            return false;
+        }
+    }
+
+    private final int limit;
+    private final ArrayDeque<Edit> undoStack = new ArrayDeque<>();
+    private final ArrayDeque<Edit> redoStack = new ArrayDeque<>();
+    private boolean lastOpen;
+    private boolean applying;
+
+    /**
+     * @param limit número máximo de cambios que se pueden deshacer; los más antiguos se olvidan
+     */
+    public EditHistory(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El límite del historial debe ser positivo: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Guarda un cambio que ya se ha hecho. Se ignora si llega mientras se deshace o rehace otro,
+     * porque entonces es consecuencia de ese
+     */
+    public void record(Edit edit) {
+        if (applying) {
+            return;
+        }
+        redoStack.clear();
+        Edit last = undoStack.peekLast();
+        if (lastOpen && last != null && last.merge(edit)) {
+            return;
+        }
+        undoStack.addLast(edit);
+        if (undoStack.size() > limit) {
+            undoStack.removeFirst();
+        }
+        lastOpen = true;
+    }
+
+    /**
+     * Cierra el último cambio: el siguiente ya no se fundirá con él (p. ej. al soltar el dedo)
+     */
+    public void seal() {
+        lastOpen = false;
+    }
+
+    /**
+     * @return false si no había nada que deshacer
+     */
+    public boolean undo() {
+        seal();
+        Edit edit = undoStack.pollLast();
+        if (edit == null) {
+            return false;
+        }
+        applying = true;
+        try {
+            edit.undo();
+        } finally {
+            applying = false;
+        }
+        redoStack.addLast(edit);
+        return true;
+    }
+
+    /**
+     * @return false si no había nada que rehacer
+     */
+    public boolean redo() {
+        seal();
+        Edit edit = redoStack.pollLast();
+        if (edit == null) {
+            return false;
+        }
+        applying = true;
+        try {
+            edit.redo();
+        } finally {
+            applying = false;
+        }
+        undoStack.addLast(edit);
+        return true;
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * Olvida todos los cambios (p. ej. al cargar otro diagrama)
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        lastOpen = false;
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.flowdiagramapp.index;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Índice espacial de cajas alineadas a los ejes (quadtree MX-CIF).
+ * Cada elemento se guarda en el cuadrante más pequeño que contiene su caja entera, así que una consulta
+ * por punto solo recorre el camino de la raíz a la hoja que contiene el punto: O(log n) con elementos
+ * de tamaño parecido, como los nodos del diagrama.
+ * Mover un elemento solo lo recoloca si su caja sale de su cuadrante.
+ * El orden de inserción hace de orden de dibujo, para devolver el elemento que queda encima.
+ * No es seguro entre hilos y no depende de Android, para poder medirlo en la JVM (módulo benchmark).
+ */
+public final class QuadTree<T> {
+    // Elementos por cuadrante antes de dividirlo
+    private static final int SPLIT_THRESHOLD = 8;
+    private static final int MAX_DEPTH = 16;
+    private static final float INITIAL_HALF_SIZE = 4096f;
+
+    private static final class Entry<T> {
+        final T item;
+        final long order;
+        float left, top, right, bottom;
+        Quad<T> quad;
+        int slot;
+
+        Entry(T item, long order) {
+            this.item = item;
+            this.order = order;
+        }
+
+        boolean contains(float x, float y) {
+            return x >= left && x <= right && y >= top && y <= bottom;
+        }
+
+        boolean intersects(float l, float t, float r, float b) {
+            return left <= r && right >= l && top <= b && bottom >= t;
+        }
+    }
+
+    private static final class Quad<T> {
+        final float left, top, right, bottom;
+        final float centerX, centerY;
+        final int depth;
+        final List<Entry<T>> entries = new ArrayList<>(4);
+        Quad<T>[] children;
+
+        Quad(float left, float top, float right, float bottom, int depth) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.centerX = (left + right) / 2;
+            this.centerY = (top + bottom) / 2;
+            this.depth = depth;
+        }
+
+        boolean encloses(float l, float t, float r, float b) {
+            return l >= left && r <= right && t >= top && b <= bottom;
+        }
+
+        // Hijo que contiene la caja entera, o -1 si cruza el centro
+        int childFor(float l, float t, float r, float b) {
+            boolean west = r < centerX;
+            boolean east = l >= centerX;
+            boolean north = b < centerY;
+            boolean south = t >= centerY;
+            if (north) {
+                return west ? 0 : east ? 1 : -1;
+            } else if (south) {
+                return west ? 2 : east ? 3 : -1;
+            }
+            return -1;
+        }
+
+        void split() {
+            @SuppressWarnings("unchecked")
+            Quad<T>[] quads = (Quad<T>[]) new Quad<?>[4];
+            quads[0] = new Quad<>(left, top, centerX, centerY, depth + 1);
+            quads[1] = new Quad<>(centerX, top, right, centerY, depth + 1);
+            quads[2] = new Quad<>(left, centerY, centerX, bottom, depth + 1);
+            quads[3] = new Quad<>(centerX, centerY, right, bottom, depth + 1);
+            children = quads;
+        }
+    }
+
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private Quad<T> root = new Quad<>(-INITIAL_HALF_SIZE, -INITIAL_HALF_SIZE,
+            INITIAL_HALF_SIZE, INITIAL_HALF_SIZE, 0);
+    private long nextOrder;
+
+    /**
+     * Añade el elemento o actualiza su caja si ya estaba
+     * @throws IllegalArgumentException si alguna coordenada es NaN o infinita
+     */
+    public void put(T item, float left, float top, float right, float bottom) {
+        if (!Float.isFinite(left) || !Float.isFinite(top) || !Float.isFinite(right) || !Float.isFinite(bottom)) {
+            throw new IllegalArgumentException("Caja no finita: " + left + ", " + top + ", " + right + ", " + bottom);
+        }
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            entry = new Entry<>(item, nextOrder++);
+            entries.put(item, entry);
+        } else {
+            // Si sigue cabiendo en su cuadrante y no baja a un hijo, basta con cambiar la caja
+            Quad<T> quad = entry.quad;
+            if (quad.encloses(left, top, right, bottom)
+                    && (quad.children == null || quad.childFor(left, top, right, bottom) < 0)) {
+                setBox(entry, left, top, right, bottom);
+                return;
+            }
+            detach(entry);
+        }
+        setBox(entry, left, top, right, bottom);
+        if (!root.encloses(left, top, right, bottom)) {
+            grow(left, top, right, bottom);
+        }
+        place(root, entry);
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        detach(entry);
+        return true;
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        root = new Quad<>(-INITIAL_HALF_SIZE, -INITIAL_HALF_SIZE, INITIAL_HALF_SIZE, INITIAL_HALF_SIZE, 0);
+        nextOrder = 0;
+    }
+
+    /**
+     * Elemento insertado más tarde (el que se dibuja encima) cuya caja contiene el punto
+     * y que acepta el filtro, o null
+     * @param accept comprobación exacta sobre la forma real; null acepta cualquier caja
+     */
+    public T findTopmost(float x, float y, Predicate<T> accept) {
+        Entry<T> best = null;
+        Quad<T> quad = root;
+        while (quad != null) {
+            List<Entry<T>> list = quad.entries;
+            for (int i = 0, n = list.size(); i < n; i++) {
+                Entry<T> entry = list.get(i);
+                if ((best == null || entry.order > best.order) && entry.contains(x, y)
+                        && (accept == null || accept.test(entry.item))) {
+                    best = entry;
+                }
+            }
+            if (quad.children == null) {
+                break;
+            }
+            quad = quad.children[(x < quad.centerX ? 0 : 1) + (y < quad.centerY ? 0 : 2)];
+        }
+        return best != null ? best.item : null;
+    }
+
+    /**
+     * Añade a out los elementos cuya caja corta el rectángulo, sin orden definido
+     */
+    public void query(float left, float top, float right, float bottom, List<T> out) {
+        query(root, left, top, right, bottom, out);
+    }
+
+    private void query(Quad<T> quad, float left, float top, float right, float bottom, List<T> out) {
+        if (quad.left > right || quad.right < left || quad.top > bottom || quad.bottom < top) {
+            return;
+        }
+        List<Entry<T>> list = quad.entries;
+        for (int i = 0, n = list.size(); i < n; i++) {
+            Entry<T> entry = list.get(i);
+            if (entry.intersects(left, top, right, bottom)) {
+                out.add(entry.item);
+            }
+        }
+        if (quad.children != null) {
+            for (Quad<T> child : quad.children) {
+                query(child, left, top, right, bottom, out);
+            }
+        }
+    }
+
+    private void place(Quad<T> quad, Entry<T> entry) {
+        while (true) {
+            if (quad.children == null) {
+                if (quad.entries.size() < SPLIT_THRESHOLD || quad.depth >= MAX_DEPTH) {
+                    attach(quad, entry);
+                    return;
+                }
+                splitAndRedistribute(quad);
+            }
+            int child = quad.childFor(entry.left, entry.top, entry.right, entry.bottom);
+            if (child < 0) {
+                attach(quad, entry);
+                return;
+            }
+            quad = quad.children[child];
+        }
+    }
+
+    private void splitAndRedistribute(Quad<T> quad) {
+        quad.split();
+        List<Entry<T>> old = new ArrayList<>(quad.entries);
+        quad.entries.clear();
+        for (Entry<T> entry : old) {
+            int child = quad.childFor(entry.left, entry.top, entry.right, entry.bottom);
+            attach(child < 0 ? quad : quad.children[child], entry);
+        }
+    }
+
+    // La raíz dobla su tamaño hasta cubrir la caja; se reinsertan todos los elementos (caso raro)
+    private void grow(float left, float top, float right, float bottom) {
+        float half = (root.right - root.left) / 2;
+        float needed = Math.max(Math.max(Math.abs(left), Math.abs(right)), Math.max(Math.abs(top), Math.abs(bottom)));
+        while (half < needed) {
+            // Sin pasar de Float.MAX_VALUE: el centro de la raíz tiene que seguir siendo 0
+            half = Math.min(half * 2, Float.MAX_VALUE);
+        }
+        root = new Quad<>(-half, -half, half, half, 0);
+        for (Entry<T> entry : entries.values()) {
+            if (entry.quad != null) {
+                entry.quad = null;
+                place(root, entry);
+            }
+        }
+    }
+
+    private void attach(Quad<T> quad, Entry<T> entry) {
+        entry.quad = quad;
+        entry.slot = quad.entries.size();
+        quad.entries.add(entry);
+    }
+
+    // Quitar en O(1) moviendo el último elemento del cuadrante al hueco
+    private void detach(Entry<T> entry) {
+        Quad<T> quad = entry.quad;
+        if (quad == null) {
+            return;
+        }
+        List<Entry<T>> list = quad.entries;
+        Entry<T> last = list.remove(list.size() - 1);
+        if (last != entry) {
+            list.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+        entry.quad = null;
+    }
+
+    private static <T> void setBox(Entry<T> entry, float left, float top, float right, float bottom) {
+        entry.left = left;
+        entry.top = top;
+        entry.right = right;
+        entry.bottom = bottom;
+    }
+}
@@ -0,0 +1,598 @@
+package com.example.flowdiagramapp.layout;
+
+import java.util.Arrays;
+
+/**
+ * Colocación automática por capas (estilo Sugiyama) de un grafo dirigido:
+ * <ol>
+ * <li>se invierten las aristas que cierran ciclos (los bucles del diagrama) con un recorrido en profundidad</li>
+ * <li>cada nodo va a la capa de su camino más largo desde un nodo sin entradas</li>
+ * <li>las aristas que saltan capas se parten con nodos ficticios, uno por capa intermedia</li>
+ * <li>se ordena cada capa por baricentro de sus vecinos, bajando y subiendo varias veces, para reducir cruces</li>
+ * <li>cada nodo se acerca a la media de sus vecinos sin solaparse con los de su capa</li>
+ * </ol>
+ * El grafo se recibe como arrays de enteros (nodo = posición 0..n-1), así que no depende de las
+ * clases de la vista y se puede ejecutar en cualquier hilo. Todo es lineal en nodos y aristas salvo
+ * la ordenación de cada capa.
+ * Las coordenadas son los centros de los nodos.
+ */
+public final class LayeredLayout {
+    // Bajadas y subidas de la reducción de cruces; a partir de aquí apenas mejora
+    private static final int ORDERING_SWEEPS = 4;
+    private static final int POSITIONING_SWEEPS = 4;
+
+    private final float nodeWidth;
+    private final float nodeHeight;
+    private final float horizontalGap;
+    private final float verticalGap;
+    private float originX;
+    private float originY;
+
+    /**
+     * Resultado: centro y capa de cada nodo
+     */
+    public static final class Result {
+        public final float[] x;
+        public final float[] y;
+        public final int[] layer;
+
+        Result(float[] x, float[] y, int[] layer) {
+            this.x = x;
+            this.y = y;
+            this.layer = layer;
+        }
+    }
+
+    public LayeredLayout(float nodeWidth, float nodeHeight, float horizontalGap, float verticalGap) {
+        this.nodeWidth = nodeWidth;
+        this.nodeHeight = nodeHeight;
+        this.horizontalGap = horizontalGap;
+        this.verticalGap = verticalGap;
+    }
+
+    /**
+     * Centro del nodo de arriba a la izquierda
+     */
+    public void setOrigin(float originX, float originY) {
+        this.originX = originX;
+        this.originY = originY;
+    }
+
+    /**
+     * Coloca todos los nodos
+     * @param sources origen de cada arista
+     * @param targets destino de cada arista
+     */
+    public Result layout(int nodeCount, int[] sources, int[] targets) {
+        int edgeCount = checkEdges(nodeCount, sources, targets);
+        Graph graph = new Graph(nodeCount, sources, targets, edgeCount);
+
+        boolean[] reversed = findBackEdges(graph);
+        int[] layer = assignLayers(graph, reversed);
+        LayeredGraph layered = new LayeredGraph(nodeCount, sources, targets, edgeCount, reversed, layer);
+        layered.orderLayers(graph, reversed);
+        for (int sweep = 0; sweep < ORDERING_SWEEPS; sweep++) {
+            layered.sweep(true);
+            layered.sweep(false);
+        }
+        float[] vertexX = layered.positionVertices();
+
+        float[] x = new float[nodeCount];
+        float[] y = new float[nodeCount];
+        float layerStep = nodeHeight + verticalGap;
+        for (int v = 0; v < nodeCount; v++) {
+            x[v] = originX + vertexX[v];
+            y[v] = originY + layer[v] * layerStep;
+        }
+        return new Result(x, y, layer);
+    }
+
+    /**
+     * Coloca solo los nodos nuevos, sin mover los que ya están: cada uno va a la capa siguiente a la
+     * de sus predecesores (o a la anterior a la de sus sucesores, o debajo de todo si no tiene
+     * vecinos colocados) y al hueco libre de esa capa más cercano a la media de sus vecinos.
+     * Cuesta O(n + aristas) por nodo nuevo en vez de volver a colocar el grafo entero.
+     * @param layer capa de cada nodo ya colocado, o -1 para los nuevos
+     * @param x centro actual de cada nodo ya colocado (los de los nuevos se ignoran)
+     * @param y igual que x
+     */
+    public Result relayout(int nodeCount, int[] sources, int[] targets, int[] layer, float[] x, float[] y) {
+        int edgeCount = checkEdges(nodeCount, sources, targets);
+        Graph graph = new Graph(nodeCount, sources, targets, edgeCount);
+        int[] newLayer = Arrays.copyOf(layer, nodeCount);
+        float[] newX = Arrays.copyOf(x, nodeCount);
+        float[] newY = Arrays.copyOf(y, nodeCount);
+
+        int maxLayer = -1;
+        for (int v = 0; v < nodeCount; v++) {
+            maxLayer = Math.max(maxLayer, newLayer[v]);
+        }
+        float layerStep = nodeHeight + verticalGap;
+        float separation = nodeWidth + horizontalGap;
+
+        for (int v = 0; v < nodeCount; v++) {
+            if (newLayer[v] >= 0) {
+                continue;
+            }
+            int fromAbove = -1;
+            int fromBelow = Integer.MAX_VALUE;
+            float sumX = 0;
+            int placedNeighbours = 0;
+            for (int e = graph.inStart[v]; e < graph.inStart[v + 1]; e++) {
+                int u = graph.inList[e];
+                if (u != v && newLayer[u] >= 0) {
+                    fromAbove = Math.max(fromAbove, newLayer[u] + 1);
+                    sumX += newX[u];
+                    placedNeighbours++;
+                }
+            }
+            for (int e = graph.outStart[v]; e < graph.outStart[v + 1]; e++) {
+                int w = graph.outList[e];
+                if (w != v && newLayer[w] >= 0) {
+                    fromBelow = Math.min(fromBelow, newLayer[w] - 1);
+                    sumX += newX[w];
+                    placedNeighbours++;
+                }
+            }
+
+            int target;
+            if (fromAbove >= 0) {
+                target = fromAbove;
+            } else if (fromBelow != Integer.MAX_VALUE) {
+                target = Math.max(0, fromBelow);
+            } else {
+                target = maxLayer + 1;
+            }
+            float desired = placedNeighbours > 0 ? sumX / placedNeighbours : originX;
+            float centerY = originY + target * layerStep;
+            newX[v] = freeSlot(newX, newY, newLayer, nodeCount, centerY, desired, separation);
+            newY[v] = centerY;
+            newLayer[v] = target;
+            maxLayer = Math.max(maxLayer, target);
+        }
+        return new Result(newX, newY, newLayer);
+    }
+
+    /**
+     * Centro libre más cercano a desired entre los nodos colocados que ocupan la franja de centerY
+     */
+    private float freeSlot(float[] x, float[] y, int[] layer, int nodeCount, float centerY, float desired,
+                           float separation) {
+        float[] occupied = new float[8];
+        int count = 0;
+        for (int u = 0; u < nodeCount; u++) {
+            if (layer[u] >= 0 && Math.abs(y[u] - centerY) < nodeHeight) {
+                if (count == occupied.length) {
+                    occupied = Arrays.copyOf(occupied, count * 2);
+                }
+                occupied[count++] = x[u];
+            }
+        }
+        Arrays.sort(occupied, 0, count);
+
+        // Candidatos: el punto deseado y los bordes de cada nodo ocupado
+        float best = desired;
+        float bestDistance = Float.MAX_VALUE;
+        for (int i = -1; i < count * 2; i++) {
+            float candidate = i < 0 ? desired
+                    : occupied[i / 2] + (i % 2 == 0 ? -separation : separation);
+            float distance = Math.abs(candidate - desired);
+            if (distance < bestDistance && isFree(occupied, count, candidate, separation)) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isFree(float[] occupied, int count, float candidate, float separation) {
+        // Primer ocupado a la derecha de candidate - separation
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (occupied[mid] <= candidate - separation) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == count || occupied[low] >= candidate + separation;
+    }
+
+    private static int checkEdges(int nodeCount, int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Hay " + sources.length + " orígenes y " + targets.length + " destinos");
+        }
+        for (int e = 0; e < sources.length; e++) {
+            if (sources[e] < 0 || sources[e] >= nodeCount || targets[e] < 0 || targets[e] >= nodeCount) {
+                throw new IllegalArgumentException("Arista " + e + " fuera del grafo: "
+                        + sources[e] + " -> " + targets[e]);
+            }
+        }
+        return sources.length;
+    }
+
+    /**
+     * Aristas de retroceso de un recorrido en profundidad, empezando por los nodos sin entradas
+     * (el nodo de inicio de un diagrama). Iterativo para no desbordar la pila en grafos largos
+     */
+    private static boolean[] findBackEdges(Graph graph) {
+        int n = graph.nodeCount;
+        boolean[] reversed = new boolean[graph.edgeCount];
+        byte[] state = new byte[n]; // 0 sin visitar, 1 en la pila, 2 terminado
+        int[] stack = new int[n];
+        int[] nextEdge = new int[n];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < n; root++) {
+                // Primero las raíces naturales, luego lo que quede (ciclos sin entrada)
+                if (state[root] != 0 || (pass == 0 && graph.inStart[root + 1] > graph.inStart[root])) {
+                    continue;
+                }
+                int depth = 0;
+                stack[depth++] = root;
+                state[root] = 1;
+                nextEdge[root] = graph.outStart[root];
+                while (depth > 0) {
+                    int v = stack[depth - 1];
+                    if (nextEdge[v] == graph.outStart[v + 1]) {
+                        state[v] = 2;
+                        depth--;
+                        continue;
+                    }
+                    int e = nextEdge[v]++;
+                    int w = graph.outList[e];
+                    if (state[w] == 1) {
+                        reversed[graph.outEdge[e]] = true;
+                    } else if (state[w] == 0) {
+                        state[w] = 1;
+                        nextEdge[w] = graph.outStart[w];
+                        stack[depth++] = w;
+                    }
+                }
+            }
+        }
+        return reversed;
+    }
+
+    /**
+     * Capa de cada nodo por el camino más largo, en orden topológico (Kahn) del grafo sin ciclos
+     */
+    private static int[] assignLayers(Graph graph, boolean[] reversed) {
+        int n = graph.nodeCount;
+        int[] inDegree = new int[n];
+        for (int e = 0; e < graph.edgeCount; e++) {
+            int source = reversed[e] ? graph.targets[e] : graph.sources[e];
+            int target = reversed[e] ? graph.sources[e] : graph.targets[e];
+            if (source != target) {
+                inDegree[target]++;
+            }
+        }
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        int[] layer = new int[n];
+        while (head < tail) {
+            int v = queue[head++];
+            // Aristas que salen de v en el grafo sin ciclos: salidas normales y entradas invertidas
+            for (int i = graph.outStart[v]; i < graph.outStart[v + 1]; i++) {
+                int e = graph.outEdge[i];
+                int w = graph.outList[i];
+                if (!reversed[e] && w != v) {
+                    layer[w] = Math.max(layer[w], layer[v] + 1);
+                    if (--inDegree[w] == 0) {
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            for (int i = graph.inStart[v]; i < graph.inStart[v + 1]; i++) {
+                int e = graph.inEdge[i];
+                int w = graph.inList[i];
+                if (reversed[e] && w != v) {
+                    layer[w] = Math.max(layer[w], layer[v] + 1);
+                    if (--inDegree[w] == 0) {
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Listas de adyacencia compactas (CSR) de entrada y salida
+     */
+    private static final class Graph {
+        final int nodeCount;
+        final int edgeCount;
+        final int[] sources;
+        final int[] targets;
+        final int[] outStart;
+        final int[] outList;
+        final int[] outEdge;
+        final int[] inStart;
+        final int[] inList;
+        final int[] inEdge;
+
+        Graph(int nodeCount, int[] sources, int[] targets, int edgeCount) {
+            this.nodeCount = nodeCount;
+            this.edgeCount = edgeCount;
+            this.sources = sources;
+            this.targets = targets;
+            outStart = new int[nodeCount + 1];
+            inStart = new int[nodeCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                outStart[sources[e] + 1]++;
+                inStart[targets[e] + 1]++;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                outStart[v + 1] += outStart[v];
+                inStart[v + 1] += inStart[v];
+            }
+            outList = new int[edgeCount];
+            outEdge = new int[edgeCount];
+            inList = new int[edgeCount];
+            inEdge = new int[edgeCount];
+            int[] outFill = Arrays.copyOf(outStart, nodeCount);
+            int[] inFill = Arrays.copyOf(inStart, nodeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                int o = outFill[sources[e]]++;
+                outList[o] = targets[e];
+                outEdge[o] = e;
+                int i = inFill[targets[e]]++;
+                inList[i] = sources[e];
+                inEdge[i] = e;
+            }
+        }
+    }
+
+    /**
+     * Grafo por capas con los nodos ficticios: los vértices 0..nodeCount-1 son los nodos reales y
+     * el resto, ficticios. Cada vértice solo tiene vecinos en la capa de arriba y en la de abajo
+     */
+    private final class LayeredGraph {
+        final int realCount;
+        int vertexCount;
+        int[] vertexLayer;
+        // Vecinos de arriba y de abajo, en CSR
+        int[] upStart;
+        int[] upList;
+        int[] downStart;
+        int[] downList;
+        // Vértices de cada capa, en orden, y posición de cada vértice en su capa
+        int[][] layers;
+        int[] position;
+
+        LayeredGraph(int nodeCount, int[] sources, int[] targets, int edgeCount, boolean[] reversed, int[] layer) {
+            realCount = nodeCount;
+            int dummies = 0;
+            for (int e = 0; e < edgeCount; e++) {
+                int span = Math.abs(layer[targets[e]] - layer[sources[e]]);
+                if (span > 1) {
+                    dummies += span - 1;
+                }
+            }
+            vertexCount = nodeCount + dummies;
+            vertexLayer = Arrays.copyOf(layer, vertexCount);
+
+            // Segmentos de una capa a la siguiente (arriba -> abajo)
+            int segmentCapacity = edgeCount + dummies;
+            int[] upper = new int[segmentCapacity];
+            int[] lower = new int[segmentCapacity];
+            int segments = 0;
+            int nextDummy = nodeCount;
+            for (int e = 0; e < edgeCount; e++) {
+                int top = reversed[e] ? targets[e] : sources[e];
+                int bottom = reversed[e] ? sources[e] : targets[e];
+                if (vertexLayer[top] >= vertexLayer[bottom]) {
+                    // Lazos y aristas dentro de una capa no influyen en el orden
+                    continue;
+                }
+                int previous = top;
+                for (int l = vertexLayer[top] + 1; l < vertexLayer[bottom]; l++) {
+                    int dummy = nextDummy++;
+                    vertexLayer[dummy] = l;
+                    upper[segments] = previous;
+                    lower[segments++] = dummy;
+                    previous = dummy;
+                }
+                upper[segments] = previous;
+                lower[segments++] = bottom;
+            }
+
+            upStart = new int[vertexCount + 1];
+            downStart = new int[vertexCount + 1];
+            for (int s = 0; s < segments; s++) {
+                downStart[upper[s] + 1]++;
+                upStart[lower[s] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                downStart[v + 1] += downStart[v];
+                upStart[v + 1] += upStart[v];
+            }
+            downList = new int[segments];
+            upList = new int[segments];
+            int[] downFill = Arrays.copyOf(downStart, vertexCount);
+            int[] upFill = Arrays.copyOf(upStart, vertexCount);
+            for (int s = 0; s < segments; s++) {
+                downList[downFill[upper[s]]++] = lower[s];
+                upList[upFill[lower[s]]++] = upper[s];
+            }
+        }
+
+        /**
+         * Orden inicial: el de un recorrido en anchura desde las raíces, que ya deja juntos
+         * los nodos de una misma rama
+         */
+        void orderLayers(Graph graph, boolean[] reversed) {
+            int layerCount = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                layerCount = Math.max(layerCount, vertexLayer[v] + 1);
+            }
+            int[] layerSize = new int[layerCount];
+            for (int v = 0; v < vertexCount; v++) {
+                layerSize[vertexLayer[v]]++;
+            }
+            layers = new int[layerCount][];
+            for (int l = 0; l < layerCount; l++) {
+                layers[l] = new int[layerSize[l]];
+            }
+            position = new int[vertexCount];
+
+            int[] fill = new int[layerCount];
+            boolean[] seen = new boolean[vertexCount];
+            int[] queue = new int[vertexCount];
+            for (int root = 0; root < vertexCount; root++) {
+                if (seen[root] || upStart[root + 1] > upStart[root]) {
+                    continue;
+                }
+                int head = 0;
+                int tail = 0;
+                queue[tail++] = root;
+                seen[root] = true;
+                while (head < tail) {
+                    int v = queue[head++];
+                    int l = vertexLayer[v];
+                    position[v] = fill[l];
+                    layers[l][fill[l]++] = v;
+                    for (int i = downStart[v]; i < downStart[v + 1]; i++) {
+                        int w = downList[i];
+                        if (!seen[w]) {
+                            seen[w] = true;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reordena cada capa por el baricentro de sus vecinos en la capa ya ordenada
+         * (la de arriba al bajar, la de abajo al subir); los vértices sin vecinos conservan su sitio
+         */
+        void sweep(boolean downwards) {
+            int layerCount = layers.length;
+            long[] keys = new long[0];
+            for (int step = 1; step < layerCount; step++) {
+                int l = downwards ? step : layerCount - 1 - step;
+                int[] current = layers[l];
+                if (keys.length < current.length) {
+                    keys = new long[current.length];
+                }
+                int[] start = downwards ? upStart : downStart;
+                int[] list = downwards ? upList : downList;
+                for (int i = 0; i < current.length; i++) {
+                    int v = current[i];
+                    int degree = start[v + 1] - start[v];
+                    float barycenter;
+                    if (degree == 0) {
+                        barycenter = i;
+                    } else {
+                        long sum = 0;
+                        for (int e = start[v]; e < start[v + 1]; e++) {
+                            sum += position[list[e]];
+                        }
+                        barycenter = (float) sum / degree;
+                    }
+                    // Clave ordenable: baricentro en coma fija y, para desempatar, la posición actual
+                    long fixed = (long) (barycenter * 1024f);
+                    keys[i] = (fixed << 32) | i;
+                }
+                Arrays.sort(keys, 0, current.length);
+                int[] reordered = new int[current.length];
+                for (int i = 0; i < current.length; i++) {
+                    int v = current[(int) keys[i]];
+                    reordered[i] = v;
+                    position[v] = i;
+                }
+                layers[l] = reordered;
+            }
+        }
+
+        /**
+         * Coordenada x de cada vértice: varias pasadas acercando cada uno a la media de sus vecinos,
+         * resolviendo los solapes de cada capa hacia la izquierda y hacia la derecha y promediando
+         */
+        float[] positionVertices() {
+            float[] x = new float[vertexCount];
+            for (int[] layer : layers) {
+                float cursor = 0;
+                for (int i = 0; i < layer.length; i++) {
+                    if (i > 0) {
+                        cursor += separation(layer[i - 1], layer[i]);
+                    }
+                    x[layer[i]] = cursor;
+                }
+            }
+
+            int layerCount = layers.length;
+            float[] desired = new float[0];
+            float[] left = new float[0];
+            float[] right = new float[0];
+            for (int sweep = 0; sweep < POSITIONING_SWEEPS * 2; sweep++) {
+                boolean downwards = sweep % 2 == 0;
+                for (int step = 1; step < layerCount; step++) {
+                    int l = downwards ? step : layerCount - 1 - step;
+                    int[] layer = layers[l];
+                    int size = layer.length;
+                    if (desired.length < size) {
+                        desired = new float[size];
+                        left = new float[size];
+                        right = new float[size];
+                    }
+                    int[] start = downwards ? upStart : downStart;
+                    int[] list = downwards ? upList : downList;
+                    for (int i = 0; i < size; i++) {
+                        int v = layer[i];
+                        int degree = start[v + 1] - start[v];
+                        if (degree == 0) {
+                            desired[i] = x[v];
+                        } else {
+                            float sum = 0;
+                            for (int e = start[v]; e < start[v + 1]; e++) {
+                                sum += x[list[e]];
+                            }
+                            desired[i] = sum / degree;
+                        }
+                    }
+                    // Empujando a la derecha desde la izquierda, y a la izquierda desde la derecha
+                    for (int i = 0; i < size; i++) {
+                        left[i] = i == 0 ? desired[i]
+                                : Math.max(desired[i], left[i - 1] + separation(layer[i - 1], layer[i]));
+                    }
+                    for (int i = size - 1; i >= 0; i--) {
+                        right[i] = i == size - 1 ? desired[i]
+                                : Math.min(desired[i], right[i + 1] - separation(layer[i], layer[i + 1]));
+                    }
+                    // La media de dos colocaciones sin solapes tampoco tiene solapes
+                    for (int i = 0; i < size; i++) {
+                        x[layer[i]] = (left[i] + right[i]) / 2;
+                    }
+                }
+            }
+
+            float min = Float.MAX_VALUE;
+            for (int v = 0; v < realCount; v++) {
+                min = Math.min(min, x[v]);
+            }
+            if (realCount > 0) {
+                for (int v = 0; v < vertexCount; v++) {
+                    x[v] -= min;
+                }
+            }
+            return x;
+        }
+
+        // Los nodos ficticios no tienen anchura, solo se separan por el hueco
+        private float separation(int a, int b) {
+            float halfA = a < realCount ? nodeWidth / 2 : 0;
+            float halfB = b < realCount ? nodeWidth / 2 : 0;
+            return halfA + halfB + horizontalGap;
+        }
+    }
+}
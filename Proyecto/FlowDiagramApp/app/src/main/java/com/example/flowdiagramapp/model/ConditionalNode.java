@@ -9,6 +9,11 @@ import android.graphics.Path;
  */
 public class ConditionalNode extends Node {
     
+    // Rombo y texto recortado reutilizados entre fotogramas
+    private final Path diamondPath = new Path();
+    private String displayText;
+    private String displayTextSource;
+    
     public ConditionalNode(Point position, String condition) {
         super(position, condition);
     }
@@ -16,7 +21,7 @@ public class ConditionalNode extends Node {
     @Override
     public void draw(Canvas canvas, Paint paint) {
         // Los nodos condicionales se dibujan como rombos
-        Path diamondPath = new Path();
+        diamondPath.rewind();
         diamondPath.moveTo(position.getX(), bounds.top); // Arriba
         diamondPath.lineTo(bounds.right, position.getY()); // Derecha
         diamondPath.lineTo(position.getX(), bounds.bottom); // Abajo
@@ -24,41 +29,44 @@ public class ConditionalNode extends Node {
         diamondPath.close();
         
         // Relleno
-        Paint fillPaint = new Paint(paint);
-        fillPaint.setStyle(Paint.Style.FILL);
-        canvas.drawPath(diamondPath, fillPaint);
+        canvas.drawPath(diamondPath, DrawPaints.fill(paint));
         
         // Contorno
-        Paint strokePaint = new Paint(paint);
-        strokePaint.setStyle(Paint.Style.STROKE);
-        strokePaint.setStrokeWidth(2f);
-        canvas.drawPath(diamondPath, strokePaint);
+        canvas.drawPath(diamondPath, DrawPaints.stroke(paint, 2f));
         
         // Texto
-        Paint textPaint = new Paint(paint);
-        textPaint.setStyle(Paint.Style.FILL);
-        textPaint.setTextSize(18f);
-        textPaint.setTextAlign(Paint.Align.CENTER);
+        Paint textPaint = DrawPaints.text(paint, 18f);
         
         float textX = position.getX();
         float textY = position.getY() + (textPaint.getTextSize() / 3);
         
-        // Ajustar el texto para que quepa dentro del rombo
-        String displayText = text;
-        float textWidth = textPaint.measureText(displayText);
+        canvas.drawText(getDisplayText(textPaint), textX, textY, textPaint);
+    }
+    
+    /**
+     * Texto ajustado para que quepa dentro del rombo; solo se vuelve a medir si cambia el texto
+     */
+    private String getDisplayText(Paint textPaint) {
+        String text = getText();
+        if (displayText != null && text.equals(displayTextSource)) {
+            return displayText;
+        }
+        String result = text;
+        float textWidth = textPaint.measureText(result);
         float availableWidth = WIDTH * 0.7f; // Usar un porcentaje del ancho total
         
         if (textWidth > availableWidth) {
             // Si el texto es demasiado largo, lo truncamos
-            int maxChars = (int) (displayText.length() * availableWidth / textWidth) - 3;
+            int maxChars = (int) (result.length() * availableWidth / textWidth) - 3;
             if (maxChars > 0) {
-                displayText = displayText.substring(0, maxChars) + "...";
+                result = result.substring(0, maxChars) + "...";
             } else {
-                displayText = "...";
+                result = "...";
             }
         }
-        
-        canvas.drawText(displayText, textX, textY, textPaint);
+        displayTextSource = text;
+        displayText = result;
+        return result;
     }
 
     /**
@@ -13,6 +13,15 @@ public class Connection {
     private String label; // Para condiciones en conexiones de if/else
     private boolean isSelected;
 
+    // Geometría calculada para las posiciones de nodo guardadas; se reutiliza mientras no se muevan
+    private float cachedSourceX = Float.NaN;
+    private float cachedSourceY = Float.NaN;
+    private float cachedTargetX = Float.NaN;
+    private float cachedTargetY = Float.NaN;
+    private float startX, startY, endX, endY;
+    private final Path arrowPath = new Path();
+    private final float[] scratchPoint = new float[2];
+
     public Connection(Node source, Node target) {
         this.source = source;
         this.target = target;
@@ -29,35 +38,71 @@ public class Connection {
      * Dibuja la conexión entre dos nodos
      */
     public void draw(Canvas canvas, Paint paint) {
-        if (source == null || target == null) return;
-
-        // Puntos de inicio y fin
-        Point start = getConnectionPoint(source, target);
-        Point end = getConnectionPoint(target, source);
+        if (!updateGeometry()) return;
 
         // Dibujar flecha
-        drawArrow(canvas, paint, start, end);
+        canvas.drawLine(startX, startY, endX, endY, paint);
+        canvas.drawPath(arrowPath, DrawPaints.fill(paint));
 
         // Si hay una etiqueta, dibujarla en el medio de la conexión
         if (label != null && !label.isEmpty()) {
-            float midX = (start.getX() + end.getX()) / 2;
-            float midY = (start.getY() + end.getY()) / 2;
+            float midX = (startX + endX) / 2;
+            float midY = (startY + endY) / 2;
             
-            Paint textPaint = new Paint(paint);
-            textPaint.setStyle(Paint.Style.FILL);
+            Paint textPaint = DrawPaints.fill(paint);
             canvas.drawText(label, midX, midY - 10, textPaint);
         }
     }
 
     /**
-     * Calcula el punto de conexión en el borde de un nodo
+     * Recalcula los extremos y la punta de flecha solo si alguno de los nodos se ha movido
+     * @return false si la conexión no tiene los dos nodos
      */
-    private Point getConnectionPoint(Node node, Node other) {
-        float nodeX = node.getPosition().getX();
-        float nodeY = node.getPosition().getY();
-        float otherX = other.getPosition().getX();
-        float otherY = other.getPosition().getY();
+    private boolean updateGeometry() {
+        if (source == null || target == null) return false;
+
+        float sourceX = source.getPosition().getX();
+        float sourceY = source.getPosition().getY();
+        float targetX = target.getPosition().getX();
+        float targetY = target.getPosition().getY();
+        if (sourceX == cachedSourceX && sourceY == cachedSourceY
+                && targetX == cachedTargetX && targetY == cachedTargetY) {
+            return true;
+        }
+        cachedSourceX = sourceX;
+        cachedSourceY = sourceY;
+        cachedTargetX = targetX;
+        cachedTargetY = targetY;
+
+        // Puntos de inicio y fin en el borde de cada nodo
+        getConnectionPoint(sourceX, sourceY, targetX, targetY, scratchPoint);
+        startX = scratchPoint[0];
+        startY = scratchPoint[1];
+        getConnectionPoint(targetX, targetY, sourceX, sourceY, scratchPoint);
+        endX = scratchPoint[0];
+        endY = scratchPoint[1];
+
+        // Calcular la punta de flecha
+        float angle = (float) Math.atan2(endY - startY, endX - startX);
+        float arrowSize = 15f;
 
+        float arrowX1 = (float) (endX - arrowSize * Math.cos(angle - Math.PI/6));
+        float arrowY1 = (float) (endY - arrowSize * Math.sin(angle - Math.PI/6));
+        float arrowX2 = (float) (endX - arrowSize * Math.cos(angle + Math.PI/6));
+        float arrowY2 = (float) (endY - arrowSize * Math.sin(angle + Math.PI/6));
+
+        arrowPath.rewind();
+        arrowPath.moveTo(endX, endY);
+        arrowPath.lineTo(arrowX1, arrowY1);
+        arrowPath.lineTo(arrowX2, arrowY2);
+        arrowPath.close();
+        return true;
+    }
+
+    /**
+     * Calcula el punto de conexión en el borde de un nodo y lo deja en out[0], out[1]
+     */
+    private static void getConnectionPoint(float nodeX, float nodeY, float otherX, float otherY, float[] out) {
         float angle = (float) Math.atan2(otherY - nodeY, otherX - nodeX);
         
         // Encontrar el punto de intersección con el borde del nodo
@@ -77,56 +122,26 @@ public class Connection {
             y = x * tanAngle * (float) Math.signum(otherY - nodeY);
         }
 
-        return new Point(nodeX + x, nodeY + y);
-    }
-
-    /**
-     * Dibuja una flecha entre dos puntos
-     */
-    private void drawArrow(Canvas canvas, Paint paint, Point start, Point end) {
-        // Dibujar línea principal
-        canvas.drawLine(start.getX(), start.getY(), end.getX(), end.getY(), paint);
-
-        // Calcular la punta de flecha
-        float angle = (float) Math.atan2(end.getY() - start.getY(), end.getX() - start.getX());
-        float arrowSize = 15f;
-
-        float arrowX1 = (float) (end.getX() - arrowSize * Math.cos(angle - Math.PI/6));
-        float arrowY1 = (float) (end.getY() - arrowSize * Math.sin(angle - Math.PI/6));
-        float arrowX2 = (float) (end.getX() - arrowSize * Math.cos(angle + Math.PI/6));
-        float arrowY2 = (float) (end.getY() - arrowSize * Math.sin(angle + Math.PI/6));
-
-        Path arrowPath = new Path();
-        arrowPath.moveTo(end.getX(), end.getY());
-        arrowPath.lineTo(arrowX1, arrowY1);
-        arrowPath.lineTo(arrowX2, arrowY2);
-        arrowPath.close();
-
-        // Dibujar la punta de flecha
-        Paint arrowPaint = new Paint(paint);
-        arrowPaint.setStyle(Paint.Style.FILL);
-        canvas.drawPath(arrowPath, arrowPaint);
+        out[0] = nodeX + x;
+        out[1] = nodeY + y;
     }
 
     /**
      * Comprueba si un punto está cerca de la conexión
      */
     public boolean isNear(Point point, float threshold) {
-        if (source == null || target == null) return false;
-
-        Point start = getConnectionPoint(source, target);
-        Point end = getConnectionPoint(target, source);
+        if (!updateGeometry()) return false;
 
         // Calcular la distancia del punto a la línea
-        float lineLength = start.distanceTo(end);
+        float dx = endX - startX;
+        float dy = endY - startY;
+        float lineLength = (float) Math.sqrt(dx * dx + dy * dy);
         
         if (lineLength == 0) return false;
 
         // Calcular la distancia del punto a la línea usando el producto cruz
-        float dx = end.getX() - start.getX();
-        float dy = end.getY() - start.getY();
         float distance = Math.abs(dy * point.getX() - dx * point.getY() + 
-                         end.getX() * start.getY() - end.getY() * start.getX()) / lineLength;
+                         endX * startY - endY * startX) / lineLength;
         
         return distance <= threshold;
     }
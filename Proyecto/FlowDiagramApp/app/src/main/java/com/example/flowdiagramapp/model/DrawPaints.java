@@ -0,0 +1,38 @@
+package com.example.flowdiagramapp.model;
+
+import android.graphics.Paint;
+
+/**
+ * Pinturas auxiliares que reutilizan los métodos draw() de nodos y conexiones.
+ * Cada llamada copia la pintura base en un objeto fijo en lugar de crear uno nuevo por fotograma;
+ * el resultado solo es válido hasta la siguiente llamada del mismo tipo y solo desde el hilo de UI.
+ */
+final class DrawPaints {
+    private static final Paint FILL = new Paint();
+    private static final Paint STROKE = new Paint();
+    private static final Paint TEXT = new Paint();
+
+    private DrawPaints() {
+    }
+
+    static Paint fill(Paint base) {
+        FILL.set(base);
+        FILL.setStyle(Paint.Style.FILL);
+        return FILL;
+    }
+
+    static Paint stroke(Paint base, float strokeWidth) {
+        STROKE.set(base);
+        STROKE.setStyle(Paint.Style.STROKE);
+        STROKE.setStrokeWidth(strokeWidth);
+        return STROKE;
+    }
+
+    static Paint text(Paint base, float textSize) {
+        TEXT.set(base);
+        TEXT.setStyle(Paint.Style.FILL);
+        TEXT.setTextSize(textSize);
+        TEXT.setTextAlign(Paint.Align.CENTER);
+        return TEXT;
+    }
+}
@@ -15,25 +15,17 @@ public class EndNode extends Node {
     @Override
     public void draw(Canvas canvas, Paint paint) {
         // Los nodos de fin se suelen dibujar como óvalos similar al inicio pero con un trazo más grueso
-        Paint fillPaint = new Paint(paint);
-        fillPaint.setStyle(Paint.Style.FILL);
-        canvas.drawOval(bounds, fillPaint);
+        canvas.drawOval(bounds, DrawPaints.fill(paint));
         
         // Contorno doble para diferenciar del inicio
-        Paint strokePaint = new Paint(paint);
-        strokePaint.setStyle(Paint.Style.STROKE);
-        strokePaint.setStrokeWidth(3f);
-        canvas.drawOval(bounds, strokePaint);
+        canvas.drawOval(bounds, DrawPaints.stroke(paint, 3f));
         
         // Texto
-        Paint textPaint = new Paint(paint);
-        textPaint.setStyle(Paint.Style.FILL);
-        textPaint.setTextSize(24f);
-        textPaint.setTextAlign(Paint.Align.CENTER);
+        Paint textPaint = DrawPaints.text(paint, 24f);
         
         float textX = position.getX();
         float textY = position.getY() + (textPaint.getTextSize() / 3); // Ajuste vertical para centrar
         
-        canvas.drawText(text, textX, textY, textPaint);
+        canvas.drawText(getText(), textX, textY, textPaint);
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import android.graphics.RectF;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Clase base para todos los nodos de diagrama de flujo
@@ -15,20 +16,31 @@ public abstract class Node {
     protected String id;
     protected Point position;
     protected String text;
+    // Texto aún sin leer de un diagrama guardado; se resuelve en el primer getText
+    private Supplier<String> lazyText;
     protected RectF bounds;
     protected List<Connection> inputs;
     protected List<Connection> outputs;
+    protected BoundsListener boundsListener;
     
     // Constantes para dimensiones
     protected static final float WIDTH = 150f;
     protected static final float HEIGHT = 80f;
 
+    /**
+     * Recibe los cambios de límites de un nodo (lo usa el índice espacial de la vista)
+     */
+    public interface BoundsListener {
+        void onBoundsChanged(Node node);
+    }
+
     public Node(Point position, String text) {
         this.id = UUID.randomUUID().toString();
         this.position = position;
         this.text = text;
         this.inputs = new ArrayList<>();
         this.outputs = new ArrayList<>();
+        this.bounds = new RectF();
         updateBounds();
     }
 
@@ -38,7 +50,10 @@ public abstract class Node {
     public void updateBounds() {
         float left = position.getX() - (WIDTH / 2);
         float top = position.getY() - (HEIGHT / 2);
-        this.bounds = new RectF(left, top, left + WIDTH, top + HEIGHT);
+        bounds.set(left, top, left + WIDTH, top + HEIGHT);
+        if (boundsListener != null) {
+            boundsListener.onBoundsChanged(this);
+        }
     }
 
     /**
@@ -108,11 +123,23 @@ public abstract class Node {
     }
 
     public String getText() {
+        if (lazyText != null) {
+            text = lazyText.get();
+            lazyText = null;
+        }
         return text;
     }
 
     public void setText(String text) {
         this.text = text;
+        this.lazyText = null;
+    }
+
+    /**
+     * El texto se pedirá a source la primera vez que haga falta (al dibujar el nodo, por ejemplo)
+     */
+    public void setLazyText(Supplier<String> source) {
+        this.lazyText = source;
     }
 
     public List<Connection> getInputs() {
@@ -126,4 +153,8 @@ public abstract class Node {
     public RectF getBounds() {
         return bounds;
     }
-}
\ No newline at end of file
+
+    public void setBoundsListener(BoundsListener boundsListener) {
+        this.boundsListener = boundsListener;
+    }
+}
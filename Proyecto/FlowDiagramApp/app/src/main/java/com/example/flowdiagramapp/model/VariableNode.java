@@ -15,25 +15,17 @@ public class VariableNode extends Node {
     @Override
     public void draw(Canvas canvas, Paint paint) {
         // Los nodos de declaración se dibujan como rectángulos
-        Paint fillPaint = new Paint(paint);
-        fillPaint.setStyle(Paint.Style.FILL);
-        canvas.drawRect(bounds, fillPaint);
+        canvas.drawRect(bounds, DrawPaints.fill(paint));
         
         // Contorno
-        Paint strokePaint = new Paint(paint);
-        strokePaint.setStyle(Paint.Style.STROKE);
-        strokePaint.setStrokeWidth(2f);
-        canvas.drawRect(bounds, strokePaint);
+        canvas.drawRect(bounds, DrawPaints.stroke(paint, 2f));
         
         // Texto
-        Paint textPaint = new Paint(paint);
-        textPaint.setStyle(Paint.Style.FILL);
-        textPaint.setTextSize(20f);
-        textPaint.setTextAlign(Paint.Align.CENTER);
+        Paint textPaint = DrawPaints.text(paint, 20f);
         
         float textX = position.getX();
         float textY = position.getY() + (textPaint.getTextSize() / 3);
         
-        canvas.drawText(text, textX, textY, textPaint);
+        canvas.drawText(getText(), textX, textY, textPaint);
     }
 }
\ No newline at end of file
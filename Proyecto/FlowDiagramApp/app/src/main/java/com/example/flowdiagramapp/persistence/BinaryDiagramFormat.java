@@ -0,0 +1,119 @@
+package com.example.flowdiagramapp.persistence;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Formato binario compacto de los diagramas (little-endian):
+ * <pre>
+ * cabecera      magic "FDG1", versión, nº de nodos, nº de conexiones, nº de cadenas, bytes de cadenas
+ * nodos         20 bytes por nodo: id, tipo (+3 de relleno), x, y, nº de cadena del texto
+ * conexiones    12 bytes por conexión: posición del origen, posición del destino, nº de cadena de la etiqueta (-1 si no tiene)
+ * desplazamientos (nº de cadenas + 1) enteros: dónde empieza cada cadena en los datos
+ * datos         las cadenas en UTF-8, sin repetir
+ * </pre>
+ * Las filas tienen tamaño fijo, así que se leen directamente del fichero mapeado sin convertirlo
+ * entero (ver MappedDiagram). Se escribe en un fichero temporal que luego sustituye al anterior,
+ * de modo que un fallo a mitad nunca deja un diagrama a medias.
+ */
+public final class BinaryDiagramFormat {
+    static final int MAGIC = 0x31474446; // "FDG1" en little-endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int NODE_SIZE = 20;
+    static final int EDGE_SIZE = 12;
+    static final int NO_STRING = -1;
+
+    private BinaryDiagramFormat() {
+    }
+
+    public static void write(DiagramTable table, File file) throws IOException {
+        ByteBuffer buffer = encode(table);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("No se pudo reemplazar " + file);
+        }
+    }
+
+    /**
+     * Codifica el diagrama entero en memoria. Las conexiones cuyos nodos no están en la tabla se omiten
+     */
+    static ByteBuffer encode(DiagramTable table) {
+        int nodeCount = table.nodeCount();
+        StringPool pool = new StringPool();
+        int[] textRefs = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            String text = table.nodeText(i);
+            textRefs[i] = pool.intern(text != null ? text : "");
+        }
+
+        int edgeCount = 0;
+        int[] edges = new int[table.edgeCount() * 3];
+        for (int i = 0; i < table.edgeCount(); i++) {
+            int source = table.edgeSource(i);
+            int target = table.edgeTarget(i);
+            if (source < 0 || target < 0) {
+                continue;
+            }
+            String label = table.edgeLabel(i);
+            edges[edgeCount * 3] = source;
+            edges[edgeCount * 3 + 1] = target;
+            edges[edgeCount * 3 + 2] = label == null || label.isEmpty() ? NO_STRING : pool.intern(label);
+            edgeCount++;
+        }
+
+        int stringCount = pool.size();
+        int size = HEADER_SIZE + nodeCount * NODE_SIZE + edgeCount * EDGE_SIZE
+                + (stringCount + 1) * 4 + pool.byteCount();
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(edgeCount)
+                .putInt(stringCount).putInt(pool.byteCount());
+        for (int i = 0; i < nodeCount; i++) {
+            buffer.putInt(table.nodeId(i));
+            buffer.put(table.nodeKind(i)).put((byte) 0).put((byte) 0).put((byte) 0);
+            buffer.putFloat(table.nodeX(i));
+            buffer.putFloat(table.nodeY(i));
+            buffer.putInt(textRefs[i]);
+        }
+        for (int i = 0; i < edgeCount * 3; i++) {
+            buffer.putInt(edges[i]);
+        }
+        int offset = 0;
+        for (int ref = 0; ref < stringCount; ref++) {
+            buffer.putInt(offset);
+            offset += pool.get(ref).length;
+        }
+        buffer.putInt(offset);
+        for (int ref = 0; ref < stringCount; ref++) {
+            buffer.put(pool.get(ref));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Mapea el fichero en memoria de solo lectura; nodos y textos se leen al pedirlos
+     */
+    public static MappedDiagram read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            // El mapeo sigue siendo válido después de cerrar el canal
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedDiagram(mapped);
+        }
+    }
+}
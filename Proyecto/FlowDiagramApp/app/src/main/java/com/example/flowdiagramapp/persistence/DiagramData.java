@@ -0,0 +1,298 @@
+package com.example.flowdiagramapp.persistence;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diagrama en memoria que se puede modificar: lo usa el diario para reproducir los cambios y para
+ * escribir instantáneas, y la aplicación para cargar.
+ * Los textos de una copia de otra tabla (p. ej. un fichero mapeado) no se leen hasta que se piden.
+ * Las conexiones guardan los ids de sus nodos, así que quitar un nodo no obliga a renumerarlas.
+ * Volver a añadir un nodo o una conexión que ya está la sustituye, así que reproducir dos veces
+ * los mismos cambios da el mismo resultado.
+ * No es seguro entre hilos.
+ */
+public final class DiagramData implements DiagramTable {
+    private int nodeCount;
+    private int[] ids = new int[16];
+    private byte[] kinds = new byte[16];
+    private float[] xs = new float[16];
+    private float[] ys = new float[16];
+    private String[] texts = new String[16];
+    // Textos aún sin leer (null en texts): posición del nodo en textSource
+    private DiagramTable textSource;
+    private int[] sourceIndexes;
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+
+    private int edgeCount;
+    private int[] edgeSourceIds = new int[16];
+    private int[] edgeTargetIds = new int[16];
+    private String[] edgeLabels = new String[16];
+    // Posición de cada conexión por (origen, destino); entre dos nodos hay como mucho una
+    private final Map<Long, Integer> edgeIndexByKey = new HashMap<>();
+
+    /**
+     * Copia las columnas numéricas; los textos de los nodos se leen de table al pedirlos,
+     * así que table no debe cambiar mientras se use la copia
+     */
+    public static DiagramData copyOf(DiagramTable table) {
+        DiagramData data = new DiagramData();
+        int count = table.nodeCount();
+        data.ensureNodeCapacity(count);
+        data.textSource = table;
+        data.sourceIndexes = new int[data.ids.length];
+        for (int i = 0; i < count; i++) {
+            data.ids[i] = table.nodeId(i);
+            data.kinds[i] = table.nodeKind(i);
+            data.xs[i] = table.nodeX(i);
+            data.ys[i] = table.nodeY(i);
+            data.sourceIndexes[i] = i;
+            data.indexById.put(data.ids[i], i);
+        }
+        data.nodeCount = count;
+
+        int edges = table.edgeCount();
+        data.ensureEdgeCapacity(edges);
+        for (int i = 0; i < edges; i++) {
+            data.edgeSourceIds[i] = data.ids[table.edgeSource(i)];
+            data.edgeTargetIds[i] = data.ids[table.edgeTarget(i)];
+            data.edgeLabels[i] = table.edgeLabel(i);
+            data.edgeIndexByKey.put(edgeKey(data.edgeSourceIds[i], data.edgeTargetIds[i]), i);
+        }
+        data.edgeCount = edges;
+        return data;
+    }
+
+    /**
+     * Copia independiente; los textos sin leer se siguen pidiendo a la misma tabla de origen
+     */
+    public DiagramData copy() {
+        DiagramData data = new DiagramData();
+        data.nodeCount = nodeCount;
+        data.ids = ids.clone();
+        data.kinds = kinds.clone();
+        data.xs = xs.clone();
+        data.ys = ys.clone();
+        data.texts = texts.clone();
+        data.textSource = textSource;
+        data.sourceIndexes = sourceIndexes != null ? sourceIndexes.clone() : null;
+        data.indexById.putAll(indexById);
+        data.edgeCount = edgeCount;
+        data.edgeSourceIds = edgeSourceIds.clone();
+        data.edgeTargetIds = edgeTargetIds.clone();
+        data.edgeLabels = edgeLabels.clone();
+        data.edgeIndexByKey.putAll(edgeIndexByKey);
+        return data;
+    }
+
+    /**
+     * Añade un nodo; si ya hay uno con ese id, lo sustituye
+     */
+    public void addNode(int id, byte kind, float x, float y, String text) {
+        Integer existing = indexById.get(id);
+        int index;
+        if (existing != null) {
+            index = existing;
+        } else {
+            ensureNodeCapacity(nodeCount + 1);
+            index = nodeCount++;
+            indexById.put(id, index);
+        }
+        ids[index] = id;
+        kinds[index] = kind;
+        xs[index] = x;
+        ys[index] = y;
+        texts[index] = text != null ? text : "";
+    }
+
+    public boolean moveNode(int id, float x, float y) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return false;
+        }
+        xs[index] = x;
+        ys[index] = y;
+        return true;
+    }
+
+    /**
+     * Quita el nodo y las conexiones que salen o llegan a él. El último nodo pasa a ocupar su sitio
+     */
+    public boolean removeNode(int id) {
+        Integer removed = indexById.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        int index = removed;
+        int last = --nodeCount;
+        if (index != last) {
+            ids[index] = ids[last];
+            kinds[index] = kinds[last];
+            xs[index] = xs[last];
+            ys[index] = ys[last];
+            texts[index] = texts[last];
+            if (sourceIndexes != null) {
+                sourceIndexes[index] = sourceIndexes[last];
+            }
+            indexById.put(ids[index], index);
+        }
+        texts[last] = null;
+
+        for (int i = edgeCount - 1; i >= 0; i--) {
+            if (edgeSourceIds[i] == id || edgeTargetIds[i] == id) {
+                removeEdgeAt(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Añade una conexión entre dos nodos que ya están en la tabla; si ya existía, solo cambia su etiqueta
+     * @return false si falta alguno de los dos nodos
+     */
+    public boolean addEdge(int sourceId, int targetId, String label) {
+        if (!indexById.containsKey(sourceId) || !indexById.containsKey(targetId)) {
+            return false;
+        }
+        Long key = edgeKey(sourceId, targetId);
+        Integer existing = edgeIndexByKey.get(key);
+        int index;
+        if (existing != null) {
+            index = existing;
+        } else {
+            ensureEdgeCapacity(edgeCount + 1);
+            index = edgeCount++;
+            edgeIndexByKey.put(key, index);
+        }
+        edgeSourceIds[index] = sourceId;
+        edgeTargetIds[index] = targetId;
+        edgeLabels[index] = label != null ? label : "";
+        return true;
+    }
+
+    public boolean removeEdge(int sourceId, int targetId) {
+        Integer index = edgeIndexByKey.get(edgeKey(sourceId, targetId));
+        if (index == null) {
+            return false;
+        }
+        removeEdgeAt(index);
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(texts, 0, nodeCount, null);
+        Arrays.fill(edgeLabels, 0, edgeCount, null);
+        nodeCount = 0;
+        edgeCount = 0;
+        indexById.clear();
+        edgeIndexByKey.clear();
+        textSource = null;
+        sourceIndexes = null;
+    }
+
+    /**
+     * Posición del nodo en la tabla, o -1
+     */
+    public int indexOf(int id) {
+        Integer index = indexById.get(id);
+        return index != null ? index : -1;
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public int nodeId(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public byte nodeKind(int index) {
+        return kinds[index];
+    }
+
+    @Override
+    public float nodeX(int index) {
+        return xs[index];
+    }
+
+    @Override
+    public float nodeY(int index) {
+        return ys[index];
+    }
+
+    @Override
+    public String nodeText(int index) {
+        String text = texts[index];
+        if (text == null && textSource != null) {
+            text = textSource.nodeText(sourceIndexes[index]);
+            texts[index] = text;
+        }
+        return text;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int edgeSource(int index) {
+        return indexOf(edgeSourceIds[index]);
+    }
+
+    @Override
+    public int edgeTarget(int index) {
+        return indexOf(edgeTargetIds[index]);
+    }
+
+    @Override
+    public String edgeLabel(int index) {
+        return edgeLabels[index];
+    }
+
+    // El orden de las conexiones no importa: la última pasa al hueco
+    private void removeEdgeAt(int index) {
+        edgeIndexByKey.remove(edgeKey(edgeSourceIds[index], edgeTargetIds[index]));
+        int last = --edgeCount;
+        if (index != last) {
+            edgeSourceIds[index] = edgeSourceIds[last];
+            edgeTargetIds[index] = edgeTargetIds[last];
+            edgeLabels[index] = edgeLabels[last];
+            edgeIndexByKey.put(edgeKey(edgeSourceIds[index], edgeTargetIds[index]), index);
+        }
+        edgeLabels[last] = null;
+    }
+
+    private static long edgeKey(int sourceId, int targetId) {
+        return ((long) sourceId << 32) | (targetId & 0xffffffffL);
+    }
+
+    private void ensureNodeCapacity(int size) {
+        if (size <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(size, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+        if (sourceIndexes != null) {
+            sourceIndexes = Arrays.copyOf(sourceIndexes, capacity);
+        }
+    }
+
+    private void ensureEdgeCapacity(int size) {
+        if (size <= edgeSourceIds.length) {
+            return;
+        }
+        int capacity = Math.max(size, edgeSourceIds.length * 2);
+        edgeSourceIds = Arrays.copyOf(edgeSourceIds, capacity);
+        edgeTargetIds = Arrays.copyOf(edgeTargetIds, capacity);
+        edgeLabels = Arrays.copyOf(edgeLabels, capacity);
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.flowdiagramapp.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guardado automático de un diagrama: una instantánea en formato BinaryDiagramFormat más un diario
+ * con los cambios hechos desde entonces. Cada cambio se anota en un hilo propio, así que la interfaz
+ * nunca espera al disco; el diario se escribe como mucho una vez por segundo (los movimientos
+ * seguidos de un mismo nodo se juntan en uno) y cuando crece demasiado se vuelca a una nueva
+ * instantánea y se vacía.
+ *
+ * Al abrir, la instantánea se mapea en memoria y se le aplican los cambios del diario; si el último
+ * cambio quedó a medias (la aplicación se cerró mientras se escribía) se descarta. Como reproducir
+ * un cambio dos veces no altera el resultado (ver DiagramData), un cierre entre escribir la
+ * instantánea y vaciar el diario tampoco estropea nada.
+ *
+ * Los métodos que anotan cambios se llaman desde un solo hilo, normalmente el de la interfaz.
+ */
+public final class DiagramJournal {
+    private static final byte ADD_NODE = 1;
+    private static final byte MOVE_NODE = 2;
+    private static final byte REMOVE_NODE = 3;
+    private static final byte ADD_EDGE = 4;
+    private static final byte REMOVE_EDGE = 5;
+    private static final byte CLEAR = 6;
+
+    private static final long FLUSH_DELAY_MS = 1000;
+    // Cambios en el diario a partir de los cuales compensa escribir una instantánea nueva
+    static final int COMPACT_AFTER_RECORDS = 10000;
+
+    private final File snapshotFile;
+    private final FileChannel journal;
+    private final DiagramData loaded;
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "DiagramJournal");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    // Solo se usan en el hilo del diario
+    private final DiagramData state;
+    private ByteBuffer pending = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<Integer, float[]> pendingMoves = new LinkedHashMap<>();
+    private int pendingRecords;
+    private int journalRecords;
+    private boolean flushScheduled;
+    private IOException failure;
+
+    private boolean closed;
+
+    private DiagramJournal(File snapshotFile, FileChannel journal, DiagramData state, int journalRecords) {
+        this.snapshotFile = snapshotFile;
+        this.journal = journal;
+        this.state = state;
+        this.journalRecords = journalRecords;
+        this.loaded = state.copy();
+        // Al cerrar ya se escribe todo, no hace falta esperar a la escritura programada
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Abre (o crea) el diagrama guardado con ese nombre en directory y reproduce su diario
+     */
+    public static DiagramJournal open(File directory, String name) throws IOException {
+        File snapshotFile = new File(directory, name + ".fdg");
+        File journalFile = new File(directory, name + ".journal");
+        DiagramData state = snapshotFile.exists()
+                ? DiagramData.copyOf(BinaryDiagramFormat.read(snapshotFile))
+                : new DiagramData();
+
+        FileChannel journal = new RandomAccessFile(journalFile, "rw").getChannel();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) journal.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && journal.read(buffer) >= 0) {
+                // Leer el diario entero
+            }
+            buffer.flip();
+            int records = 0;
+            int valid = 0;
+            while (buffer.hasRemaining() && replay(buffer, state)) {
+                valid = buffer.position();
+                records++;
+            }
+            // Lo que venga detrás del último cambio completo no se puede usar
+            journal.truncate(valid);
+            journal.position(valid);
+            return new DiagramJournal(snapshotFile, journal, state, records);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * El diagrama tal como estaba al abrir. Los textos se leen del fichero mapeado al pedirlos
+     */
+    public DiagramData getDiagram() {
+        return loaded;
+    }
+
+    public void nodeAdded(int id, byte kind, float x, float y, String text) {
+        submit(() -> {
+            state.addNode(id, kind, x, y, text);
+            // Un movimiento pendiente de ese id es anterior a este alta
+            pendingMoves.remove(id);
+            byte[] bytes = utf8(text);
+            reserve(1 + 4 + 1 + 4 + 4 + 4 + bytes.length);
+            pending.put(ADD_NODE).putInt(id).put(kind).putFloat(x).putFloat(y);
+            putString(bytes);
+            pendingRecords++;
+        });
+    }
+
+    public void nodeMoved(int id, float x, float y) {
+        submit(() -> {
+            if (state.moveNode(id, x, y)) {
+                // Solo cuenta la última posición, así que basta con guardarla al escribir
+                pendingMoves.put(id, new float[]{x, y});
+            }
+        });
+    }
+
+    public void nodeRemoved(int id) {
+        submit(() -> {
+            state.removeNode(id);
+            pendingMoves.remove(id);
+            reserve(1 + 4);
+            pending.put(REMOVE_NODE).putInt(id);
+            pendingRecords++;
+        });
+    }
+
+    public void edgeAdded(int sourceId, int targetId, String label) {
+        submit(() -> {
+            state.addEdge(sourceId, targetId, label);
+            byte[] bytes = utf8(label);
+            reserve(1 + 4 + 4 + 4 + bytes.length);
+            pending.put(ADD_EDGE).putInt(sourceId).putInt(targetId);
+            putString(bytes);
+            pendingRecords++;
+        });
+    }
+
+    public void edgeRemoved(int sourceId, int targetId) {
+        submit(() -> {
+            state.removeEdge(sourceId, targetId);
+            reserve(1 + 4 + 4);
+            pending.put(REMOVE_EDGE).putInt(sourceId).putInt(targetId);
+            pendingRecords++;
+        });
+    }
+
+    public void cleared() {
+        submit(() -> {
+            state.clear();
+            // Lo anterior ya no importa
+            pending.clear();
+            pendingMoves.clear();
+            reserve(1);
+            pending.put(CLEAR);
+            pendingRecords = 1;
+        });
+    }
+
+    /**
+     * Exporta a JSON el diagrama con todos los cambios anotados hasta ahora, en el hilo del diario
+     * @return se completa al terminar de escribir, con la IOException como causa si falla
+     */
+    public Future<?> exportJson(File file) {
+        return executor.submit(() -> {
+            JsonExporter.export(state, file);
+            return null;
+        });
+    }
+
+    /**
+     * Escribe ya los cambios pendientes, sin esperar (p. ej. cuando la aplicación pasa a segundo plano)
+     */
+    public void flush() {
+        if (!closed) {
+            executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el diario; los cambios anotados después se ignoran
+     * @throws IOException el primer error de escritura que haya habido, si lo hubo
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Future<?> done = executor.submit(this::writePending);
+        executor.shutdown();
+        try {
+            done.get();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IOException("No se pudo cerrar el diario", e);
+        } finally {
+            journal.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Aplica el cambio a la copia del hilo del diario, que deja su registro en pending o pendingMoves
+     */
+    private void submit(Runnable change) {
+        if (closed) {
+            return;
+        }
+        executor.execute(() -> {
+            change.run();
+            boolean dirty = pending.position() > 0 || !pendingMoves.isEmpty();
+            if (dirty && !flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::writePending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void writePending() {
+        flushScheduled = false;
+        if (failure != null || !journal.isOpen()) {
+            return;
+        }
+        for (Iterator<Map.Entry<Integer, float[]>> it = pendingMoves.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, float[]> move = it.next();
+            reserve(1 + 4 + 4 + 4);
+            pending.put(MOVE_NODE).putInt(move.getKey()).putFloat(move.getValue()[0]).putFloat(move.getValue()[1]);
+            pendingRecords++;
+            it.remove();
+        }
+        if (pending.position() == 0) {
+            return;
+        }
+        try {
+            pending.flip();
+            while (pending.hasRemaining()) {
+                journal.write(pending);
+            }
+            journal.force(false);
+            pending.clear();
+            journalRecords += pendingRecords;
+            pendingRecords = 0;
+            if (journalRecords >= COMPACT_AFTER_RECORDS) {
+                compact();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Vuelca el estado a una instantánea nueva y vacía el diario. Los textos aún sin leer salen del
+     * mapeo de la instantánea anterior, que sigue siendo válido después de sustituir el fichero
+     */
+    private void compact() throws IOException {
+        BinaryDiagramFormat.write(state, snapshotFile);
+        journal.truncate(0);
+        journal.position(0);
+        journal.force(false);
+        journalRecords = 0;
+    }
+
+    /**
+     * Aplica el siguiente registro del diario a state
+     * @return false si el registro está incompleto o no se reconoce; buffer queda entonces a medias
+     */
+    private static boolean replay(ByteBuffer buffer, DiagramData state) {
+        try {
+            byte op = buffer.get();
+            switch (op) {
+                case ADD_NODE: {
+                    int id = buffer.getInt();
+                    byte kind = buffer.get();
+                    float x = buffer.getFloat();
+                    float y = buffer.getFloat();
+                    state.addNode(id, kind, x, y, getString(buffer));
+                    return true;
+                }
+                case MOVE_NODE: {
+                    int id = buffer.getInt();
+                    float x = buffer.getFloat();
+                    state.moveNode(id, x, buffer.getFloat());
+                    return true;
+                }
+                case REMOVE_NODE:
+                    state.removeNode(buffer.getInt());
+                    return true;
+                case ADD_EDGE: {
+                    int source = buffer.getInt();
+                    int target = buffer.getInt();
+                    state.addEdge(source, target, getString(buffer));
+                    return true;
+                }
+                case REMOVE_EDGE: {
+                    int source = buffer.getInt();
+                    state.removeEdge(source, buffer.getInt());
+                    return true;
+                }
+                case CLEAR:
+                    state.clear();
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void putString(byte[] bytes) {
+        pending.putInt(bytes.length);
+        pending.put(bytes);
+    }
+
+    private static byte[] utf8(String text) {
+        return (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void reserve(int bytes) {
+        if (pending.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        pending.flip();
+        larger.put(pending);
+        pending = larger;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.flowdiagramapp.persistence;
+
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.ConditionalNode;
+import com.example.flowdiagramapp.model.EndNode;
+import com.example.flowdiagramapp.model.Node;
+import com.example.flowdiagramapp.model.Point;
+import com.example.flowdiagramapp.model.StartNode;
+import com.example.flowdiagramapp.model.VariableNode;
+import com.example.flowdiagramapp.view.FlowDiagramView;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Une la vista con el guardado automático: carga el diagrama guardado en la vista y anota en el
+ * diario cada cambio que hace el usuario. Los nodos se identifican en el fichero por un entero que
+ * se les asigna al cargarlos o crearlos.
+ * open lee el fichero y conviene llamarlo fuera del hilo de la interfaz; el resto se usa desde él.
+ */
+public final class DiagramStore implements FlowDiagramView.DiagramChangeListener {
+    private static final String NAME = "diagrama";
+
+    private final DiagramJournal journal;
+    private final Map<Node, Integer> ids = new IdentityHashMap<>();
+    private int nextId;
+
+    private DiagramStore(DiagramJournal journal) {
+        this.journal = journal;
+    }
+
+    public static DiagramStore open(File directory) throws IOException {
+        return new DiagramStore(DiagramJournal.open(directory, NAME));
+    }
+
+    /**
+     * Carga el diagrama guardado en la vista y empieza a escuchar sus cambios. Los textos de los
+     * nodos no se leen del fichero hasta que se dibujan
+     */
+    public void attach(FlowDiagramView view) {
+        DiagramData data = journal.getDiagram();
+        int count = data.nodeCount();
+        Node[] byIndex = new Node[count];
+        List<Node> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Node node = createNode(data.nodeKind(i), new Point(data.nodeX(i), data.nodeY(i)));
+            if (node == null) {
+                continue;
+            }
+            int index = i;
+            node.setLazyText(() -> data.nodeText(index));
+            int id = data.nodeId(i);
+            ids.put(node, id);
+            nextId = Math.max(nextId, id + 1);
+            byIndex[i] = node;
+            nodes.add(node);
+        }
+
+        List<Connection> connections = new ArrayList<>(data.edgeCount());
+        for (int i = 0; i < data.edgeCount(); i++) {
+            int source = data.edgeSource(i);
+            int target = data.edgeTarget(i);
+            if (source >= 0 && target >= 0 && byIndex[source] != null && byIndex[target] != null) {
+                connections.add(new Connection(byIndex[source], byIndex[target], data.edgeLabel(i)));
+            }
+        }
+
+        view.loadDiagram(nodes, connections);
+        view.setDiagramChangeListener(this);
+    }
+
+    /**
+     * Exporta el diagrama a JSON sin bloquear la interfaz
+     */
+    public Future<?> exportJson(File file) {
+        return journal.exportJson(file);
+    }
+
+    /**
+     * Escribe ya los cambios pendientes (al pasar la aplicación a segundo plano)
+     */
+    public void flush() {
+        journal.flush();
+    }
+
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    @Override
+    public void onNodeAdded(Node node) {
+        int id = nextId++;
+        ids.put(node, id);
+        journal.nodeAdded(id, kindOf(node), node.getPosition().getX(), node.getPosition().getY(), node.getText());
+    }
+
+    @Override
+    public void onNodeMoved(Node node) {
+        Integer id = ids.get(node);
+        if (id != null) {
+            journal.nodeMoved(id, node.getPosition().getX(), node.getPosition().getY());
+        }
+    }
+
+    @Override
+    public void onNodeRemoved(Node node) {
+        Integer id = ids.remove(node);
+        if (id != null) {
+            journal.nodeRemoved(id);
+        }
+    }
+
+    @Override
+    public void onConnectionAdded(Connection connection) {
+        Integer source = ids.get(connection.getSource());
+        Integer target = ids.get(connection.getTarget());
+        if (source != null && target != null) {
+            journal.edgeAdded(source, target, connection.getLabel());
+        }
+    }
+
+    @Override
+    public void onConnectionRemoved(Connection connection) {
+        Integer source = ids.get(connection.getSource());
+        Integer target = ids.get(connection.getTarget());
+        if (source != null && target != null) {
+            journal.edgeRemoved(source, target);
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        ids.clear();
+        journal.cleared();
+    }
+
+    private static Node createNode(byte kind, Point position) {
+        switch (kind) {
+            case DiagramTable.KIND_START:
+                return new StartNode(position);
+            case DiagramTable.KIND_END:
+                return new EndNode(position);
+            case DiagramTable.KIND_VARIABLE:
+                return new VariableNode(position, "");
+            case DiagramTable.KIND_CONDITIONAL:
+                return new ConditionalNode(position, "");
+            default:
+                return null;
+        }
+    }
+
+    private static byte kindOf(Node node) {
+        if (node instanceof StartNode) {
+            return DiagramTable.KIND_START;
+        } else if (node instanceof EndNode) {
+            return DiagramTable.KIND_END;
+        } else if (node instanceof ConditionalNode) {
+            return DiagramTable.KIND_CONDITIONAL;
+        }
+        return DiagramTable.KIND_VARIABLE;
+    }
+}
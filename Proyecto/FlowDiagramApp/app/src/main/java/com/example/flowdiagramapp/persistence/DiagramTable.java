@@ -0,0 +1,39 @@
+package com.example.flowdiagramapp.persistence;
+
+/**
+ * Vista por columnas de un diagrama para guardarlo o exportarlo: una tabla de nodos y una lista de
+ * conexiones que se refieren a los nodos por su posición en la tabla.
+ * Cada nodo tiene además un id estable, que es el que usa el diario de cambios.
+ */
+public interface DiagramTable {
+    byte KIND_START = 0;
+    byte KIND_END = 1;
+    byte KIND_VARIABLE = 2;
+    byte KIND_CONDITIONAL = 3;
+
+    int nodeCount();
+
+    int nodeId(int index);
+
+    byte nodeKind(int index);
+
+    float nodeX(int index);
+
+    float nodeY(int index);
+
+    String nodeText(int index);
+
+    int edgeCount();
+
+    /**
+     * Posición en la tabla de nodos del origen de la conexión
+     */
+    int edgeSource(int index);
+
+    int edgeTarget(int index);
+
+    /**
+     * Etiqueta de la conexión; cadena vacía si no tiene
+     */
+    String edgeLabel(int index);
+}
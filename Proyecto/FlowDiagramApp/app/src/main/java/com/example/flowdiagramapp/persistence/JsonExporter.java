@@ -0,0 +1,117 @@
+package com.example.flowdiagramapp.persistence;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exporta un diagrama a JSON para compartirlo o leerlo con otras herramientas:
+ * <pre>
+ * {"version":1,
+ *  "nodes":[{"id":1,"type":"variable","x":10.0,"y":20.0,"text":"int x = 0"}, ...],
+ *  "connections":[{"source":1,"target":2,"label":"Sí"}, ...]}
+ * </pre>
+ * Se escribe directamente al flujo de salida, sin construir el documento en memoria.
+ */
+public final class JsonExporter {
+    private static final String[] TYPE_NAMES = {"start", "end", "variable", "conditional"};
+
+    private JsonExporter() {
+    }
+
+    public static void export(DiagramTable table, File file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            write(table, out);
+        }
+    }
+
+    public static void write(DiagramTable table, Writer out) throws IOException {
+        out.write("{\"version\":1,\"nodes\":[");
+        for (int i = 0; i < table.nodeCount(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"id\":");
+            out.write(Integer.toString(table.nodeId(i)));
+            out.write(",\"type\":\"");
+            out.write(typeName(table.nodeKind(i)));
+            out.write("\",\"x\":");
+            writeNumber(table.nodeX(i), out);
+            out.write(",\"y\":");
+            writeNumber(table.nodeY(i), out);
+            out.write(",\"text\":");
+            writeString(table.nodeText(i), out);
+            out.write('}');
+        }
+        out.write("],\"connections\":[");
+        boolean first = true;
+        for (int i = 0; i < table.edgeCount(); i++) {
+            int source = table.edgeSource(i);
+            int target = table.edgeTarget(i);
+            if (source < 0 || target < 0) {
+                continue;
+            }
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.write("{\"source\":");
+            out.write(Integer.toString(table.nodeId(source)));
+            out.write(",\"target\":");
+            out.write(Integer.toString(table.nodeId(target)));
+            String label = table.edgeLabel(i);
+            if (label != null && !label.isEmpty()) {
+                out.write(",\"label\":");
+                writeString(label, out);
+            }
+            out.write('}');
+        }
+        out.write("]}");
+    }
+
+    private static String typeName(byte kind) {
+        return kind >= 0 && kind < TYPE_NAMES.length ? TYPE_NAMES[kind] : "unknown";
+    }
+
+    // JSON no admite NaN ni infinitos
+    private static void writeNumber(float value, Writer out) throws IOException {
+        out.write(Float.isNaN(value) || Float.isInfinite(value) ? "0" : Float.toString(value));
+    }
+
+    private static void writeString(String value, Writer out) throws IOException {
+        out.write('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
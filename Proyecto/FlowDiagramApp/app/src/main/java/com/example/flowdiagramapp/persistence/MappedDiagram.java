@@ -0,0 +1,156 @@
+package com.example.flowdiagramapp.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Diagrama leído directamente de un fichero en formato BinaryDiagramFormat, normalmente mapeado en
+ * memoria: abrirlo solo comprueba la cabecera y la tabla de desplazamientos, cada nodo se lee de su fila
+ * al pedirlo y cada cadena se decodifica la primera vez que se usa.
+ * Solo hace lecturas absolutas sobre el buffer, así que varios hilos pueden leerlo a la vez; en el peor
+ * caso dos hilos decodifican la misma cadena.
+ */
+public final class MappedDiagram implements DiagramTable {
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int stringCount;
+    private final int nodesOffset;
+    private final int edgesOffset;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+    private final String[] strings;
+
+    MappedDiagram(ByteBuffer source) throws IOException {
+        buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < BinaryDiagramFormat.HEADER_SIZE
+                || buffer.getInt(0) != BinaryDiagramFormat.MAGIC) {
+            throw new IOException("No es un fichero de diagrama");
+        }
+        if (buffer.getInt(4) != BinaryDiagramFormat.VERSION) {
+            throw new IOException("Versión de diagrama no soportada: " + buffer.getInt(4));
+        }
+        nodeCount = buffer.getInt(8);
+        edgeCount = buffer.getInt(12);
+        stringCount = buffer.getInt(16);
+        int stringBytes = buffer.getInt(20);
+        if (nodeCount < 0 || edgeCount < 0 || stringCount < 0 || stringBytes < 0) {
+            throw new IOException("Cabecera de diagrama dañada");
+        }
+
+        // En long para que una cabecera dañada no desborde los cálculos
+        long edges = BinaryDiagramFormat.HEADER_SIZE + (long) nodeCount * BinaryDiagramFormat.NODE_SIZE;
+        long stringOffsets = edges + (long) edgeCount * BinaryDiagramFormat.EDGE_SIZE;
+        long stringData = stringOffsets + ((long) stringCount + 1) * 4;
+        long size = stringData + stringBytes;
+        if (size != buffer.capacity()) {
+            throw new IOException("Tamaño de diagrama incorrecto: " + buffer.capacity() + " en vez de " + size);
+        }
+        nodesOffset = BinaryDiagramFormat.HEADER_SIZE;
+        edgesOffset = (int) edges;
+        stringOffsetsOffset = (int) stringOffsets;
+        stringDataOffset = (int) stringData;
+        int previous = 0;
+        for (int ref = 0; ref <= stringCount; ref++) {
+            int offset = buffer.getInt(stringOffsetsOffset + ref * 4);
+            if (offset < previous || offset > stringBytes) {
+                throw new IOException("Tabla de cadenas dañada");
+            }
+            previous = offset;
+        }
+        strings = new String[stringCount];
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public int nodeId(int index) {
+        return buffer.getInt(nodeRow(index));
+    }
+
+    @Override
+    public byte nodeKind(int index) {
+        return buffer.get(nodeRow(index) + 4);
+    }
+
+    @Override
+    public float nodeX(int index) {
+        return buffer.getFloat(nodeRow(index) + 8);
+    }
+
+    @Override
+    public float nodeY(int index) {
+        return buffer.getFloat(nodeRow(index) + 12);
+    }
+
+    @Override
+    public String nodeText(int index) {
+        return string(buffer.getInt(nodeRow(index) + 16));
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int edgeSource(int index) {
+        return nodeIndex(buffer.getInt(edgeRow(index)));
+    }
+
+    @Override
+    public int edgeTarget(int index) {
+        return nodeIndex(buffer.getInt(edgeRow(index) + 4));
+    }
+
+    @Override
+    public String edgeLabel(int index) {
+        int ref = buffer.getInt(edgeRow(index) + 8);
+        return ref == BinaryDiagramFormat.NO_STRING ? "" : string(ref);
+    }
+
+    private int nodeRow(int index) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IndexOutOfBoundsException("Nodo " + index + " de " + nodeCount);
+        }
+        return nodesOffset + index * BinaryDiagramFormat.NODE_SIZE;
+    }
+
+    private int edgeRow(int index) {
+        if (index < 0 || index >= edgeCount) {
+            throw new IndexOutOfBoundsException("Conexión " + index + " de " + edgeCount);
+        }
+        return edgesOffset + index * BinaryDiagramFormat.EDGE_SIZE;
+    }
+
+    private int nodeIndex(int index) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IllegalStateException("Conexión a un nodo inexistente: " + index);
+        }
+        return index;
+    }
+
+    private String string(int ref) {
+        if (ref < 0 || ref >= stringCount) {
+            throw new IllegalStateException("Referencia de cadena fuera de rango: " + ref);
+        }
+        String value = strings[ref];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetsOffset + ref * 4);
+            int end = buffer.getInt(stringOffsetsOffset + ref * 4 + 4);
+            byte[] bytes = new byte[end - start];
+            // Copia propia del buffer para no mover la posición compartida
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringDataOffset + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[ref] = value;
+        }
+        return value;
+    }
+}
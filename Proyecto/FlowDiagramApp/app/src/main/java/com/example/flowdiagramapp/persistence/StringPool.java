@@ -0,0 +1,42 @@
+package com.example.flowdiagramapp.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cadenas internadas para el formato binario: cada texto distinto se guarda una vez en UTF-8
+ * y los nodos y conexiones lo referencian por su número
+ */
+final class StringPool {
+    private final Map<String, Integer> refs = new HashMap<>();
+    private final List<byte[]> encoded = new ArrayList<>();
+    private int byteCount;
+
+    int intern(String value) {
+        Integer ref = refs.get(value);
+        if (ref != null) {
+            return ref;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ref = encoded.size();
+        refs.put(value, ref);
+        encoded.add(bytes);
+        byteCount += bytes.length;
+        return ref;
+    }
+
+    int size() {
+        return encoded.size();
+    }
+
+    int byteCount() {
+        return byteCount;
+    }
+
+    byte[] get(int ref) {
+        return encoded.get(ref);
+    }
+}
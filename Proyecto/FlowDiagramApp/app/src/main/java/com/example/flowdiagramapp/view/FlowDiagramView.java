@@ -1,14 +1,27 @@
 package com.example.flowdiagramapp.view;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.RectF;
+import android.graphics.RenderNode;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.view.animation.DecelerateInterpolator;
 
+import androidx.annotation.RequiresApi;
+
+import com.example.flowdiagramapp.history.EditHistory;
+import com.example.flowdiagramapp.index.QuadTree;
+import com.example.flowdiagramapp.layout.LayeredLayout;
 import com.example.flowdiagramapp.model.Connection;
 import com.example.flowdiagramapp.model.ConditionalNode;
 import com.example.flowdiagramapp.model.EndNode;
@@ -18,17 +31,66 @@ import com.example.flowdiagramapp.model.StartNode;
 import com.example.flowdiagramapp.model.VariableNode;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Vista personalizada que representa un editor de diagramas de flujo
  */
 public class FlowDiagramView extends View {
     
+    /**
+     * Recibe los cambios que hace el usuario en el diagrama (lo usa el guardado automático)
+     */
+    public interface DiagramChangeListener {
+        void onNodeAdded(Node node);
+        /** Al soltar un nodo que se ha arrastrado */
+        void onNodeMoved(Node node);
+        void onNodeRemoved(Node node);
+        /** Cuando la conexión ya tiene su etiqueta */
+        void onConnectionAdded(Connection connection);
+        void onConnectionRemoved(Connection connection);
+        void onCleared();
+    }
+    
     // Lista de todos los nodos en el diagrama
     private List<Node> nodes;
-    // Lista de todas las conexiones en el diagrama
-    private List<Connection> connections;
+    // Todas las conexiones del diagrama, en orden de creación; quitar una no recorre las demás
+    private Set<Connection> connections;
+    
+    // Índices espaciales para la detección de toques; se actualizan al mover cada nodo
+    private QuadTree<Node> nodeIndex;
+    private QuadTree<Connection> connectionIndex;
+    private final Node.BoundsListener reindexOnMove = this::reindexNode;
+    
+    // Elementos que tocan la zona que se está dibujando; se reutilizan para no reservar memoria en onDraw
+    private final ArrayList<Node> visibleNodes = new ArrayList<>();
+    private final ArrayList<Connection> visibleConnections = new ArrayList<>();
+    private final RectF viewport = new RectF();
+    
+    // Capa en caché (API 29+) con todo lo que no se está editando, grabada para el viewport ampliado
+    // layerBounds; al desplazar o hacer zoom dentro de esa zona solo se reproduce
+    private RenderNode staticLayer;
+    private final RectF layerBounds = new RectF();
+    private boolean layerDirty = true;
+    private Node layerSelectedNode;
+    private Connection layerSelectedConnection;
+    private DetailLevel layerDetailLevel;
+    private float layerCellSize;
+    
+    // Nivel de detalle según el zoom: por debajo de cada umbral se simplifica el dibujo
+    private enum DetailLevel { FULL, SIMPLIFIED, CLUSTERED }
+    private final LevelOfDetailRenderer detailRenderer = new LevelOfDetailRenderer();
+    private float simplifiedBelowScale = 0.4f;
+    private float clusteredBelowScale = 0.15f;
+    private DetailLevel detailLevel = DetailLevel.FULL;
+    private float clusterCellSize;
     
     // Variables para manejar la interacción del usuario
     private Node selectedNode;
@@ -37,6 +99,21 @@ public class FlowDiagramView extends View {
     private Point startConnectionPoint;
     private Node sourceNode;
     private boolean isCreatingConnection;
+    private boolean isDraggingNode;
+    private DiagramChangeListener changeListener;
+    
+    // Cambios que se pueden deshacer; cada arrastre queda como un único cambio
+    private final EditHistory history = new EditHistory(HISTORY_LIMIT);
+    
+    // Colocación automática: se calcula en otro hilo y los nodos llegan a su sitio con una animación.
+    // Después de la primera, cada nodo nuevo se coloca sin mover los demás con la capa de cada nodo
+    private ExecutorService layoutExecutor;
+    private final Map<Node, Integer> layoutLayers = new IdentityHashMap<>();
+    private float layoutOriginX;
+    private float layoutOriginY;
+    private ValueAnimator layoutAnimator;
+    // Cambia con cada nodo o conexión que se añade o quita; descarta colocaciones de un diagrama anterior
+    private int structureVersion;
     
     // Para el zoom y pan
     private float scaleFactor = 1.0f;
@@ -54,6 +131,14 @@ public class FlowDiagramView extends View {
     // Constantes
     private static final float TOUCH_TOLERANCE = 20f;
     private static final float CONNECTION_TOLERANCE = 30f;
+    private static final float MIN_SCALE = 0.05f;
+    private static final float MAX_SCALE = 5.0f;
+    // Lado aproximado en píxeles de pantalla de cada grupo de nodos en el nivel CLUSTERED
+    private static final float CLUSTER_CELL_PX = 48f;
+    private static final int HISTORY_LIMIT = 200;
+    private static final float LAYOUT_HORIZONTAL_GAP = 50f;
+    private static final float LAYOUT_VERTICAL_GAP = 60f;
+    private static final long LAYOUT_ANIMATION_MS = 350;
 
     // Constructor
     public FlowDiagramView(Context context) {
@@ -77,7 +162,9 @@ public class FlowDiagramView extends View {
     private void init() {
         // Inicializar colecciones
         nodes = new ArrayList<>();
-        connections = new ArrayList<>();
+        connections = new LinkedHashSet<>();
+        nodeIndex = new QuadTree<>();
+        connectionIndex = new QuadTree<>();
         
         // Inicializar pinturas
         nodePaint = new Paint();
@@ -103,9 +190,6 @@ public class FlowDiagramView extends View {
         
         // Inicializar detector de gestos para zoom
         scaleDetector = new ScaleGestureDetector(getContext(), new ScaleListener());
-        
-        // Establecer banderas para habilitar UI más suave
-        setLayerType(LAYER_TYPE_HARDWARE, null);
     }
 
     @Override
@@ -120,45 +204,203 @@ public class FlowDiagramView extends View {
         canvas.translate(translateX, translateY);
         canvas.scale(scaleFactor, scaleFactor);
         
-        // Dibujar todas las conexiones
-        for (Connection connection : connections) {
-            Paint paint = connection == selectedConnection ? selectedPaint : connectionPaint;
-            connection.draw(canvas, paint);
+        // Zona visible en coordenadas del diagrama
+        viewport.set(-translateX / scaleFactor, -translateY / scaleFactor,
+                (getWidth() - translateX) / scaleFactor, (getHeight() - translateY) / scaleFactor);
+        updateDetailLevel();
+        
+        // Todo lo que no se está editando: desde la capa en caché o dibujando solo lo visible
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            if (isStaticLayerStale()) {
+                recordStaticLayer();
+            }
+            ((RecordingCanvas) canvas).drawRenderNode(staticLayer);
+        } else {
+            collectVisible(viewport);
+            drawStaticElements(canvas, viewport);
+        }
+        
+        // El nodo seleccionado, sus conexiones y la conexión seleccionada se dibujan en cada fotograma
+        drawLiveElements(canvas);
+        
+        canvas.restore();
+    }
+    
+    /**
+     * La capa se vuelve a grabar si cambió el diagrama o la selección, si el viewport se sale de la zona
+     * grabada o si al acercar la zona grabada queda demasiado grande para lo que se ve
+     */
+    private boolean isStaticLayerStale() {
+        return staticLayer == null || layerDirty
+                || layerSelectedNode != selectedNode || layerSelectedConnection != selectedConnection
+                || layerDetailLevel != detailLevel || layerCellSize != clusterCellSize
+                || !layerBounds.contains(viewport)
+                || viewport.width() * viewport.height() * 16 < layerBounds.width() * layerBounds.height();
+    }
+    
+    /**
+     * Graba los elementos estáticos del viewport ampliado un viewport por cada lado
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private void recordStaticLayer() {
+        if (staticLayer == null) {
+            staticLayer = new RenderNode("FlowDiagramStaticLayer");
+        }
+        float marginX = viewport.width();
+        float marginY = viewport.height();
+        int left = (int) Math.floor(viewport.left - marginX);
+        int top = (int) Math.floor(viewport.top - marginY);
+        int right = (int) Math.ceil(viewport.right + marginX);
+        int bottom = (int) Math.ceil(viewport.bottom + marginY);
+        layerBounds.set(left, top, right, bottom);
+        staticLayer.setPosition(left, top, right, bottom);
+        
+        collectVisible(layerBounds);
+        RecordingCanvas layerCanvas = staticLayer.beginRecording();
+        try {
+            layerCanvas.translate(-left, -top);
+            drawStaticElements(layerCanvas, layerBounds);
+        } finally {
+            staticLayer.endRecording();
+        }
+        layerDirty = false;
+        layerSelectedNode = selectedNode;
+        layerSelectedConnection = selectedConnection;
+        layerDetailLevel = detailLevel;
+        layerCellSize = clusterCellSize;
+    }
+    
+    /**
+     * Rellena visibleNodes (en orden de dibujo) y visibleConnections con lo que corta el área,
+     * sin los elementos que se dibujan aparte por estar editándose
+     */
+    private void collectVisible(RectF area) {
+        visibleConnections.clear();
+        connectionIndex.query(area.left, area.top, area.right, area.bottom, visibleConnections);
+        for (int i = visibleConnections.size() - 1; i >= 0; i--) {
+            if (isLive(visibleConnections.get(i))) {
+                visibleConnections.remove(i);
+            }
+        }
+        
+        // Los nodos se recorren en orden de inserción para respetar cuál queda encima
+        visibleNodes.clear();
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            Node node = nodes.get(i);
+            if (node != selectedNode && RectF.intersects(node.getBounds(), area)) {
+                visibleNodes.add(node);
+            }
+        }
+    }
+    
+    private void drawStaticElements(Canvas canvas, RectF area) {
+        switch (detailLevel) {
+            case CLUSTERED:
+                detailRenderer.drawClustered(canvas, visibleNodes, visibleConnections, area, clusterCellSize);
+                return;
+            case SIMPLIFIED:
+                detailRenderer.drawSimplified(canvas, visibleNodes, visibleConnections);
+                return;
+            default:
+                break;
+        }
+        for (int i = 0, n = visibleConnections.size(); i < n; i++) {
+            visibleConnections.get(i).draw(canvas, connectionPaint);
+        }
+        for (int i = 0, n = visibleNodes.size(); i < n; i++) {
+            visibleNodes.get(i).draw(canvas, nodePaint);
+        }
+    }
+    
+    /**
+     * Elige el nivel de detalle para el zoom actual. El tamaño de celda de los grupos se redondea
+     * a una potencia de 2 para que los grupos no cambien con cada paso del gesto de zoom
+     */
+    private void updateDetailLevel() {
+        if (scaleFactor < clusteredBelowScale) {
+            detailLevel = DetailLevel.CLUSTERED;
+            clusterCellSize = (float) Math.pow(2, Math.ceil(Math.log(CLUSTER_CELL_PX / scaleFactor) / Math.log(2)));
+        } else if (scaleFactor < simplifiedBelowScale) {
+            detailLevel = DetailLevel.SIMPLIFIED;
+            clusterCellSize = 0f;
+        } else {
+            detailLevel = DetailLevel.FULL;
+            clusterCellSize = 0f;
+        }
+    }
+    
+    private void drawLiveElements(Canvas canvas) {
+        if (selectedNode != null) {
+            drawLiveConnections(canvas, selectedNode.getInputs());
+            drawLiveConnections(canvas, selectedNode.getOutputs());
+        }
+        if (selectedConnection != null) {
+            drawLiveConnection(canvas, selectedConnection, selectedPaint);
         }
         
         // Dibujar conexión temporal durante la creación
         if (isCreatingConnection && sourceNode != null && lastTouchPoint != null) {
             // Simular una conexión temporal desde el nodo fuente al punto donde está el dedo
-            Point start = new Point(sourceNode.getPosition().getX(), sourceNode.getPosition().getY());
-            drawArrow(canvas, tempConnectionPaint, start, lastTouchPoint);
+            drawArrow(canvas, tempConnectionPaint,
+                    sourceNode.getPosition().getX(), sourceNode.getPosition().getY(),
+                    lastTouchPoint.getX(), lastTouchPoint.getY());
         }
         
-        // Dibujar todos los nodos
-        for (Node node : nodes) {
-            Paint paint = node == selectedNode ? selectedPaint : nodePaint;
-            node.draw(canvas, paint);
+        if (selectedNode != null) {
+            if (detailLevel == DetailLevel.FULL) {
+                selectedNode.draw(canvas, selectedPaint);
+            } else {
+                canvas.drawRect(selectedNode.getBounds(), selectedPaint);
+            }
+        }
+    }
+    
+    private void drawLiveConnections(Canvas canvas, List<Connection> list) {
+        for (int i = 0, n = list.size(); i < n; i++) {
+            Connection connection = list.get(i);
+            if (connection != selectedConnection) {
+                drawLiveConnection(canvas, connection, connectionPaint);
+            }
+        }
+    }
+    
+    private void drawLiveConnection(Canvas canvas, Connection connection, Paint paint) {
+        Node source = connection.getSource();
+        Node target = connection.getTarget();
+        if (detailLevel == DetailLevel.FULL || source == null || target == null) {
+            connection.draw(canvas, paint);
+        } else {
+            canvas.drawLine(source.getPosition().getX(), source.getPosition().getY(),
+                    target.getPosition().getX(), target.getPosition().getY(), paint);
         }
-        
-        canvas.restore();
+    }
+    
+    /**
+     * Conexiones que no van a la capa en caché porque cambian mientras se edita
+     */
+    private boolean isLive(Connection connection) {
+        return connection == selectedConnection
+                || (selectedNode != null
+                && (connection.getSource() == selectedNode || connection.getTarget() == selectedNode));
     }
     
     /**
      * Método auxiliar para dibujar una flecha temporal durante la creación de conexiones
      */
-    private void drawArrow(Canvas canvas, Paint paint, Point start, Point end) {
-        canvas.drawLine(start.getX(), start.getY(), end.getX(), end.getY(), paint);
+    private void drawArrow(Canvas canvas, Paint paint, float startX, float startY, float endX, float endY) {
+        canvas.drawLine(startX, startY, endX, endY, paint);
         
         // Calcular la punta de flecha
-        float angle = (float) Math.atan2(end.getY() - start.getY(), end.getX() - start.getX());
+        float angle = (float) Math.atan2(endY - startY, endX - startX);
         float arrowSize = 15f;
 
-        float arrowX1 = (float) (end.getX() - arrowSize * Math.cos(angle - Math.PI/6));
-        float arrowY1 = (float) (end.getY() - arrowSize * Math.sin(angle - Math.PI/6));
-        float arrowX2 = (float) (end.getX() - arrowSize * Math.cos(angle + Math.PI/6));
-        float arrowY2 = (float) (end.getY() - arrowSize * Math.sin(angle + Math.PI/6));
+        float arrowX1 = (float) (endX - arrowSize * Math.cos(angle - Math.PI/6));
+        float arrowY1 = (float) (endY - arrowSize * Math.sin(angle - Math.PI/6));
+        float arrowX2 = (float) (endX - arrowSize * Math.cos(angle + Math.PI/6));
+        float arrowY2 = (float) (endY - arrowSize * Math.sin(angle + Math.PI/6));
 
-        canvas.drawLine(end.getX(), end.getY(), arrowX1, arrowY1, paint);
-        canvas.drawLine(end.getX(), end.getY(), arrowX2, arrowY2, paint);
+        canvas.drawLine(endX, endY, arrowX1, arrowY1, paint);
+        canvas.drawLine(endX, endY, arrowX2, arrowY2, paint);
     }
     
     @Override
@@ -173,6 +415,7 @@ public class FlowDiagramView extends View {
         
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
+                finishLayoutAnimation();
                 handleActionDown(touchPoint);
                 break;
                 
@@ -183,6 +426,10 @@ public class FlowDiagramView extends View {
             case MotionEvent.ACTION_UP:
                 handleActionUp(touchPoint);
                 break;
+                
+            case MotionEvent.ACTION_CANCEL:
+                handleActionCancel();
+                break;
         }
         
         invalidate(); // Redibuja la vista
@@ -226,11 +473,13 @@ public class FlowDiagramView extends View {
             // Si el movimiento es significativo, considerar que estamos arrastrando el nodo
             if (Math.abs(dx) > TOUCH_TOLERANCE || Math.abs(dy) > TOUCH_TOLERANCE) {
                 if (!isCreatingConnection) {
-                    // Mover el nodo
-                    Point newPosition = new Point(
-                            selectedNode.getPosition().getX() + dx,
-                            selectedNode.getPosition().getY() + dy);
+                    // Mover el nodo; los pasos del mismo arrastre se funden en el historial
+                    Point oldPosition = selectedNode.getPosition();
+                    Point newPosition = new Point(oldPosition.getX() + dx, oldPosition.getY() + dy);
                     selectedNode.setPosition(newPosition);
+                    history.record(new MoveEdit(selectedNode, oldPosition.getX(), oldPosition.getY(),
+                            newPosition.getX(), newPosition.getY()));
+                    isDraggingNode = true;
                 } else {
                     // Estamos creando una conexión
                     // Solo actualizar el punto final para dibujar la línea temporal
@@ -266,6 +515,26 @@ public class FlowDiagramView extends View {
             sourceNode = null;
         }
         
+        endGesture();
+    }
+    
+    /**
+     * El sistema cancela el gesto (p. ej. lo toma un padre que se desplaza): la conexión a medias
+     * se descarta, pero lo ya arrastrado se queda y se cierra igual que al levantar el dedo
+     */
+    private void handleActionCancel() {
+        isCreatingConnection = false;
+        sourceNode = null;
+        endGesture();
+    }
+    
+    // Guarda la posición final del nodo arrastrado y cierra el paso del historial del gesto
+    private void endGesture() {
+        if (isDraggingNode && selectedNode != null && changeListener != null) {
+            changeListener.onNodeMoved(selectedNode);
+        }
+        isDraggingNode = false;
+        history.seal();
         lastTouchPoint = null;
     }
 
@@ -278,7 +547,7 @@ public class FlowDiagramView extends View {
             scaleFactor *= detector.getScaleFactor();
             
             // Limitar el factor de escala
-            scaleFactor = Math.max(0.5f, Math.min(scaleFactor, 5.0f));
+            scaleFactor = Math.max(MIN_SCALE, Math.min(scaleFactor, MAX_SCALE));
             
             invalidate();
             return true;
@@ -286,46 +555,138 @@ public class FlowDiagramView extends View {
     }
     
     /**
-     * Busca un nodo en las coordenadas dadas
+     * Busca un nodo en las coordenadas dadas (el de encima si se solapan)
      */
     private Node findNodeAt(Point point) {
-        for (int i = nodes.size() - 1; i >= 0; i--) { // Empezar por los nodos superiores
-            Node node = nodes.get(i);
-            if (node.contains(point)) {
-                return node;
-            }
-        }
-        return null;
+        return nodeIndex.findTopmost(point.getX(), point.getY(), null);
     }
     
     /**
      * Busca una conexión cerca de las coordenadas dadas
      */
     private Connection findConnectionNear(Point point) {
-        for (Connection connection : connections) {
-            if (connection.isNear(point, CONNECTION_TOLERANCE)) {
-                return connection;
-            }
+        return connectionIndex.findTopmost(point.getX(), point.getY(),
+                connection -> connection.isNear(point, CONNECTION_TOLERANCE));
+    }
+    
+    /**
+     * Añade un nodo a la lista y al índice, y escucha sus movimientos
+     */
+    private <T extends Node> T addNode(T node) {
+        finishLayoutAnimation();
+        attachNode(node, nodes.size());
+        history.record(new AddNodeEdit(node));
+        if (!layoutLayers.isEmpty()) {
+            startLayout(true);
+        }
+        invalidate();
+        return node;
+    }
+    
+    private void insertNode(Node node, int index) {
+        nodes.add(index, node);
+        structureVersion++;
+        node.setBoundsListener(reindexOnMove);
+        reindexNode(node);
+    }
+    
+    private void attachNode(Node node, int index) {
+        insertNode(node, index);
+        if (changeListener != null) {
+            changeListener.onNodeAdded(node);
+        }
+    }
+    
+    /**
+     * Quita el nodo que está en esa posición de la lista y sus conexiones, que se encuentran
+     * en las listas del propio nodo
+     * @return las conexiones quitadas
+     */
+    private List<Connection> detachNode(Node node, int index) {
+        List<Connection> removed = new ArrayList<>(node.getInputs().size() + node.getOutputs().size());
+        removed.addAll(node.getInputs());
+        removed.addAll(node.getOutputs());
+        for (int i = 0, n = removed.size(); i < n; i++) {
+            detachConnection(removed.get(i));
+        }
+        
+        nodes.remove(index);
+        structureVersion++;
+        layoutLayers.remove(node);
+        nodeIndex.remove(node);
+        layerDirty = true;
+        node.setBoundsListener(null);
+        if (selectedNode == node) {
+            selectedNode = null;
+        }
+        if (sourceNode == node) {
+            sourceNode = null;
+            isCreatingConnection = false;
+        }
+        if (changeListener != null) {
+            changeListener.onNodeRemoved(node);
+        }
+        return removed;
+    }
+    
+    private void moveNodeTo(Node node, float x, float y) {
+        node.setPosition(new Point(x, y));
+        if (changeListener != null) {
+            changeListener.onNodeMoved(node);
+        }
+    }
+    
+    /**
+     * Actualiza en el índice el nodo y las conexiones que salen o llegan a él
+     */
+    private void reindexNode(Node node) {
+        // El nodo seleccionado y sus conexiones no están en la capa en caché
+        if (node != selectedNode) {
+            layerDirty = true;
+        }
+        RectF bounds = node.getBounds();
+        nodeIndex.put(node, bounds.left, bounds.top, bounds.right, bounds.bottom);
+        for (Connection connection : node.getInputs()) {
+            indexConnection(connection);
+        }
+        for (Connection connection : node.getOutputs()) {
+            indexConnection(connection);
+        }
+    }
+    
+    /**
+     * La caja de una conexión es la de los centros de sus nodos más la tolerancia de toque
+     */
+    private void indexConnection(Connection connection) {
+        Node source = connection.getSource();
+        Node target = connection.getTarget();
+        if (source == null || target == null) {
+            connectionIndex.remove(connection);
+            return;
         }
-        return null;
+        Point a = source.getPosition();
+        Point b = target.getPosition();
+        connectionIndex.put(connection,
+                Math.min(a.getX(), b.getX()) - CONNECTION_TOLERANCE,
+                Math.min(a.getY(), b.getY()) - CONNECTION_TOLERANCE,
+                Math.max(a.getX(), b.getX()) + CONNECTION_TOLERANCE,
+                Math.max(a.getY(), b.getY()) + CONNECTION_TOLERANCE);
     }
     
     /**
      * Crea una conexión entre dos nodos
      */
     private void createConnection(Node source, Node target) {
-        // Verificar si ya existe una conexión entre estos nodos
-        for (Connection conn : connections) {
-            if (conn.getSource() == source && conn.getTarget() == target) {
+        // Verificar si ya existe una conexión entre estos nodos (basta con las salidas del origen)
+        for (Connection conn : source.getOutputs()) {
+            if (conn.getTarget() == target) {
                 return; // Ya existe esta conexión
             }
         }
         
         Connection connection = new Connection(source, target);
-        connections.add(connection);
-        
-        source.addOutput(connection);
-        target.addInput(connection);
+        insertConnection(connection);
+        history.record(new AddConnectionEdit(connection));
         
         // Si el nodo fuente es condicional, establecer etiquetas adecuadas
         if (source instanceof ConditionalNode) {
@@ -335,6 +696,47 @@ public class FlowDiagramView extends View {
                 connection.setLabel("No");
             }
         }
+        
+        if (changeListener != null) {
+            changeListener.onConnectionAdded(connection);
+        }
+    }
+    
+    private void insertConnection(Connection connection) {
+        connections.add(connection);
+        structureVersion++;
+        connection.getSource().addOutput(connection);
+        connection.getTarget().addInput(connection);
+        indexConnection(connection);
+        layerDirty = true;
+    }
+    
+    private void attachConnection(Connection connection) {
+        insertConnection(connection);
+        if (changeListener != null) {
+            changeListener.onConnectionAdded(connection);
+        }
+    }
+    
+    private void detachConnection(Connection connection) {
+        Node source = connection.getSource();
+        Node target = connection.getTarget();
+        if (source != null) {
+            source.removeOutput(connection);
+        }
+        if (target != null) {
+            target.removeInput(connection);
+        }
+        connections.remove(connection);
+        structureVersion++;
+        connectionIndex.remove(connection);
+        layerDirty = true;
+        if (selectedConnection == connection) {
+            selectedConnection = null;
+        }
+        if (changeListener != null) {
+            changeListener.onConnectionRemoved(connection);
+        }
     }
     
     /**
@@ -385,6 +787,7 @@ public class FlowDiagramView extends View {
         selectedConnection = null;
         sourceNode = null;
         isCreatingConnection = false;
+        isDraggingNode = false;
     }
     
     // --- Métodos públicos para manipular el diagrama ---
@@ -394,10 +797,7 @@ public class FlowDiagramView extends View {
      */
     public StartNode addStartNode(float x, float y) {
         Point position = new Point(x, y);
-        StartNode node = new StartNode(position);
-        nodes.add(node);
-        invalidate();
-        return node;
+        return addNode(new StartNode(position));
     }
     
     /**
@@ -405,10 +805,7 @@ public class FlowDiagramView extends View {
      */
     public EndNode addEndNode(float x, float y) {
         Point position = new Point(x, y);
-        EndNode node = new EndNode(position);
-        nodes.add(node);
-        invalidate();
-        return node;
+        return addNode(new EndNode(position));
     }
     
     /**
@@ -416,10 +813,7 @@ public class FlowDiagramView extends View {
      */
     public VariableNode addVariableNode(float x, float y, String text) {
         Point position = new Point(x, y);
-        VariableNode node = new VariableNode(position, text);
-        nodes.add(node);
-        invalidate();
-        return node;
+        return addNode(new VariableNode(position, text));
     }
     
     /**
@@ -427,10 +821,7 @@ public class FlowDiagramView extends View {
      */
     public ConditionalNode addConditionalNode(float x, float y, String condition) {
         Point position = new Point(x, y);
-        ConditionalNode node = new ConditionalNode(position, condition);
-        nodes.add(node);
-        invalidate();
-        return node;
+        return addNode(new ConditionalNode(position, condition));
     }
     
     /**
@@ -438,25 +829,12 @@ public class FlowDiagramView extends View {
      */
     public void removeNode(Node node) {
         if (node == null) return;
+        finishLayoutAnimation();
+        int index = nodes.indexOf(node);
+        if (index < 0) return;
         
-        // Eliminar todas las conexiones asociadas
-        List<Connection> connectionsToRemove = new ArrayList<>();
-        for (Connection conn : connections) {
-            if (conn.getSource() == node || conn.getTarget() == node) {
-                connectionsToRemove.add(conn);
-            }
-        }
-        
-        for (Connection conn : connectionsToRemove) {
-            removeConnection(conn);
-        }
-        
-        // Eliminar el nodo
-        nodes.remove(node);
-        if (selectedNode == node) {
-            selectedNode = null;
-        }
-        
+        List<Connection> removedConnections = detachNode(node, index);
+        history.record(new RemoveNodeEdit(node, index, removedConnections));
         invalidate();
     }
     
@@ -464,36 +842,267 @@ public class FlowDiagramView extends View {
      * Elimina una conexión
      */
     public void removeConnection(Connection connection) {
-        if (connection == null) return;
+        if (connection == null || !connections.contains(connection)) return;
+        finishLayoutAnimation();
         
-        // Eliminar referencias en los nodos
-        Node source = connection.getSource();
-        Node target = connection.getTarget();
+        detachConnection(connection);
+        history.record(new RemoveConnectionEdit(connection));
+        invalidate();
+    }
+    
+    /**
+     * Limpia todo el diagrama. Se puede deshacer: el historial se queda con las colecciones
+     * actuales en vez de copiarlas
+     */
+    public void clear() {
+        if (nodes.isEmpty()) return;
+        finishLayoutAnimation();
         
-        if (source != null) {
-            source.removeOutput(connection);
+        ClearEdit edit = new ClearEdit(nodes, connections);
+        clearSilently();
+        if (changeListener != null) {
+            changeListener.onCleared();
         }
-        
-        if (target != null) {
-            target.removeInput(connection);
+        history.record(edit);
+        invalidate();
+    }
+    
+    /**
+     * Sustituye el diagrama por uno cargado, sin avisar al listener de cambios.
+     * Las conexiones deben unir nodos de la lista; se enlazan aquí con sus nodos
+     */
+    public void loadDiagram(List<Node> loadedNodes, List<Connection> loadedConnections) {
+        finishLayoutAnimation();
+        clearSilently();
+        history.clear();
+        for (Node node : loadedNodes) {
+            insertNode(node, nodes.size());
+        }
+        for (Connection connection : loadedConnections) {
+            insertConnection(connection);
+        }
+        invalidate();
+    }
+    
+    public void setDiagramChangeListener(DiagramChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+    
+    private void clearSilently() {
+        for (Node node : nodes) {
+            node.setBoundsListener(null);
+        }
+        // Colecciones nuevas: las anteriores pueden estar guardadas en el historial
+        nodes = new ArrayList<>();
+        connections = new LinkedHashSet<>();
+        structureVersion++;
+        layoutLayers.clear();
+        nodeIndex.clear();
+        connectionIndex.clear();
+        layerDirty = true;
+        deselectAll();
+    }
+    
+    /**
+     * Deshace el último cambio del diagrama
+     * @return false si no había nada que deshacer
+     */
+    public boolean undo() {
+        finishLayoutAnimation();
+        boolean undone = history.undo();
+        if (undone) {
+            invalidate();
+        }
+        return undone;
+    }
+    
+    /**
+     * Rehace el último cambio deshecho
+     * @return false si no había nada que rehacer
+     */
+    public boolean redo() {
+        finishLayoutAnimation();
+        boolean redone = history.redo();
+        if (redone) {
+            invalidate();
+        }
+        return redone;
+    }
+    
+    /**
+     * Coloca el diagrama entero por capas a partir de la esquina de arriba a la izquierda del
+     * diagrama actual. Se calcula en otro hilo y los nodos se mueven con una animación; se deshace
+     * como un único cambio. A partir de aquí los nodos nuevos se colocan solos
+     */
+    public void autoLayout() {
+        if (nodes.isEmpty()) return;
+        finishLayoutAnimation();
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            Point position = nodes.get(i).getPosition();
+            left = Math.min(left, position.getX());
+            top = Math.min(top, position.getY());
+        }
+        layoutOriginX = left;
+        layoutOriginY = top;
+        startLayout(false);
+    }
+    
+    /**
+     * Copia el grafo en arrays y lo coloca en el hilo de colocación
+     * @param incremental solo colocar los nodos que no tienen capa, sin mover el resto
+     */
+    private void startLayout(boolean incremental) {
+        int count = nodes.size();
+        List<Node> snapshot = new ArrayList<>(nodes);
+        Map<Node, Integer> indexOf = new IdentityHashMap<>(count);
+        float[] x = new float[count];
+        float[] y = new float[count];
+        int[] layers = new int[count];
+        for (int i = 0; i < count; i++) {
+            Node node = snapshot.get(i);
+            indexOf.put(node, i);
+            x[i] = node.getPosition().getX();
+            y[i] = node.getPosition().getY();
+            Integer layer = layoutLayers.get(node);
+            layers[i] = layer != null ? layer : -1;
+        }
+        int[] sources = new int[connections.size()];
+        int[] targets = new int[connections.size()];
+        int edges = 0;
+        for (Connection connection : connections) {
+            Integer source = indexOf.get(connection.getSource());
+            Integer target = indexOf.get(connection.getTarget());
+            if (source != null && target != null) {
+                sources[edges] = source;
+                targets[edges++] = target;
+            }
         }
+        int[] edgeSources = Arrays.copyOf(sources, edges);
+        int[] edgeTargets = Arrays.copyOf(targets, edges);
         
-        // Eliminar la conexión
-        connections.remove(connection);
-        if (selectedConnection == connection) {
-            selectedConnection = null;
+        // Todos los nodos miden lo mismo
+        RectF bounds = snapshot.get(0).getBounds();
+        LayeredLayout engine = new LayeredLayout(bounds.width(), bounds.height(),
+                LAYOUT_HORIZONTAL_GAP, LAYOUT_VERTICAL_GAP);
+        engine.setOrigin(layoutOriginX, layoutOriginY);
+        int version = structureVersion;
+        
+        if (layoutExecutor == null) {
+            layoutExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "DiagramLayout");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+        }
+        layoutExecutor.execute(() -> {
+            LayeredLayout.Result result = incremental
+                    ? engine.relayout(count, edgeSources, edgeTargets, layers, x, y)
+                    : engine.layout(count, edgeSources, edgeTargets);
+            post(() -> applyLayout(version, snapshot, result));
+        });
+    }
+    
+    /**
+     * Anima los nodos hasta la colocación calculada. Si el diagrama ha cambiado mientras tanto se
+     * descarta, y si quedan nodos nuevos sin capa se vuelve a pedir su colocación
+     */
+    private void applyLayout(int version, List<Node> snapshot, LayeredLayout.Result result) {
+        if (version != structureVersion) {
+            if (!layoutLayers.isEmpty() && layoutLayers.size() < nodes.size()) {
+                startLayout(true);
+            }
+            return;
+        }
+        finishLayoutAnimation();
+        List<Node> moving = new ArrayList<>();
+        float[] fromX = new float[snapshot.size()];
+        float[] fromY = new float[snapshot.size()];
+        float[] toX = new float[snapshot.size()];
+        float[] toY = new float[snapshot.size()];
+        for (int i = 0, n = snapshot.size(); i < n; i++) {
+            Node node = snapshot.get(i);
+            layoutLayers.put(node, result.layer[i]);
+            Point position = node.getPosition();
+            if (position.getX() != result.x[i] || position.getY() != result.y[i]) {
+                int k = moving.size();
+                moving.add(node);
+                fromX[k] = position.getX();
+                fromY[k] = position.getY();
+                toX[k] = result.x[i];
+                toY[k] = result.y[i];
+            }
+        }
+        if (moving.isEmpty()) {
+            return;
         }
         
-        invalidate();
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+        animator.setDuration(LAYOUT_ANIMATION_MS);
+        animator.setInterpolator(new DecelerateInterpolator());
+        animator.addUpdateListener(animation -> {
+            float t = (float) animation.getAnimatedValue();
+            for (int k = 0, n = moving.size(); k < n; k++) {
+                moving.get(k).setPosition(new Point(fromX[k] + (toX[k] - fromX[k]) * t,
+                        fromY[k] + (toY[k] - fromY[k]) * t));
+            }
+            invalidate();
+        });
+        animator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                layoutAnimator = null;
+                LayoutEdit edit = new LayoutEdit(moving, fromX, fromY, toX, toY);
+                edit.redo();
+                history.record(edit);
+                history.seal();
+                invalidate();
+            }
+        });
+        layoutAnimator = animator;
+        animator.start();
     }
     
     /**
-     * Limpia todo el diagrama
+     * Termina ya la animación de colocación en curso, con los nodos en su sitio final
      */
-    public void clear() {
-        nodes.clear();
-        connections.clear();
-        deselectAll();
+    private void finishLayoutAnimation() {
+        if (layoutAnimator != null) {
+            layoutAnimator.end();
+        }
+    }
+    
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        finishLayoutAnimation();
+        if (layoutExecutor != null) {
+            layoutExecutor.shutdownNow();
+            layoutExecutor = null;
+        }
+    }
+    
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+    
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+    
+    /**
+     * Cambia los umbrales de zoom del nivel de detalle
+     * @param simplifiedBelowScale por debajo de este zoom los nodos se dibujan sin texto ni flechas
+     * @param clusteredBelowScale por debajo de este zoom los nodos cercanos se agrupan en un punto
+     */
+    public void setDetailThresholds(float simplifiedBelowScale, float clusteredBelowScale) {
+        if (clusteredBelowScale > simplifiedBelowScale) {
+            throw new IllegalArgumentException("El umbral de agrupación debe ser menor que el de simplificación");
+        }
+        this.simplifiedBelowScale = simplifiedBelowScale;
+        this.clusteredBelowScale = clusteredBelowScale;
         invalidate();
     }
     
@@ -534,4 +1143,181 @@ public class FlowDiagramView extends View {
     public List<Connection> getConnections() {
         return new ArrayList<>(connections);
     }
-}
\ No newline at end of file
+    
+    // --- Cambios que guarda el historial; solo referencian los objetos afectados ---
+    
+    private final class AddNodeEdit implements EditHistory.Edit {
+        private final Node node;
+        
+        AddNodeEdit(Node node) {
+            this.node = node;
+        }
+        
+        @Override
+        public void undo() {
+            // Sus conexiones son cambios posteriores y ya se han deshecho
+            detachNode(node, nodes.indexOf(node));
+        }
+        
+        @Override
+        public void redo() {
+            attachNode(node, nodes.size());
+        }
+    }
+    
+    private final class RemoveNodeEdit implements EditHistory.Edit {
+        private final Node node;
+        private final int index;
+        private final List<Connection> removedConnections;
+        
+        RemoveNodeEdit(Node node, int index, List<Connection> removedConnections) {
+            this.node = node;
+            this.index = index;
+            this.removedConnections = removedConnections;
+        }
+        
+        @Override
+        public void undo() {
+            // Vuelve a su sitio en el orden de dibujo
+            attachNode(node, Math.min(index, nodes.size()));
+            for (int i = 0, n = removedConnections.size(); i < n; i++) {
+                attachConnection(removedConnections.get(i));
+            }
+        }
+        
+        @Override
+        public void redo() {
+            detachNode(node, nodes.indexOf(node));
+        }
+    }
+    
+    private final class MoveEdit implements EditHistory.Edit {
+        private final Node node;
+        private final float fromX;
+        private final float fromY;
+        private float toX;
+        private float toY;
+        
+        MoveEdit(Node node, float fromX, float fromY, float toX, float toY) {
+            this.node = node;
+            this.fromX = fromX;
+            this.fromY = fromY;
+            this.toX = toX;
+            this.toY = toY;
+        }
+        
+        @Override
+        public void undo() {
+            moveNodeTo(node, fromX, fromY);
+        }
+        
+        @Override
+        public void redo() {
+            moveNodeTo(node, toX, toY);
+        }
+        
+        @Override
+        public boolean merge(EditHistory.Edit next) {
+            if (!(next instanceof MoveEdit) || ((MoveEdit) next).node != node) {
+                return false;
+            }
+            toX = ((MoveEdit) next).toX;
+            toY = ((MoveEdit) next).toY;
+            return true;
+        }
+    }
+    
+    private final class AddConnectionEdit implements EditHistory.Edit {
+        private final Connection connection;
+        
+        AddConnectionEdit(Connection connection) {
+            this.connection = connection;
+        }
+        
+        @Override
+        public void undo() {
+            detachConnection(connection);
+        }
+        
+        @Override
+        public void redo() {
+            attachConnection(connection);
+        }
+    }
+    
+    private final class RemoveConnectionEdit implements EditHistory.Edit {
+        private final Connection connection;
+        
+        RemoveConnectionEdit(Connection connection) {
+            this.connection = connection;
+        }
+        
+        @Override
+        public void undo() {
+            attachConnection(connection);
+        }
+        
+        @Override
+        public void redo() {
+            detachConnection(connection);
+        }
+    }
+    
+    private final class LayoutEdit implements EditHistory.Edit {
+        private final List<Node> moved;
+        private final float[] fromX;
+        private final float[] fromY;
+        private final float[] toX;
+        private final float[] toY;
+        
+        LayoutEdit(List<Node> moved, float[] fromX, float[] fromY, float[] toX, float[] toY) {
+            this.moved = moved;
+            this.fromX = fromX;
+            this.fromY = fromY;
+            this.toX = toX;
+            this.toY = toY;
+        }
+        
+        @Override
+        public void undo() {
+            for (int k = 0, n = moved.size(); k < n; k++) {
+                moveNodeTo(moved.get(k), fromX[k], fromY[k]);
+            }
+        }
+        
+        @Override
+        public void redo() {
+            for (int k = 0, n = moved.size(); k < n; k++) {
+                moveNodeTo(moved.get(k), toX[k], toY[k]);
+            }
+        }
+    }
+    
+    private final class ClearEdit implements EditHistory.Edit {
+        private final List<Node> clearedNodes;
+        private final Set<Connection> clearedConnections;
+        
+        ClearEdit(List<Node> clearedNodes, Set<Connection> clearedConnections) {
+            this.clearedNodes = clearedNodes;
+            this.clearedConnections = clearedConnections;
+        }
+        
+        @Override
+        public void undo() {
+            for (int i = 0, n = clearedNodes.size(); i < n; i++) {
+                attachNode(clearedNodes.get(i), nodes.size());
+            }
+            for (Connection connection : clearedConnections) {
+                attachConnection(connection);
+            }
+        }
+        
+        @Override
+        public void redo() {
+            clearSilently();
+            if (changeListener != null) {
+                changeListener.onCleared();
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.flowdiagramapp.view;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import com.example.flowdiagramapp.model.ConditionalNode;
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.EndNode;
+import com.example.flowdiagramapp.model.Node;
+import com.example.flowdiagramapp.model.StartNode;
+import com.example.flowdiagramapp.model.VariableNode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dibujo simplificado para cuando el diagrama está muy alejado y el texto no se puede leer.
+ * En lugar de una llamada por elemento agrupa todo lo del mismo color en una sola llamada:
+ * las conexiones son un drawLines de centro a centro, los nodos rectángulos hechos con líneas
+ * del alto del nodo, y los grupos de nodos puntos redondos de tamaño según cuántos contienen.
+ * Los arrays se reutilizan entre fotogramas y solo crecen.
+ */
+final class LevelOfDetailRenderer {
+    // Tipos de nodo, cada uno con su color de relleno
+    private static final int TYPE_TERMINAL = 0;
+    private static final int TYPE_CONDITIONAL = 1;
+    private static final int TYPE_VARIABLE = 2;
+    private static final int TYPE_OTHER = 3;
+    private static final int TYPE_COUNT = 4;
+
+    // Tamaños de punto para los grupos: 1, 2-3, 4-7 y 8 o más nodos
+    private static final int CLUSTER_BUCKETS = 4;
+    private static final float OUTLINE = 3f;
+
+    private final Paint linePaint;
+    private final Paint outlinePaint;
+    private final Paint[] fillPaints = new Paint[TYPE_COUNT];
+    private final Paint clusterPaint;
+
+    private float[] lines = new float[0];
+    private float[] outlines = new float[0];
+    private final float[][] fills = new float[TYPE_COUNT][0];
+    private final int[] fillCounts = new int[TYPE_COUNT];
+
+    private int[] cellCounts = new int[0];
+    private float[] cellSumX = new float[0];
+    private float[] cellSumY = new float[0];
+    private final float[][] clusterPoints = new float[CLUSTER_BUCKETS][0];
+    private final int[] clusterCounts = new int[CLUSTER_BUCKETS];
+
+    LevelOfDetailRenderer() {
+        // Grosor 0: línea de un píxel sea cual sea el zoom
+        linePaint = new Paint();
+        linePaint.setColor(Color.DKGRAY);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(0f);
+
+        outlinePaint = new Paint();
+        outlinePaint.setColor(Color.DKGRAY);
+        outlinePaint.setStyle(Paint.Style.STROKE);
+        outlinePaint.setStrokeCap(Paint.Cap.BUTT);
+
+        fillPaints[TYPE_TERMINAL] = fillPaint(Color.rgb(200, 230, 201)); // Verde claro
+        fillPaints[TYPE_CONDITIONAL] = fillPaint(Color.rgb(255, 224, 178)); // Naranja claro
+        fillPaints[TYPE_VARIABLE] = fillPaint(Color.rgb(187, 222, 251)); // Azul claro
+        fillPaints[TYPE_OTHER] = fillPaint(Color.WHITE);
+
+        clusterPaint = new Paint();
+        clusterPaint.setColor(Color.rgb(84, 110, 122));
+        clusterPaint.setAntiAlias(true);
+        clusterPaint.setStyle(Paint.Style.STROKE);
+        clusterPaint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    /**
+     * Nodos como rectángulos de color según su tipo, sin texto, y conexiones sin flecha ni etiqueta
+     */
+    void drawSimplified(Canvas canvas, List<Node> nodes, List<Connection> connections) {
+        drawConnectionLines(canvas, connections);
+        if (nodes.isEmpty()) {
+            return;
+        }
+
+        int count = nodes.size();
+        outlines = ensureCapacity(outlines, count * 4);
+        Arrays.fill(fillCounts, 0);
+        for (int i = 0; i < count; i++) {
+            Node node = nodes.get(i);
+            RectF bounds = node.getBounds();
+            float centerY = bounds.centerY();
+            int o = i * 4;
+            outlines[o] = bounds.left - OUTLINE;
+            outlines[o + 1] = centerY;
+            outlines[o + 2] = bounds.right + OUTLINE;
+            outlines[o + 3] = centerY;
+
+            int type = typeOf(node);
+            float[] fill = fills[type] = ensureCapacity(fills[type], (fillCounts[type] + 1) * 4);
+            int f = fillCounts[type]++ * 4;
+            fill[f] = bounds.left;
+            fill[f + 1] = centerY;
+            fill[f + 2] = bounds.right;
+            fill[f + 3] = centerY;
+        }
+
+        // Todos los nodos miden lo mismo, así que el grosor de la línea es su alto
+        float height = nodes.get(0).getBounds().height();
+        outlinePaint.setStrokeWidth(height + OUTLINE * 2);
+        canvas.drawLines(outlines, 0, count * 4, outlinePaint);
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            if (fillCounts[type] > 0) {
+                fillPaints[type].setStrokeWidth(height);
+                canvas.drawLines(fills[type], 0, fillCounts[type] * 4, fillPaints[type]);
+            }
+        }
+    }
+
+    /**
+     * Agrupa los nodos por celdas de la rejilla y dibuja un punto por celda en el centro de sus nodos
+     * @param area zona que se dibuja, en coordenadas del diagrama
+     * @param cellSize lado de la celda en coordenadas del diagrama; la rejilla está anclada al origen
+     *                 para que desplazarse no cambie los grupos
+     */
+    void drawClustered(Canvas canvas, List<Node> nodes, List<Connection> connections, RectF area, float cellSize) {
+        drawConnectionLines(canvas, connections);
+        if (nodes.isEmpty()) {
+            return;
+        }
+
+        float originX = (float) Math.floor(area.left / cellSize) * cellSize;
+        float originY = (float) Math.floor(area.top / cellSize) * cellSize;
+        int columns = (int) Math.ceil((area.right - originX) / cellSize) + 1;
+        int rows = (int) Math.ceil((area.bottom - originY) / cellSize) + 1;
+        int cells = columns * rows;
+        if (cellCounts.length < cells) {
+            cellCounts = new int[cells];
+            cellSumX = new float[cells];
+            cellSumY = new float[cells];
+        } else {
+            Arrays.fill(cellCounts, 0, cells, 0);
+            Arrays.fill(cellSumX, 0, cells, 0f);
+            Arrays.fill(cellSumY, 0, cells, 0f);
+        }
+
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            RectF bounds = nodes.get(i).getBounds();
+            float x = bounds.centerX();
+            float y = bounds.centerY();
+            int column = clamp((int) ((x - originX) / cellSize), columns);
+            int row = clamp((int) ((y - originY) / cellSize), rows);
+            int cell = row * columns + column;
+            cellCounts[cell]++;
+            cellSumX[cell] += x;
+            cellSumY[cell] += y;
+        }
+
+        Arrays.fill(clusterCounts, 0);
+        for (int cell = 0; cell < cells; cell++) {
+            int count = cellCounts[cell];
+            if (count == 0) {
+                continue;
+            }
+            int bucket = Math.min(CLUSTER_BUCKETS - 1, 31 - Integer.numberOfLeadingZeros(count));
+            float[] points = clusterPoints[bucket] = ensureCapacity(clusterPoints[bucket], (clusterCounts[bucket] + 1) * 2);
+            int p = clusterCounts[bucket]++ * 2;
+            points[p] = cellSumX[cell] / count;
+            points[p + 1] = cellSumY[cell] / count;
+        }
+
+        for (int bucket = 0; bucket < CLUSTER_BUCKETS; bucket++) {
+            if (clusterCounts[bucket] > 0) {
+                clusterPaint.setStrokeWidth(cellSize * (0.3f + 0.15f * bucket));
+                canvas.drawPoints(clusterPoints[bucket], 0, clusterCounts[bucket] * 2, clusterPaint);
+            }
+        }
+    }
+
+    private void drawConnectionLines(Canvas canvas, List<Connection> connections) {
+        int count = 0;
+        lines = ensureCapacity(lines, connections.size() * 4);
+        for (int i = 0, n = connections.size(); i < n; i++) {
+            Connection connection = connections.get(i);
+            Node source = connection.getSource();
+            Node target = connection.getTarget();
+            if (source == null || target == null) {
+                continue;
+            }
+            lines[count++] = source.getPosition().getX();
+            lines[count++] = source.getPosition().getY();
+            lines[count++] = target.getPosition().getX();
+            lines[count++] = target.getPosition().getY();
+        }
+        if (count > 0) {
+            canvas.drawLines(lines, 0, count, linePaint);
+        }
+    }
+
+    private static int typeOf(Node node) {
+        if (node instanceof StartNode || node instanceof EndNode) {
+            return TYPE_TERMINAL;
+        } else if (node instanceof ConditionalNode) {
+            return TYPE_CONDITIONAL;
+        } else if (node instanceof VariableNode) {
+            return TYPE_VARIABLE;
+        }
+        return TYPE_OTHER;
+    }
+
+    private static Paint fillPaint(int color) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.BUTT);
+        return paint;
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(index, size - 1));
+    }
+
+    // Crece al doble para que los fotogramas siguientes no vuelvan a reservar
+    private static float[] ensureCapacity(float[] array, int size) {
+        return array.length >= size ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
@@ -0,0 +1,48 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+// Las clases de :app sin dependencias de Android se compilan aquí desde sus fuentes
+// (un módulo de aplicación no puede ser dependencia de otro módulo)
+val appSources = rootProject.file("app/src/main/java")
+val pureJavaSources = listOf(
+    "com/example/flowdiagramapp/index/**",
+    "com/example/flowdiagramapp/layout/**",
+    "com/example/flowdiagramapp/persistence/**"
+)
+// Parte de persistence que sí usa la vista
+val androidSources = listOf(
+    "com/example/flowdiagramapp/persistence/DiagramStore.java"
+)
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+sourceSets {
+    main {
+        java {
+            srcDir(appSources)
+            include(pureJavaSources)
+            exclude(androidSources)
+        }
+    }
+}
+
+dependencies {
+    jmh("org.openjdk.jmh:jmh-core:${libs.versions.jmh.get()}")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:${libs.versions.jmh.get()}")
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("ns")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
@@ -0,0 +1,122 @@
+package com.example.flowdiagramapp.benchmark;
+
+import com.example.flowdiagramapp.benchmark.SyntheticDiagram.Edge;
+import com.example.flowdiagramapp.benchmark.SyntheticDiagram.NodeBox;
+import com.example.flowdiagramapp.index.QuadTree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Detección de toques de FlowDiagramView: recorrido lineal (findNodeAt y findConnectionNear anteriores)
+ * frente a QuadTree, y coste de mantener el índice al arrastrar un nodo
+ */
+@State(Scope.Benchmark)
+public class HitTestBenchmark {
+    // Mismo valor que FlowDiagramView.CONNECTION_TOLERANCE
+    private static final float CONNECTION_TOLERANCE = 30f;
+    private static final int TOUCH_POINTS = 1024;
+
+    @Param({"1000", "10000"})
+    public int nodeCount;
+
+    private SyntheticDiagram diagram;
+    private QuadTree<NodeBox> nodeIndex;
+    private QuadTree<Edge> edgeIndex;
+    private float[] touches;
+    private int nextTouch;
+    private int nextDrag;
+    private float dragStep = 3f;
+
+    @Setup
+    public void setUp() {
+        diagram = SyntheticDiagram.grid(nodeCount, 42);
+        nodeIndex = new QuadTree<>();
+        edgeIndex = new QuadTree<>();
+        for (NodeBox node : diagram.nodes) {
+            nodeIndex.put(node, node.left(), node.top(), node.right(), node.bottom());
+        }
+        for (Edge edge : diagram.edges) {
+            indexEdge(edge);
+        }
+        touches = diagram.touchPoints(TOUCH_POINTS, 7);
+    }
+
+    @Benchmark
+    public NodeBox findNodeLinear() {
+        int touch = nextTouch();
+        float x = touches[touch];
+        float y = touches[touch + 1];
+        List<NodeBox> nodes = diagram.nodes;
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            NodeBox node = nodes.get(i);
+            if (node.contains(x, y)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public NodeBox findNodeQuadTree() {
+        int touch = nextTouch();
+        return nodeIndex.findTopmost(touches[touch], touches[touch + 1], null);
+    }
+
+    @Benchmark
+    public Edge findConnectionLinear() {
+        int touch = nextTouch();
+        float x = touches[touch];
+        float y = touches[touch + 1];
+        for (Edge edge : diagram.edges) {
+            if (edge.isNear(x, y, CONNECTION_TOLERANCE)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Edge findConnectionQuadTree() {
+        int touch = nextTouch();
+        float x = touches[touch];
+        float y = touches[touch + 1];
+        return edgeIndex.findTopmost(x, y, edge -> edge.isNear(x, y, CONNECTION_TOLERANCE));
+    }
+
+    // Un ACTION_MOVE: mover un nodo y reindexarlo junto con sus conexiones, como FlowDiagramView.reindexNode
+    @Benchmark
+    public NodeBox dragNode() {
+        NodeBox node = diagram.nodes.get(nextDrag);
+        nextDrag = (nextDrag + 1) % diagram.nodes.size();
+        if (nextDrag == 0) {
+            dragStep = -dragStep;
+        }
+        node.centerX += dragStep;
+        node.centerY += dragStep;
+        nodeIndex.put(node, node.left(), node.top(), node.right(), node.bottom());
+        for (Edge edge : node.edges) {
+            indexEdge(edge);
+        }
+        return node;
+    }
+
+    private void indexEdge(Edge edge) {
+        edgeIndex.put(edge,
+                Math.min(edge.source.centerX, edge.target.centerX) - CONNECTION_TOLERANCE,
+                Math.min(edge.source.centerY, edge.target.centerY) - CONNECTION_TOLERANCE,
+                Math.max(edge.source.centerX, edge.target.centerX) + CONNECTION_TOLERANCE,
+                Math.max(edge.source.centerY, edge.target.centerY) + CONNECTION_TOLERANCE);
+    }
+
+    private int nextTouch() {
+        int touch = nextTouch;
+        nextTouch = (nextTouch + 2) % touches.length;
+        return touch;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.flowdiagramapp.benchmark;
+
+import com.example.flowdiagramapp.benchmark.SyntheticDiagram.Edge;
+import com.example.flowdiagramapp.benchmark.SyntheticDiagram.NodeBox;
+import com.example.flowdiagramapp.index.QuadTree;
+import com.example.flowdiagramapp.layout.LayeredLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Colocación automática de FlowDiagramView: colocación completa (en el hilo de colocación),
+ * colocación de un nodo nuevo sin mover los demás, y un fotograma de la animación hacia el
+ * resultado (mover todos los nodos y actualizar los índices), que debe caber en 16 ms
+ */
+@State(Scope.Benchmark)
+public class LayoutBenchmark {
+    // Mismos valores que FlowDiagramView
+    private static final float HORIZONTAL_GAP = 50f;
+    private static final float VERTICAL_GAP = 60f;
+    private static final float CONNECTION_TOLERANCE = 30f;
+    private static final int ANIMATION_FRAMES = 20;
+
+    @Param({"1000", "10000"})
+    public int nodeCount;
+
+    private SyntheticDiagram diagram;
+    private LayeredLayout engine;
+    private int[] sources;
+    private int[] targets;
+    // Diagrama ya colocado más un nodo nuevo unido a uno de los existentes
+    private int[] grownSources;
+    private int[] grownTargets;
+    private int[] grownLayers;
+    private float[] grownX;
+    private float[] grownY;
+    private float[] fromX;
+    private float[] fromY;
+    private LayeredLayout.Result target;
+    private QuadTree<NodeBox> nodeIndex;
+    private QuadTree<Edge> edgeIndex;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        diagram = SyntheticDiagram.grid(nodeCount, 42);
+        List<NodeBox> nodes = diagram.nodes;
+        Map<NodeBox, Integer> ids = new HashMap<>();
+        fromX = new float[nodeCount];
+        fromY = new float[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            NodeBox node = nodes.get(i);
+            ids.put(node, i);
+            fromX[i] = node.centerX;
+            fromY[i] = node.centerY;
+        }
+        int edgeCount = diagram.edges.size();
+        sources = new int[edgeCount];
+        targets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            Edge edge = diagram.edges.get(i);
+            sources[i] = ids.get(edge.source);
+            targets[i] = ids.get(edge.target);
+        }
+
+        engine = new LayeredLayout(SyntheticDiagram.NODE_WIDTH, SyntheticDiagram.NODE_HEIGHT,
+                HORIZONTAL_GAP, VERTICAL_GAP);
+        target = engine.layout(nodeCount, sources, targets);
+
+        grownSources = Arrays.copyOf(sources, edgeCount + 1);
+        grownTargets = Arrays.copyOf(targets, edgeCount + 1);
+        grownSources[edgeCount] = nodeCount / 2;
+        grownTargets[edgeCount] = nodeCount;
+        grownLayers = Arrays.copyOf(target.layer, nodeCount + 1);
+        grownLayers[nodeCount] = -1;
+        grownX = Arrays.copyOf(target.x, nodeCount + 1);
+        grownY = Arrays.copyOf(target.y, nodeCount + 1);
+
+        nodeIndex = new QuadTree<>();
+        edgeIndex = new QuadTree<>();
+        for (NodeBox node : nodes) {
+            nodeIndex.put(node, node.left(), node.top(), node.right(), node.bottom());
+        }
+        for (Edge edge : diagram.edges) {
+            indexEdge(edge);
+        }
+    }
+
+    @Benchmark
+    public LayeredLayout.Result fullLayout() {
+        return engine.layout(nodeCount, sources, targets);
+    }
+
+    @Benchmark
+    public LayeredLayout.Result addOneNode() {
+        return engine.relayout(nodeCount + 1, grownSources, grownTargets, grownLayers, grownX, grownY);
+    }
+
+    /**
+     * Un paso de la animación: en el peor caso se mueven todos los nodos, y con ellos sus conexiones
+     */
+    @Benchmark
+    public int animationFrame() {
+        frame = (frame + 1) % (ANIMATION_FRAMES + 1);
+        float t = (float) frame / ANIMATION_FRAMES;
+        List<NodeBox> nodes = diagram.nodes;
+        for (int i = 0; i < nodeCount; i++) {
+            NodeBox node = nodes.get(i);
+            node.centerX = fromX[i] + (target.x[i] - fromX[i]) * t;
+            node.centerY = fromY[i] + (target.y[i] - fromY[i]) * t;
+            nodeIndex.put(node, node.left(), node.top(), node.right(), node.bottom());
+        }
+        for (Edge edge : diagram.edges) {
+            indexEdge(edge);
+        }
+        return nodeIndex.size();
+    }
+
+    private void indexEdge(Edge edge) {
+        edgeIndex.put(edge,
+                Math.min(edge.source.centerX, edge.target.centerX) - CONNECTION_TOLERANCE,
+                Math.min(edge.source.centerY, edge.target.centerY) - CONNECTION_TOLERANCE,
+                Math.max(edge.source.centerX, edge.target.centerX) + CONNECTION_TOLERANCE,
+                Math.max(edge.source.centerY, edge.target.centerY) + CONNECTION_TOLERANCE);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.flowdiagramapp.benchmark;
+
+import com.example.flowdiagramapp.benchmark.SyntheticDiagram.Edge;
+import com.example.flowdiagramapp.benchmark.SyntheticDiagram.NodeBox;
+import com.example.flowdiagramapp.persistence.BinaryDiagramFormat;
+import com.example.flowdiagramapp.persistence.DiagramData;
+import com.example.flowdiagramapp.persistence.DiagramTable;
+import com.example.flowdiagramapp.persistence.JsonExporter;
+import com.example.flowdiagramapp.persistence.MappedDiagram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guardado y carga del formato binario: escribir la instantánea, abrirla mapeada (solo cabecera y
+ * columnas numéricas, como al arrancar la aplicación), abrirla leyendo además todos los textos, y la
+ * exportación a JSON como referencia de un formato de texto
+ */
+@State(Scope.Benchmark)
+public class SaveLoadBenchmark {
+    @Param({"1000", "10000"})
+    public int nodeCount;
+
+    private DiagramData diagram;
+    private File directory;
+    private File snapshot;
+    private File saveTarget;
+    private File jsonTarget;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticDiagram synthetic = SyntheticDiagram.grid(nodeCount, 42);
+        diagram = new DiagramData();
+        Map<NodeBox, Integer> ids = new HashMap<>();
+        List<NodeBox> nodes = synthetic.nodes;
+        for (int i = 0; i < nodes.size(); i++) {
+            NodeBox node = nodes.get(i);
+            ids.put(node, i);
+            // Textos parecidos a los reales, con algunos repetidos como en un diagrama de verdad
+            byte kind = i % 4 == 3 ? DiagramTable.KIND_CONDITIONAL : DiagramTable.KIND_VARIABLE;
+            String text = kind == DiagramTable.KIND_CONDITIONAL ? "x" + (i % 50) + " > " + (i % 7) : "int x" + i + " = " + (i % 10);
+            diagram.addNode(i, kind, node.centerX, node.centerY, text);
+        }
+        for (Edge edge : synthetic.edges) {
+            int source = ids.get(edge.source);
+            diagram.addEdge(source, ids.get(edge.target), source % 4 == 3 ? "Si" : "");
+        }
+
+        directory = File.createTempFile("saveload", "");
+        directory.delete();
+        directory.mkdirs();
+        snapshot = new File(directory, "diagram.fdg");
+        saveTarget = new File(directory, "saved.fdg");
+        jsonTarget = new File(directory, "diagram.json");
+        BinaryDiagramFormat.write(diagram, snapshot);
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        BinaryDiagramFormat.write(diagram, saveTarget);
+        return saveTarget.length();
+    }
+
+    @Benchmark
+    public DiagramData loadLazy() throws IOException {
+        return DiagramData.copyOf(BinaryDiagramFormat.read(snapshot));
+    }
+
+    @Benchmark
+    public void loadWithText(Blackhole blackhole) throws IOException {
+        MappedDiagram mapped = BinaryDiagramFormat.read(snapshot);
+        DiagramData data = DiagramData.copyOf(mapped);
+        for (int i = 0; i < data.nodeCount(); i++) {
+            blackhole.consume(data.nodeText(i));
+        }
+    }
+
+    @Benchmark
+    public long exportJson() throws IOException {
+        JsonExporter.export(diagram, jsonTarget);
+        return jsonTarget.length();
+    }
+}
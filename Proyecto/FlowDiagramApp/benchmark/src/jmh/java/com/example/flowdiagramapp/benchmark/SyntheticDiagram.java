@@ -0,0 +1,124 @@
+package com.example.flowdiagramapp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Diagrama sintético con nodos del tamaño de Node (150x80) en una rejilla con algo de ruido,
+ * cada uno conectado con el siguiente de su fila y, a veces, con el de debajo.
+ * La semilla es fija para que todas las ejecuciones midan el mismo diagrama
+ */
+final class SyntheticDiagram {
+    static final float NODE_WIDTH = 150f;
+    static final float NODE_HEIGHT = 80f;
+    private static final float SPACING_X = 220f;
+    private static final float SPACING_Y = 140f;
+
+    static final class NodeBox {
+        float centerX;
+        float centerY;
+        final List<Edge> edges = new ArrayList<>(3);
+
+        NodeBox(float centerX, float centerY) {
+            this.centerX = centerX;
+            this.centerY = centerY;
+        }
+
+        float left() {
+            return centerX - NODE_WIDTH / 2;
+        }
+
+        float top() {
+            return centerY - NODE_HEIGHT / 2;
+        }
+
+        float right() {
+            return centerX + NODE_WIDTH / 2;
+        }
+
+        float bottom() {
+            return centerY + NODE_HEIGHT / 2;
+        }
+
+        boolean contains(float x, float y) {
+            return x >= left() && x <= right() && y >= top() && y <= bottom();
+        }
+    }
+
+    static final class Edge {
+        final NodeBox source;
+        final NodeBox target;
+
+        Edge(NodeBox source, NodeBox target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        // Misma fórmula que Connection.isNear: distancia del punto a la recta que une los nodos
+        boolean isNear(float x, float y, float threshold) {
+            float dx = target.centerX - source.centerX;
+            float dy = target.centerY - source.centerY;
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            if (length == 0) {
+                return false;
+            }
+            float distance = Math.abs(dy * x - dx * y + target.centerX * source.centerY
+                    - target.centerY * source.centerX) / length;
+            return distance <= threshold;
+        }
+    }
+
+    final List<NodeBox> nodes;
+    final List<Edge> edges;
+    final float width;
+    final float height;
+
+    private SyntheticDiagram(List<NodeBox> nodes, List<Edge> edges, float width, float height) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.width = width;
+        this.height = height;
+    }
+
+    static SyntheticDiagram grid(int nodeCount, long seed) {
+        Random random = new Random(seed);
+        int columns = (int) Math.ceil(Math.sqrt(nodeCount));
+        List<NodeBox> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            float x = (i % columns) * SPACING_X + random.nextFloat() * 30f;
+            float y = (i / columns) * SPACING_Y + random.nextFloat() * 30f;
+            nodes.add(new NodeBox(x, y));
+        }
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            if ((i + 1) % columns != 0 && i + 1 < nodeCount) {
+                connect(nodes.get(i), nodes.get(i + 1), edges);
+            }
+            if (i + columns < nodeCount && random.nextInt(3) == 0) {
+                connect(nodes.get(i), nodes.get(i + columns), edges);
+            }
+        }
+        return new SyntheticDiagram(nodes, edges, columns * SPACING_X, (nodeCount / columns + 1) * SPACING_Y);
+    }
+
+    /**
+     * Puntos de toque repartidos por todo el diagrama
+     */
+    float[] touchPoints(int count, long seed) {
+        Random random = new Random(seed);
+        float[] points = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            points[i * 2] = random.nextFloat() * width;
+            points[i * 2 + 1] = random.nextFloat() * height;
+        }
+        return points;
+    }
+
+    private static void connect(NodeBox source, NodeBox target, List<Edge> edges) {
+        Edge edge = new Edge(source, target);
+        edges.add(edge);
+        source.edges.add(edge);
+        target.edges.add(edge);
+    }
+}
@@ -27,6 +27,7 @@ import androidx.core.view.WindowInsetsCompat;
 
 import com.example.helloandroid.api.ApiClient;
 import com.example.helloandroid.api.ApiService;
+import com.example.helloandroid.api.HelloStreamClient;
 import com.example.helloandroid.model.HelloResponse;
 import com.example.helloandroid.util.DateTimeUtil;
 import com.example.helloandroid.util.ServerConfig;
@@ -40,9 +41,8 @@ import java.util.Arrays;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
 
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements HelloStreamClient.Listener {
 
     private static final String TAG = "MainActivity";
     
@@ -51,7 +51,14 @@ public class MainActivity extends AppCompatActivity {
     private TextView errorTextView;
     private ProgressBar progressBar;
     private Button refreshButton;
-    private ApiService apiService;
+    private TextView statusTextView;
+    private HelloStreamClient streamClient;
+    // Evita repetir el aviso de error en cada reintento de una misma caida
+    private boolean failureNotified = false;
+    // Peticion REST del saludo: se sirve de la cache HTTP (o se revalida con ETag) mientras conecta el canal
+    private Call<HelloResponse> helloCall;
+    // Una vez llega el saludo por el canal, la respuesta REST ya es antigua y se descarta
+    private boolean streamHelloReceived = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -72,15 +79,32 @@ public class MainActivity extends AppCompatActivity {
         errorTextView = findViewById(R.id.errorTextView);
         progressBar = findViewById(R.id.progressBar);
         refreshButton = findViewById(R.id.refreshButton);
+        statusTextView = findViewById(R.id.statusTextView);
 
-        // Inicializar API Service
-        initApiService();
+        // Una sola conexion persistente: el servidor empuja mensajes y hora, sin peticiones repetidas
+        streamClient = new HelloStreamClient(this);
 
-        // Configurar botón de actualización
-        refreshButton.setOnClickListener(v -> fetchDataFromApi());
+        // Configurar botón de actualización: reconecta sin esperar al backoff
+        refreshButton.setOnClickListener(v -> {
+            statusTextView.setText(R.string.stream_connecting);
+            streamClient.reconnectNow();
+        });
+
+        showLoading();
+    }
 
-        // Cargar datos al iniciar
-        fetchDataFromApi();
+    @Override
+    protected void onStart() {
+        super.onStart();
+        connectStream();
+    }
+
+    @Override
+    protected void onStop() {
+        // Sin pantalla visible no se mantiene la conexion (bateria y datos)
+        streamClient.stop();
+        cancelHelloFetch();
+        super.onStop();
     }
     
     @Override
@@ -124,22 +148,62 @@ public class MainActivity extends AppCompatActivity {
                     String url = "http://" + ip + ":8088/";
                     ServerConfig.saveServerUrl(MainActivity.this, url);
                     ServerConfig.resetServerList(); // Regenerar la lista de servidores
-                    ApiClient.resetClient();
-                    initApiService();
-                    fetchDataFromApi();
+                    connectStream();
                 }
             })
             .setNegativeButton(R.string.cancel, null)
             .show();
     }
     
-    private void initApiService() {
-        Retrofit retrofit = ApiClient.getClient(this);
-        apiService = retrofit.create(ApiService.class);
-        
-        // Mostrar la URL actual en un toast para verificación
-        String baseUrl = retrofit.baseUrl().toString();
-        Toast.makeText(this, "URL del servidor: " + baseUrl, Toast.LENGTH_SHORT).show();
+    private void connectStream() {
+        String baseUrl = ServerConfig.getServerUrl(this);
+        Log.d(TAG, "Conectando al canal push: " + baseUrl);
+        statusTextView.setText(R.string.stream_connecting);
+        streamHelloReceived = false;
+        cancelHelloFetch();
+        fetchHello();
+        streamClient.start(baseUrl);
+    }
+    
+    /**
+     * Pide el saludo por REST para mostrar algo antes de que conecte el canal, o si el canal no
+     * llega a conectar. Con la cache HTTP suele responderse sin red o con un 304
+     */
+    private void fetchHello() {
+        if (helloCall != null) {
+            return;
+        }
+        helloCall = ApiClient.getClient(this).create(ApiService.class).getHello();
+        helloCall.enqueue(new Callback<HelloResponse>() {
+            @Override
+            public void onResponse(Call<HelloResponse> call, Response<HelloResponse> response) {
+                if (call != helloCall) {
+                    return;
+                }
+                helloCall = null;
+                if (!streamHelloReceived && response.isSuccessful() && response.body() != null) {
+                    hideLoading();
+                    updateUI(response.body());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<HelloResponse> call, Throwable t) {
+                if (call != helloCall) {
+                    return;
+                }
+                helloCall = null;
+                // El error ya lo muestra el canal push al desconectarse
+                Log.w(TAG, "No se pudo obtener el saludo por REST", t);
+            }
+        });
+    }
+    
+    private void cancelHelloFetch() {
+        if (helloCall != null) {
+            helloCall.cancel();
+            helloCall = null;
+        }
     }
     
     private void showDeviceInfoDialog() {
@@ -229,9 +293,8 @@ public class MainActivity extends AppCompatActivity {
                     }
                     
                     ServerConfig.saveServerUrl(MainActivity.this, newUrl);
-                    ApiClient.resetClient();
-                    initApiService();
-                    fetchDataFromApi();
+                    showLoading();
+                    connectStream();
                     Toast.makeText(MainActivity.this, 
                             getString(R.string.server_url_updated, newUrl), 
                             Toast.LENGTH_LONG).show();
@@ -240,65 +303,71 @@ public class MainActivity extends AppCompatActivity {
                 .show();
     }
 
-    // El resto del MainActivity sigue igual...
-    
-    private void fetchDataFromApi() {
-        showLoading();
-        
-        String baseUrl = ServerConfig.getServerUrl(this);
-        Log.d(TAG, "Iniciando petición a la API: " + baseUrl);
-        
-        apiService.getHello().enqueue(new Callback<HelloResponse>() {
-            @Override
-            public void onResponse(Call<HelloResponse> call, Response<HelloResponse> response) {
-                hideLoading();
-                
-                Log.d(TAG, "Respuesta recibida. Código: " + response.code());
-                
-                if (response.isSuccessful() && response.body() != null) {
-                    HelloResponse helloResponse = response.body();
-                    Log.d(TAG, "Respuesta exitosa: " + helloResponse.getMessage());
-                    updateUI(helloResponse);
-                } else {
-                    String errorMessage = "Error del servidor: " + response.code();
-                    try {
-                        if (response.errorBody() != null) {
-                            errorMessage += " - " + response.errorBody().string();
-                        }
-                    } catch (IOException e) {
-                        Log.e(TAG, "Error al leer errorBody", e);
-                    }
-                    Log.e(TAG, errorMessage);
-                    showError(errorMessage);
-                }
-            }
+    @Override
+    public void onConnected() {
+        failureNotified = false;
+        statusTextView.setText(R.string.stream_connected);
+        Log.d(TAG, "Canal push conectado");
+    }
 
-            @Override
-            public void onFailure(Call<HelloResponse> call, Throwable t) {
-                hideLoading();
-                
-                String errorMessage;
-                if (t instanceof UnknownHostException) {
-                    errorMessage = "Error: Host no encontrado. Verifica la URL y tu conexión a internet.";
-                } else if (t instanceof SocketTimeoutException) {
-                    errorMessage = "Error: Tiempo de espera agotado (" + t.getMessage() + "). El servidor tarda demasiado en responder.";
-                } else if (t instanceof ConnectException) {
-                    errorMessage = "Error: No se puede conectar al servidor. Verifica que esté ejecutándose.";
-                } else if (t instanceof IOException) {
-                    errorMessage = "Error de red: " + t.getMessage();
-                } else {
-                    errorMessage = "Error desconocido: " + t.getMessage();
-                }
-                
-                Log.e(TAG, "Error en la petición", t);
-                showError(errorMessage);
-                
-                // Sugerencia para configurar el servidor
-                Toast.makeText(MainActivity.this, 
-                        "Error de conexión. Prueba otra URL de servidor en el menú.", 
-                        Toast.LENGTH_LONG).show();
-            }
-        });
+    @Override
+    public void onHello(HelloResponse hello) {
+        streamHelloReceived = true;
+        cancelHelloFetch();
+        hideLoading();
+        Log.d(TAG, "Mensaje recibido: " + hello.getMessage());
+        updateUI(hello);
+    }
+
+    @Override
+    public void onServerTime(long serverTimeMillis) {
+        if (timestampTextView.getVisibility() == View.VISIBLE) {
+            String formattedDate = DateTimeUtil.formatTimestamp(serverTimeMillis);
+            timestampTextView.setText(getString(R.string.server_time_format, formattedDate));
+        }
+    }
+
+    @Override
+    public void onLatency(long roundTripMs) {
+        Log.d(TAG, "Latencia ida y vuelta: " + roundTripMs + " ms");
+        statusTextView.setText(getString(R.string.stream_latency, roundTripMs));
+    }
+
+    @Override
+    public void onDisconnected(Throwable error, long retryInMs) {
+        hideLoading();
+        String errorMessage = describeError(error);
+        Log.e(TAG, "Canal push desconectado: " + errorMessage, error);
+        statusTextView.setText(getString(R.string.stream_reconnecting, (retryInMs + 999) / 1000));
+
+        // Si ya hay un mensaje en pantalla se conserva; solo se avisa del corte
+        if (messageTextView.getVisibility() != View.VISIBLE) {
+            showError(errorMessage);
+            // Mientras el canal reintenta, el saludo puede llegar por REST
+            fetchHello();
+        }
+        if (!failureNotified) {
+            failureNotified = true;
+            // Sugerencia para configurar el servidor
+            Toast.makeText(MainActivity.this,
+                    "Error de conexión. Prueba otra URL de servidor en el menú.",
+                    Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private static String describeError(Throwable t) {
+        if (t == null) {
+            return "El servidor cerró la conexión.";
+        } else if (t instanceof UnknownHostException) {
+            return "Error: Host no encontrado. Verifica la URL y tu conexión a internet.";
+        } else if (t instanceof SocketTimeoutException) {
+            return "Error: Tiempo de espera agotado (" + t.getMessage() + "). El servidor tarda demasiado en responder.";
+        } else if (t instanceof ConnectException) {
+            return "Error: No se puede conectar al servidor. Verifica que esté ejecutándose.";
+        } else if (t instanceof IOException) {
+            return "Error de red: " + t.getMessage();
+        }
+        return "Error desconocido: " + t.getMessage();
     }
 
     private void updateUI(HelloResponse response) {
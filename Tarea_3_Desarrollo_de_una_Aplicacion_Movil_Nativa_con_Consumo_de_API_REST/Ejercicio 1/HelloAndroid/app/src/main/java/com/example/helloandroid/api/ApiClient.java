@@ -5,7 +5,9 @@ import android.util.Log;
 
 import com.example.helloandroid.util.ServerConfig;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -13,11 +15,16 @@ import retrofit2.converter.gson.GsonConverterFactory;
 
 public class ApiClient {
     private static final String TAG = "ApiClient";
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE = 5L * 1024 * 1024;
+    // El servidor manda el evento "time" cada segundo: 15 s sin datos significa conexion muerta
+    private static final long STREAM_READ_TIMEOUT_SECONDS = 15;
     private static Retrofit retrofit = null;
-
-    public static void resetClient() {
-        retrofit = null;
-    }
+    // Una sola instancia por directorio: OkHttp no admite dos Cache sobre los mismos archivos
+    private static Cache httpCache = null;
+    // Cliente base: Retrofit y el canal push derivan de el y comparten pool de conexiones e hilos
+    private static OkHttpClient baseHttpClient = null;
+    private static OkHttpClient streamHttpClient = null;
 
     public static Retrofit getClient(Context context) {
         String baseUrl = ServerConfig.getServerUrl(context);
@@ -28,13 +35,11 @@ public class ApiClient {
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
             logging.setLevel(HttpLoggingInterceptor.Level.BODY);
             
-            // Configurar cliente OkHttp con timeout más largo (dispositivos físicos pueden necesitarlo)
-            OkHttpClient client = new OkHttpClient.Builder()
+            // Configurar cliente OkHttp a partir del base (timeouts largos) con log y cache HTTP
+            OkHttpClient client = getBaseHttpClient().newBuilder()
                     .addInterceptor(logging)
-                    .connectTimeout(20, TimeUnit.SECONDS)
-                    .readTimeout(20, TimeUnit.SECONDS)
-                    .writeTimeout(20, TimeUnit.SECONDS)
-                    .retryOnConnectionFailure(true)
+                    // Respeta Cache-Control y revalida con ETag/If-None-Match; gzip lo negocia OkHttp solo
+                    .cache(getHttpCache(context))
                     .build();
             
             retrofit = new Retrofit.Builder()
@@ -47,4 +52,37 @@ public class ApiClient {
         }
         return retrofit;
     }
+
+    /**
+     * Cliente para el canal push (SSE): sin cache ni log de cuerpos, que bloquearian el stream
+     */
+    public static synchronized OkHttpClient getStreamHttpClient() {
+        if (streamHttpClient == null) {
+            streamHttpClient = getBaseHttpClient().newBuilder()
+                    .readTimeout(STREAM_READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .build();
+        }
+        return streamHttpClient;
+    }
+
+    // Timeouts largos: los dispositivos físicos pueden necesitarlos
+    private static synchronized OkHttpClient getBaseHttpClient() {
+        if (baseHttpClient == null) {
+            baseHttpClient = new OkHttpClient.Builder()
+                    .connectTimeout(20, TimeUnit.SECONDS)
+                    .readTimeout(20, TimeUnit.SECONDS)
+                    .writeTimeout(20, TimeUnit.SECONDS)
+                    .retryOnConnectionFailure(true)
+                    .build();
+        }
+        return baseHttpClient;
+    }
+
+    private static synchronized Cache getHttpCache(Context context) {
+        if (httpCache == null) {
+            File directory = new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR);
+            httpCache = new Cache(directory, HTTP_CACHE_SIZE);
+        }
+        return httpCache;
+    }
 }
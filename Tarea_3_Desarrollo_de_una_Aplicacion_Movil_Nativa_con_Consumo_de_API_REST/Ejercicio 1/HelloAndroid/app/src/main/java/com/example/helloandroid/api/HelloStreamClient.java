@@ -0,0 +1,244 @@
+package com.example.helloandroid.api;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.helloandroid.model.HelloResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.util.Random;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.sse.EventSource;
+import okhttp3.sse.EventSourceListener;
+import okhttp3.sse.EventSources;
+
+/**
+ * Conexion persistente al canal push del servidor (Server-Sent Events en api/hello/stream).
+ * Reconecta sola con espera exponencial y mide la latencia de extremo a extremo con un eco:
+ * el cliente manda su reloj por POST y el servidor lo devuelve por el propio canal.
+ * Todos los metodos y callbacks del Listener se ejecutan en el hilo principal.
+ */
+public class HelloStreamClient {
+    private static final String TAG = "HelloStreamClient";
+    private static final String STREAM_PATH = "api/hello/stream";
+    private static final long INITIAL_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30000;
+    private static final long ECHO_INTERVAL_MS = 10000;
+
+    public interface Listener {
+        void onConnected();
+
+        void onHello(HelloResponse hello);
+
+        void onServerTime(long serverTimeMillis);
+
+        void onLatency(long roundTripMs);
+
+        /**
+         * @param error causa del corte (null si el servidor cerro la conexion de forma normal)
+         * @param retryInMs tiempo hasta el siguiente intento
+         */
+        void onDisconnected(Throwable error, long retryInMs);
+    }
+
+    private final OkHttpClient httpClient;
+    private final EventSource.Factory eventSourceFactory;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Gson gson = new Gson();
+    private final Random random = new Random();
+    private final Runnable reconnectTask = this::open;
+    private final Runnable echoTask = this::sendEcho;
+
+    private String baseUrl;
+    private EventSource eventSource;
+    private String connectionId;
+    // Identifica la conexion actual; los eventos de conexiones anteriores se descartan
+    private int generation = 0;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+    private boolean started = false;
+
+    public HelloStreamClient(Listener listener) {
+        this.httpClient = ApiClient.getStreamHttpClient();
+        this.eventSourceFactory = EventSources.createFactory(httpClient);
+        this.listener = listener;
+    }
+
+    /**
+     * Abre la conexion con el servidor indicado; si ya esta abierta contra esa URL no hace nada
+     */
+    public void start(String serverUrl) {
+        if (started && serverUrl.equals(baseUrl)) {
+            return;
+        }
+        closeConnection();
+        baseUrl = serverUrl;
+        started = true;
+        backoffMs = INITIAL_BACKOFF_MS;
+        open();
+    }
+
+    public void stop() {
+        started = false;
+        closeConnection();
+    }
+
+    /**
+     * Cierra y reabre la conexion sin esperar al backoff (boton Actualizar)
+     */
+    public void reconnectNow() {
+        if (baseUrl == null) {
+            return;
+        }
+        closeConnection();
+        started = true;
+        backoffMs = INITIAL_BACKOFF_MS;
+        open();
+    }
+
+    private void open() {
+        if (!started) {
+            return;
+        }
+        int current = ++generation;
+        Request request = new Request.Builder()
+                .url(baseUrl + STREAM_PATH)
+                .header("Accept", "text/event-stream")
+                .build();
+        Log.d(TAG, "Abriendo canal push: " + request.url());
+        eventSource = eventSourceFactory.newEventSource(request, new StreamListener(current));
+    }
+
+    private void closeConnection() {
+        generation++;
+        mainHandler.removeCallbacks(reconnectTask);
+        mainHandler.removeCallbacks(echoTask);
+        connectionId = null;
+        if (eventSource != null) {
+            eventSource.cancel();
+            eventSource = null;
+        }
+    }
+
+    private void onEvent(String type, String data) {
+        try {
+            switch (type) {
+                case "connected":
+                    connectionId = data;
+                    mainHandler.removeCallbacks(echoTask);
+                    mainHandler.post(echoTask);
+                    break;
+                case "hello":
+                    listener.onHello(gson.fromJson(data, HelloResponse.class));
+                    break;
+                case "time":
+                    listener.onServerTime(Long.parseLong(data));
+                    break;
+                case "echo":
+                    listener.onLatency(SystemClock.elapsedRealtime() - Long.parseLong(data));
+                    break;
+                default:
+                    Log.d(TAG, "Evento desconocido: " + type);
+            }
+        } catch (NumberFormatException | JsonParseException e) {
+            Log.w(TAG, "Evento " + type + " ilegible: " + data, e);
+        }
+    }
+
+    private void scheduleReconnect(Throwable error) {
+        closeConnection();
+        if (!started) {
+            return;
+        }
+        // Espera exponencial con jitter para que varios clientes no reconecten a la vez
+        long delay = backoffMs / 2 + (long) (random.nextDouble() * backoffMs / 2);
+        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        listener.onDisconnected(error, delay);
+        mainHandler.postDelayed(reconnectTask, delay);
+    }
+
+    // Usa el reloj monotono del dispositivo, asi no influye la diferencia de hora con el servidor
+    private void sendEcho() {
+        if (connectionId == null) {
+            return;
+        }
+        Request request = new Request.Builder()
+                .url(baseUrl + STREAM_PATH + "/" + connectionId + "/echo?t=" + SystemClock.elapsedRealtime())
+                .post(RequestBody.create(new byte[0]))
+                .build();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.w(TAG, "No se pudo enviar el eco de latencia", e);
+            }
+        });
+        mainHandler.postDelayed(echoTask, ECHO_INTERVAL_MS);
+    }
+
+    private class StreamListener extends EventSourceListener {
+        private final int connectionGeneration;
+
+        StreamListener(int connectionGeneration) {
+            this.connectionGeneration = connectionGeneration;
+        }
+
+        @Override
+        public void onOpen(EventSource source, Response response) {
+            mainHandler.post(() -> {
+                if (isCurrent()) {
+                    backoffMs = INITIAL_BACKOFF_MS;
+                    listener.onConnected();
+                }
+            });
+        }
+
+        @Override
+        public void onEvent(EventSource source, String id, String type, String data) {
+            String eventType = type != null ? type : "message";
+            mainHandler.post(() -> {
+                if (isCurrent()) {
+                    HelloStreamClient.this.onEvent(eventType, data);
+                }
+            });
+        }
+
+        @Override
+        public void onClosed(EventSource source) {
+            mainHandler.post(() -> {
+                if (isCurrent()) {
+                    scheduleReconnect(null);
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(EventSource source, Throwable t, Response response) {
+            Throwable error = t != null ? t
+                    : new IOException("Error del servidor: " + (response != null ? response.code() : "desconocido"));
+            mainHandler.post(() -> {
+                if (isCurrent()) {
+                    scheduleReconnect(error);
+                }
+            });
+        }
+
+        private boolean isCurrent() {
+            return connectionGeneration == generation;
+        }
+    }
+}
@@ -10,9 +10,9 @@ public class AppConfig implements WebMvcConfigurer {
 
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
-        // Redirige la raíz y otras rutas comunes a /api/hello
-        registry.addRedirectViewController("/", "/api/hello");
-        registry.addRedirectViewController("/index", "/api/hello");
-        registry.addRedirectViewController("/home", "/api/hello");
+        // Reenvia la raíz y otras rutas comunes a /api/hello dentro del servidor
+        registry.addViewController("/").setViewName("forward:/api/hello");
+        registry.addViewController("/index").setViewName("forward:/api/hello");
+        registry.addViewController("/home").setViewName("forward:/api/hello");
     }
 }
@@ -0,0 +1,22 @@
+package com.example.server.config;
+
+import com.example.server.security.AuthInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AuthConfig implements WebMvcConfigurer {
+
+    private final AuthInterceptor authInterceptor;
+
+    public AuthConfig(AuthInterceptor authInterceptor) {
+        this.authInterceptor = authInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // /api/auth/** (login y registro) y /api/hello siguen siendo publicos
+        registry.addInterceptor(authInterceptor).addPathPatterns("/api/users", "/api/users/**");
+    }
+}
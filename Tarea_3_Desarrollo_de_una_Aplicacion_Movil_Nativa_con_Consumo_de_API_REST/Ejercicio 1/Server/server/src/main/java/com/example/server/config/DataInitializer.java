@@ -0,0 +1,45 @@
+package com.example.server.config;
+
+import com.example.server.model.User;
+import com.example.server.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Crea el administrador inicial si todavia no existe
+ */
+@Component
+public class DataInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
+    private final UserService userService;
+    private final String adminEmail;
+    private final String adminPassword;
+    private final String adminName;
+
+    public DataInitializer(UserService userService,
+                           @Value("${app.admin.email:}") String adminEmail,
+                           @Value("${app.admin.password:}") String adminPassword,
+                           @Value("${app.admin.name:Administrador}") String adminName) {
+        this.userService = userService;
+        this.adminEmail = adminEmail;
+        this.adminPassword = adminPassword;
+        this.adminName = adminName;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!StringUtils.hasText(adminEmail) || !StringUtils.hasText(adminPassword)
+                || userService.existsByEmail(adminEmail)) {
+            return;
+        }
+        userService.create(adminName, adminEmail, adminPassword, User.ROLE_ADMIN);
+        log.info("Administrador inicial creado: {}", adminEmail);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.server.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configura el modo de ejecucion de las peticiones (app.execution.mode = platform | virtual | async)
+ */
+@Configuration
+public class ExecutionConfig implements WebMvcConfigurer, DisposableBean {
+
+    public static final String ASYNC_EXECUTOR_NAME = "api-io";
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+    private static final int VIRTUAL_THREADS_MIN_JAVA = 21;
+
+    private final ExecutionMode mode;
+    private final ThreadPoolTaskExecutor asyncExecutor;
+    private final long asyncTimeoutMillis;
+
+    public ExecutionConfig(@Value("${app.execution.mode:platform}") ExecutionMode requestedMode,
+                           @Value("${app.execution.async-pool-size:32}") int asyncPoolSize,
+                           @Value("${app.execution.async-queue-capacity:1000}") int asyncQueueCapacity,
+                           @Value("${app.execution.async-timeout-ms:30000}") long asyncTimeoutMillis) {
+        this.mode = resolveMode(requestedMode);
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+        if (mode == ExecutionMode.ASYNC) {
+            asyncExecutor = new ThreadPoolTaskExecutor();
+            asyncExecutor.setThreadNamePrefix(ASYNC_EXECUTOR_NAME + "-");
+            asyncExecutor.setCorePoolSize(asyncPoolSize);
+            asyncExecutor.setMaxPoolSize(asyncPoolSize);
+            asyncExecutor.setQueueCapacity(asyncQueueCapacity);
+            asyncExecutor.setWaitForTasksToCompleteOnShutdown(true);
+            asyncExecutor.initialize();
+        } else {
+            asyncExecutor = null;
+        }
+        log.info("Modo de ejecucion de peticiones: {}", mode);
+    }
+
+    @Bean
+    public RequestExecutor requestExecutor() {
+        return new RequestExecutor(mode, asyncExecutor);
+    }
+
+    /**
+     * Publica ocupacion y cola del pool de E/S (executor.* con name=api-io) cuando el modo es ASYNC
+     */
+    @Bean
+    public MeterBinder asyncExecutorMetrics() {
+        return registry -> {
+            if (asyncExecutor != null) {
+                new ExecutorServiceMetrics(asyncExecutor.getThreadPoolExecutor(), ASYNC_EXECUTOR_NAME, Tags.empty())
+                        .bindTo(registry);
+            }
+        };
+    }
+
+    /**
+     * En modo VIRTUAL, Tomcat atiende cada conexion en un hilo virtual en lugar de su pool
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> executionModeProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (mode == ExecutionMode.VIRTUAL) {
+                protocolHandler.setExecutor(new VirtualThreadTaskExecutor("http-vt-"));
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (asyncExecutor != null) {
+            configurer.setTaskExecutor(asyncExecutor);
+            configurer.setDefaultTimeout(asyncTimeoutMillis);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    private static ExecutionMode resolveMode(ExecutionMode requested) {
+        if (requested == ExecutionMode.VIRTUAL && Runtime.version().feature() < VIRTUAL_THREADS_MIN_JAVA) {
+            log.warn("Los hilos virtuales requieren Java {} (actual: {}); se usa el modo PLATFORM",
+                    VIRTUAL_THREADS_MIN_JAVA, Runtime.version().feature());
+            return ExecutionMode.PLATFORM;
+        }
+        return requested;
+    }
+}
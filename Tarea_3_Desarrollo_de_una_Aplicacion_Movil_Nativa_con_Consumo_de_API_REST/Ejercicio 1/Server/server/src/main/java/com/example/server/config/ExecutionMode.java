@@ -0,0 +1,13 @@
+package com.example.server.config;
+
+/**
+ * Modelo de ejecucion de las peticiones, elegido con app.execution.mode
+ */
+public enum ExecutionMode {
+    /** Pool de hilos de Tomcat (comportamiento por defecto de Spring MVC) */
+    PLATFORM,
+    /** Un hilo virtual por peticion (requiere Java 21; en versiones anteriores se usa PLATFORM) */
+    VIRTUAL,
+    /** Servlet asincrono: el hilo de Tomcat se libera y el acceso a datos corre en un pool acotado */
+    ASYNC
+}
@@ -0,0 +1,38 @@
+package com.example.server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Politicas de Cache-Control por ruta. Los controladores pueden sobrescribirlas (p. ej. imagenes versionadas)
+ */
+@Configuration
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // El saludo cambia como mucho cada 5 s
+        registry.addInterceptor(cachePolicy(CacheControl.maxAge(5, TimeUnit.SECONDS).cachePublic()))
+                .addPathPatterns("/api/hello");
+        // Datos de usuario: cacheables solo en el dispositivo y siempre revalidados con ETag
+        registry.addInterceptor(cachePolicy(CacheControl.noCache().cachePrivate()))
+                .addPathPatterns("/api/users", "/api/users/**")
+                .excludePathPatterns("/api/users/*/image");
+        registry.addInterceptor(cachePolicy(CacheControl.noCache().cachePublic()))
+                .addPathPatterns("/api/users/*/image");
+        // Login y registro devuelven tokens: nunca se guardan. El canal push tampoco se cachea
+        registry.addInterceptor(cachePolicy(CacheControl.noStore()))
+                .addPathPatterns("/api/auth/**", "/api/hello/stream", "/api/hello/stream/**");
+    }
+
+    private static WebContentInterceptor cachePolicy(CacheControl cacheControl) {
+        WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.setCacheControl(cacheControl);
+        return interceptor;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.server.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta el trabajo bloqueante de un endpoint segun el modo configurado.
+ * En PLATFORM y VIRTUAL corre en el propio hilo de la peticion; en ASYNC se delega al pool de E/S
+ * y el hilo del contenedor queda libre hasta que el resultado esta listo.
+ */
+public class RequestExecutor {
+
+    private final ExecutionMode mode;
+    private final Executor offloadExecutor;
+
+    public RequestExecutor(ExecutionMode mode, Executor offloadExecutor) {
+        this.mode = mode;
+        this.offloadExecutor = offloadExecutor;
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (offloadExecutor == null) {
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(work, offloadExecutor);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.server.controller;
+
+import com.example.server.model.ApiResponse;
+import com.example.server.model.LoginRequest;
+import com.example.server.model.LoginResponse;
+import com.example.server.model.RegisterRequest;
+import com.example.server.model.User;
+import com.example.server.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final UserService userService;
+
+    public AuthController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("/login")
+    public LoginResponse login(@RequestBody LoginRequest request) {
+        UserService.Session session = userService.login(request.getCorreo(), request.getPassword());
+        return new LoginResponse(session.getUser(), session.getToken(), "Inicio de sesion exitoso");
+    }
+
+    @PostMapping("/register")
+    public ResponseEntity<ApiResponse<User>> register(@RequestBody RegisterRequest request) {
+        User user = userService.register(request.getNombre(), request.getEmail(), request.getPassword());
+        ApiResponse<User> body = ApiResponse.ok("Usuario registrado correctamente", user);
+        // El token permite a la app entrar directamente tras registrarse
+        body.setToken(userService.issueToken(user));
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+}
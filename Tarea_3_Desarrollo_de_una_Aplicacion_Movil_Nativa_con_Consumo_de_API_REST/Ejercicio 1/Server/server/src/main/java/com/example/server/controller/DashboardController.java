@@ -0,0 +1,30 @@
+package com.example.server.controller;
+
+import com.example.server.config.RequestExecutor;
+import com.example.server.service.DashboardMetrics;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+
+/**
+ * Pagina de metricas en vivo (plantilla Thymeleaf templates/dashboard.html)
+ */
+@Controller
+public class DashboardController {
+
+    private final DashboardMetrics dashboardMetrics;
+    private final RequestExecutor requestExecutor;
+
+    public DashboardController(DashboardMetrics dashboardMetrics, RequestExecutor requestExecutor) {
+        this.dashboardMetrics = dashboardMetrics;
+        this.requestExecutor = requestExecutor;
+    }
+
+    @GetMapping("/dashboard")
+    public String dashboard(Model model) {
+        model.addAttribute("executionMode", requestExecutor.getMode());
+        model.addAttribute("endpoints", dashboardMetrics.endpoints());
+        model.addAttribute("sections", dashboardMetrics.gauges());
+        return "dashboard";
+    }
+}
@@ -4,21 +4,42 @@ import com.example.server.model.HelloResponse;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.ModelAndView;
 
 @RestController
 @CrossOrigin(origins = "*") // Enable CORS for all origins
 public class HelloController {
 
+    private static final String HELLO_FORWARD = "forward:/api/hello";
+    // Mismo tiempo que el max-age de /api/hello en HttpCacheConfig
+    private static final long SNAPSHOT_TTL_MS = 5000;
+
+    private volatile HelloResponse snapshot;
+
     @GetMapping("/api/hello")
-    public HelloResponse sayHello() {
-        return new HelloResponse("¡Hola Mundo desde Spring Boot!");
+    public HelloResponse sayHello(WebRequest webRequest) {
+        HelloResponse current = currentSnapshot();
+        // ETag debil: la respuesta puede ir comprimida
+        if (webRequest.checkNotModified("W/\"hello-" + current.getTimestamp() + "\"")) {
+            return null;
+        }
+        return current;
+    }
+
+    // La respuesta se reconstruye como mucho una vez por periodo; su timestamp hace de version
+    private HelloResponse currentSnapshot() {
+        HelloResponse current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.getTimestamp() >= SNAPSHOT_TTL_MS) {
+            current = new HelloResponse("¡Hola Mundo desde Spring Boot!");
+            snapshot = current;
+        }
+        return current;
     }
     
-    // Catch-all mapping que redirige cualquier ruta a /api/hello
+    // Catch-all que reenvia cualquier ruta a /api/hello dentro del servidor, sin ida y vuelta al cliente
     @GetMapping("/**")
-    public void handleAllRequests(HttpServletResponse response) throws IOException {
-        response.sendRedirect("/api/hello");
+    public ModelAndView handleAllRequests() {
+        return new ModelAndView(HELLO_FORWARD);
     }
 }
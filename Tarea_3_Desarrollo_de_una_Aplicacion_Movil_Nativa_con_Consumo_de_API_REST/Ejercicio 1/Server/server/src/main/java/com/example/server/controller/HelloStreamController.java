@@ -0,0 +1,48 @@
+package com.example.server.controller;
+
+import com.example.server.model.HelloResponse;
+import com.example.server.service.HelloStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@CrossOrigin(origins = "*")
+@RequestMapping("/api/hello/stream")
+public class HelloStreamController {
+
+    private final HelloStreamService helloStreamService;
+
+    public HelloStreamController(HelloStreamService helloStreamService) {
+        this.helloStreamService = helloStreamService;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return helloStreamService.open();
+    }
+
+    @PostMapping("/messages")
+    public ResponseEntity<HelloResponse> publish(@RequestBody HelloResponse request) {
+        if (request.getMessage() == null || request.getMessage().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El mensaje es obligatorio");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(helloStreamService.publish(request.getMessage()));
+    }
+
+    @PostMapping("/{connectionId}/echo")
+    public ResponseEntity<Void> echo(@PathVariable String connectionId, @RequestParam("t") long clientTime) {
+        helloStreamService.echo(connectionId, String.valueOf(clientTime));
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.server.controller;
+
+import com.example.server.config.RequestExecutor;
+import com.example.server.model.ApiResponse;
+import com.example.server.model.User;
+import com.example.server.repository.UserRepository;
+import com.example.server.security.AuthInterceptor;
+import com.example.server.security.AuthenticatedUser;
+import com.example.server.service.ResourceVersions;
+import com.example.server.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUD de usuarios para la app SystemBooks. Todas las rutas exigen token salvo la descarga de imagenes
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    public static final String HEADER_TOTAL_COUNT = "X-Total-Count";
+    public static final String HEADER_NEXT_AFTER_ID = "X-Next-After-Id";
+
+    private static final CacheControl VERSIONED_IMAGE_CACHE =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final UserService userService;
+    private final RequestExecutor requestExecutor;
+    private final ResourceVersions resourceVersions;
+
+    public UserController(UserService userService, RequestExecutor requestExecutor, ResourceVersions resourceVersions) {
+        this.userService = userService;
+        this.requestExecutor = requestExecutor;
+        this.resourceVersions = resourceVersions;
+    }
+
+    /**
+     * Lista paginada. Con afterId pagina por cursor (recomendado); si no, por page/size.
+     * X-Next-After-Id indica el cursor de la pagina siguiente cuando la actual vino llena
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<ApiResponse<List<User>>>> getUsers(
+            @RequestAttribute(AuthInterceptor.ATTR_USER) AuthenticatedUser caller,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + UserService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) Long afterId,
+            WebRequest webRequest) {
+        requireAdmin(caller);
+        // La URL base se resuelve aqui: en modo ASYNC el trabajo sigue en otro hilo sin la peticion actual
+        String baseUrl = currentBaseUrl();
+        String etag = resourceVersions.usersListEtag(page + "-" + size + "-" + afterId, variantOf(baseUrl));
+        if (webRequest.checkNotModified(etag)) {
+            // 304 sin consultar la base de datos
+            return null;
+        }
+        return requestExecutor.submit(() -> {
+            List<User> users = afterId != null ? userService.findAfter(afterId, size) : userService.findPage(page, size);
+            users.forEach(user -> resolveImageUrl(baseUrl, user));
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header(HEADER_TOTAL_COUNT, String.valueOf(userService.count()));
+            if (!users.isEmpty() && users.size() == Math.min(Math.max(size, 1), UserService.MAX_PAGE_SIZE)) {
+                response.header(HEADER_NEXT_AFTER_ID, String.valueOf(users.get(users.size() - 1).getId()));
+            }
+            return response.body(ApiResponse.ok("Usuarios obtenidos correctamente", users));
+        });
+    }
+
+    @GetMapping("/{id}")
+    public CompletableFuture<ApiResponse<User>> getUser(@RequestAttribute(AuthInterceptor.ATTR_USER) AuthenticatedUser caller,
+                                                        @PathVariable long id, WebRequest webRequest) {
+        requireAccess(caller, id);
+        String baseUrl = currentBaseUrl();
+        if (webRequest.checkNotModified(resourceVersions.userEtag(id, variantOf(baseUrl)))) {
+            return null;
+        }
+        return requestExecutor.submit(() ->
+                ApiResponse.ok("Usuario obtenido correctamente", resolveImageUrl(baseUrl, userService.findById(id))));
+    }
+
+    @PutMapping("/{id}")
+    public ApiResponse<User> updateUser(@RequestAttribute(AuthInterceptor.ATTR_USER) AuthenticatedUser caller,
+                                        @PathVariable long id, @RequestBody User changes) {
+        requireAccess(caller, id);
+        return ApiResponse.ok("Usuario actualizado correctamente", resolveImageUrl(userService.update(caller, id, changes)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> deleteUser(@RequestAttribute(AuthInterceptor.ATTR_USER) AuthenticatedUser caller,
+                                        @PathVariable long id) {
+        requireAdmin(caller);
+        userService.delete(id);
+        return ApiResponse.ok("Usuario eliminado correctamente", null);
+    }
+
+    @PostMapping("/{id}/image")
+    public ApiResponse<User> uploadProfileImage(@RequestAttribute(AuthInterceptor.ATTR_USER) AuthenticatedUser caller,
+                                                @PathVariable long id, @RequestPart("image") MultipartFile image) {
+        requireAccess(caller, id);
+        return ApiResponse.ok("Imagen de perfil actualizada", resolveImageUrl(userService.saveProfileImage(id, image)));
+    }
+
+    /**
+     * Devuelve la imagen en binario, copiandola de la base de datos a la respuesta por bloques.
+     * Las URL con ?v= de la version actual son inmutables; el resto se revalida con ETag
+     */
+    @GetMapping("/{id}/image")
+    public void getProfileImage(@PathVariable long id, @RequestParam(name = "v", required = false) Long version,
+                                ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        UserRepository.ImageInfo info = userService.findImageInfo(id);
+        if (version != null && version == info.getUpdatedAt()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, VERSIONED_IMAGE_CACHE.getHeaderValue());
+        }
+        if (webRequest.checkNotModified("\"img-" + id + "-" + info.getUpdatedAt() + "\"")) {
+            return;
+        }
+        response.setContentType(info.getContentType());
+        response.setContentLengthLong(info.getSize());
+        userService.streamProfileImage(id, response.getOutputStream());
+    }
+
+    private User resolveImageUrl(User user) {
+        return resolveImageUrl(currentBaseUrl(), user);
+    }
+
+    private static User resolveImageUrl(String baseUrl, User user) {
+        if (user.getProfileImage() != null && user.getProfileImage().startsWith("/")) {
+            user.setProfileImage(baseUrl + user.getProfileImage());
+        }
+        return user;
+    }
+
+    // Las URL de imagen son absolutas, asi que el cuerpo depende del host con el que se llamo
+    private static String variantOf(String baseUrl) {
+        return Integer.toHexString(baseUrl.hashCode());
+    }
+
+    private static String currentBaseUrl() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+    }
+
+    private static void requireAdmin(AuthenticatedUser caller) {
+        if (!caller.isAdmin()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Se requiere rol de administrador");
+        }
+    }
+
+    private static void requireAccess(AuthenticatedUser caller, long id) {
+        if (!caller.canAccess(id)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No tienes permiso sobre este usuario");
+        }
+    }
+}
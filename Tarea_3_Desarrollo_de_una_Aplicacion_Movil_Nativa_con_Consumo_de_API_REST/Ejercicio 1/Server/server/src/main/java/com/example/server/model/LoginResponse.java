@@ -0,0 +1,80 @@
+package com.example.server.model;
+
+/**
+ * Respuesta de /api/auth/login con la forma que espera com.example.systembooks.model.LoginResponse
+ */
+public class LoginResponse {
+    private UserSummary user;
+    private String token;
+    private String role;
+    private String message;
+
+    public LoginResponse() {
+    }
+
+    public LoginResponse(User user, String token, String message) {
+        this.user = new UserSummary(user.getId(), user.getName(), user.getEmail());
+        this.token = token;
+        this.role = user.getRole();
+        this.message = message;
+    }
+
+    public UserSummary getUser() {
+        return user;
+    }
+
+    public void setUser(UserSummary user) {
+        this.user = user;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public static class UserSummary {
+        private Long id;
+        private String nombre;
+        private String email;
+
+        public UserSummary() {
+        }
+
+        public UserSummary(Long id, String nombre, String email) {
+            this.id = id;
+            this.nombre = nombre;
+            this.email = email;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+}
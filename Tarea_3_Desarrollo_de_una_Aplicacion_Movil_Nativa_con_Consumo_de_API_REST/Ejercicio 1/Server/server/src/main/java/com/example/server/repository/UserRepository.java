@@ -0,0 +1,212 @@
+package com.example.server.repository;
+
+import com.example.server.model.User;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Acceso JDBC a las tablas users y user_images sobre el pool HikariCP.
+ * Los listados nunca leen los BLOB: solo saben si el usuario tiene imagen y cuando cambio.
+ */
+@Repository
+public class UserRepository {
+
+    private static final String USER_COLUMNS =
+            "u.id, u.name, u.email, u.role, i.updated_at AS image_updated_at FROM users u " +
+            "LEFT JOIN user_images i ON i.user_id = u.id";
+
+    private static final RowMapper<User> USER_MAPPER = (rs, rowNum) -> {
+        User user = new User(rs.getLong("id"), rs.getString("name"), rs.getString("email"), rs.getString("role"));
+        Timestamp imageUpdatedAt = rs.getTimestamp("image_updated_at");
+        if (imageUpdatedAt != null) {
+            // Ruta relativa; el controlador la convierte en URL absoluta
+            user.setProfileImage(imagePath(user.getId(), imageUpdatedAt.getTime()));
+        }
+        return user;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static String imagePath(long userId, long version) {
+        return "/api/users/" + userId + "/image?v=" + version;
+    }
+
+    public Optional<User> findById(long id) {
+        return jdbcTemplate.query("SELECT " + USER_COLUMNS + " WHERE u.id = ?", USER_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    public Optional<Credentials> findCredentialsByEmail(String email) {
+        return jdbcTemplate.query("SELECT u.password_hash, " + USER_COLUMNS + " WHERE u.email = ?",
+                (rs, rowNum) -> new Credentials(USER_MAPPER.mapRow(rs, rowNum), rs.getString("password_hash")),
+                email).stream().findFirst();
+    }
+
+    public Optional<String> findPasswordHash(long id) {
+        return jdbcTemplate.query("SELECT password_hash FROM users WHERE id = ?",
+                (rs, rowNum) -> rs.getString(1), id).stream().findFirst();
+    }
+
+    /**
+     * Pagina por desplazamiento (page/size)
+     */
+    public List<User> findPage(int offset, int limit) {
+        return jdbcTemplate.query("SELECT " + USER_COLUMNS + " ORDER BY u.id LIMIT ? OFFSET ?",
+                USER_MAPPER, limit, offset);
+    }
+
+    /**
+     * Pagina por cursor: usuarios con id mayor que afterId. Coste constante sin importar la profundidad
+     */
+    public List<User> findAfter(long afterId, int limit) {
+        return jdbcTemplate.query("SELECT " + USER_COLUMNS + " WHERE u.id > ? ORDER BY u.id LIMIT ?",
+                USER_MAPPER, afterId, limit);
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        return count != null ? count : 0;
+    }
+
+    public boolean existsByEmail(String email) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Inserta el usuario y devuelve su id
+     * @throws DuplicateKeyException si el correo ya esta registrado
+     */
+    public long insert(String name, String email, String passwordHash, String role) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO users (name, email, password_hash, role) VALUES (?, ?, ?, ?)",
+                    new String[]{"id"});
+            statement.setString(1, name);
+            statement.setString(2, email);
+            statement.setString(3, passwordHash);
+            statement.setString(4, role);
+            return statement;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        if (key == null) {
+            throw new IllegalStateException("No se obtuvo el id del usuario insertado");
+        }
+        return key.longValue();
+    }
+
+    public boolean update(long id, String name, String email, String role) {
+        return jdbcTemplate.update("UPDATE users SET name = ?, email = ?, role = ? WHERE id = ?",
+                name, email, role, id) > 0;
+    }
+
+    public boolean updatePasswordHash(long id, String passwordHash) {
+        return jdbcTemplate.update("UPDATE users SET password_hash = ? WHERE id = ?", passwordHash, id) > 0;
+    }
+
+    public boolean delete(long id) {
+        return jdbcTemplate.update("DELETE FROM users WHERE id = ?", id) > 0;
+    }
+
+    /**
+     * Guarda (o reemplaza) la imagen leyendo directamente del flujo de la subida, sin copiarla a memoria
+     */
+    public void saveImage(long userId, String contentType, InputStream data, long size) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "MERGE INTO user_images (user_id, content_type, size_bytes, data, updated_at) KEY (user_id) " +
+                    "VALUES (?, ?, ?, ?, ?)");
+            statement.setLong(1, userId);
+            statement.setString(2, contentType);
+            statement.setLong(3, size);
+            statement.setBinaryStream(4, data, size);
+            statement.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            return statement;
+        });
+    }
+
+    public Optional<ImageInfo> findImageInfo(long userId) {
+        return jdbcTemplate.query("SELECT content_type, size_bytes, updated_at FROM user_images WHERE user_id = ?",
+                (rs, rowNum) -> new ImageInfo(rs.getString(1), rs.getLong(2), rs.getTimestamp(3).getTime()),
+                userId).stream().findFirst();
+    }
+
+    /**
+     * Copia la imagen al flujo de salida por bloques
+     * @return false si el usuario no tiene imagen
+     */
+    public boolean streamImage(long userId, OutputStream out) {
+        Boolean found = jdbcTemplate.query("SELECT data FROM user_images WHERE user_id = ?", rs -> {
+            if (!rs.next()) {
+                return false;
+            }
+            try (InputStream in = rs.getBinaryStream(1)) {
+                in.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, userId);
+        return Boolean.TRUE.equals(found);
+    }
+
+    public static class Credentials {
+        private final User user;
+        private final String passwordHash;
+
+        public Credentials(User user, String passwordHash) {
+            this.user = user;
+            this.passwordHash = passwordHash;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getPasswordHash() {
+            return passwordHash;
+        }
+    }
+
+    public static class ImageInfo {
+        private final String contentType;
+        private final long size;
+        private final long updatedAt;
+
+        public ImageInfo(String contentType, long size, long updatedAt) {
+            this.contentType = contentType;
+            this.size = size;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.server.security;
+
+import com.example.server.model.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Exige un token Bearer valido en las rutas protegidas y deja el usuario en la peticion.
+ * La descarga de imagenes de perfil es publica para que Glide pueda cargarlas sin cabeceras.
+ */
+@Component
+public class AuthInterceptor implements HandlerInterceptor {
+
+    public static final String ATTR_USER = "com.example.server.security.authenticatedUser";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+
+    public AuthInterceptor(TokenService tokenService, ObjectMapper objectMapper) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod()) || isPublicImageRequest(request)) {
+            return true;
+        }
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        AuthenticatedUser user = null;
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            user = tokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+        }
+        if (user == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Token ausente, invalido o expirado. Inicia sesion de nuevo"));
+            return false;
+        }
+        request.setAttribute(ATTR_USER, user);
+        return true;
+    }
+
+    private static boolean isPublicImageRequest(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) && request.getRequestURI().endsWith("/image");
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.server.security;
+
+import com.example.server.model.User;
+
+/**
+ * Identidad extraida de un token valido
+ */
+public class AuthenticatedUser {
+    private final long id;
+    private final String role;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public AuthenticatedUser(long id, String role, long issuedAt, long expiresAt) {
+        this.id = id;
+        this.role = role;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isAdmin() {
+        return User.ROLE_ADMIN.equals(role);
+    }
+
+    public boolean canAccess(long userId) {
+        return isAdmin() || id == userId;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.server.security;
+
+import com.example.server.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens de acceso sin estado: base64url("id:rol:emitido:expira") + "." + base64url(HMAC-SHA256).
+ * Validar un token no toca la base de datos; ademas los tokens ya verificados se guardan en una
+ * cache acotada para que las peticiones siguientes se resuelvan con una sola busqueda en memoria.
+ */
+@Service
+public class TokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final int cacheSize;
+    private final ThreadLocal<Mac> macs;
+    private final Map<String, AuthenticatedUser> verified = new ConcurrentHashMap<>();
+    // Tokens emitidos antes de este instante dejan de valer (usuario eliminado o con rol cambiado)
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public TokenService(@Value("${app.auth.secret}") String secret,
+                        @Value("${app.auth.token-ttl:24h}") Duration ttl,
+                        @Value("${app.auth.verification-cache-size:10000}") int cacheSize) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttlMillis = ttl.toMillis();
+        this.cacheSize = cacheSize;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(User user) {
+        long now = System.currentTimeMillis();
+        String payload = user.getId() + ":" + user.getRole() + ":" + now + ":" + (now + ttlMillis);
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * @return el usuario del token, o null si el token no es valido, expiro o fue revocado
+     */
+    public AuthenticatedUser verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        AuthenticatedUser cached = verified.get(token);
+        if (cached != null) {
+            if (isCurrent(cached, now)) {
+                return cached;
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        AuthenticatedUser user = decode(token);
+        if (user == null || !isCurrent(user, now)) {
+            return null;
+        }
+        if (verified.size() >= cacheSize) {
+            evictExpired(now);
+        }
+        if (verified.size() < cacheSize) {
+            verified.put(token, user);
+        }
+        return user;
+    }
+
+    /**
+     * Invalida todos los tokens emitidos hasta ahora para el usuario
+     */
+    public void revokeUser(long userId) {
+        // +1 para que un token emitido en este mismo milisegundo tambien quede revocado
+        revokedBefore.put(userId, System.currentTimeMillis() + 1);
+        verified.values().removeIf(user -> user.getId() == userId);
+    }
+
+    private boolean isCurrent(AuthenticatedUser user, long now) {
+        if (user.getExpiresAt() <= now) {
+            return false;
+        }
+        Long revoked = revokedBefore.get(user.getId());
+        return revoked == null || user.getIssuedAt() >= revoked;
+    }
+
+    private AuthenticatedUser decode(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                return null;
+            }
+            return new AuthenticatedUser(Long.parseLong(parts[0]), parts[1],
+                    Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // Base64 o numeros mal formados
+            return null;
+        }
+    }
+
+    private void evictExpired(long now) {
+        verified.values().removeIf(user -> !isCurrent(user, now));
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar " + HMAC_ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.server.service;
+
+import com.example.server.config.ExecutionConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.search.Search;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lee del MeterRegistry los valores que muestra la pagina /dashboard.
+ * Es una vista de lectura: las mismas metricas se exportan completas en /actuator/prometheus.
+ */
+@Service
+public class DashboardMetrics {
+
+    private static final String HTTP_REQUESTS = "http.server.requests";
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final MeterRegistry registry;
+
+    public DashboardMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Una fila por metodo + ruta + estado, ordenadas por numero de peticiones
+     */
+    public List<EndpointStats> endpoints() {
+        List<EndpointStats> rows = new ArrayList<>();
+        for (Timer timer : registry.find(HTTP_REQUESTS).timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            rows.add(new EndpointStats(
+                    timer.getId().getTag("method"),
+                    timer.getId().getTag("uri"),
+                    timer.getId().getTag("status"),
+                    snapshot.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS),
+                    percentile(snapshot, 0.5),
+                    percentile(snapshot, 0.99),
+                    snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+        rows.sort(Comparator.comparingLong(EndpointStats::getCount).reversed());
+        return rows;
+    }
+
+    /**
+     * Valores sueltos agrupados por seccion (peticiones en curso, JVM, pools)
+     */
+    public Map<String, Map<String, String>> gauges() {
+        Map<String, Map<String, String>> sections = new LinkedHashMap<>();
+
+        Map<String, String> requests = new LinkedHashMap<>();
+        requests.put("En curso", format(activeRequests(), "%.0f"));
+        sections.put("Peticiones", requests);
+
+        Map<String, String> jvm = new LinkedHashMap<>();
+        jvm.put("Heap usado (MB)", format(sum(registry.find("jvm.memory.used").tag("area", "heap")) / MB, "%.1f"));
+        jvm.put("Heap maximo (MB)", format(sum(registry.find("jvm.memory.max").tag("area", "heap")) / MB, "%.1f"));
+        jvm.put("Pausas GC", format(gcPauses(false), "%.0f"));
+        jvm.put("Tiempo total GC (ms)", format(gcPauses(true), "%.1f"));
+        jvm.put("Hilos vivos", format(sum(registry.find("jvm.threads.live")), "%.0f"));
+        sections.put("JVM", jvm);
+
+        Map<String, String> tomcat = new LinkedHashMap<>();
+        tomcat.put("Hilos ocupados", format(sum(registry.find("tomcat.threads.busy")), "%.0f"));
+        tomcat.put("Hilos actuales", format(sum(registry.find("tomcat.threads.current")), "%.0f"));
+        tomcat.put("Hilos maximos", format(sum(registry.find("tomcat.threads.config.max")), "%.0f"));
+        sections.put("Pool de Tomcat", tomcat);
+
+        Map<String, String> io = new LinkedHashMap<>();
+        Search ioExecutor = registry.find("executor.active").tag("name", ExecutionConfig.ASYNC_EXECUTOR_NAME);
+        if (ioExecutor.gauge() != null) {
+            io.put("Tareas activas", format(sum(ioExecutor), "%.0f"));
+            io.put("En cola", format(sum(registry.find("executor.queued").tag("name", ExecutionConfig.ASYNC_EXECUTOR_NAME)), "%.0f"));
+            io.put("Tamano del pool", format(sum(registry.find("executor.pool.size").tag("name", ExecutionConfig.ASYNC_EXECUTOR_NAME)), "%.0f"));
+            sections.put("Pool de E/S (modo ASYNC)", io);
+        }
+
+        Map<String, String> database = new LinkedHashMap<>();
+        database.put("Conexiones activas", format(sum(registry.find("hikaricp.connections.active")), "%.0f"));
+        database.put("Conexiones libres", format(sum(registry.find("hikaricp.connections.idle")), "%.0f"));
+        database.put("Hilos esperando conexion", format(sum(registry.find("hikaricp.connections.pending")), "%.0f"));
+        database.put("Conexiones maximas", format(sum(registry.find("hikaricp.connections.max")), "%.0f"));
+        sections.put("Pool de base de datos", database);
+        return sections;
+    }
+
+    private double activeRequests() {
+        double active = 0;
+        for (LongTaskTimer timer : registry.find(HTTP_REQUESTS + ".active").longTaskTimers()) {
+            active += timer.activeTasks();
+        }
+        return active;
+    }
+
+    private double gcPauses(boolean totalTime) {
+        double value = 0;
+        for (Timer timer : registry.find("jvm.gc.pause").timers()) {
+            value += totalTime ? timer.totalTime(TimeUnit.MILLISECONDS) : timer.count();
+        }
+        return value;
+    }
+
+    private static double sum(Search search) {
+        double total = 0;
+        boolean found = false;
+        for (Gauge gauge : search.gauges()) {
+            double value = gauge.value();
+            if (!Double.isNaN(value) && value >= 0) {
+                total += value;
+                found = true;
+            }
+        }
+        return found ? total : Double.NaN;
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static String format(double value, String pattern) {
+        return Double.isNaN(value) ? "-" : String.format(pattern, value);
+    }
+
+    public static class EndpointStats {
+        private final String method;
+        private final String uri;
+        private final String status;
+        private final long count;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        public EndpointStats(String method, String uri, String status, long count, double meanMillis,
+                             double p50Millis, double p99Millis, double maxMillis) {
+            this.method = method;
+            this.uri = uri;
+            this.status = status;
+            this.count = count;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
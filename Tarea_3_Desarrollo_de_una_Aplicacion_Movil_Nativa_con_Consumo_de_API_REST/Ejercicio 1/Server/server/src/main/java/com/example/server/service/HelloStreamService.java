@@ -0,0 +1,141 @@
+package com.example.server.service;
+
+import com.example.server.model.HelloResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal push (Server-Sent Events) con los mensajes del servidor y la hora.
+ * Cada conexion es un SseEmitter asincrono: no ocupa un hilo de Tomcat mientras esta abierta.
+ * El evento "time" se envia cada segundo y sirve tambien de latido para detectar clientes caidos.
+ */
+@Service
+public class HelloStreamService implements DisposableBean {
+
+    public static final String EVENT_CONNECTED = "connected";
+    public static final String EVENT_HELLO = "hello";
+    public static final String EVENT_TIME = "time";
+    public static final String EVENT_ECHO = "echo";
+
+    private static final Logger log = LoggerFactory.getLogger(HelloStreamService.class);
+    private static final String DEFAULT_MESSAGE = "¡Hola Mundo desde Spring Boot!";
+    // Tiempo que el cliente espera antes de reconectar si el servidor corta la conexion
+    private static final long RECONNECT_HINT_MS = 2000;
+
+    private final Map<String, SseEmitter> connections = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private final long timeoutMillis;
+    private final int maxConnections;
+    private volatile HelloResponse lastMessage = new HelloResponse(DEFAULT_MESSAGE);
+
+    public HelloStreamService(@Value("${app.stream.tick-ms:1000}") long tickMillis,
+                              @Value("${app.stream.timeout-ms:900000}") long timeoutMillis,
+                              @Value("${app.stream.max-connections:1000}") int maxConnections) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxConnections = maxConnections;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hello-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::broadcastTime, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre una conexion nueva; el primer evento lleva su id, necesario para el eco de latencia
+     */
+    public SseEmitter open() {
+        if (connections.size() >= maxConnections) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas conexiones abiertas");
+        }
+        String connectionId = UUID.randomUUID().toString();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> connections.remove(connectionId, emitter));
+        emitter.onTimeout(() -> connections.remove(connectionId, emitter));
+        emitter.onError(error -> connections.remove(connectionId, emitter));
+        connections.put(connectionId, emitter);
+
+        send(connectionId, emitter, event(EVENT_CONNECTED).reconnectTime(RECONNECT_HINT_MS)
+                .data(connectionId, MediaType.TEXT_PLAIN));
+        send(connectionId, emitter, event(EVENT_HELLO).data(lastMessage, MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    /**
+     * Publica un mensaje nuevo a todos los clientes conectados
+     */
+    public HelloResponse publish(String message) {
+        HelloResponse hello = new HelloResponse(message);
+        lastMessage = hello;
+        broadcast(EVENT_HELLO, hello, MediaType.APPLICATION_JSON);
+        return hello;
+    }
+
+    /**
+     * Devuelve el valor recibido por la conexion indicada; el cliente mide el tiempo de ida y vuelta
+     */
+    public void echo(String connectionId, String payload) {
+        SseEmitter emitter = connections.get(connectionId);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Conexion no encontrada");
+        }
+        send(connectionId, emitter, event(EVENT_ECHO).data(payload, MediaType.TEXT_PLAIN));
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private void broadcastTime() {
+        if (!connections.isEmpty()) {
+            broadcast(EVENT_TIME, String.valueOf(System.currentTimeMillis()), MediaType.TEXT_PLAIN);
+        }
+    }
+
+    private void broadcast(String name, Object data, MediaType mediaType) {
+        for (Map.Entry<String, SseEmitter> connection : connections.entrySet()) {
+            send(connection.getKey(), connection.getValue(), event(name).data(data, mediaType));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder event(String name) {
+        return SseEmitter.event().id(String.valueOf(eventIds.incrementAndGet())).name(name);
+    }
+
+    // Un fallo de escritura significa que el cliente se fue: se descarta la conexion
+    private void send(String connectionId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            connections.remove(connectionId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        for (SseEmitter emitter : connections.values()) {
+            emitter.complete();
+        }
+        connections.clear();
+        log.info("Canal push cerrado");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.server.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versiones en memoria de los recursos de usuario, de las que salen sus ETag.
+ * Cada escritura que pasa por UserService sube la version del usuario y la del listado, asi que
+ * un If-None-Match se resuelve sin tocar la base de datos. El id de arranque forma parte del ETag:
+ * tras reiniciar el servidor todos los ETag anteriores dejan de coincidir.
+ * Son ETag debiles (W/) porque el mismo JSON se sirve con y sin gzip, y Tomcat no comprime
+ * respuestas con ETag fuerte.
+ * Solo se guarda version de los usuarios que han cambiado desde el arranque y siguen existiendo; el
+ * resto comparte una version base que cambia con cada borrado, para que el ETag de un usuario
+ * borrado no vuelva a coincidir.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong usersVersion = new AtomicLong();
+    private final AtomicLong deletions = new AtomicLong();
+    private final Map<Long, Version> userVersions = new ConcurrentHashMap<>();
+
+    public void userChanged(long userId) {
+        userVersions.compute(userId, (id, current) -> {
+            long next = current == null ? 1 : current.number + 1;
+            return new Version(next, "u" + id + "-" + bootId + "-" + next);
+        });
+        usersVersion.incrementAndGet();
+    }
+
+    public void userDeleted(long userId) {
+        deletions.incrementAndGet();
+        userVersions.remove(userId);
+        usersVersion.incrementAndGet();
+    }
+
+    /**
+     * ETag de un usuario; variant distingue representaciones distintas del mismo recurso.
+     * No guarda nada para ids sin version, asi que consultar ids inexistentes no hace crecer el mapa
+     */
+    public String userEtag(long userId, String variant) {
+        Version version = userVersions.get(userId);
+        String etag = version != null ? version.etag : "u" + userId + "-" + bootId + "-0d" + deletions.get();
+        return quote(etag + "-" + variant);
+    }
+
+    /**
+     * Numero de usuarios con version propia
+     */
+    public int trackedUserCount() {
+        return userVersions.size();
+    }
+
+    public String usersListEtag(String query, String variant) {
+        return quote("ul-" + bootId + "-" + usersVersion.get() + "-" + query + "-" + variant);
+    }
+
+    private static String quote(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    private static class Version {
+        final long number;
+        final String etag;
+
+        Version(long number, String etag) {
+            this.number = number;
+            this.etag = etag;
+        }
+    }
+}
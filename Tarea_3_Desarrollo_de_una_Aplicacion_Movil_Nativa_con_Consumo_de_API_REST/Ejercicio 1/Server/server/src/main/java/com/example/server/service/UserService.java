@@ -0,0 +1,238 @@
+package com.example.server.service;
+
+import com.example.server.model.User;
+import com.example.server.repository.UserRepository;
+import com.example.server.security.AuthenticatedUser;
+import com.example.server.security.TokenService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reglas de negocio de usuarios: registro, login, CRUD e imagen de perfil.
+ * Los errores se lanzan como ResponseStatusException y ApiExceptionHandler los convierte en ApiResponse.
+ */
+@Service
+public class UserService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int MIN_PASSWORD_LENGTH = 6;
+
+    private final UserRepository userRepository;
+    private final TokenService tokenService;
+    private final ResourceVersions resourceVersions;
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    public UserService(UserRepository userRepository, TokenService tokenService, ResourceVersions resourceVersions) {
+        this.userRepository = userRepository;
+        this.tokenService = tokenService;
+        this.resourceVersions = resourceVersions;
+    }
+
+    public User register(String name, String email, String password) {
+        return create(name, email, password, User.ROLE_USER);
+    }
+
+    public User create(String name, String email, String password, String role) {
+        if (!StringUtils.hasText(name) || !StringUtils.hasText(email)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El nombre y el correo son obligatorios");
+        }
+        validatePassword(password);
+        String normalizedEmail = normalizeEmail(email);
+        try {
+            long id = userRepository.insert(name.trim(), normalizedEmail, passwordEncoder.encode(password), role);
+            resourceVersions.userChanged(id);
+            return new User(id, name.trim(), normalizedEmail, role);
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "El correo ya esta registrado");
+        }
+    }
+
+    /**
+     * @return el usuario autenticado y su token
+     */
+    public Session login(String email, String password) {
+        if (!StringUtils.hasText(email) || !StringUtils.hasText(password)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Correo y contraseña son obligatorios");
+        }
+        UserRepository.Credentials credentials = userRepository.findCredentialsByEmail(normalizeEmail(email))
+                .filter(c -> passwordEncoder.matches(password, c.getPasswordHash()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Credenciales incorrectas"));
+        User user = credentials.getUser();
+        return new Session(user, tokenService.issue(user));
+    }
+
+    public String issueToken(User user) {
+        return tokenService.issue(user);
+    }
+
+    public boolean existsByEmail(String email) {
+        return userRepository.existsByEmail(normalizeEmail(email));
+    }
+
+    public List<User> findPage(int page, int size) {
+        int limit = clampPageSize(size);
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page no puede ser negativo");
+        }
+        return userRepository.findPage(page * limit, limit);
+    }
+
+    public List<User> findAfter(long afterId, int size) {
+        return userRepository.findAfter(afterId, clampPageSize(size));
+    }
+
+    public long count() {
+        return userRepository.count();
+    }
+
+    public User findById(long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado"));
+    }
+
+    /**
+     * Actualiza los campos presentes en changes. Solo un administrador puede cambiar roles.
+     * Todo se valida antes de escribir y las escrituras van en una transaccion: si algo falla, el
+     * usuario y su ETag quedan como estaban
+     */
+    @Transactional
+    public User update(AuthenticatedUser caller, long id, User changes) {
+        User current = findById(id);
+        String name = StringUtils.hasText(changes.getName()) ? changes.getName().trim() : current.getName();
+        String email = StringUtils.hasText(changes.getEmail()) ? normalizeEmail(changes.getEmail()) : current.getEmail();
+        String role = current.getRole();
+        if (StringUtils.hasText(changes.getRole()) && !changes.getRole().equals(role)) {
+            if (!caller.isAdmin()) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Solo un administrador puede cambiar roles");
+            }
+            if (!User.ROLE_USER.equals(changes.getRole()) && !User.ROLE_ADMIN.equals(changes.getRole())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rol invalido. Debe ser ROLE_ADMIN o ROLE_USER");
+            }
+            role = changes.getRole();
+        }
+        boolean passwordChanged = StringUtils.hasText(changes.getPassword());
+        if (passwordChanged) {
+            validatePassword(changes.getPassword());
+        }
+
+        try {
+            userRepository.update(id, name, email, role);
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "El correo ya esta registrado");
+        }
+        if (passwordChanged) {
+            userRepository.updatePasswordHash(id, passwordEncoder.encode(changes.getPassword()));
+        }
+        resourceVersions.userChanged(id);
+        if (!role.equals(current.getRole())) {
+            // Los tokens llevan el rol dentro: los antiguos dejan de valer
+            tokenService.revokeUser(id);
+        }
+        return findById(id);
+    }
+
+    public void delete(long id) {
+        if (!userRepository.delete(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado");
+        }
+        resourceVersions.userDeleted(id);
+        tokenService.revokeUser(id);
+    }
+
+    public User saveProfileImage(long id, MultipartFile image) {
+        findById(id);
+        if (image == null || image.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No se recibio ninguna imagen");
+        }
+        String contentType = image.getContentType();
+        if (contentType == null || !contentType.startsWith("image/") || contentType.equals("image/*")) {
+            // Retrofit suele enviar image/*; se deduce el tipo real por la extension
+            contentType = guessContentType(image.getOriginalFilename());
+        }
+        try (InputStream in = image.getInputStream()) {
+            userRepository.saveImage(id, contentType, in, image.getSize());
+            resourceVersions.userChanged(id);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "No se pudo leer la imagen", e);
+        }
+        return findById(id);
+    }
+
+    public UserRepository.ImageInfo findImageInfo(long id) {
+        return userRepository.findImageInfo(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "El usuario no tiene imagen de perfil"));
+    }
+
+    public void streamProfileImage(long id, OutputStream out) {
+        if (!userRepository.streamImage(id, out)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "El usuario no tiene imagen de perfil");
+        }
+    }
+
+    private static int clampPageSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static void validatePassword(String password) {
+        if (password == null || password.length() < MIN_PASSWORD_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La contraseña debe tener al menos " + MIN_PASSWORD_LENGTH + " caracteres");
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String guessContentType(String filename) {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".png")) {
+            return "image/png";
+        }
+        if (name.endsWith(".webp")) {
+            return "image/webp";
+        }
+        if (name.endsWith(".gif")) {
+            return "image/gif";
+        }
+        return "image/jpeg";
+    }
+
+    /**
+     * Resultado de un login correcto
+     */
+    public static class Session {
+        private final User user;
+        private final String token;
+
+        public Session(User user, String token) {
+            this.user = user;
+            this.token = token;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+}
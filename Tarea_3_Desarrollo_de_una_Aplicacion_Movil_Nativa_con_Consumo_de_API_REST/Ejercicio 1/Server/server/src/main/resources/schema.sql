@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(100) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+-- Las imagenes van en su propia tabla para que los listados de usuarios no arrastren los BLOB
+CREATE TABLE IF NOT EXISTS user_images (
+    user_id BIGINT PRIMARY KEY,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    data BLOB NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_user_images_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
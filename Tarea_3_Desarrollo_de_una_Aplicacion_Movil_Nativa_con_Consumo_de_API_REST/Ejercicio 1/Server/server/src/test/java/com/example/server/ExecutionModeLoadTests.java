@@ -0,0 +1,90 @@
+package com.example.server;
+
+import com.example.server.config.ExecutionMode;
+import com.example.server.config.RequestExecutor;
+import com.example.server.model.User;
+import com.example.server.repository.UserRepository;
+import com.example.server.service.UserService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara los modos de ejecucion (app.execution.mode) levantando un servidor por modo y
+ * subiendo la concurrencia por escalones. Imprime p50/p99 y rendimiento por escalon, y la
+ * concurrencia maxima atendida sin errores.
+ * Escalones y peticiones: -Dloadtest.levels=8,32,128,512 -Dloadtest.requestsPerLevel=2000.
+ * Con -Dloadtest.tomcatThreads se limita el pool de Tomcat para ver el efecto de liberar hilos.
+ */
+class ExecutionModeLoadTests {
+
+    private static final int SEEDED_USERS = 100;
+    private static final int[] LEVELS = Arrays.stream(System.getProperty("loadtest.levels", "8,32,128").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim()))
+            .toArray();
+    private static final int REQUESTS_PER_LEVEL = Integer.getInteger("loadtest.requestsPerLevel", 1000);
+    private static final int TOMCAT_THREADS = Integer.getInteger("loadtest.tomcatThreads", 200);
+
+    @ParameterizedTest
+    @EnumSource(ExecutionMode.class)
+    void compareLatencyAcrossConcurrencyLevels(ExecutionMode mode) throws Exception {
+        try (ConfigurableApplicationContext context = start(mode)) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            ExecutionMode effectiveMode = context.getBean(RequestExecutor.class).getMode();
+            String token = seedAndLogin(context);
+
+            String baseUrl = "http://localhost:" + port;
+            List<URI> targets = new ArrayList<>();
+            for (int i = 1; i <= SEEDED_USERS; i++) {
+                targets.add(URI.create(baseUrl + "/api/users/" + i));
+            }
+            targets.add(URI.create(baseUrl + "/api/users?size=20"));
+            LoadGenerator generator = new LoadGenerator(targets, token);
+            generator.run(REQUESTS_PER_LEVEL, LEVELS[0]);
+
+            System.out.printf("%n== Modo %s (efectivo: %s, hilos Tomcat: %d) ==%n", mode, effectiveMode, TOMCAT_THREADS);
+            System.out.printf("%12s %10s %10s %10s %8s%n", "concurrencia", "req/s", "p50 ms", "p99 ms", "errores");
+            int maxConcurrency = 0;
+            for (int level : LEVELS) {
+                LoadGenerator.Result result = generator.run(Math.max(REQUESTS_PER_LEVEL, level * 4), level);
+                System.out.printf("%12d %10.0f %10.2f %10.2f %8d%n", level, result.requestsPerSecond(),
+                        result.percentileMillis(50), result.percentileMillis(99), result.errors);
+                if (result.errors == 0) {
+                    maxConcurrency = level;
+                }
+            }
+            System.out.printf("Concurrencia maxima sin errores: %d%n", maxConcurrency);
+            assertThat(maxConcurrency).isGreaterThanOrEqualTo(LEVELS[0]);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(ExecutionMode mode) {
+        // Como argumentos de linea de comandos para que prevalezcan sobre application.properties
+        return new SpringApplicationBuilder(ServerApplication.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--spring.datasource.url=jdbc:h2:mem:mode-" + mode.name().toLowerCase() + ";DB_CLOSE_DELAY=-1",
+                "--app.execution.mode=" + mode.name().toLowerCase(),
+                "--app.admin.email=admin@test.com",
+                "--app.admin.password=admin123",
+                "--spring.main.banner-mode=off");
+    }
+
+    private static String seedAndLogin(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        // El administrador ya ocupa el id 1; el hash no importa porque solo se leen
+        for (int i = 0; i < SEEDED_USERS; i++) {
+            userRepository.insert("Usuario " + i, "user" + i + "@test.com", "x", User.ROLE_USER);
+        }
+        return context.getBean(UserService.class).login("admin@test.com", "admin123").getToken();
+    }
+}
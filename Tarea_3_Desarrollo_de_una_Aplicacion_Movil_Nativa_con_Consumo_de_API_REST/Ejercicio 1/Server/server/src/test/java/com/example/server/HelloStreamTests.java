@@ -0,0 +1,149 @@
+package com.example.server;
+
+import com.example.server.service.HelloStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stream;DB_CLOSE_DELAY=-1",
+        "app.admin.email=admin@test.com",
+        "app.admin.password=admin123",
+        "app.stream.tick-ms=200"
+})
+class HelloStreamTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private HelloStreamService helloStreamService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final BlockingQueue<String[]> events = new LinkedBlockingQueue<>();
+    private InputStream body;
+    private Thread reader;
+
+    @BeforeEach
+    void connect() throws Exception {
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri("/api/hello/stream"))
+                .header("Accept", "text/event-stream").GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/event-stream"));
+        assertThat(response.headers().firstValue("Cache-Control")).hasValue("no-store");
+        body = response.body();
+        reader = new Thread(this::readEvents, "sse-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @AfterEach
+    void disconnect() throws Exception {
+        body.close();
+        reader.interrupt();
+    }
+
+    @Test
+    void streamsGreetingTimeAndPublishedMessages() throws Exception {
+        String connectionId = next("connected")[1];
+        assertThat(connectionId).isNotBlank();
+        assertThat(next("hello")[1]).contains("\"message\"");
+
+        long serverTime = Long.parseLong(next("time")[1]);
+        assertThat(serverTime).isCloseTo(System.currentTimeMillis(), within(5000L));
+
+        HttpResponse<String> published = client.send(HttpRequest.newBuilder(uri("/api/hello/stream/messages"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"Mensaje push\"}")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(published.statusCode()).isEqualTo(202);
+        assertThat(next("hello")[1]).contains("Mensaje push");
+    }
+
+    @Test
+    void echoIsDeliveredOnlyThroughTheCallersConnection() throws Exception {
+        String connectionId = next("connected")[1];
+
+        HttpResponse<String> echo = client.send(HttpRequest.newBuilder(
+                uri("/api/hello/stream/" + connectionId + "/echo?t=123456")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(echo.statusCode()).isEqualTo(204);
+        assertThat(next("echo")[1]).isEqualTo("123456");
+
+        HttpResponse<String> unknown = client.send(HttpRequest.newBuilder(
+                uri("/api/hello/stream/desconocida/echo?t=1")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(unknown.statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void closedClientsAreDropped() throws Exception {
+        next("connected");
+        assertThat(helloStreamService.getConnectionCount()).isGreaterThanOrEqualTo(1);
+        int before = helloStreamService.getConnectionCount();
+
+        body.close();
+        // El siguiente evento "time" falla al escribir y la conexion se descarta
+        long deadline = System.currentTimeMillis() + 10000;
+        while (helloStreamService.getConnectionCount() >= before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(helloStreamService.getConnectionCount()).isLessThan(before);
+    }
+
+    // Devuelve el siguiente evento con ese nombre como {nombre, datos}
+    private String[] next(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String[] event = events.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            if (event != null && event[0].equals(name)) {
+                return event;
+            }
+        }
+        throw new AssertionError("No llego ningun evento " + name);
+    }
+
+    private void readEvents() {
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String name = "message";
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isEmpty()) {
+                    events.add(new String[]{name, data.toString()});
+                    name = "message";
+                    data.setLength(0);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                }
+            }
+        } catch (Exception e) {
+            // Conexion cerrada por el test
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.server;
+
+import com.example.server.model.LoginRequest;
+import com.example.server.model.LoginResponse;
+import com.example.server.model.User;
+import com.example.server.security.AuthenticatedUser;
+import com.example.server.service.ResourceVersions;
+import com.example.server.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:caching;DB_CLOSE_DELAY=-1",
+        "app.admin.email=admin@test.com",
+        "app.admin.password=admin123"
+})
+class HttpCachingTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String adminToken;
+    private long adminId;
+
+    @BeforeEach
+    void setUp() {
+        LoginResponse login = restTemplate.postForObject("/api/auth/login",
+                new LoginRequest("admin@test.com", "admin123"), LoginResponse.class);
+        adminToken = login.getToken();
+        adminId = login.getUser().getId();
+    }
+
+    @Test
+    void helloIsCacheableAndRevalidates() throws Exception {
+        HttpResponse<String> first = get("/api/hello", null, null);
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.headers().firstValue(HttpHeaders.CACHE_CONTROL)).hasValue("max-age=5, public");
+        String etag = first.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        HttpResponse<String> second = get("/api/hello", null, etag);
+        assertThat(second.statusCode()).isEqualTo(304);
+        assertThat(second.body()).isEmpty();
+    }
+
+    @Test
+    void userEtagChangesOnlyWhenUserChanges() throws Exception {
+        String path = "/api/users/" + adminId;
+        HttpResponse<String> first = get(path, adminToken, null);
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.headers().firstValue(HttpHeaders.CACHE_CONTROL)).hasValue("no-cache, private");
+        String etag = first.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        assertThat(get(path, adminToken, etag).statusCode()).isEqualTo(304);
+
+        User changes = new User();
+        changes.setName("Admin renombrado");
+        userService.update(new AuthenticatedUser(adminId, User.ROLE_ADMIN, 0, Long.MAX_VALUE),
+                adminId, changes);
+
+        HttpResponse<String> changed = get(path, adminToken, etag);
+        assertThat(changed.statusCode()).isEqualTo(200);
+        assertThat(changed.body()).contains("Admin renombrado");
+        assertThat(changed.headers().firstValue(HttpHeaders.ETAG)).isNotEqualTo(Optional.of(etag));
+    }
+
+    @Test
+    void rejectedUpdateLeavesUserAndEtagUnchanged() throws Exception {
+        User user = userService.register("Sin cambios", "unchanged@test.com", "secret123");
+        String path = "/api/users/" + user.getId();
+        String etag = get(path, adminToken, null).headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+
+        User changes = new User();
+        changes.setName("Cambiado");
+        changes.setEmail("changed@test.com");
+        changes.setPassword("123");
+        assertThatThrownBy(() -> userService.update(new AuthenticatedUser(adminId, User.ROLE_ADMIN, 0, Long.MAX_VALUE),
+                user.getId(), changes))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        User stored = userService.findById(user.getId());
+        assertThat(stored.getName()).isEqualTo("Sin cambios");
+        assertThat(stored.getEmail()).isEqualTo("unchanged@test.com");
+        assertThat(userService.login("unchanged@test.com", "secret123").getUser().getId()).isEqualTo(user.getId());
+        assertThat(get(path, adminToken, etag).statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void userVersionsOnlyTrackLiveUsers() throws Exception {
+        int tracked = resourceVersions.trackedUserCount();
+        for (long id = 1_000_000; id < 1_000_100; id++) {
+            assertThat(get("/api/users/" + id, adminToken, null).statusCode()).isEqualTo(404);
+        }
+        assertThat(resourceVersions.trackedUserCount()).isEqualTo(tracked);
+
+        User user = userService.register("Borrado", "deleted@test.com", "secret123");
+        String path = "/api/users/" + user.getId();
+        String etag = get(path, adminToken, null).headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        assertThat(resourceVersions.trackedUserCount()).isEqualTo(tracked + 1);
+
+        userService.delete(user.getId());
+        assertThat(resourceVersions.trackedUserCount()).isEqualTo(tracked);
+        assertThat(get(path, adminToken, etag).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void compressesLargeJsonResponses() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            userService.register("Usuario " + i, "gzip" + i + "@test.com", "secret123");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users?size=200"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+    }
+
+    @Test
+    void authResponsesAreNeverStored() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                        .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"correo\":\"admin@test.com\",\"password\":\"admin123\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CACHE_CONTROL)).hasValue("no-store");
+    }
+
+    private HttpResponse<String> get(String path, String token, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generador de carga HTTP en bucle cerrado: cada hilo cliente envia la siguiente peticion
+ * en cuanto recibe la respuesta anterior. Mide latencia por peticion y rendimiento total.
+ */
+class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<URI> targets;
+    private final String bearerToken;
+
+    LoadGenerator(List<URI> targets, String bearerToken) {
+        this.targets = targets;
+        this.bearerToken = bearerToken;
+    }
+
+    Result run(int requests, int concurrency) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        // El cliente usa su propio executor: los hilos de trabajo quedan bloqueados en send()
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                futures.add(workers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        HttpRequest.Builder request = HttpRequest.newBuilder(targets.get(i % targets.size()))
+                                .timeout(REQUEST_TIMEOUT)
+                                .GET();
+                        if (bearerToken != null) {
+                            request.header("Authorization", "Bearer " + bearerToken);
+                        }
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new Result(latencies, System.nanoTime() - start, errors.get(), concurrency);
+    }
+
+    static class Result {
+        final int errors;
+        final int concurrency;
+        private final long[] latencies;
+        private final long elapsedNanos;
+
+        Result(long[] latencies, long elapsedNanos, int errors, int concurrency) {
+            this.latencies = latencies.clone();
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+            this.concurrency = concurrency;
+            Arrays.sort(this.latencies);
+        }
+
+        int requests() {
+            return latencies.length;
+        }
+
+        double requestsPerSecond() {
+            return latencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        double percentileMillis(int percentile) {
+            int index = Math.min(latencies.length - 1, (int) Math.ceil(percentile / 100.0 * latencies.length) - 1);
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.server;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1",
+        "app.admin.email=admin@test.com",
+        "app.admin.password=admin123"
+})
+// Los tests de Spring Boot desactivan la exportacion de metricas salvo que se pida explicitamente
+@AutoConfigureObservability
+class MetricsTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheusExposesLatencyHistogramsAndJvmMetrics() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForEntity("/api/hello", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/hello\"")
+                .contains("jvm_memory_used_bytes")
+                .contains("hikaricp_connections_active")
+                .contains("tomcat_threads_busy_threads");
+    }
+
+    @Test
+    void dashboardRendersRequestTable() {
+        restTemplate.getForEntity("/api/hello", String.class);
+
+        ResponseEntity<String> page = restTemplate.getForEntity("/dashboard", String.class);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getHeaders().getContentType().isCompatibleWith(MediaType.TEXT_HTML)).isTrue();
+        assertThat(page.getBody())
+                .contains("Peticiones por endpoint")
+                .contains("/api/hello")
+                .contains("Heap usado (MB)");
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.server;
+
+import com.example.server.controller.UserController;
+import com.example.server.model.LoginRequest;
+import com.example.server.model.LoginResponse;
+import com.example.server.model.User;
+import com.example.server.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de carga de la API de usuarios sobre un servidor real en un puerto aleatorio.
+ * El cliente comparte CPU con el servidor, asi que el minimo por defecto es conservador; en una
+ * maquina dedicada se sube con -Dloadtest.minRps (y -Dloadtest.requests, -Dloadtest.concurrency).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "app.admin.email=admin@test.com",
+        "app.admin.password=admin123"
+})
+class UserApiLoadTests {
+
+    private static final int SEEDED_USERS = 500;
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 5000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final int MIN_RPS = Integer.getInteger("loadtest.minRps", 200);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.count() < SEEDED_USERS) {
+            // Un solo hash para todos: BCrypt es deliberadamente lento
+            String hash = new BCryptPasswordEncoder().encode("secret123");
+            for (int i = 0; i < SEEDED_USERS; i++) {
+                userRepository.insert("Usuario " + i, "user" + i + "@test.com", hash, User.ROLE_USER);
+            }
+        }
+        LoginResponse login = restTemplate.postForObject("/api/auth/login",
+                new LoginRequest("admin@test.com", "admin123"), LoginResponse.class);
+        assertThat(login.getToken()).isNotBlank();
+        assertThat(login.getRole()).isEqualTo(User.ROLE_ADMIN);
+        adminToken = login.getToken();
+    }
+
+    @Test
+    void rejectsRequestsWithoutValidToken() {
+        assertThat(restTemplate.getForEntity("/api/users", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange("/api/users", "not.a-token", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void forwardsUnknownPathsWithoutRedirect() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl() + "/ruta/desconocida")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.LOCATION)).isEmpty();
+        assertThat(response.body()).contains("Hola Mundo");
+    }
+
+    @Test
+    void paginatesWithCursor() {
+        ResponseEntity<String> first = exchange("/api/users?size=20", adminToken, String.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Long.parseLong(first.getHeaders().getFirst(UserController.HEADER_TOTAL_COUNT)))
+                .isGreaterThanOrEqualTo(SEEDED_USERS);
+        String next = first.getHeaders().getFirst(UserController.HEADER_NEXT_AFTER_ID);
+        assertThat(next).isNotNull();
+
+        ResponseEntity<String> second = exchange("/api/users?size=20&afterId=" + next, adminToken, String.class);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Long.parseLong(second.getHeaders().getFirst(UserController.HEADER_NEXT_AFTER_ID)))
+                .isEqualTo(Long.parseLong(next) + 20);
+    }
+
+    @Test
+    void streamsUploadedProfileImage() {
+        long userId = userRepository.findCredentialsByEmail("user1@test.com").orElseThrow().getUser().getId();
+        byte[] image = new byte[64 * 1024];
+        Arrays.fill(image, (byte) 7);
+
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("image", new ByteArrayResource(image) {
+            @Override
+            public String getFilename() {
+                return "perfil.png";
+            }
+        });
+        HttpHeaders headers = authHeaders(adminToken);
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<String> upload = restTemplate.postForEntity("/api/users/" + userId + "/image",
+                new HttpEntity<>(form, headers), String.class);
+        assertThat(upload.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(upload.getBody()).contains("/api/users/" + userId + "/image?v=");
+
+        // Publica: sin token
+        ResponseEntity<byte[]> download = restTemplate.getForEntity("/api/users/" + userId + "/image", byte[].class);
+        assertThat(download.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(download.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(download.getBody()).isEqualTo(image);
+    }
+
+    @Test
+    void sustainsThroughputOnAuthenticatedReads() throws Exception {
+        long firstId = userRepository.findPage(0, 1).get(0).getId();
+        List<URI> targets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            targets.add(URI.create(baseUrl() + "/api/users/" + (firstId + i)));
+        }
+        targets.add(URI.create(baseUrl() + "/api/users?size=20"));
+        LoadGenerator generator = new LoadGenerator(targets, adminToken);
+
+        // Calentamiento: JIT, pool de conexiones y cache de tokens
+        generator.run(Math.max(REQUESTS / 10, CONCURRENCY), CONCURRENCY);
+        LoadGenerator.Result result = generator.run(REQUESTS, CONCURRENCY);
+
+        System.out.printf("Carga: %d peticiones, %d hilos, %.0f req/s, p50=%.2f ms, p99=%.2f ms, errores=%d%n",
+                REQUESTS, CONCURRENCY, result.requestsPerSecond(), result.percentileMillis(50),
+                result.percentileMillis(99), result.errors);
+        assertThat(result.errors).isZero();
+        assertThat(result.requestsPerSecond()).isGreaterThanOrEqualTo(MIN_RPS);
+    }
+
+    private <T> ResponseEntity<T> exchange(String path, String token, Class<T> type) {
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(authHeaders(token)), type);
+    }
+
+    private static HttpHeaders authHeaders(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return headers;
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + port;
+    }
+}
@@ -29,6 +29,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Models and the code worker touch Paint, RectF and Handler; on the JVM they are inert
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -47,6 +47,7 @@ public class MainActivity extends AppCompatActivity {
 
         // Initialize synchronizer
         synchronizer = new DiagramCodeSynchronizer(diagramController);
+        codeView.setOnLineClickListener(this::showLineEditDialog);
 
         // Set up element creation buttons
         setupElementButtons();
@@ -55,6 +56,13 @@ public class MainActivity extends AppCompatActivity {
         diagramController.createSampleDiagram();
     }
 
+    @Override
+    protected void onDestroy() {
+        // Stop the background code generation thread
+        diagramController.release();
+        super.onDestroy();
+    }
+
     private void setupElementButtons() {
         Button btnStart = findViewById(R.id.btn_add_start);
         Button btnEnd = findViewById(R.id.btn_add_end);
@@ -176,6 +184,62 @@ public class MainActivity extends AppCompatActivity {
         builder.show();
     }
 
+    private void showLineEditDialog(int line, String text) {
+        // The view may still show the previous program; edit the line it shows, wherever it is now
+        FlowElement owner = line < synchronizer.getLineCount() ? synchronizer.getElementAtLine(line) : null;
+        int tapped = findLine(line, owner, text);
+        if (tapped < 0) {
+            return;
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Editar línea " + (tapped + 1));
+
+        final EditText lineInput = new EditText(this);
+        lineInput.setSingleLine(true);
+        lineInput.setText(text.trim());
+        builder.setView(lineInput);
+
+        builder.setPositiveButton("OK", (dialog, which) -> {
+            // The code may have been regenerated while the dialog was open
+            int current = findLine(tapped, owner, text);
+            if (current < 0) {
+                Toast.makeText(MainActivity.this, "El código cambió; vuelve a tocar la línea",
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
+            // Only the edited line is parsed; the code comes back regenerated from the diagram
+            int changed = synchronizer.applyEdit(current, 1, lineInput.getText().toString());
+            if (changed == 0) {
+                Toast.makeText(MainActivity.this, "La línea no cambia ningún elemento del diagrama",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        builder.setNegativeButton("Cancelar", (dialog, which) -> dialog.cancel());
+
+        builder.show();
+    }
+
+    /**
+     * Index the line with this owner and text has in the current program: the given one if it is
+     * still there, otherwise the first line of the same element with the same text; -1 if it is gone
+     */
+    private int findLine(int line, FlowElement owner, String text) {
+        if (text.equals(synchronizer.getLineText(line)) && synchronizer.getElementAtLine(line) == owner) {
+            return line;
+        }
+        // Lines without an element (braces, break, ...) can't be told apart
+        if (owner == null) {
+            return -1;
+        }
+        for (int i = 0; i < synchronizer.getLineCount(); i++) {
+            if (synchronizer.getElementAtLine(i) == owner && text.equals(synchronizer.getLineText(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_main, menu);
@@ -204,8 +268,7 @@ public class MainActivity extends AppCompatActivity {
 
         builder.setPositiveButton("Sí", (dialog, which) -> {
             // Clear all elements and connections
-            diagramController.getElements().clear();
-            diagramController.getConnections().clear();
+            diagramController.clear();
             diagramView.invalidate();
             codeView.setCode("");
         });
@@ -0,0 +1,166 @@
+package com.example.flowdiagramapp.controller;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.FlowElement;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the CodeGenerator on a background thread so touch handlers never wait for it.
+ *
+ * The worker keeps its own FlowGraph, a mirror of the controller's that is only touched on the
+ * worker thread. Edits are queued to it in order as they happen, together with the element's code
+ * captured on the UI thread, so generation never reads an element while the UI is changing it.
+ * Requests for code are debounced: a burst of edits produces a single generation, at most
+ * MAX_DELAY_MS after the first one. Every request gets a version and results that are not for the
+ * latest request are dropped, both before generating and before they reach the listener.
+ *
+ * All methods must be called on the UI thread; the listener is also called there.
+ */
+public class CodeGenerationWorker {
+    public interface Listener {
+        /**
+         * @param lineOwners the element each line was written for, see CodeGenerator.getLineOwners
+         */
+        void onCodeGenerated(String code, FlowElement[] lineOwners);
+    }
+
+    private static final long DEBOUNCE_MS = 120;
+    private static final long MAX_DELAY_MS = 400;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CodeGenerator");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flush = this::flush;
+
+    // Only used on the worker thread
+    private final FlowGraph graph = new FlowGraph();
+    private final CodeGenerator generator = new CodeGenerator(graph);
+
+    private Listener listener;
+    private long version;
+    private volatile long requestedVersion = -1;
+    private long firstPendingRequest = -1;
+    private boolean released;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void elementAdded(FlowElement element) {
+        String fragment = CodeGenerator.fragmentOf(element);
+        edit(() -> {
+            graph.addElement(element);
+            generator.setFragment(element, fragment);
+            generator.invalidateStructure(element);
+        });
+    }
+
+    /**
+     * @param removedConnections the connections removed together with the element
+     */
+    public void elementRemoved(FlowElement element, List<Connection> removedConnections) {
+        edit(() -> {
+            graph.removeElement(element);
+            for (Connection connection : removedConnections) {
+                generator.invalidateStructure(connection.getSource());
+            }
+            generator.invalidateStructure(element);
+        });
+    }
+
+    public void elementChanged(FlowElement element) {
+        String fragment = CodeGenerator.fragmentOf(element);
+        edit(() -> generator.setFragment(element, fragment));
+    }
+
+    public void connectionAdded(Connection connection) {
+        edit(() -> {
+            graph.addConnection(connection);
+            generator.invalidateStructure(connection.getSource());
+        });
+    }
+
+    /**
+     * Empties the mirror and drops any code still on its way, so whatever the caller shows
+     * after clearing is not replaced by the old diagram's code
+     */
+    public void cleared() {
+        mainHandler.removeCallbacks(flush);
+        firstPendingRequest = -1;
+        edit(() -> {
+            graph.clear();
+            generator.reset();
+        });
+        requestedVersion = version;
+    }
+
+    /**
+     * Asks for the code of the diagram as it is after every edit so far. Calls made in quick
+     * succession are coalesced into one generation
+     */
+    public void requestCode() {
+        if (released) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (firstPendingRequest < 0) {
+            firstPendingRequest = now;
+        }
+        mainHandler.removeCallbacks(flush);
+        if (now - firstPendingRequest >= MAX_DELAY_MS) {
+            flush();
+        } else {
+            mainHandler.postDelayed(flush, DEBOUNCE_MS);
+        }
+    }
+
+    /**
+     * Stops the worker thread; pending edits and requests are discarded
+     */
+    public void release() {
+        released = true;
+        listener = null;
+        mainHandler.removeCallbacks(flush);
+        executor.shutdownNow();
+    }
+
+    private void edit(Runnable edit) {
+        if (released) {
+            return;
+        }
+        version++;
+        executor.execute(edit);
+    }
+
+    private void flush() {
+        firstPendingRequest = -1;
+        long request = version;
+        requestedVersion = request;
+        executor.execute(() -> {
+            // A newer request is already queued behind this one
+            if (request != requestedVersion) {
+                return;
+            }
+            String code = generator.generateCode();
+            FlowElement[] lineOwners = generator.getLineOwners();
+            mainHandler.post(() -> deliver(request, code, lineOwners));
+        });
+    }
+
+    private void deliver(long request, String code, FlowElement[] lineOwners) {
+        if (request == requestedVersion && listener != null) {
+            listener.onCodeGenerated(code, lineOwners);
+        }
+    }
+}
@@ -1,89 +1,550 @@
 package com.example.flowdiagramapp.controller;
 
-import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.ConditionalElement;
+import com.example.flowdiagramapp.model.EndElement;
 import com.example.flowdiagramapp.model.FlowElement;
 import com.example.flowdiagramapp.model.StartElement;
-import com.example.flowdiagramapp.model.EndElement;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Generates structured C code (if/else with proper nesting, while loops) from the diagram.
+ *
+ * Generation is incremental: the control-flow structure is only recomputed (in O(V + E) over the
+ * FlowGraph) after a structural edit, and the code is cached per region. A run of statements is split
+ * into chunks of at most CHUNK_SIZE elements, and each branch or loop body is a run of its own. Every
+ * cached region knows the elements it wrote directly and the regions that include it, so an edit only
+ * rebuilds the chunk holding the element and the chain of regions above it; everything else is
+ * reused as it is. Not thread-safe: when it runs off the UI thread, fragments captured on the UI thread
+ * are handed in with setFragment so the generator never reads the elements themselves.
+ * Flow that repeats paths without structure can double the code at every level; once a generation has
+ * written MAX_REPEATED_CHARS of repeated regions, the remaining repeats are replaced by a comment.
+ */
 public class CodeGenerator {
+    private static final String INCOMPLETE = "// Diagrama incompleto: No se encontró un elemento de inicio";
+    private static final String CYCLE = "// Ciclo detectado\n";
+    private static final String RETURN = "return 0;\n";
+    private static final String PROGRAM_END = "}\n/* Fin del programa */";
+    private static final int MAX_DEPTH = 64;
+    private static final int CHUNK_SIZE = 32;
+    // Chars one generation may spend writing a region it already wrote somewhere else. Structured code
+    // includes each region once; repeats come from conditionals that never merge but share their
+    // tails, and there every level doubles the code
+    private static final int MAX_REPEATED_CHARS = 1 << 22;
+    private static final String TOO_LONG = "// Código demasiado largo: caminos repetidos sin estructura\n";
+    private static final String[] INDENTS = new String[MAX_DEPTH + 1];
+
+    static {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i <= MAX_DEPTH; i++) {
+            INDENTS[i] = indent.toString();
+            indent.append("    ");
+        }
+    }
 
-    public String generateCode(List<FlowElement> elements, List<Connection> connections) {
-        StringBuilder code = new StringBuilder();
+    /**
+     * A run goes from start up to (not including) stop; a chunk is the first CHUNK_SIZE elements of one
+     */
+    private static final class RegionKey {
+        final FlowElement start;
+        final FlowElement stop;
+        final FlowElement loop;
+        final int depth;
+        final boolean chunk;
 
-        // First find the start element
-        FlowElement startElement = findStartElement(elements);
-        if (startElement == null) {
-            return "// Diagrama incompleto: No se encontró un elemento de inicio";
+        RegionKey(FlowElement start, FlowElement stop, FlowElement loop, int depth, boolean chunk) {
+            this.start = start;
+            this.stop = stop;
+            this.loop = loop;
+            this.depth = depth;
+            this.chunk = chunk;
         }
 
-        // Generate code recursively starting from the start element
-        Map<Integer, Boolean> visited = new HashMap<>();
-        code.append(generateCodeRecursive(startElement, elements, connections, visited, 0));
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RegionKey)) return false;
+            RegionKey other = (RegionKey) o;
+            return start == other.start && stop == other.stop && loop == other.loop
+                    && depth == other.depth && chunk == other.chunk;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(start);
+            hash = hash * 31 + System.identityHashCode(stop);
+            hash = hash * 31 + System.identityHashCode(loop);
+            return (hash * 31 + depth) * 2 + (chunk ? 1 : 0);
+        }
+    }
+
+    private static final class Region {
+        final String code;
+        // For chunks: the element the run continues with, or null if the path ended
+        final FlowElement next;
+        // Element each line of code was written for, or null (braces, break, ...)
+        final FlowElement[] owners;
+        // Cut short by the size limit, here or in a region inside; only cached for one generation
+        final boolean truncated;
+
+        Region(String code, FlowElement next, FlowElement[] owners) {
+            this(code, next, owners, false);
+        }
 
-        return code.toString();
+        Region(String code, FlowElement next, FlowElement[] owners, boolean truncated) {
+            this.code = code;
+            this.next = next;
+            this.owners = owners;
+            this.truncated = truncated;
+        }
     }
 
-    private FlowElement findStartElement(List<FlowElement> elements) {
-        for (FlowElement element : elements) {
-            if (element instanceof StartElement) {
-                return element;
+    // Region being written, with the elements it depends on directly and the owner of each line
+    private final class Builder {
+        final RegionKey key;
+        final StringBuilder out = new StringBuilder();
+        final Set<FlowElement> dependencies = Collections.newSetFromMap(new IdentityHashMap<>());
+        private FlowElement[] owners = new FlowElement[8];
+        private int lineCount;
+        private int scanned;
+        boolean truncated;
+
+        Builder(RegionKey key) {
+            this.key = key;
+        }
+
+        // The lines written to out since the last call belong to owner
+        void owned(FlowElement owner) {
+            for (int i = scanned, n = out.length(); i < n; i++) {
+                if (out.charAt(i) == '\n') {
+                    ensureCapacity(lineCount + 1);
+                    owners[lineCount++] = owner;
+                }
+            }
+            scanned = out.length();
+        }
+
+        void include(Region region) {
+            truncated |= region.truncated;
+            if (!included.add(region)) {
+                if (region.code.length() > budget) {
+                    out.append(indent(key.depth)).append(TOO_LONG);
+                    owned(null);
+                    truncated = true;
+                    return;
+                }
+                budget -= region.code.length();
+            }
+            out.append(region.code);
+            ensureCapacity(lineCount + region.owners.length);
+            System.arraycopy(region.owners, 0, owners, lineCount, region.owners.length);
+            lineCount += region.owners.length;
+            scanned = out.length();
+        }
+
+        FlowElement[] owners() {
+            return Arrays.copyOf(owners, lineCount);
+        }
+
+        private void ensureCapacity(int size) {
+            if (size > owners.length) {
+                owners = Arrays.copyOf(owners, Math.max(size, owners.length * 2));
             }
         }
-        return null;
     }
 
-    private String generateCodeRecursive(FlowElement element, List<FlowElement> elements,
-                                         List<Connection> connections, Map<Integer, Boolean> visited, int depth) {
-        // Avoid cycles
-        if (visited.containsKey(element.getId())) {
-            return "// Ciclo detectado\n";
+    private final FlowGraph graph;
+
+    // Code of each element on its own (statement or condition), without indentation
+    private final Map<FlowElement, String> fragments = new IdentityHashMap<>();
+    private Map<FlowElement, FlowAnalysis.Info> analysis = Collections.emptyMap();
+    private boolean structureChanged = true;
+
+    private final Map<RegionKey, Region> regions = new HashMap<>();
+    private final Map<FlowElement, Set<RegionKey>> regionsByElement = new IdentityHashMap<>();
+    private final Map<RegionKey, Set<RegionKey>> parents = new HashMap<>();
+    private final Set<RegionKey> generating = new HashSet<>();
+    private final Set<RegionKey> truncatedRegions = new HashSet<>();
+    private final Set<FlowElement> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+    private String code;
+    private FlowElement[] lineOwners;
+    // Regions written in the current generation, and chars left for writing them again
+    private final Set<Region> included = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int budget;
+
+    public CodeGenerator(FlowGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * The element's own code changed (e.g. a variable's value) but not its connections
+     */
+    public void invalidateElement(FlowElement element) {
+        fragments.remove(element);
+        dirty.add(element);
+        code = null;
+    }
+
+    /**
+     * The element's own code changed and is already known
+     */
+    public void setFragment(FlowElement element, String fragment) {
+        fragments.put(element, fragment);
+        dirty.add(element);
+        code = null;
+    }
+
+    /**
+     * The element was added or removed, or its connections changed
+     */
+    public void invalidateStructure(FlowElement element) {
+        if (!graph.contains(element)) {
+            fragments.remove(element);
         }
-        visited.put(element.getId(), true);
+        dirty.add(element);
+        code = null;
+        structureChanged = true;
+    }
 
-        // Get code for this element
-        String elementCode = element.generateCode();
+    /**
+     * Drops every cache, e.g. after the whole diagram was replaced
+     */
+    public void reset() {
+        fragments.clear();
+        analysis = Collections.emptyMap();
+        regions.clear();
+        regionsByElement.clear();
+        parents.clear();
+        truncatedRegions.clear();
+        included.clear();
+        dirty.clear();
+        structureChanged = true;
+        code = null;
+    }
 
-        // Find outgoing connections
-        List<Connection> outgoing = findOutgoingConnections(element, connections);
+    public String generateCode() {
+        if (structureChanged) {
+            reanalyze();
+            structureChanged = false;
+        }
+        if (!dirty.isEmpty()) {
+            for (FlowElement element : dirty) {
+                Set<RegionKey> keys = regionsByElement.remove(element);
+                if (keys != null) {
+                    evict(keys);
+                }
+            }
+            dirty.clear();
+            code = null;
+        }
+        if (code != null) {
+            return code;
+        }
 
-        // If this is an end element or there are no outgoing connections, just return the element code
-        if (element instanceof EndElement || outgoing.isEmpty()) {
-            return elementCode;
+        FlowElement start = graph.getStartElement();
+        if (start == null) {
+            code = INCOMPLETE;
+            lineOwners = new FlowElement[1];
+        } else {
+            budget = MAX_REPEATED_CHARS;
+            Region program = run(start, null, 1, null, null);
+            included.clear();
+            code = program.code + PROGRAM_END;
+            // PROGRAM_END adds the closing brace and a last line without a line break
+            lineOwners = Arrays.copyOf(program.owners, program.owners.length + 2);
+            evict(truncatedRegions);
+            truncatedRegions.clear();
         }
+        return code;
+    }
 
-        // For each outgoing connection, recursively generate code
-        StringBuilder result = new StringBuilder(elementCode);
-        for (Connection connection : outgoing) {
-            FlowElement target = connection.getTarget();
-            // Indent based on depth (not perfect for all C constructs but helps readability)
-            String indent = getIndent(depth);
-            result.append(indent);
-            result.append(generateCodeRecursive(target, elements, connections, visited, depth + 1));
+    /**
+     * Source map of the code returned by the last generateCode: the element each line was written
+     * for, or null for lines that belong to no element (braces, break, ...). One entry per line.
+     * The array is not modified afterwards, so it can be handed to another thread
+     */
+    public FlowElement[] getLineOwners() {
+        if (code == null) {
+            generateCode();
         }
+        return lineOwners;
+    }
 
-        return result.toString();
+    // Recomputes the structure and marks every element whose structural info changed
+    private void reanalyze() {
+        Map<FlowElement, FlowAnalysis.Info> previous = analysis;
+        analysis = FlowAnalysis.analyze(graph);
+        for (Map.Entry<FlowElement, FlowAnalysis.Info> entry : analysis.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                dirty.add(entry.getKey());
+            }
+        }
+        for (FlowElement element : previous.keySet()) {
+            if (!analysis.containsKey(element)) {
+                dirty.add(element);
+            }
+        }
     }
 
-    private List<Connection> findOutgoingConnections(FlowElement source, List<Connection> connections) {
-        List<Connection> outgoing = new ArrayList<>();
-        for (Connection connection : connections) {
-            if (connection.getSource().getId() == source.getId()) {
-                outgoing.add(connection);
+    // Drops the regions and, transitively, every region that includes them
+    private void evict(Set<RegionKey> keys) {
+        Deque<RegionKey> work = new ArrayDeque<>(keys);
+        while (!work.isEmpty()) {
+            RegionKey key = work.pop();
+            if (regions.remove(key) == null) {
+                continue;
+            }
+            Set<RegionKey> including = parents.remove(key);
+            if (including != null) {
+                work.addAll(including);
             }
         }
-        return outgoing;
     }
 
-    private String getIndent(int depth) {
-        StringBuilder indent = new StringBuilder();
-        for (int i = 0; i < depth; i++) {
-            indent.append("    ");
+    /**
+     * Code from start up to (not including) stop, indented at depth, inside the given innermost loop
+     */
+    private Region run(FlowElement start, FlowElement stop, int depth, FlowElement loop, Builder parent) {
+        return region(new RegionKey(start, stop, loop, depth, false), parent);
+    }
+
+    private Region region(RegionKey key, Builder parent) {
+        if (parent != null) {
+            Set<RegionKey> including = parents.get(key);
+            if (including == null) {
+                including = new HashSet<>(2);
+                parents.put(key, including);
+            }
+            including.add(parent.key);
+        }
+        Region cached = regions.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (key.depth >= MAX_DEPTH || !generating.add(key)) {
+            // Flow that can't be structured (e.g. a jump into the middle of a loop); not cached
+            return new Region(indent(key.depth) + CYCLE, null, new FlowElement[1]);
+        }
+
+        Builder builder = new Builder(key);
+        FlowElement next;
+        try {
+            next = key.chunk ? emitChunk(builder) : emitRun(builder);
+        } finally {
+            generating.remove(key);
+        }
+
+        builder.owned(null);
+        Region region = new Region(builder.out.toString(), next, builder.owners(), builder.truncated);
+        if (region.truncated) {
+            // Cut short because of what else was generated: reused in this generation, rebuilt in the next
+            truncatedRegions.add(key);
+        }
+        regions.put(key, region);
+        for (FlowElement element : builder.dependencies) {
+            Set<RegionKey> keys = regionsByElement.get(element);
+            if (keys == null) {
+                keys = new HashSet<>(2);
+                regionsByElement.put(element, keys);
+            }
+            keys.add(key);
+        }
+        return region;
+    }
+
+    private FlowElement emitRun(Builder builder) {
+        RegionKey key = builder.key;
+        FlowElement current = key.start;
+        // A loop's exit can lead back to its header when other paths enter the loop; the run would never end
+        Set<FlowElement> chunkStarts = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (current != null && current != key.stop) {
+            if (!chunkStarts.add(current)) {
+                builder.out.append(indent(key.depth)).append(CYCLE);
+                builder.owned(null);
+                return null;
+            }
+            Region chunk = region(new RegionKey(current, key.stop, key.loop, key.depth, true), builder);
+            builder.include(chunk);
+            current = chunk.next;
         }
-        return indent.toString();
+        return null;
+    }
+
+    /**
+     * Writes up to CHUNK_SIZE elements
+     * @return the element the run continues with, or null if the path ended
+     */
+    private FlowElement emitChunk(Builder builder) {
+        RegionKey key = builder.key;
+        FlowElement current = key.start;
+        FlowElement loop = key.loop;
+        int depth = key.depth;
+        StringBuilder out = builder.out;
+        if (loop != null) {
+            builder.dependencies.add(loop);
+        }
+        Set<FlowElement> written = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (current != null && current != key.stop) {
+            if (written.size() == CHUNK_SIZE) {
+                return current;
+            }
+            if (!written.add(current)) {
+                // The exit of a loop leads back into it (other paths enter the loop): stop going round
+                out.append(indent(depth)).append(CYCLE);
+                builder.owned(null);
+                return null;
+            }
+            builder.dependencies.add(current);
+            FlowAnalysis.Info info = analysis.get(current);
+            if (info == null) {
+                return null;
+            }
+            if (loop != null && !inLoop(current, loop, builder)) {
+                // Leaving a while (1) loop: the rest of that path runs here, then break (unless it returned)
+                Region exit = run(current, key.stop, depth, analysis.get(loop).parentLoop, builder);
+                builder.include(exit);
+                if (!exit.code.endsWith(RETURN)) {
+                    out.append(indent(depth)).append("break;\n");
+                    builder.owned(null);
+                }
+                return null;
+            }
+            if (info.header) {
+                if (current == loop) {
+                    out.append(indent(depth)).append("continue;\n");
+                    builder.owned(null);
+                    return null;
+                }
+                if (loop != null && inLoop(loop, current, builder)) {
+                    // Jump back to an outer loop from an inner one
+                    out.append(indent(depth)).append(CYCLE);
+                    builder.owned(null);
+                    return null;
+                }
+                current = emitLoop(current, info, depth, builder);
+            } else {
+                current = emitElement(current, info, key.stop, depth, loop, builder);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return the element the code continues with after the loop, or null
+     */
+    private FlowElement emitLoop(FlowElement header, FlowAnalysis.Info info, int depth, Builder builder) {
+        StringBuilder out = builder.out;
+        if (info.whileBody != null) {
+            out.append(indent(depth)).append("while (");
+            if (info.whileNegated) {
+                out.append("!(").append(fragment(header)).append(')');
+            } else {
+                out.append(fragment(header));
+            }
+            out.append(") {\n");
+            builder.owned(header);
+            builder.include(run(info.whileBody, header, depth + 1, header, builder));
+            out.append(indent(depth)).append("}\n");
+            builder.owned(null);
+            return info.whileExit;
+        }
+
+        // Any other loop: while (1) with the header as the first statement; exits end in break
+        out.append(indent(depth)).append("while (1) {\n");
+        builder.owned(null);
+        FlowElement next = emitElement(header, info, header, depth + 1, header, builder);
+        if (next != null && next != header) {
+            builder.include(run(next, header, depth + 1, header, builder));
+        }
+        out.append(indent(depth)).append("}\n");
+        builder.owned(null);
+        return null;
+    }
+
+    /**
+     * Writes one element (a conditional with both of its branches)
+     * @return the element the code continues with, or null
+     */
+    private FlowElement emitElement(FlowElement element, FlowAnalysis.Info info, FlowElement stop, int depth,
+                                    FlowElement loop, Builder builder) {
+        StringBuilder out = builder.out;
+        if (element instanceof StartElement) {
+            out.append(fragment(element));
+            builder.owned(element);
+            return info.next;
+        }
+        if (element instanceof EndElement) {
+            out.append(indent(depth)).append(RETURN);
+            builder.owned(element);
+            return null;
+        }
+        if (element instanceof ConditionalElement) {
+            FlowElement branchStop = info.merge != null ? info.merge : stop;
+            out.append(indent(depth)).append("if (").append(fragment(element)).append(") {\n");
+            builder.owned(element);
+            if (info.trueTarget != null) {
+                builder.include(run(info.trueTarget, branchStop, depth + 1, loop, builder));
+            }
+            out.append(indent(depth)).append('}');
+            if (info.falseTarget != null && info.falseTarget != branchStop) {
+                out.append(" else {\n");
+                builder.owned(element);
+                builder.include(run(info.falseTarget, branchStop, depth + 1, loop, builder));
+                out.append(indent(depth)).append('}');
+            }
+            out.append('\n');
+            builder.owned(null);
+            return info.merge;
+        }
+        out.append(indent(depth)).append(fragment(element)).append('\n');
+        builder.owned(element);
+        return info.next;
+    }
+
+    // Whether element is inside the loop headed by header (walks the chain of enclosing loops).
+    // The chain is a tree path; the bound only keeps a broken analysis from stalling the worker
+    private boolean inLoop(FlowElement element, FlowElement header, Builder builder) {
+        FlowAnalysis.Info info = analysis.get(element);
+        FlowElement loop = info != null ? info.loop : null;
+        for (int steps = analysis.size(); loop != null && steps >= 0; steps--) {
+            if (loop == header) {
+                return true;
+            }
+            builder.dependencies.add(loop);
+            loop = analysis.get(loop).parentLoop;
+        }
+        return false;
+    }
+
+    private String fragment(FlowElement element) {
+        String fragment = fragments.get(element);
+        if (fragment == null) {
+            fragment = fragmentOf(element);
+            fragments.put(element, fragment);
+        }
+        return fragment;
+    }
+
+    /**
+     * Code of the element on its own (statement or condition), as the generator writes it
+     */
+    public static String fragmentOf(FlowElement element) {
+        if (element instanceof ConditionalElement) {
+            return ((ConditionalElement) element).getCondition();
+        } else if (element instanceof StartElement) {
+            return element.generateCode();
+        }
+        return element.generateCode().trim();
+    }
+
+    private static String indent(int depth) {
+        return INDENTS[Math.min(depth, MAX_DEPTH)];
     }
 }
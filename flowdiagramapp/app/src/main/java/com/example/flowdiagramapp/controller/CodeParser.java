@@ -0,0 +1,246 @@
+package com.example.flowdiagramapp.controller;
+
+/**
+ * Hand-written parser for the C subset the code generator writes. The generator puts one statement
+ * per line, so a line is the unit of parsing: parseLine turns it into a Statement without looking at
+ * any other line, which is what lets DiagramCodeSynchronizer reparse only the lines an edit touched.
+ * Nothing here allocates beyond the Statement and its strings.
+ */
+final class CodeParser {
+
+    enum Kind {
+        BLANK,
+        COMMENT,
+        PREPROCESSOR,
+        // int main() {
+        MAIN,
+        // type name; or type name = value;
+        DECLARATION,
+        // if (condition) {
+        IF,
+        // } else {
+        ELSE,
+        // while (condition) {, possibly while (!(condition)) {
+        WHILE,
+        // }
+        CLOSE,
+        RETURN,
+        BREAK,
+        CONTINUE,
+        OTHER
+    }
+
+    static final class Statement {
+        final Kind kind;
+        // DECLARATION
+        final String type;
+        final String name;
+        final String value;
+        // IF and WHILE; for a negated while, the condition inside !( )
+        final String condition;
+        final boolean negated;
+
+        private Statement(Kind kind, String type, String name, String value, String condition, boolean negated) {
+            this.kind = kind;
+            this.type = type;
+            this.name = name;
+            this.value = value;
+            this.condition = condition;
+            this.negated = negated;
+        }
+
+        static Statement of(Kind kind) {
+            return new Statement(kind, null, null, null, null, false);
+        }
+    }
+
+    private final String line;
+    private int position;
+
+    private CodeParser(String line) {
+        this.line = line;
+    }
+
+    static Statement parseLine(String line) {
+        return new CodeParser(line).statement();
+    }
+
+    private Statement statement() {
+        skipSpaces();
+        if (atEnd()) {
+            return Statement.of(Kind.BLANK);
+        }
+        char c = line.charAt(position);
+        if (c == '#') {
+            return Statement.of(Kind.PREPROCESSOR);
+        }
+        if (c == '/' && position + 1 < line.length()
+                && (line.charAt(position + 1) == '/' || line.charAt(position + 1) == '*')) {
+            return Statement.of(Kind.COMMENT);
+        }
+        if (c == '}') {
+            position++;
+            skipSpaces();
+            if (atEnd()) {
+                return Statement.of(Kind.CLOSE);
+            }
+            return "else".equals(identifier()) && expect('{') && atEndIgnoringSpaces()
+                    ? Statement.of(Kind.ELSE) : Statement.of(Kind.OTHER);
+        }
+
+        String word = identifier();
+        if (word == null) {
+            return Statement.of(Kind.OTHER);
+        }
+        switch (word) {
+            case "if":
+            case "while":
+                return conditional(word.equals("if") ? Kind.IF : Kind.WHILE);
+            case "return":
+                return Statement.of(Kind.RETURN);
+            case "break":
+                return expect(';') ? Statement.of(Kind.BREAK) : Statement.of(Kind.OTHER);
+            case "continue":
+                return expect(';') ? Statement.of(Kind.CONTINUE) : Statement.of(Kind.OTHER);
+            default:
+                return declaration(word);
+        }
+    }
+
+    // The part after if / while: ( condition ) {
+    private Statement conditional(Kind kind) {
+        if (!expect('(')) {
+            return Statement.of(Kind.OTHER);
+        }
+        int start = position;
+        int close = matchingParenthesis(start - 1);
+        if (close < 0) {
+            return Statement.of(Kind.OTHER);
+        }
+        position = close + 1;
+        String condition = line.substring(start, close).trim();
+        boolean negated = false;
+        // while (!(x)) is how the generator writes a loop that runs on the false branch
+        if (kind == Kind.WHILE && condition.startsWith("!(") && condition.endsWith(")")) {
+            int inner = condition.indexOf('(');
+            if (new CodeParser(condition).matchingParenthesis(inner) == condition.length() - 1) {
+                condition = condition.substring(inner + 1, condition.length() - 1).trim();
+                negated = true;
+            }
+        }
+        if (condition.isEmpty()) {
+            return Statement.of(Kind.OTHER);
+        }
+        return new Statement(kind, null, null, null, condition, negated);
+    }
+
+    // Type words followed by a name: unsigned int x = 5; or float y;
+    private Statement declaration(String first) {
+        StringBuilder type = new StringBuilder(first);
+        String name = null;
+        while (true) {
+            skipSpaces();
+            String word = identifier();
+            if (word == null) {
+                break;
+            }
+            if (name != null) {
+                type.append(' ').append(name);
+            }
+            name = word;
+        }
+        if (name == null) {
+            return Statement.of(Kind.OTHER);
+        }
+        skipSpaces();
+        if (name.equals("main") && expect('(')) {
+            return Statement.of(Kind.MAIN);
+        }
+        if (expect(';')) {
+            return new Statement(Kind.DECLARATION, type.toString(), name, "", null, false);
+        }
+        if (!expect('=')) {
+            return Statement.of(Kind.OTHER);
+        }
+        int end = statementEnd();
+        if (end < 0) {
+            return Statement.of(Kind.OTHER);
+        }
+        String value = line.substring(position, end).trim();
+        return new Statement(Kind.DECLARATION, type.toString(), name, value, null, false);
+    }
+
+    private String identifier() {
+        int start = position;
+        if (atEnd() || !(Character.isLetter(line.charAt(position)) || line.charAt(position) == '_')) {
+            return null;
+        }
+        while (!atEnd() && (Character.isLetterOrDigit(line.charAt(position)) || line.charAt(position) == '_')) {
+            position++;
+        }
+        return line.substring(start, position);
+    }
+
+    private boolean expect(char c) {
+        skipSpaces();
+        if (!atEnd() && line.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    // Index of the ) closing the ( at open, skipping strings; -1 if it is not on this line
+    private int matchingParenthesis(int open) {
+        int depth = 0;
+        for (int i = open; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipQuoted(i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the ; ending the statement, skipping strings; -1 if there is none
+    private int statementEnd() {
+        for (int i = position; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipQuoted(i);
+            } else if (c == ';') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Index of the closing quote (or the end of the line)
+    private int skipQuoted(int open) {
+        char quote = line.charAt(open);
+        int i = open + 1;
+        while (i < line.length() && line.charAt(i) != quote) {
+            i += line.charAt(i) == '\\' ? 2 : 1;
+        }
+        return i;
+    }
+
+    private void skipSpaces() {
+        while (!atEnd() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+    }
+
+    private boolean atEndIgnoringSpaces() {
+        skipSpaces();
+        return atEnd();
+    }
+
+    private boolean atEnd() {
+        return position >= line.length();
+    }
+}
@@ -1,25 +1,236 @@
 package com.example.flowdiagramapp.controller;
 
 import com.example.flowdiagramapp.model.ConditionalElement;
-import com.example.flowdiagramapp.model.Connection;
 import com.example.flowdiagramapp.model.EndElement;
 import com.example.flowdiagramapp.model.FlowElement;
 import com.example.flowdiagramapp.model.StartElement;
 import com.example.flowdiagramapp.model.VariableElement;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class synchronizes changes between the diagram and code.
  * It can update diagram elements based on code changes and vice versa.
+ *
+ * It keeps the program as last generated, one entry per line, together with the element each line
+ * was written for (the generator's source map). A new program is only stored when it arrives; it is
+ * split into lines on the first lookup or edit after it, so a program the user never edits is never
+ * split on the UI thread. Lines are parsed lazily with CodeParser, so an edit only parses the lines it
+ * touches and only updates the elements those lines belong to: once the program is split, the cost
+ * of an edit does not depend on the size of the program.
  */
 public class DiagramCodeSynchronizer {
     private DiagramController diagramController;
 
+    // Program text and the element each line belongs to (null for braces, break, ...)
+    private final List<String> lines = new ArrayList<>();
+    private final List<FlowElement> owners = new ArrayList<>();
+    // Parsed on first use; null until then
+    private final List<CodeParser.Statement> statements = new ArrayList<>();
+
+    // Program generated since the last split, or null
+    private String generatedCode;
+    private FlowElement[] generatedOwners;
+
     public DiagramCodeSynchronizer(DiagramController diagramController) {
         this.diagramController = diagramController;
+        diagramController.setSynchronizer(this);
+    }
+
+    /**
+     * Takes the program just generated; any edit applied before is superseded by it
+     */
+    void onCodeGenerated(String code, FlowElement[] lineOwners) {
+        generatedCode = code;
+        generatedOwners = lineOwners;
+    }
+
+    /**
+     * Forgets the program, e.g. when the diagram is cleared
+     */
+    void reset() {
+        generatedCode = null;
+        generatedOwners = null;
+        lines.clear();
+        owners.clear();
+        statements.clear();
+    }
+
+    private void splitGeneratedCode() {
+        if (generatedCode == null) {
+            return;
+        }
+        String code = generatedCode;
+        lines.clear();
+        owners.clear();
+        statements.clear();
+        int start = 0;
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) == '\n') {
+                lines.add(code.substring(start, i));
+                start = i + 1;
+            }
+        }
+        lines.add(code.substring(start));
+        Collections.addAll(owners, generatedOwners);
+        // The source map always has one entry per line; pad defensively so the lists stay in step
+        while (owners.size() < lines.size()) {
+            owners.add(null);
+        }
+        statements.addAll(Collections.nCopies(lines.size(), null));
+        generatedCode = null;
+        generatedOwners = null;
+    }
+
+    public int getLineCount() {
+        splitGeneratedCode();
+        return lines.size();
+    }
+
+    /**
+     * Element the given line of code was generated for, or null
+     */
+    public FlowElement getElementAtLine(int line) {
+        splitGeneratedCode();
+        return line >= 0 && line < owners.size() ? owners.get(line) : null;
+    }
+
+    /**
+     * Text of the given line of code, without the line break, or null
+     */
+    public String getLineText(int line) {
+        splitGeneratedCode();
+        return line >= 0 && line < lines.size() ? lines.get(line) : null;
+    }
+
+    /**
+     * Applies an edit made to the code: lines firstLine to firstLine + removedLineCount - 1 are replaced
+     * by the lines of replacement, or just removed if it is null. Only the new lines are parsed. Each element
+     * that owned one of the replaced lines is matched, in order, with the next new line of a kind it can
+     * take (a declaration for a variable, an if or while for a conditional) and updated from it; the code
+     * is then regenerated in the background. Lines that match no element stay as typed until then.
+     * @return the number of elements that changed
+     */
+    public int applyEdit(int firstLine, int removedLineCount, String replacement) {
+        splitGeneratedCode();
+        if (firstLine < 0 || removedLineCount < 0 || firstLine + removedLineCount > lines.size()) {
+            throw new IllegalArgumentException("Edit outside the code: line " + firstLine + ", "
+                    + removedLineCount + " lines of " + lines.size());
+        }
+
+        List<String> newLines = new ArrayList<>();
+        if (replacement != null) {
+            int start = 0;
+            for (int i = 0; i < replacement.length(); i++) {
+                if (replacement.charAt(i) == '\n') {
+                    newLines.add(replacement.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            newLines.add(replacement.substring(start));
+        }
+        List<CodeParser.Statement> newStatements = new ArrayList<>(newLines.size());
+        List<FlowElement> newOwners = new ArrayList<>(newLines.size());
+        for (String line : newLines) {
+            newStatements.add(CodeParser.parseLine(line));
+            newOwners.add(null);
+        }
+
+        // Match the elements of the replaced lines with the new lines, in order
+        List<FlowElement> changed = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < removedLineCount; i++) {
+            int line = firstLine + i;
+            FlowElement owner = owners.get(line);
+            CodeParser.Statement old = statement(line);
+            if (owner == null || !fits(owner, old)) {
+                // Braces and the like: keep the owner if the same kind of line is still there
+                if (i < newLines.size() && newStatements.get(i).kind == old.kind && newOwners.get(i) == null) {
+                    newOwners.set(i, owner);
+                }
+                continue;
+            }
+            int match = next;
+            while (match < newStatements.size() && !fits(owner, newStatements.get(match))) {
+                match++;
+            }
+            if (match == newStatements.size()) {
+                continue;
+            }
+            next = match + 1;
+            newOwners.set(match, owner);
+            if (diagramController.contains(owner) && apply(owner, old, newStatements.get(match)) && !changed.contains(owner)) {
+                changed.add(owner);
+            }
+        }
+
+        // Splice the edit in; the lists only shift, nothing else is parsed
+        List<String> lineRange = lines.subList(firstLine, firstLine + removedLineCount);
+        lineRange.clear();
+        lineRange.addAll(newLines);
+        List<FlowElement> ownerRange = owners.subList(firstLine, firstLine + removedLineCount);
+        ownerRange.clear();
+        ownerRange.addAll(newOwners);
+        List<CodeParser.Statement> statementRange = statements.subList(firstLine, firstLine + removedLineCount);
+        statementRange.clear();
+        statementRange.addAll(newStatements);
+
+        // Redraw diagram and regenerate code; the code comes back from the worker, input is not blocked
+        for (FlowElement element : changed) {
+            diagramController.updateElement(element);
+        }
+        return changed.size();
+    }
+
+    private CodeParser.Statement statement(int line) {
+        CodeParser.Statement statement = statements.get(line);
+        if (statement == null) {
+            statement = CodeParser.parseLine(lines.get(line));
+            statements.set(line, statement);
+        }
+        return statement;
+    }
+
+    private static boolean fits(FlowElement element, CodeParser.Statement statement) {
+        if (element instanceof VariableElement) {
+            return statement.kind == CodeParser.Kind.DECLARATION;
+        } else if (element instanceof ConditionalElement) {
+            return statement.kind == CodeParser.Kind.IF || statement.kind == CodeParser.Kind.WHILE;
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the element changed
+     */
+    private static boolean apply(FlowElement element, CodeParser.Statement old, CodeParser.Statement statement) {
+        if (element instanceof VariableElement) {
+            VariableElement variable = (VariableElement) element;
+            if (statement.type.equals(variable.getVarType()) && statement.name.equals(variable.getVarName())
+                    && statement.value.equals(variable.getVarValue())) {
+                return false;
+            }
+            variable.setVarType(statement.type);
+            variable.setVarName(statement.name);
+            variable.setVarValue(statement.value);
+            return true;
+        }
+
+        ConditionalElement conditional = (ConditionalElement) element;
+        String condition = statement.condition;
+        // A loop on the false branch is written while (!(c)); the element keeps c
+        boolean oldNegated = old.kind == CodeParser.Kind.WHILE && old.negated;
+        boolean newNegated = statement.kind == CodeParser.Kind.WHILE && statement.negated;
+        if (oldNegated != newNegated) {
+            condition = "!(" + condition + ")";
+        }
+        if (condition.equals(conditional.getCondition())) {
+            return false;
+        }
+        conditional.setCondition(condition);
+        return true;
     }
 
     /**
@@ -34,36 +245,27 @@ public class DiagramCodeSynchronizer {
             updateConditionalFromCode((ConditionalElement) element, codeFragment);
         }
 
-        // Redraw diagram and regenerate code
-        diagramController.notifyElementMoved(element);
+        // Redraw diagram and regenerate code; the code comes back from the worker, input is not blocked
+        diagramController.updateElement(element);
     }
 
     private void updateVariableFromCode(VariableElement variable, String code) {
         // Parse variable declaration
         // Example: "int x = 10;"
-        Pattern pattern = Pattern.compile("(\\w+)\\s+(\\w+)\\s*=?\\s*([^;]*);");
-        Matcher matcher = pattern.matcher(code.trim());
-
-        if (matcher.find()) {
-            String type = matcher.group(1);
-            String name = matcher.group(2);
-            String value = matcher.group(3).trim();
-
-            variable.setVarType(type);
-            variable.setVarName(name);
-            variable.setVarValue(value);
+        CodeParser.Statement statement = firstStatement(code, CodeParser.Kind.DECLARATION, null);
+        if (statement != null) {
+            variable.setVarType(statement.type);
+            variable.setVarName(statement.name);
+            variable.setVarValue(statement.value);
         }
     }
 
     private void updateConditionalFromCode(ConditionalElement conditional, String code) {
         // Parse conditional statement
         // Example: "if (x > 5) {"
-        Pattern pattern = Pattern.compile("if\\s*\\(([^)]+)\\)");
-        Matcher matcher = pattern.matcher(code);
-
-        if (matcher.find()) {
-            String condition = matcher.group(1).trim();
-            conditional.setCondition(condition);
+        CodeParser.Statement statement = firstStatement(code, CodeParser.Kind.IF, null);
+        if (statement != null) {
+            conditional.setCondition(statement.condition);
         }
     }
 
@@ -75,34 +277,41 @@ public class DiagramCodeSynchronizer {
      * @return The created element or null if code type not recognized
      */
     public FlowElement createElementFromCode(String codeFragment, float x, float y) {
-        String trimmedCode = codeFragment.trim();
-
-        if (trimmedCode.contains("#include") && trimmedCode.contains("main()")) {
+        if (firstStatement(codeFragment, CodeParser.Kind.PREPROCESSOR, null) != null
+                && firstStatement(codeFragment, CodeParser.Kind.MAIN, null) != null) {
             // Start element
             return new StartElement(-1, x, y);
-        } else if (trimmedCode.contains("return 0;") && trimmedCode.contains("}")) {
+        } else if (firstStatement(codeFragment, CodeParser.Kind.RETURN, null) != null
+                && firstStatement(codeFragment, CodeParser.Kind.CLOSE, null) != null) {
             // End element
             return new EndElement(-1, x, y);
-        } else if (trimmedCode.contains("if") && trimmedCode.contains("(")) {
+        }
+
+        CodeParser.Statement statement = firstStatement(codeFragment, CodeParser.Kind.IF, CodeParser.Kind.DECLARATION);
+        if (statement == null) {
+            return null; // Code type not recognized
+        } else if (statement.kind == CodeParser.Kind.IF) {
             // Conditional element
-            Pattern pattern = Pattern.compile("if\\s*\\(([^)]+)\\)");
-            Matcher matcher = pattern.matcher(trimmedCode);
-            if (matcher.find()) {
-                String condition = matcher.group(1).trim();
-                return new ConditionalElement(-1, x, y, condition);
+            return new ConditionalElement(-1, x, y, statement.condition);
+        }
+        // Variable element
+        return new VariableElement(-1, x, y, statement.type, statement.name, statement.value);
+    }
+
+    // First line of the fragment of either kind, or null
+    private static CodeParser.Statement firstStatement(String code, CodeParser.Kind kind, CodeParser.Kind other) {
+        int start = 0;
+        while (start <= code.length()) {
+            int end = code.indexOf('\n', start);
+            if (end < 0) {
+                end = code.length();
             }
-        } else {
-            // Try to parse variable
-            Pattern pattern = Pattern.compile("(\\w+)\\s+(\\w+)\\s*=?\\s*([^;]*);");
-            Matcher matcher = pattern.matcher(trimmedCode);
-            if (matcher.find()) {
-                String type = matcher.group(1);
-                String name = matcher.group(2);
-                String value = matcher.group(3).trim();
-                return new VariableElement(-1, x, y, type, name, value);
+            CodeParser.Statement statement = CodeParser.parseLine(code.substring(start, end));
+            if (statement.kind == kind || statement.kind == other) {
+                return statement;
             }
+            start = end + 1;
         }
-
-        return null; // Code type not recognized
+        return null;
     }
-}
\ No newline at end of file
+}
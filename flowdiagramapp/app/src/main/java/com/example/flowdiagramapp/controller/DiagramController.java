@@ -1,5 +1,8 @@
 package com.example.flowdiagramapp.controller;
 
+import android.graphics.RectF;
+
+import com.example.flowdiagramapp.index.QuadTree;
 import com.example.flowdiagramapp.model.ConditionalElement;
 import com.example.flowdiagramapp.model.Connection;
 import com.example.flowdiagramapp.model.EndElement;
@@ -10,7 +13,10 @@ import com.example.flowdiagramapp.view.CodeView;
 import com.example.flowdiagramapp.view.FlowDiagramView;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public class DiagramController {
     private List<FlowElement> elements;
@@ -18,15 +24,24 @@ public class DiagramController {
     private int nextElementId = 0;
     private int nextConnectionId = 0;
 
+    // Spatial index used for hit-testing; kept up to date as elements move
+    private final QuadTree<FlowElement> elementIndex = new QuadTree<>();
+    private final FlowElement.BoundsListener reindexOnMove = this::indexElement;
+
+    // Outgoing/incoming connections per element; the code worker keeps a mirror of its own
+    private final FlowGraph graph = new FlowGraph();
+
     private FlowElement selectedElement;
     private FlowDiagramView diagramView;
     private CodeView codeView;
-    private CodeGenerator codeGenerator;
+    private DiagramCodeSynchronizer synchronizer;
+    private final CodeGenerationWorker codeWorker;
 
     public DiagramController() {
         elements = new ArrayList<>();
         connections = new ArrayList<>();
-        codeGenerator = new CodeGenerator();
+        codeWorker = new CodeGenerationWorker();
+        codeWorker.setListener(this::onCodeGenerated);
     }
 
     public void setViews(FlowDiagramView diagramView, CodeView codeView) {
@@ -35,6 +50,17 @@ public class DiagramController {
         diagramView.setController(this);
     }
 
+    void setSynchronizer(DiagramCodeSynchronizer synchronizer) {
+        this.synchronizer = synchronizer;
+    }
+
+    /**
+     * Stops background code generation; call when the views go away
+     */
+    public void release() {
+        codeWorker.release();
+    }
+
     public void addElement(String type, float x, float y) {
         FlowElement newElement = null;
 
@@ -54,7 +80,7 @@ public class DiagramController {
         }
 
         if (newElement != null) {
-            elements.add(newElement);
+            addToDiagram(newElement);
             updateCode();
             if (diagramView != null) {
                 diagramView.invalidate();
@@ -64,7 +90,7 @@ public class DiagramController {
 
     public void addConnection(FlowElement source, FlowElement target) {
         Connection connection = new Connection(nextConnectionId++, source, target);
-        connections.add(connection);
+        addConnectionToDiagram(connection);
         updateCode();
         if (diagramView != null) {
             diagramView.invalidate();
@@ -72,16 +98,17 @@ public class DiagramController {
     }
 
     public void removeElement(FlowElement element) {
-        // First remove all connections to/from this element
-        List<Connection> connectionsToRemove = new ArrayList<>();
-        for (Connection connection : connections) {
-            if (connection.getSource() == element || connection.getTarget() == element) {
-                connectionsToRemove.add(connection);
-            }
+        // First remove all connections to/from this element (found through the adjacency index)
+        List<Connection> connectionsToRemove = graph.removeElement(element);
+        if (!connectionsToRemove.isEmpty()) {
+            Set<Connection> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            removed.addAll(connectionsToRemove);
+            connections.removeAll(removed);
         }
-
-        connections.removeAll(connectionsToRemove);
+        codeWorker.elementRemoved(element, connectionsToRemove);
         elements.remove(element);
+        elementIndex.remove(element);
+        element.setBoundsListener(null);
 
         if (selectedElement == element) {
             selectedElement = null;
@@ -102,6 +129,7 @@ public class DiagramController {
             // Update conditional properties
         }
 
+        codeWorker.elementChanged(element);
         updateCode();
         if (diagramView != null) {
             diagramView.invalidate();
@@ -116,6 +144,32 @@ public class DiagramController {
         }
     }
 
+    /**
+     * Topmost element under the given point, or null
+     */
+    public FlowElement findElementAt(float x, float y) {
+        return elementIndex.findTopmost(x, y, element -> element.contains(x, y));
+    }
+
+    private void addToDiagram(FlowElement element) {
+        elements.add(element);
+        graph.addElement(element);
+        codeWorker.elementAdded(element);
+        element.setBoundsListener(reindexOnMove);
+        indexElement(element);
+    }
+
+    private void addConnectionToDiagram(Connection connection) {
+        connections.add(connection);
+        graph.addConnection(connection);
+        codeWorker.connectionAdded(connection);
+    }
+
+    private void indexElement(FlowElement element) {
+        RectF bounds = element.getBounds();
+        elementIndex.put(element, bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
     public List<FlowElement> getElements() {
         return elements;
     }
@@ -133,18 +187,48 @@ public class DiagramController {
         return selectedElement;
     }
 
+    // The code reaches the CodeView asynchronously, once the burst of edits is over
     private void updateCode() {
+        if (codeView != null || synchronizer != null) {
+            codeWorker.requestCode();
+        }
+    }
+
+    private void onCodeGenerated(String code, FlowElement[] lineOwners) {
         if (codeView != null) {
-            String generatedCode = codeGenerator.generateCode(elements, connections);
-            codeView.setCode(generatedCode);
+            codeView.setCode(code);
+        }
+        if (synchronizer != null) {
+            synchronizer.onCodeGenerated(code, lineOwners);
+        }
+    }
+
+    boolean contains(FlowElement element) {
+        return graph.contains(element);
+    }
+
+    /**
+     * Removes every element and connection, keeping the indexes in sync
+     */
+    public void clear() {
+        for (FlowElement element : elements) {
+            element.setBoundsListener(null);
+        }
+        elements.clear();
+        connections.clear();
+        elementIndex.clear();
+        graph.clear();
+        codeWorker.cleared();
+        if (synchronizer != null) {
+            synchronizer.reset();
         }
+        selectedElement = null;
     }
 
     // Method to create a sample diagram for testing
     public void createSampleDiagram() {
         // Clear existing elements and connections
-        elements.clear();
-        connections.clear();
+        clear();
         nextElementId = 0;
         nextConnectionId = 0;
 
@@ -155,15 +239,15 @@ public class DiagramController {
         EndElement end = new EndElement(nextElementId++, 200, 400);
 
         // Add elements
-        elements.add(start);
-        elements.add(var);
-        elements.add(cond);
-        elements.add(end);
+        addToDiagram(start);
+        addToDiagram(var);
+        addToDiagram(cond);
+        addToDiagram(end);
 
         // Connect them
-        connections.add(new Connection(nextConnectionId++, start, var));
-        connections.add(new Connection(nextConnectionId++, var, cond));
-        connections.add(new Connection(nextConnectionId++, cond, end));
+        addConnectionToDiagram(new Connection(nextConnectionId++, start, var));
+        addConnectionToDiagram(new Connection(nextConnectionId++, var, cond));
+        addConnectionToDiagram(new Connection(nextConnectionId++, cond, end));
 
         // Update the view and code
         updateCode();
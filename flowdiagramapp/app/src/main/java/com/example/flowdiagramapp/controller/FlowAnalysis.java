@@ -0,0 +1,373 @@
+package com.example.flowdiagramapp.controller;
+
+import com.example.flowdiagramapp.model.ConditionalElement;
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.FlowElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Control-flow structure of the diagram, computed in O(V + E) from the FlowGraph:
+ * branch targets, the merge point of each conditional (its immediate post-dominator),
+ * loops (targets of DFS back edges and their natural loop bodies) and which loops
+ * can be written as while (cond).
+ */
+final class FlowAnalysis {
+
+    /**
+     * What the code generator needs to know about one element. Compared field by field so
+     * the generator can tell which elements were affected by a structural edit
+     */
+    static final class Info {
+        // First successor, for elements that are not conditionals
+        FlowElement next;
+        FlowElement trueTarget;
+        FlowElement falseTarget;
+        // Where the two branches of a conditional meet again; null if they never do
+        FlowElement merge;
+        // Target of a back edge, i.e. the head of a loop
+        boolean header;
+        // Innermost loop containing the element (a header is its own innermost loop)
+        FlowElement loop;
+        // For headers: innermost loop containing this one. Parents always come later in the
+        // loop order (see assignLoops), so following them always ends
+        FlowElement parentLoop;
+        // For headers that can be written as while (cond): the branch inside the loop and the exit
+        FlowElement whileBody;
+        FlowElement whileExit;
+        boolean whileNegated;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Info)) return false;
+            Info other = (Info) o;
+            return next == other.next && trueTarget == other.trueTarget && falseTarget == other.falseTarget
+                    && merge == other.merge && header == other.header && loop == other.loop
+                    && parentLoop == other.parentLoop && whileBody == other.whileBody
+                    && whileExit == other.whileExit && whileNegated == other.whileNegated;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(next) * 31 + System.identityHashCode(merge);
+        }
+    }
+
+    private final FlowGraph graph;
+
+    // Elements reachable from the start, numbered in discovery order
+    private final List<FlowElement> nodes = new ArrayList<>();
+    private final Map<FlowElement, Integer> ids = new IdentityHashMap<>();
+    private final List<int[]> successors = new ArrayList<>();
+
+    private FlowAnalysis(FlowGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @return info for every element reachable from the start element; empty if there is none
+     */
+    static Map<FlowElement, Info> analyze(FlowGraph graph) {
+        return new FlowAnalysis(graph).run();
+    }
+
+    private Map<FlowElement, Info> run() {
+        Map<FlowElement, Info> result = new IdentityHashMap<>();
+        FlowElement start = graph.getStartElement();
+        if (start == null) {
+            return result;
+        }
+
+        List<int[]> backEdges = depthFirstSearch(start);
+        int n = nodes.size();
+        Info[] infos = new Info[n];
+        for (int i = 0; i < n; i++) {
+            infos[i] = new Info();
+            result.put(nodes.get(i), infos[i]);
+        }
+
+        assignBranches(infos);
+        assignMerges(infos);
+        assignLoops(infos, backEdges);
+        return result;
+    }
+
+    // Iterative DFS from the start; numbers the reachable elements and returns the back edges (u, header)
+    private List<int[]> depthFirstSearch(FlowElement start) {
+        List<int[]> backEdges = new ArrayList<>();
+        discover(start);
+        boolean[] onStack = new boolean[16];
+        int[] cursor = new int[16];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+        onStack[0] = true;
+        while (!stack.isEmpty()) {
+            int u = stack.peek();
+            int[] next = successors.get(u);
+            if (cursor[u] == next.length) {
+                stack.pop();
+                onStack[u] = false;
+                continue;
+            }
+            FlowElement target = graph.getOutgoing(nodes.get(u)).get(cursor[u]).getTarget();
+            cursor[u]++;
+            Integer v = ids.get(target);
+            if (v == null) {
+                v = discover(target);
+                if (v >= onStack.length) {
+                    onStack = Arrays.copyOf(onStack, onStack.length * 2);
+                    cursor = Arrays.copyOf(cursor, cursor.length * 2);
+                }
+                onStack[v] = true;
+                stack.push(v);
+            } else if (onStack[v]) {
+                backEdges.add(new int[] {u, v});
+            }
+        }
+
+        // Successor ids can only be resolved once every reachable element has one
+        for (int u = 0; u < nodes.size(); u++) {
+            List<Connection> out = graph.getOutgoing(nodes.get(u));
+            int[] next = successors.get(u);
+            for (int i = 0; i < next.length; i++) {
+                next[i] = ids.get(out.get(i).getTarget());
+            }
+        }
+        return backEdges;
+    }
+
+    private int discover(FlowElement element) {
+        int id = nodes.size();
+        nodes.add(element);
+        ids.put(element, id);
+        successors.add(new int[graph.getOutgoing(element).size()]);
+        return id;
+    }
+
+    // Conditionals take labelled branches first (si/true, no/false), then unlabelled ones in order
+    private void assignBranches(Info[] infos) {
+        for (int u = 0; u < infos.length; u++) {
+            FlowElement element = nodes.get(u);
+            List<Connection> out = graph.getOutgoing(element);
+            if (!(element instanceof ConditionalElement)) {
+                infos[u].next = out.isEmpty() ? null : out.get(0).getTarget();
+                continue;
+            }
+            Info info = infos[u];
+            List<FlowElement> unlabelled = new ArrayList<>(2);
+            for (Connection connection : out) {
+                String label = connection.getLabel() == null ? "" : connection.getLabel().trim().toLowerCase(Locale.ROOT);
+                if (info.trueTarget == null && (label.equals("si") || label.equals("sí") || label.equals("true"))) {
+                    info.trueTarget = connection.getTarget();
+                } else if (info.falseTarget == null && (label.equals("no") || label.equals("false"))) {
+                    info.falseTarget = connection.getTarget();
+                } else {
+                    unlabelled.add(connection.getTarget());
+                }
+            }
+            for (FlowElement target : unlabelled) {
+                if (info.trueTarget == null) {
+                    info.trueTarget = target;
+                } else if (info.falseTarget == null) {
+                    info.falseTarget = target;
+                }
+            }
+        }
+    }
+
+    /**
+     * Immediate post-dominators (Cooper, Harvey and Kennedy's iterative algorithm) over the reversed
+     * graph, with a virtual exit after every element that has no successors
+     */
+    private void assignMerges(Info[] infos) {
+        int n = nodes.size();
+        int exit = n;
+
+        // Predecessors of each element, restricted to reachable ones
+        List<List<Integer>> predecessors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            predecessors.add(new ArrayList<>(2));
+        }
+        List<Integer> sinks = new ArrayList<>();
+        for (int u = 0; u < n; u++) {
+            int[] next = successors.get(u);
+            if (next.length == 0) {
+                sinks.add(u);
+            }
+            for (int v : next) {
+                predecessors.get(v).add(u);
+            }
+        }
+
+        // Post-order of the reversed graph starting at the exit
+        int[] postOrder = new int[n + 1];
+        Arrays.fill(postOrder, -1);
+        int[] order = new int[n + 1];
+        int count = 0;
+        boolean[] seen = new boolean[n + 1];
+        int[] cursor = new int[n + 1];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(exit);
+        seen[exit] = true;
+        while (!stack.isEmpty()) {
+            int v = stack.peek();
+            List<Integer> reversed = v == exit ? sinks : predecessors.get(v);
+            if (cursor[v] < reversed.size()) {
+                int w = reversed.get(cursor[v]++);
+                if (!seen[w]) {
+                    seen[w] = true;
+                    stack.push(w);
+                }
+            } else {
+                stack.pop();
+                postOrder[v] = count;
+                order[count++] = v;
+            }
+        }
+
+        int[] idom = new int[n + 1];
+        Arrays.fill(idom, -1);
+        idom[exit] = exit;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = count - 2; i >= 0; i--) {
+                int b = order[i];
+                int newIdom = -1;
+                int[] next = successors.get(b);
+                if (next.length == 0) {
+                    newIdom = exit;
+                }
+                for (int s : next) {
+                    if (idom[s] == -1) {
+                        continue;
+                    }
+                    newIdom = newIdom == -1 ? s : intersect(s, newIdom, idom, postOrder);
+                }
+                if (newIdom != idom[b]) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+
+        for (int u = 0; u < n; u++) {
+            if (nodes.get(u) instanceof ConditionalElement && idom[u] >= 0 && idom[u] != exit) {
+                infos[u].merge = nodes.get(idom[u]);
+            }
+        }
+    }
+
+    private static int intersect(int a, int b, int[] idom, int[] postOrder) {
+        while (a != b) {
+            while (postOrder[a] < postOrder[b]) {
+                a = idom[a];
+            }
+            while (postOrder[b] < postOrder[a]) {
+                b = idom[b];
+            }
+        }
+        return a;
+    }
+
+    private void assignLoops(Info[] infos, List<int[]> backEdges) {
+        if (backEdges.isEmpty()) {
+            return;
+        }
+
+        // Natural loop of each header: the header plus everything that reaches a back edge without passing it
+        Map<Integer, Set<Integer>> bodies = new HashMap<>();
+        List<Integer> headers = new ArrayList<>();
+        for (int[] edge : backEdges) {
+            int header = edge[1];
+            Set<Integer> body = bodies.get(header);
+            if (body == null) {
+                body = new HashSet<>();
+                body.add(header);
+                bodies.put(header, body);
+                headers.add(header);
+            }
+            Deque<Integer> work = new ArrayDeque<>();
+            if (body.add(edge[0])) {
+                work.push(edge[0]);
+            }
+            while (!work.isEmpty()) {
+                int x = work.pop();
+                for (Connection connection : graph.getIncoming(nodes.get(x))) {
+                    Integer p = ids.get(connection.getSource());
+                    if (p != null && body.add(p)) {
+                        work.push(p);
+                    }
+                }
+            }
+        }
+
+        // Smallest loops first, so each element keeps its innermost loop. Loops of equal size go
+        // latest-discovered first: an enclosing header is reached before the loops inside it.
+        // This is a strict order, and a loop's parent is the first loop after it that contains its
+        // header, so the parents form a tree even when two bodies contain each other's headers
+        // (possible once elements other than conditionals have several outgoing connections)
+        List<Integer> bySize = new ArrayList<>(headers);
+        Collections.sort(bySize, (a, b) -> {
+            int bySizeOrder = Integer.compare(bodies.get(a).size(), bodies.get(b).size());
+            return bySizeOrder != 0 ? bySizeOrder : Integer.compare(b, a);
+        });
+        for (int header : bySize) {
+            infos[header].header = true;
+            for (int x : bodies.get(header)) {
+                if (infos[x].loop == null) {
+                    infos[x].loop = nodes.get(header);
+                }
+            }
+        }
+        for (int i = 0; i < bySize.size(); i++) {
+            int header = bySize.get(i);
+            for (int j = i + 1; j < bySize.size(); j++) {
+                int other = bySize.get(j);
+                if (bodies.get(other).contains(header)) {
+                    infos[header].parentLoop = nodes.get(other);
+                    break;
+                }
+            }
+            assignWhileForm(header, infos[header], bodies.get(header));
+        }
+    }
+
+    // while (cond) only fits if exactly one branch stays in the loop and nothing else leaves it
+    private void assignWhileForm(int header, Info info, Set<Integer> body) {
+        if (!(nodes.get(header) instanceof ConditionalElement)
+                || info.trueTarget == null || info.falseTarget == null) {
+            return;
+        }
+        boolean trueInside = body.contains(ids.get(info.trueTarget));
+        boolean falseInside = body.contains(ids.get(info.falseTarget));
+        if (trueInside == falseInside) {
+            return;
+        }
+        for (int x : body) {
+            if (x == header) {
+                continue;
+            }
+            for (int next : successors.get(x)) {
+                if (!body.contains(next)) {
+                    return;
+                }
+            }
+        }
+        info.whileBody = trueInside ? info.trueTarget : info.falseTarget;
+        info.whileExit = trueInside ? info.falseTarget : info.trueTarget;
+        info.whileNegated = !trueInside;
+    }
+}
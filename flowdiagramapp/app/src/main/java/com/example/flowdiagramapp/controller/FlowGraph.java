@@ -0,0 +1,110 @@
+package com.example.flowdiagramapp.controller;
+
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.FlowElement;
+import com.example.flowdiagramapp.model.StartElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adjacency index of the diagram: outgoing and incoming connections per element, so the controller
+ * and the code generator can follow the graph without scanning every connection.
+ * Outgoing connections keep the order they were added in. Not thread-safe.
+ */
+public class FlowGraph {
+    private final Map<FlowElement, List<Connection>> outgoing = new IdentityHashMap<>();
+    private final Map<FlowElement, List<Connection>> incoming = new IdentityHashMap<>();
+    private final List<FlowElement> startElements = new ArrayList<>(1);
+
+    public void addElement(FlowElement element) {
+        if (outgoing.containsKey(element)) {
+            return;
+        }
+        outgoing.put(element, new ArrayList<>(2));
+        incoming.put(element, new ArrayList<>(2));
+        if (element instanceof StartElement) {
+            startElements.add(element);
+        }
+    }
+
+    /**
+     * Removes the element together with every connection to or from it
+     * @return the connections that were removed
+     */
+    public List<Connection> removeElement(FlowElement element) {
+        List<Connection> out = outgoing.remove(element);
+        List<Connection> in = incoming.remove(element);
+        startElements.remove(element);
+        if (out == null) {
+            return Collections.emptyList();
+        }
+
+        List<Connection> removed = new ArrayList<>(out.size() + in.size());
+        for (Connection connection : out) {
+            List<Connection> targetIncoming = incoming.get(connection.getTarget());
+            if (targetIncoming != null) {
+                targetIncoming.remove(connection);
+            }
+            removed.add(connection);
+        }
+        for (Connection connection : in) {
+            List<Connection> sourceOutgoing = outgoing.get(connection.getSource());
+            if (sourceOutgoing != null) {
+                sourceOutgoing.remove(connection);
+            }
+            if (connection.getSource() != element) {
+                removed.add(connection);
+            }
+        }
+        return removed;
+    }
+
+    public void addConnection(Connection connection) {
+        addElement(connection.getSource());
+        addElement(connection.getTarget());
+        outgoing.get(connection.getSource()).add(connection);
+        incoming.get(connection.getTarget()).add(connection);
+    }
+
+    public void removeConnection(Connection connection) {
+        List<Connection> out = outgoing.get(connection.getSource());
+        if (out != null) {
+            out.remove(connection);
+        }
+        List<Connection> in = incoming.get(connection.getTarget());
+        if (in != null) {
+            in.remove(connection);
+        }
+    }
+
+    public List<Connection> getOutgoing(FlowElement element) {
+        List<Connection> out = outgoing.get(element);
+        return out != null ? Collections.unmodifiableList(out) : Collections.emptyList();
+    }
+
+    public List<Connection> getIncoming(FlowElement element) {
+        List<Connection> in = incoming.get(element);
+        return in != null ? Collections.unmodifiableList(in) : Collections.emptyList();
+    }
+
+    /**
+     * First start element added to the diagram, or null
+     */
+    public FlowElement getStartElement() {
+        return startElements.isEmpty() ? null : startElements.get(0);
+    }
+
+    public boolean contains(FlowElement element) {
+        return outgoing.containsKey(element);
+    }
+
+    public void clear() {
+        outgoing.clear();
+        incoming.clear();
+        startElements.clear();
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.flowdiagramapp.index;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Spatial index of axis-aligned boxes (MX-CIF quadtree).
+ * Each item lives in the smallest quadrant that fully contains its box, so a point query only walks
+ * the path from the root to the leaf under the point: O(log n) for similarly sized items like diagram elements.
+ * Moving an item only relocates it when its box leaves its quadrant.
+ * Insertion order doubles as drawing order, so the item drawn on top is the one returned.
+ * Not thread-safe; no Android dependencies.
+ */
+public final class QuadTree<T> {
+    // Items per quadrant before it is split
+    private static final int SPLIT_THRESHOLD = 8;
+    private static final int MAX_DEPTH = 16;
+    private static final float INITIAL_HALF_SIZE = 4096f;
+
+    private static final class Entry<T> {
+        final T item;
+        final long order;
+        float left, top, right, bottom;
+        Quad<T> quad;
+        int slot;
+
+        Entry(T item, long order) {
+            this.item = item;
+            this.order = order;
+        }
+
+        boolean contains(float x, float y) {
+            return x >= left && x <= right && y >= top && y <= bottom;
+        }
+
+        boolean intersects(float l, float t, float r, float b) {
+            return left <= r && right >= l && top <= b && bottom >= t;
+        }
+    }
+
+    private static final class Quad<T> {
+        final float left, top, right, bottom;
+        final float centerX, centerY;
+        final int depth;
+        final List<Entry<T>> entries = new ArrayList<>(4);
+        Quad<T>[] children;
+
+        Quad(float left, float top, float right, float bottom, int depth) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.centerX = (left + right) / 2;
+            this.centerY = (top + bottom) / 2;
+            this.depth = depth;
+        }
+
+        boolean encloses(float l, float t, float r, float b) {
+            return l >= left && r <= right && t >= top && b <= bottom;
+        }
+
+        // Child that fully contains the box, or -1 if it straddles the centre
+        int childFor(float l, float t, float r, float b) {
+            boolean west = r < centerX;
+            boolean east = l >= centerX;
+            boolean north = b < centerY;
+            boolean south = t >= centerY;
+            if (north) {
+                return west ? 0 : east ? 1 : -1;
+            } else if (south) {
+                return west ? 2 : east ? 3 : -1;
+            }
+            return -1;
+        }
+
+        void split() {
+            @SuppressWarnings("unchecked")
+            Quad<T>[] quads = (Quad<T>[]) new Quad<?>[4];
+            quads[0] = new Quad<>(left, top, centerX, centerY, depth + 1);
+            quads[1] = new Quad<>(centerX, top, right, centerY, depth + 1);
+            quads[2] = new Quad<>(left, centerY, centerX, bottom, depth + 1);
+            quads[3] = new Quad<>(centerX, centerY, right, bottom, depth + 1);
+            children = quads;
+        }
+    }
+
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private Quad<T> root = new Quad<>(-INITIAL_HALF_SIZE, -INITIAL_HALF_SIZE,
+            INITIAL_HALF_SIZE, INITIAL_HALF_SIZE, 0);
+    private long nextOrder;
+
+    /**
+     * Adds the item, or updates its box if it is already indexed
+     * @throws IllegalArgumentException if any coordinate is NaN or infinite
+     */
+    public void put(T item, float left, float top, float right, float bottom) {
+        if (!Float.isFinite(left) || !Float.isFinite(top) || !Float.isFinite(right) || !Float.isFinite(bottom)) {
+            throw new IllegalArgumentException("Non-finite box: " + left + ", " + top + ", " + right + ", " + bottom);
+        }
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            entry = new Entry<>(item, nextOrder++);
+            entries.put(item, entry);
+        } else {
+            // Still fits its quadrant and would not move down to a child: just update the box
+            Quad<T> quad = entry.quad;
+            if (quad.encloses(left, top, right, bottom)
+                    && (quad.children == null || quad.childFor(left, top, right, bottom) < 0)) {
+                setBox(entry, left, top, right, bottom);
+                return;
+            }
+            detach(entry);
+        }
+        setBox(entry, left, top, right, bottom);
+        if (!root.encloses(left, top, right, bottom)) {
+            grow(left, top, right, bottom);
+        }
+        place(root, entry);
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        detach(entry);
+        return true;
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        root = new Quad<>(-INITIAL_HALF_SIZE, -INITIAL_HALF_SIZE, INITIAL_HALF_SIZE, INITIAL_HALF_SIZE, 0);
+        nextOrder = 0;
+    }
+
+    /**
+     * Most recently inserted item (the one drawn on top) whose box contains the point
+     * and that passes the filter, or null
+     * @param accept exact test against the real shape; null accepts any box hit
+     */
+    public T findTopmost(float x, float y, Predicate<T> accept) {
+        Entry<T> best = null;
+        Quad<T> quad = root;
+        while (quad != null) {
+            List<Entry<T>> list = quad.entries;
+            for (int i = 0, n = list.size(); i < n; i++) {
+                Entry<T> entry = list.get(i);
+                if ((best == null || entry.order > best.order) && entry.contains(x, y)
+                        && (accept == null || accept.test(entry.item))) {
+                    best = entry;
+                }
+            }
+            if (quad.children == null) {
+                break;
+            }
+            quad = quad.children[(x < quad.centerX ? 0 : 1) + (y < quad.centerY ? 0 : 2)];
+        }
+        return best != null ? best.item : null;
+    }
+
+    /**
+     * Adds to out every item whose box intersects the rectangle, in no particular order
+     */
+    public void query(float left, float top, float right, float bottom, List<T> out) {
+        query(root, left, top, right, bottom, out);
+    }
+
+    private void query(Quad<T> quad, float left, float top, float right, float bottom, List<T> out) {
+        if (quad.left > right || quad.right < left || quad.top > bottom || quad.bottom < top) {
+            return;
+        }
+        List<Entry<T>> list = quad.entries;
+        for (int i = 0, n = list.size(); i < n; i++) {
+            Entry<T> entry = list.get(i);
+            if (entry.intersects(left, top, right, bottom)) {
+                out.add(entry.item);
+            }
+        }
+        if (quad.children != null) {
+            for (Quad<T> child : quad.children) {
+                query(child, left, top, right, bottom, out);
+            }
+        }
+    }
+
+    private void place(Quad<T> quad, Entry<T> entry) {
+        while (true) {
+            if (quad.children == null) {
+                if (quad.entries.size() < SPLIT_THRESHOLD || quad.depth >= MAX_DEPTH) {
+                    attach(quad, entry);
+                    return;
+                }
+                splitAndRedistribute(quad);
+            }
+            int child = quad.childFor(entry.left, entry.top, entry.right, entry.bottom);
+            if (child < 0) {
+                attach(quad, entry);
+                return;
+            }
+            quad = quad.children[child];
+        }
+    }
+
+    private void splitAndRedistribute(Quad<T> quad) {
+        quad.split();
+        List<Entry<T>> old = new ArrayList<>(quad.entries);
+        quad.entries.clear();
+        for (Entry<T> entry : old) {
+            int child = quad.childFor(entry.left, entry.top, entry.right, entry.bottom);
+            attach(child < 0 ? quad : quad.children[child], entry);
+        }
+    }
+
+    // Doubles the root until it covers the box and reinserts everything (rare)
+    private void grow(float left, float top, float right, float bottom) {
+        float half = (root.right - root.left) / 2;
+        float needed = Math.max(Math.max(Math.abs(left), Math.abs(right)), Math.max(Math.abs(top), Math.abs(bottom)));
+        while (half < needed) {
+            // Capped at Float.MAX_VALUE so the root stays centred on 0
+            half = Math.min(half * 2, Float.MAX_VALUE);
+        }
+        root = new Quad<>(-half, -half, half, half, 0);
+        for (Entry<T> entry : entries.values()) {
+            if (entry.quad != null) {
+                entry.quad = null;
+                place(root, entry);
+            }
+        }
+    }
+
+    private void attach(Quad<T> quad, Entry<T> entry) {
+        entry.quad = quad;
+        entry.slot = quad.entries.size();
+        quad.entries.add(entry);
+    }
+
+    // O(1) removal: the quadrant's last entry takes the freed slot
+    private void detach(Entry<T> entry) {
+        Quad<T> quad = entry.quad;
+        if (quad == null) {
+            return;
+        }
+        List<Entry<T>> list = quad.entries;
+        Entry<T> last = list.remove(list.size() - 1);
+        if (last != entry) {
+            list.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+        entry.quad = null;
+    }
+
+    private static <T> void setBox(Entry<T> entry, float left, float top, float right, float bottom) {
+        entry.left = left;
+        entry.top = top;
+        entry.right = right;
+        entry.bottom = bottom;
+    }
+}
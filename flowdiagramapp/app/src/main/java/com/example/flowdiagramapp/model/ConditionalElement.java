@@ -54,6 +54,10 @@ public class ConditionalElement extends FlowElement {
                 "    }\n";
     }
 
+    public String getCondition() {
+        return condition;
+    }
+
     public void setCondition(String condition) {
         this.condition = condition;
         this.label = condition;
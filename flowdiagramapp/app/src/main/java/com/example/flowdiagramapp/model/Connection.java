@@ -99,6 +99,10 @@ public class Connection {
         this.label = label;
     }
 
+    public String getLabel() {
+        return label;
+    }
+
     public int getId() {
         return id;
     }
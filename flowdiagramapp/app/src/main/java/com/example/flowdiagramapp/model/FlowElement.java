@@ -9,6 +9,14 @@ public abstract class FlowElement {
     protected PointF position;
     protected RectF bounds;
     protected String label;
+    protected BoundsListener boundsListener;
+
+    /**
+     * Notified when an element's bounds change (used by the controller's spatial index)
+     */
+    public interface BoundsListener {
+        void onBoundsChanged(FlowElement element);
+    }
 
     public FlowElement(int id, float x, float y, String label) {
         this.id = id;
@@ -30,6 +38,9 @@ public abstract class FlowElement {
         position.x += dx;
         position.y += dy;
         updateBounds();
+        if (boundsListener != null) {
+            boundsListener.onBoundsChanged(this);
+        }
     }
 
     public int getId() {
@@ -51,5 +62,9 @@ public abstract class FlowElement {
     public PointF getPosition() {
         return position;
     }
+
+    public void setBoundsListener(BoundsListener boundsListener) {
+        this.boundsListener = boundsListener;
+    }
 }
 
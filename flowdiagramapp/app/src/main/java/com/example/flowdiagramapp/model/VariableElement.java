@@ -50,6 +50,18 @@ public class VariableElement extends FlowElement {
                 (varValue.isEmpty() ? ";" : " = " + varValue + ";") + "\n";
     }
 
+    public String getVarType() {
+        return varType;
+    }
+
+    public String getVarName() {
+        return varName;
+    }
+
+    public String getVarValue() {
+        return varValue;
+    }
+
     public void setVarType(String varType) {
         this.varType = varType;
         updateLabel();
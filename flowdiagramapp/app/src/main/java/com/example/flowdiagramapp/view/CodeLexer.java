@@ -0,0 +1,193 @@
+package com.example.flowdiagramapp.view;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits C source into highlighted spans in a single pass, so CodeView can draw a line
+ * without looking at its text again.
+ *
+ * Spans never cross a line break (block comments and unterminated strings are cut per line), and
+ * consecutive spans of the same kind on a line are merged, whitespace included, so a typical line is
+ * only a few draw calls. Leading indentation is not part of any span; positions are char offsets,
+ * which CodeView turns into columns.
+ */
+final class CodeLexer {
+    static final int PLAIN = 0;
+    static final int KEYWORD = 1;
+    static final int TYPE = 2;
+    static final int PREPROCESSOR = 3;
+    static final int NUMBER = 4;
+    static final int STRING = 5;
+    static final int COMMENT = 6;
+    static final int KIND_COUNT = 7;
+
+    private static final Map<String, Integer> WORDS = new HashMap<>();
+
+    static {
+        for (String keyword : new String[] {"if", "else", "while", "for", "do", "switch", "case", "default",
+                "break", "continue", "return", "goto", "sizeof"}) {
+            WORDS.put(keyword, KEYWORD);
+        }
+        for (String type : new String[] {"int", "float", "double", "char", "void", "long", "short", "unsigned",
+                "signed", "const", "bool", "struct", "static", "enum", "typedef"}) {
+            WORDS.put(type, TYPE);
+        }
+    }
+
+    /**
+     * Lines and spans of one piece of code. Span i of line l is in
+     * [lineFirstSpan[l], lineFirstSpan[l + 1])
+     */
+    static final class Result {
+        final char[] text;
+        int lineCount;
+        int[] lineStarts = new int[64];
+        int[] lineFirstSpan = new int[65];
+        int spanCount;
+        int[] spanStarts = new int[256];
+        int[] spanEnds = new int[256];
+        byte[] spanKinds = new byte[256];
+        // Length of the longest line, in chars
+        int maxLineLength;
+
+        Result(char[] text) {
+            this.text = text;
+        }
+    }
+
+    private CodeLexer() {
+    }
+
+    static Result tokenize(String code) {
+        char[] text = code.toCharArray();
+        Result result = new Result(text);
+        int length = text.length;
+        boolean inBlockComment = false;
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && text[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            startLine(result, lineStart, lineEnd);
+            inBlockComment = tokenizeLine(result, text, lineStart, lineEnd, inBlockComment);
+            lineStart = lineEnd + 1;
+        }
+        result.lineFirstSpan[result.lineCount] = result.spanCount;
+        return result;
+    }
+
+    private static void startLine(Result result, int start, int end) {
+        int line = result.lineCount++;
+        if (line + 1 >= result.lineStarts.length) {
+            result.lineStarts = Arrays.copyOf(result.lineStarts, result.lineStarts.length * 2);
+            result.lineFirstSpan = Arrays.copyOf(result.lineFirstSpan, result.lineStarts.length + 1);
+        }
+        result.lineStarts[line] = start;
+        result.lineFirstSpan[line] = result.spanCount;
+        result.maxLineLength = Math.max(result.maxLineLength, end - start);
+    }
+
+    /**
+     * @return whether a block comment is still open at the end of the line
+     */
+    private static boolean tokenizeLine(Result result, char[] text, int start, int end, boolean inBlockComment) {
+        int i = start;
+        if (inBlockComment) {
+            int close = findCommentEnd(text, i, end);
+            addSpan(result, i, close < 0 ? end : close, COMMENT);
+            if (close < 0) {
+                return true;
+            }
+            i = close;
+        }
+
+        while (i < end) {
+            char c = text[i];
+            if (c == ' ' || c == '\t' || c == '\r') {
+                i++;
+            } else if (c == '#' && isLineBlankBefore(text, start, i)) {
+                addSpan(result, i, end, PREPROCESSOR);
+                i = end;
+            } else if (c == '/' && i + 1 < end && text[i + 1] == '/') {
+                addSpan(result, i, end, COMMENT);
+                i = end;
+            } else if (c == '/' && i + 1 < end && text[i + 1] == '*') {
+                int close = findCommentEnd(text, i + 2, end);
+                addSpan(result, i, close < 0 ? end : close, COMMENT);
+                if (close < 0) {
+                    return true;
+                }
+                i = close;
+            } else if (c == '"' || c == '\'') {
+                int j = i + 1;
+                while (j < end && text[j] != c) {
+                    j += text[j] == '\\' ? 2 : 1;
+                }
+                j = Math.min(j + 1, end);
+                addSpan(result, i, j, STRING);
+                i = j;
+            } else if (Character.isDigit(c)) {
+                int j = i + 1;
+                while (j < end && (Character.isLetterOrDigit(text[j]) || text[j] == '.' || text[j] == '_')) {
+                    j++;
+                }
+                addSpan(result, i, j, NUMBER);
+                i = j;
+            } else if (Character.isLetter(c) || c == '_') {
+                int j = i + 1;
+                while (j < end && (Character.isLetterOrDigit(text[j]) || text[j] == '_')) {
+                    j++;
+                }
+                Integer kind = j - i <= 8 ? WORDS.get(new String(text, i, j - i)) : null;
+                addSpan(result, i, j, kind != null ? kind : PLAIN);
+                i = j;
+            } else {
+                addSpan(result, i, i + 1, PLAIN);
+                i++;
+            }
+        }
+        return false;
+    }
+
+    // Offset just past the closing */, or -1 if the comment goes on after this line
+    private static int findCommentEnd(char[] text, int from, int end) {
+        for (int i = from; i + 1 < end; i++) {
+            if (text[i] == '*' && text[i + 1] == '/') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLineBlankBefore(char[] text, int lineStart, int index) {
+        for (int i = lineStart; i < index; i++) {
+            if (text[i] != ' ' && text[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addSpan(Result result, int start, int end, int kind) {
+        int count = result.spanCount;
+        int line = result.lineCount - 1;
+        // Same kind as the previous span on this line: extend it over the gap
+        if (count > result.lineFirstSpan[line] && result.spanKinds[count - 1] == kind) {
+            result.spanEnds[count - 1] = end;
+            return;
+        }
+        if (count == result.spanStarts.length) {
+            int capacity = count * 2;
+            result.spanStarts = Arrays.copyOf(result.spanStarts, capacity);
+            result.spanEnds = Arrays.copyOf(result.spanEnds, capacity);
+            result.spanKinds = Arrays.copyOf(result.spanKinds, capacity);
+        }
+        result.spanStarts[count] = start;
+        result.spanEnds[count] = end;
+        result.spanKinds[count] = (byte) kind;
+        result.spanCount = count + 1;
+    }
+}
@@ -7,18 +7,50 @@ import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
 import android.view.View;
+import android.widget.OverScroller;
 
+/**
+ * Code surface with line numbers and syntax highlighting. The text is not edited in place: tapping a
+ * line hands it to the OnLineClickListener, which edits it and lets the diagram regenerate the code.
+ *
+ * The code is tokenised once per setCode (see CodeLexer); drawing only walks the spans of the lines
+ * inside the viewport, so the cost of a frame does not depend on the length of the program.
+ * The font is monospace, so line metrics are a fixed line height and char width measured once,
+ * and a span's position follows from its offset in the line. Scrolls in both directions with
+ * drag and fling; the line-number gutter stays in place.
+ */
 public class CodeView extends View {
+    public interface OnLineClickListener {
+        /**
+         * @param line zero-based line number
+         * @param text the line as shown, without the line break
+         */
+        void onLineClick(int line, String text);
+    }
+
     private String code = "";
+    private CodeLexer.Result lines;
     private Paint textPaint;
     private Paint backgroundPaint;
     private Paint linePaint;
+    private final Paint[] spanPaints = new Paint[CodeLexer.KIND_COUNT];
     private float lineHeight = 40f;
+    private float charWidth;
+    private float gutterWidth;
     private float paddingLeft = 40f;
     private float paddingTop = 20f;
     private float textSize = 24f;
 
+    // Digits of the line number being drawn
+    private final char[] lineNumber = new char[10];
+
+    private GestureDetector gestureDetector;
+    private OverScroller scroller;
+    private OnLineClickListener lineClickListener;
+
     public CodeView(Context context) {
         super(context);
         init();
@@ -42,61 +74,199 @@ public class CodeView extends View {
         linePaint = new Paint();
         linePaint.setColor(Color.LTGRAY);
         linePaint.setStrokeWidth(1f);
+
+        spanPaints[CodeLexer.PLAIN] = spanPaint(Color.BLACK);
+        spanPaints[CodeLexer.KEYWORD] = spanPaint(Color.rgb(0, 100, 0)); // Green for control keywords
+        spanPaints[CodeLexer.TYPE] = spanPaint(Color.rgb(0, 0, 200)); // Blue for types
+        spanPaints[CodeLexer.PREPROCESSOR] = spanPaint(Color.rgb(128, 0, 128)); // Purple for preprocessor
+        spanPaints[CodeLexer.NUMBER] = spanPaint(Color.rgb(0, 110, 140));
+        spanPaints[CodeLexer.STRING] = spanPaint(Color.rgb(163, 21, 21));
+        spanPaints[CodeLexer.COMMENT] = spanPaint(Color.GRAY);
+
+        // Line metrics, measured once: the font is monospace
+        Rect bounds = new Rect();
+        textPaint.getTextBounds("Ty", 0, 2, bounds);
+        lineHeight = bounds.height() * 1.5f;
+        charWidth = textPaint.measureText("M");
+        textPaint.setColor(Color.GRAY);
+
+        scroller = new OverScroller(getContext());
+        gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                scrollBy((int) distanceX, (int) distanceY);
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                return clickLine(e.getY());
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                scroller.fling(getScrollX(), getScrollY(), (int) -velocityX, (int) -velocityY,
+                        0, getMaxScrollX(), 0, getMaxScrollY());
+                postInvalidateOnAnimation();
+                return true;
+            }
+        });
+        updateGutter();
+    }
+
+    private Paint spanPaint(int color) {
+        Paint paint = new Paint(textPaint);
+        paint.setColor(color);
+        return paint;
+    }
+
+    public void setOnLineClickListener(OnLineClickListener listener) {
+        this.lineClickListener = listener;
+    }
+
+    private boolean clickLine(float y) {
+        if (lineClickListener == null || lines == null) {
+            return false;
+        }
+        float contentY = y + getScrollY() - paddingTop;
+        int line = (int) (contentY / lineHeight);
+        if (contentY < 0 || line >= lines.lineCount) {
+            return false;
+        }
+        int start = lines.lineStarts[line];
+        int end = start;
+        while (end < lines.text.length && lines.text[end] != '\n') {
+            end++;
+        }
+        lineClickListener.onLineClick(line, new String(lines.text, start, end - start));
+        return true;
     }
 
     public void setCode(String code) {
+        // Generation is coalesced, but identical results still arrive (e.g. a no-op edit)
+        if (code != null && code.equals(this.code)) {
+            return;
+        }
         this.code = code;
+        lines = code == null || code.isEmpty() ? null : CodeLexer.tokenize(code);
+        updateGutter();
+        // Keep the scroll position if it is still inside the new code
+        scrollTo(getScrollX(), getScrollY());
         invalidate();
     }
 
+    // The gutter grows with the number of digits of the last line number
+    private void updateGutter() {
+        int digits = lines == null ? 1 : digitCount(lines.lineCount);
+        gutterWidth = Math.max(paddingLeft, 10 + digits * charWidth + 15);
+    }
+
+    @Override
+    public void scrollTo(int x, int y) {
+        super.scrollTo(Math.max(0, Math.min(x, getMaxScrollX())), Math.max(0, Math.min(y, getMaxScrollY())));
+    }
+
+    private int getMaxScrollX() {
+        float contentWidth = lines == null ? 0 : gutterWidth + lines.maxLineLength * charWidth + charWidth;
+        return Math.max(0, (int) Math.ceil(contentWidth - getWidth()));
+    }
+
+    private int getMaxScrollY() {
+        float contentHeight = lines == null ? 0 : paddingTop * 2 + lines.lineCount * lineHeight;
+        return Math.max(0, (int) Math.ceil(contentHeight - getHeight()));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        scrollTo(getScrollX(), getScrollY());
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(scroller.getCurrX(), scroller.getCurrY());
+            postInvalidateOnAnimation();
+        }
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
+        // The canvas is already translated by the scroll offset
+        int left = getScrollX();
+        int top = getScrollY();
+        int right = left + getWidth();
+        int bottom = top + getHeight();
+
         // Draw background
-        canvas.drawRect(0, 0, getWidth(), getHeight(), backgroundPaint);
+        canvas.drawRect(left, top, right, bottom, backgroundPaint);
 
-        if (code == null || code.isEmpty()) {
+        if (lines == null) {
             return;
         }
 
-        // Split code into lines
-        String[] lines = code.split("\n");
+        // Only the lines inside the viewport
+        int first = Math.max(0, (int) ((top - paddingTop) / lineHeight));
+        int last = Math.min(lines.lineCount - 1, (int) ((bottom - paddingTop) / lineHeight));
 
-        // Calculate line height based on text metrics
-        Rect bounds = new Rect();
-        textPaint.getTextBounds("Ty", 0, 2, bounds);
-        float actualLineHeight = bounds.height() * 1.5f;
-
-        // Draw code with line numbers
-        float y = paddingTop + actualLineHeight;
-        for (int i = 0; i < lines.length; i++) {
-            // Draw line number
-            String lineNumber = String.valueOf(i + 1);
-            textPaint.setColor(Color.GRAY);
-            canvas.drawText(lineNumber, 10, y, textPaint);
-
-            // Draw line separator
-            canvas.drawLine(paddingLeft - 15, 0, paddingLeft - 15, getHeight(), linePaint);
-
-            // Draw actual code with syntax highlighting
-            textPaint.setColor(Color.BLACK);
-            String line = lines[i];
-
-            // Basic syntax highlighting
-            if (line.contains("#include") || line.contains("#define")) {
-                textPaint.setColor(Color.rgb(128, 0, 128)); // Purple for preprocessor
-            } else if (line.contains("int ") || line.contains("float ")
-                    || line.contains("double ") || line.contains("char ")) {
-                textPaint.setColor(Color.rgb(0, 0, 200)); // Blue for types
-            } else if (line.contains("if") || line.contains("else")
-                    || line.contains("while") || line.contains("for")
-                    || line.contains("return")) {
-                textPaint.setColor(Color.rgb(0, 100, 0)); // Green for control keywords
+        float textLeft = gutterWidth;
+        char[] text = lines.text;
+        for (int line = first; line <= last; line++) {
+            float y = paddingTop + (line + 1) * lineHeight;
+            int lineStart = lines.lineStarts[line];
+            for (int s = lines.lineFirstSpan[line], end = lines.lineFirstSpan[line + 1]; s < end; s++) {
+                int spanStart = lines.spanStarts[s];
+                int spanEnd = lines.spanEnds[s];
+                float x = textLeft + (spanStart - lineStart) * charWidth;
+                if (x > right) {
+                    break;
+                }
+                if (x + (spanEnd - spanStart) * charWidth < left) {
+                    continue;
+                }
+                canvas.drawText(text, spanStart, spanEnd - spanStart, x, y, spanPaints[lines.spanKinds[s]]);
             }
+        }
+
+        // Gutter on top of the code, so it stays put while scrolling sideways
+        canvas.drawRect(left, top, left + gutterWidth - 15, bottom, backgroundPaint);
+        canvas.drawLine(left + gutterWidth - 15, top, left + gutterWidth - 15, bottom, linePaint);
+        for (int line = first; line <= last; line++) {
+            float y = paddingTop + (line + 1) * lineHeight;
+            int digits = formatLineNumber(line + 1);
+            canvas.drawText(lineNumber, lineNumber.length - digits, digits, left + 10, y, textPaint);
+        }
+    }
+
+    // Writes the number right-aligned into lineNumber without allocating
+    private int formatLineNumber(int number) {
+        int i = lineNumber.length;
+        do {
+            lineNumber[--i] = (char) ('0' + number % 10);
+            number /= 10;
+        } while (number > 0);
+        return lineNumber.length - i;
+    }
 
-            canvas.drawText(line, paddingLeft, y, textPaint);
-            y += actualLineHeight;
+    private static int digitCount(int number) {
+        int digits = 1;
+        while (number >= 10) {
+            number /= 10;
+            digits++;
         }
+        return digits;
     }
-}
\ No newline at end of file
+}
@@ -13,7 +13,6 @@ import com.example.flowdiagramapp.model.Connection;
 import com.example.flowdiagramapp.model.FlowElement;
 
 import java.util.ArrayList;
-import java.util.List;
 
 public class FlowDiagramView extends View {
     private DiagramController controller;
@@ -141,15 +140,8 @@ public class FlowDiagramView extends View {
     private FlowElement findElementAt(float x, float y) {
         if (controller == null) return null;
 
-        // Check in reverse order (top elements first)
-        List<FlowElement> elements = controller.getElements();
-        for (int i = elements.size() - 1; i >= 0; i--) {
-            FlowElement element = elements.get(i);
-            if (element.contains(x, y)) {
-                return element;
-            }
-        }
-        return null;
+        // Spatial index lookup; returns the top element when several overlap
+        return controller.findElementAt(x, y);
     }
 
     public void addElement(String type, float x, float y) {
@@ -0,0 +1,111 @@
+package com.example.flowdiagramapp.controller;
+
+import com.example.flowdiagramapp.model.ConditionalElement;
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.FlowElement;
+import com.example.flowdiagramapp.model.StartElement;
+import com.example.flowdiagramapp.model.VariableElement;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Diagrams that can't be written as structured code must still generate, and in bounded time:
+ * the controller accepts any connection, including several outgoing ones from elements that are
+ * not conditionals
+ */
+public class CodeGeneratorTest {
+    private final FlowGraph graph = new FlowGraph();
+    private int nextConnectionId;
+
+    @Test(timeout = 5000)
+    public void loopsThatContainEachOtherGenerate() {
+        FlowElement start = add(new StartElement(0, 0, 0));
+        FlowElement a = add(variable(1));
+        FlowElement b = add(variable(2));
+        FlowElement c = add(new ConditionalElement(3, 0, 0, "x > 0"));
+        FlowElement d = add(variable(4));
+        connect(a, b);
+        connect(d, c);
+        connect(c, a);
+        connect(c, d);
+        connect(b, d);
+        connect(start, b);
+        connect(b, a);
+        connect(a, c);
+
+        Map<FlowElement, FlowAnalysis.Info> analysis = FlowAnalysis.analyze(graph);
+        for (FlowAnalysis.Info info : analysis.values()) {
+            int steps = 0;
+            for (FlowElement loop = info.parentLoop; loop != null; loop = analysis.get(loop).parentLoop) {
+                assertTrue("Loop parents form a cycle", ++steps <= analysis.size());
+            }
+        }
+        assertTrue(new CodeGenerator(graph).generateCode().contains("int v2 = 0;"));
+    }
+
+    @Test(timeout = 5000)
+    public void loopExitLeadingBackIntoLoopGenerates() {
+        FlowElement start = add(new StartElement(0, 0, 0));
+        FlowElement[] e = new FlowElement[8];
+        e[0] = start;
+        for (int i = 1; i < e.length; i++) {
+            e[i] = add(i == 2 || i == 5 ? variable(i) : new ConditionalElement(i, 0, 0, "c" + i));
+        }
+        int[][] edges = {{1, 4}, {0, 7}, {5, 4}, {4, 7}, {1, 7}, {4, 3}, {3, 4}, {7, 3}, {5, 3}, {3, 5},
+                {5, 1}, {4, 3}, {0, 5}, {1, 4}, {5, 3}, {7, 5}, {1, 2}};
+        for (int[] edge : edges) {
+            connect(e[edge[0]], e[edge[1]]);
+        }
+
+        String code = new CodeGenerator(graph).generateCode();
+        assertTrue(code.length() < 10_000);
+    }
+
+    @Test(timeout = 5000)
+    public void duplicatedTailsAreCutShort() {
+        // Each conditional's branches go on to the next one, but also straight to the end, so no
+        // branch ever merges and every conditional doubles the code after it
+        int count = 30;
+        FlowElement start = add(new StartElement(0, 0, 0));
+        FlowElement[] conditionals = new FlowElement[count];
+        FlowElement[] yes = new FlowElement[count];
+        FlowElement[] no = new FlowElement[count];
+        for (int i = 0; i < count; i++) {
+            conditionals[i] = add(new ConditionalElement(3 * i + 1, 0, 0, "c" + i));
+            yes[i] = add(variable(3 * i + 2));
+            no[i] = add(variable(3 * i + 3));
+        }
+        FlowElement end = add(variable(3 * count + 1));
+        connect(start, conditionals[0]);
+        for (int i = 0; i < count; i++) {
+            FlowElement next = i + 1 < count ? conditionals[i + 1] : end;
+            connect(conditionals[i], yes[i]);
+            connect(conditionals[i], no[i]);
+            connect(yes[i], next);
+            connect(yes[i], end);
+            connect(no[i], next);
+            connect(no[i], end);
+        }
+
+        String code = new CodeGenerator(graph).generateCode();
+        assertTrue(code.contains("demasiado largo"));
+        assertTrue(code.length() < 1 << 25);
+    }
+
+    private FlowElement add(FlowElement element) {
+        graph.addElement(element);
+        return element;
+    }
+
+    private void connect(FlowElement source, FlowElement target) {
+        graph.addConnection(new Connection(nextConnectionId++, source, target));
+    }
+
+    private static VariableElement variable(int id) {
+        return new VariableElement(id, 0, 0, "int", "v" + id, "0");
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.flowdiagramapp.controller;
+
+import com.example.flowdiagramapp.model.ConditionalElement;
+import com.example.flowdiagramapp.model.Connection;
+import com.example.flowdiagramapp.model.FlowElement;
+import com.example.flowdiagramapp.model.VariableElement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives edits of the generated code through the synchronizer to the diagram.
+ * The program is generated here the same way CodeGenerationWorker does, from a mirror of the diagram
+ */
+public class DiagramCodeSynchronizerTest {
+    private DiagramController controller;
+    private DiagramCodeSynchronizer synchronizer;
+    private VariableElement variable;
+    private ConditionalElement conditional;
+
+    @Before
+    public void setUp() {
+        controller = new DiagramController();
+        synchronizer = new DiagramCodeSynchronizer(controller);
+        controller.createSampleDiagram();
+        for (FlowElement element : controller.getElements()) {
+            if (element instanceof VariableElement) {
+                variable = (VariableElement) element;
+            } else if (element instanceof ConditionalElement) {
+                conditional = (ConditionalElement) element;
+            }
+        }
+        generate();
+    }
+
+    @After
+    public void tearDown() {
+        controller.release();
+    }
+
+    @Test
+    public void editedDeclarationUpdatesVariable() {
+        int line = lineOf(variable);
+
+        assertEquals(1, synchronizer.applyEdit(line, 1, "float y = 2.5;"));
+        assertEquals("float", variable.getVarType());
+        assertEquals("y", variable.getVarName());
+        assertEquals("2.5", variable.getVarValue());
+        assertSame(variable, synchronizer.getElementAtLine(line));
+    }
+
+    @Test
+    public void editedConditionUpdatesConditional() {
+        int line = lineOf(conditional);
+
+        assertEquals(1, synchronizer.applyEdit(line, 1, "if (x < 3) {"));
+        assertEquals("x < 3", conditional.getCondition());
+    }
+
+    @Test
+    public void unchangedOrForeignLineChangesNothing() {
+        int line = lineOf(variable);
+
+        assertEquals(0, synchronizer.applyEdit(line, 1, "int x = 10;"));
+        assertEquals(0, synchronizer.applyEdit(line, 1, "// comentario"));
+        assertEquals("x", variable.getVarName());
+    }
+
+    @Test
+    public void lineTextFollowsTheEdit() {
+        int line = lineOf(variable);
+        assertEquals("int x = 10;", synchronizer.getLineText(line).trim());
+
+        synchronizer.applyEdit(line, 1, "int y = 10;");
+
+        assertEquals("int y = 10;", synchronizer.getLineText(line));
+        assertNull(synchronizer.getLineText(synchronizer.getLineCount()));
+    }
+
+    @Test
+    public void clearForgetsTheProgram() {
+        assertTrue(synchronizer.getLineCount() > 0);
+
+        controller.clear();
+
+        assertEquals(0, synchronizer.getLineCount());
+        assertNull(synchronizer.getElementAtLine(0));
+    }
+
+    private void generate() {
+        FlowGraph graph = new FlowGraph();
+        for (FlowElement element : controller.getElements()) {
+            graph.addElement(element);
+        }
+        for (Connection connection : controller.getConnections()) {
+            graph.addConnection(connection);
+        }
+        CodeGenerator generator = new CodeGenerator(graph);
+        String code = generator.generateCode();
+        synchronizer.onCodeGenerated(code, generator.getLineOwners());
+    }
+
+    private int lineOf(FlowElement element) {
+        for (int line = 0; line < synchronizer.getLineCount(); line++) {
+            if (synchronizer.getElementAtLine(line) == element) {
+                return line;
+            }
+        }
+        fail("No line for " + element.getLabel());
+        return -1;
+    }
+}